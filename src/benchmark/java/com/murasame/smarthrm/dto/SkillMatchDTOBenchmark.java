@@ -0,0 +1,47 @@
+package com.murasame.smarthrm.dto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * SkillMatchDTO 技能需求解析/归一化基准
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkillMatchDTOBenchmark {
+
+	// 需求中的技能条数
+	@Param({"2", "8", "32"})
+	private int skillCount;
+
+	private String requiredSkills;
+	private List<SkillMatchDTO> parsed;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		requiredSkills = IntStream.range(0, skillCount)
+				.mapToObj(i -> (random.nextInt(50) + 1) + ":" + (random.nextInt(5) + 1))
+				.collect(Collectors.joining(","));
+		parsed = SkillMatchDTO.fromString(requiredSkills);
+	}
+
+	@Benchmark
+	public List<SkillMatchDTO> fromString() {
+		return SkillMatchDTO.fromString(requiredSkills);
+	}
+
+	@Benchmark
+	public String normalizeToKey() {
+		return SkillMatchDTO.toKey(SkillMatchDTO.normalize(parsed));
+	}
+}
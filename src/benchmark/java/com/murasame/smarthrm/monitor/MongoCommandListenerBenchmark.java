@@ -0,0 +1,101 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.murasame.smarthrm.config.SlowQueryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo命令监听器开销基准：一条find命令的开始/成功事件
+ * separate 为三个监听器各自注册（每个监听器各自解析集合名与调用栈），
+ * composite 为经组合监听器分发（共用一次解析）；调用栈深度模拟Web请求中的Spring调用链
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MongoCommandListenerBenchmark {
+
+	// 发起命令时的调用栈深度
+	@Param({"32", "128"})
+	private int stackDepth;
+
+	private List<CommandListener> separate;
+	private List<CommandListener> composite;
+	private ConnectionDescription connection;
+	private BsonDocument command;
+	private BsonDocument response;
+	private MongoRequestStats.Scope scope;
+	private int requestId;
+
+	@Setup
+	public void setUp() {
+		SlowQueryProperties properties = new SlowQueryProperties();
+		properties.setExplainEnabled(false);
+		separate = List.of(
+				new MongoCommandMetricsListener(new SimpleMeterRegistry(), true),
+				new MongoRequestStatsListener(),
+				new SlowQueryRecorder(properties, new DefaultListableBeanFactory().getBeanProvider(MongoTemplate.class)));
+		composite = List.of(new CompositeCommandListener(List.of(
+				new MongoCommandMetricsListener(new SimpleMeterRegistry(), true),
+				new MongoRequestStatsListener(),
+				new SlowQueryRecorder(properties, new DefaultListableBeanFactory().getBeanProvider(MongoTemplate.class)))));
+		connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+		command = new BsonDocument("find", new BsonString("employee"))
+				.append("filter", new BsonDocument("depId", new BsonInt32(3)))
+				.append("$db", new BsonString("smarthrm"));
+		response = new BsonDocument("cursor", new BsonDocument("firstBatch", new BsonArray()))
+				.append("ok", new BsonInt32(1));
+		// 请求统计只在有作用域时生效
+		scope = MongoRequestStats.open();
+	}
+
+	@TearDown
+	public void tearDown() {
+		scope.close();
+	}
+
+	@Benchmark
+	public int separate() {
+		return atDepth(stackDepth, separate);
+	}
+
+	@Benchmark
+	public int composite() {
+		return atDepth(stackDepth, composite);
+	}
+
+	private int atDepth(int depth, List<CommandListener> listeners) {
+		if (depth > 0) {
+			return atDepth(depth - 1, listeners);
+		}
+		int id = ++requestId;
+		CommandStartedEvent started = new CommandStartedEvent(null, id, id, connection, "smarthrm", "find", command);
+		CommandSucceededEvent succeeded = new CommandSucceededEvent(null, id, id, connection, "smarthrm", "find",
+				response, 1_000_000L);
+		for (CommandListener listener : listeners) {
+			listener.commandStarted(started);
+		}
+		for (CommandListener listener : listeners) {
+			listener.commandSucceeded(succeeded);
+		}
+		return id;
+	}
+}
@@ -0,0 +1,79 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dto.DepartmentDTO;
+import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.entity.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DepartmentServiceImpl.convertToDTO 部门→DTO转换基准
+ * EmployeeDao以内存实现替代，只测量转换本身的CPU开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DepartmentServiceImplBenchmark {
+
+    // 部门员工数
+    @Param({"10", "100", "1000"})
+    private int employeeCount;
+
+    private DepartmentServiceImpl service;
+    private Department department;
+
+    @Setup
+    public void setUp() {
+        Map<Integer, Employee> employees = new HashMap<>();
+        List<Integer> empIds = new ArrayList<>();
+        for (int id = 1; id <= employeeCount; id++) {
+            Employee emp = new Employee();
+            emp.set_id(id);
+            emp.setEmpName("emp-" + id);
+            emp.setDepId(1);
+            employees.put(id, emp);
+            empIds.add(id);
+        }
+
+        service = new DepartmentServiceImpl();
+        ReflectionTestUtils.setField(service, "employeeDao", new EmployeeDao(null, null) {
+            @Override
+            public Employee findById(Integer id) {
+                return employees.get(id);
+            }
+
+            @Override
+            public List<Employee> findByIds(List<Integer> ids) {
+                List<Employee> result = new ArrayList<>(ids.size());
+                for (Integer id : ids) {
+                    Employee emp = employees.get(id);
+                    if (emp != null) {
+                        result.add(emp);
+                    }
+                }
+                return result;
+            }
+        });
+
+        department = new Department();
+        department.setId(1);
+        department.setDepName("研发部");
+        department.setManagerId(1);
+        department.setEmpIds(empIds);
+    }
+
+    @Benchmark
+    public DepartmentDTO convertToDTO() {
+        return service.convertToDTO(department);
+    }
+}
@@ -0,0 +1,67 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.dao.SkillDao;
+import com.murasame.smarthrm.dto.EmployeeDTO;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.Skill;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * EmployeeServiceImpl.updateEmployeeSkills 技能字符串解析、校验与去重基准
+ * SkillDao以内存实现替代，只测量CPU侧开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeServiceImplBenchmark {
+
+    // 技能字符串中的条目数（含重复技能）
+    @Param({"4", "16", "64"})
+    private int skillCount;
+
+    private EmployeeServiceImpl service;
+    private EmployeeDTO dto;
+
+    @Setup
+    public void setUp() {
+        Map<Integer, Skill> skills = new HashMap<>();
+        for (int id = 1; id <= 50; id++) {
+            Skill skill = new Skill();
+            skill.set_id(id);
+            skill.setSkillName("skill-" + id);
+            skills.put(id, skill);
+        }
+        service = new EmployeeServiceImpl();
+        ReflectionTestUtils.setField(service, "skillDao", new SkillDao() {
+            @Override
+            public Skill findById(Integer skillId) {
+                return skills.get(skillId);
+            }
+        });
+
+        Random random = new Random(42);
+        dto = new EmployeeDTO();
+        dto.setSkills(IntStream.range(0, skillCount)
+                .mapToObj(i -> (random.nextInt(50) + 1) + ":" + (random.nextInt(5) + 1))
+                .collect(Collectors.joining(",")));
+    }
+
+    @Benchmark
+    public List<Employee.SkillLevel> updateEmployeeSkills() {
+        Employee employee = new Employee();
+        service.updateEmployeeSkills(employee, dto);
+        return employee.getSkillList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.entity.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ProjectMatchServiceImpl 技能提取/技能需求解析基准
+ * 两个方法均不访问数据库，依赖以null构造
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectMatchServiceImplBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int skillCount;
+
+    private ProjectMatchServiceImpl service;
+    private Employee employee;
+    private String skillRequirements;
+
+    @Setup
+    public void setUp() {
+        service = new ProjectMatchServiceImpl(null, null, null, null, null, null, null, null, null);
+
+        Random random = new Random(42);
+        List<Employee.SkillLevel> skillList = new ArrayList<>();
+        for (int i = 0; i < skillCount; i++) {
+            skillList.add(new Employee.SkillLevel(random.nextInt(50) + 1, random.nextInt(5) + 1));
+        }
+        employee = new Employee();
+        employee.setSkillList(skillList);
+
+        skillRequirements = IntStream.range(0, skillCount)
+                .mapToObj(i -> " " + (random.nextInt(50) + 1) + ":" + (random.nextInt(5) + 1))
+                .collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public List<Integer> getEmployeeSkills() {
+        return service.getEmployeeSkills(employee);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> parseSkillRequirements() {
+        return service.parseSkillRequirements(skillRequirements);
+    }
+}
@@ -1,11 +1,14 @@
 package com.murasame.smarthrm;
 
+import com.murasame.smarthrm.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 import java.time.LocalDateTime;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class SmartHrmApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,184 @@
+package com.murasame.smarthrm.archive;
+
+import com.murasame.smarthrm.config.ArchiveProperties;
+import com.murasame.smarthrm.dao.ProjectDao;
+import com.murasame.smarthrm.dao.TaskDao;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.graph.OrgGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 项目冷热分离归档器
+ * 后台单线程定期将热集合中已归档（projStatus=1）的项目及其任务分批移入冷集合 ProjectArchive / TaskArchive，
+ * 热集合只保留进行中的项目，全量扫描项目/任务的接口耗时不再随历史增长。
+ *
+ * 每批顺序：项目整文档覆盖写入冷集合 → 任务移入冷集合 → 从热集合删除仍为已归档状态的项目；
+ * 每一步都可重复执行，中途失败或节点崩溃时项目仍留在热集合，下次执行重新处理。
+ * 复制后被重新打开（projStatus改回0）的项目不会被删除，其任务与冷集合副本移回/清除；
+ * 复制任务与删除项目之间新建的任务在删除项目后再移动一次
+ */
+public class ProjectArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectArchiver.class);
+
+    private final ProjectDao projectDao;
+    private final TaskDao taskDao;
+    private final OrgGraph orgGraph;
+    private final ArchiveProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "project-archiver");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong archivedProjects = new AtomicLong();
+    private final AtomicLong archivedTasks = new AtomicLong();
+    private volatile boolean stopping;
+    private volatile Instant lastRunAt;
+    private volatile long lastRunMillis;
+    private volatile int lastRunProjects;
+    private volatile String lastError;
+
+    public ProjectArchiver(ProjectDao projectDao, TaskDao taskDao, OrgGraph orgGraph, ArchiveProperties properties) {
+        this.projectDao = projectDao;
+        this.taskDao = taskDao;
+        this.orgGraph = orgGraph;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // 单线程调度器：建索引先于首次归档执行
+        scheduler.execute(this::ensureIndexes);
+        scheduler.scheduleWithFixedDelay(this::runScheduled, properties.getInitialDelay().toMillis(),
+                Math.max(1000, properties.getInterval().toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        stopping = true;
+        scheduler.shutdownNow();
+    }
+
+    private void ensureIndexes() {
+        try {
+            projectDao.ensureArchiveIndexes();
+            taskDao.ensureArchiveIndexes();
+        } catch (RuntimeException e) {
+            // 缺少索引只影响冷集合查询速度，归档照常执行
+            lastError = e.getMessage();
+            log.error("项目归档：创建冷集合索引失败，下次启动时重试", e);
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            archiveNow();
+        } catch (RuntimeException e) {
+            // 异常不能抛出，否则后续调度被取消
+            lastError = e.getMessage();
+            log.error("项目归档执行失败，下次调度重试", e);
+        }
+    }
+
+    /**
+     * 立即执行一轮归档：分批处理直至热集合中没有已归档项目
+     * @return 本轮移入冷集合的项目数
+     */
+    public synchronized int archiveNow() {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int total = 0;
+        while (!stopping) {
+            List<Project> projects = projectDao.findArchivable(batchSize);
+            if (projects.isEmpty()) {
+                break;
+            }
+            int moved = archiveBatch(projects);
+            total += moved;
+            if (projects.size() < batchSize || moved == 0) {
+                break;
+            }
+        }
+        lastRunAt = Instant.now();
+        lastRunMillis = System.currentTimeMillis() - start;
+        lastRunProjects = total;
+        lastError = null;
+        if (total > 0) {
+            log.info("项目归档完成：移入冷集合 {} 个项目，耗时 {}ms", total, lastRunMillis);
+        }
+        return total;
+    }
+
+    private int archiveBatch(List<Project> projects) {
+        List<Integer> ids = projects.stream().map(Project::getId).toList();
+        projectDao.saveToArchive(projects);
+        int tasks = taskDao.moveByProjIds(ids, true);
+        Set<Integer> archived = projectDao.removeArchived(ids);
+
+        List<Integer> reopened = new ArrayList<>();
+        for (Integer id : ids) {
+            if (!archived.contains(id)) reopened.add(id);
+        }
+        if (!reopened.isEmpty()) {
+            taskDao.moveByProjIds(reopened, false);
+            projectDao.deleteFromArchive(reopened);
+            log.info("项目归档：{} 个项目在复制期间被重新打开，保留在热集合 {}", reopened.size(), reopened);
+        }
+        tasks += taskDao.moveByProjIds(archived, true);
+
+        // 单节点未开启变更流时也能及时从内存关系图中移除
+        orgGraph.projectsDeleted(archived);
+        archivedProjects.addAndGet(archived.size());
+        archivedTasks.addAndGet(tasks);
+        return archived.size();
+    }
+
+    /**
+     * 将冷集合中的项目及其任务恢复到热集合，项目状态置为未归档
+     * @param projId 项目ID
+     * @return 恢复后的项目，冷集合中不存在时返回null
+     */
+    public synchronized Project restore(Integer projId) {
+        Project project = projectDao.restoreFromArchive(projId);
+        if (project == null) {
+            return null;
+        }
+        int tasks = taskDao.moveByProjIds(List.of(projId), false);
+        orgGraph.projectSaved(project);
+        taskDao.findByProjIds(List.of(projId), false).forEach(orgGraph::taskSaved);
+        log.info("项目 {} 已从冷集合恢复，任务 {} 个", projId, tasks);
+        return project;
+    }
+
+    /**
+     * 归档运行状态与冷集合规模
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("interval", properties.getInterval().toString());
+        status.put("batchSize", properties.getBatchSize());
+        status.put("lastRunAt", lastRunAt);
+        status.put("lastRunMillis", lastRunMillis);
+        status.put("lastRunProjects", lastRunProjects);
+        status.put("lastError", lastError);
+        status.put("movedProjects", archivedProjects.get());
+        status.put("movedTasks", archivedTasks.get());
+        status.put("coldProjects", projectDao.countArchived());
+        status.put("coldTasks", taskDao.countArchived());
+        return status;
+    }
+}
@@ -0,0 +1,30 @@
+package com.murasame.smarthrm.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+
+/**
+ * 变更流缓存失效处理器
+ * {@link ChangeStreamInvalidator} 将订阅集合上的每个变更事件分发给声明了该集合的处理器，
+ * 处理器按文档ID精确失效本节点缓存；新增缓存时实现本接口并注册为Bean即可
+ */
+public interface CacheInvalidationHandler {
+
+    /**
+     * 是否处理指定集合的变更
+     * @param collection 集合名
+     */
+    boolean supports(String collection);
+
+    /**
+     * 处理单个变更事件（insert/update/replace/delete）
+     * @param collection 集合名
+     * @param event 变更事件：documentKey为文档_id；员工事件的fullDocument只含skillList
+     */
+    void onChange(String collection, ChangeStreamDocument<Document> event);
+
+    /**
+     * 全部失效（集合被删除/重命名、续传令牌过期导致事件丢失时调用）
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,16 @@
+package com.murasame.smarthrm.cache;
+
+/**
+ * Spring Cache 缓存名称
+ */
+public final class CacheNames {
+
+    // 技能：key为技能ID，全量列表key为 "all"
+    public static final String SKILLS = "skills";
+
+    // 部门全量列表：key为 "all"
+    public static final String DEPARTMENTS = "departments";
+
+    private CacheNames() {
+    }
+}
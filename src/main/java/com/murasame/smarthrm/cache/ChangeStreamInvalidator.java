@@ -0,0 +1,271 @@
+package com.murasame.smarthrm.cache;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.murasame.smarthrm.config.CacheInvalidationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于MongoDB变更流的跨节点缓存失效
+ * 每个节点订阅库级变更流（只匹配配置的集合），把insert/update/replace/delete事件按文档ID分发给
+ * {@link CacheInvalidationHandler} 精确失效本节点缓存，不依赖TTL；
+ * 续传令牌按节点保存在 cache_resume_tokens 集合，重启后从上次位置继续，期间其他节点的写操作不会漏失效；
+ * 令牌超出oplog保留窗口或收到drop/rename等事件时，所有处理器全部失效后从当前位置重新订阅
+ */
+public class ChangeStreamInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamInvalidator.class);
+
+    public static final String TOKEN_COLLECTION = "cache_resume_tokens";
+
+    // 变更流错误码：令牌对应的oplog已被覆盖 / 变更流不可恢复
+    private static final Set<Integer> HISTORY_LOST = Set.of(286, 280);
+    // 非副本集部署不支持变更流
+    private static final int NOT_REPLICA_SET = 40573;
+
+    private final MongoTemplate mongoTemplate;
+    private final List<CacheInvalidationHandler> handlers;
+    private final CacheInvalidationProperties properties;
+    @Getter
+    private final String nodeId;
+    private final Map<String, Counter> eventCounters = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cache-invalidation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile boolean stopping;
+    private volatile BsonDocument resumeToken;
+    private long tokenSavedAt;
+
+    @Getter
+    private volatile boolean running;
+    @Getter
+    private volatile Instant lastEventAt;
+    @Getter
+    private volatile String lastError;
+
+    public ChangeStreamInvalidator(MongoTemplate mongoTemplate, List<CacheInvalidationHandler> handlers,
+                                   CacheInvalidationProperties properties, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.handlers = handlers;
+        this.properties = properties;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId() : hostName();
+        for (String collection : properties.getCollections()) {
+            eventCounters.put(collection, Counter.builder("smarthrm.cache.invalidation.events")
+                    .tag("collection", collection)
+                    .register(meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.submit(this::run);
+    }
+
+    /**
+     * 停止订阅并保存最后的续传令牌
+     */
+    public void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+        try {
+            if (executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                saveToken();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        resumeToken = loadToken();
+        if (resumeToken == null) {
+            log.info("缓存失效订阅：节点 {} 无续传令牌，从当前位置开始", nodeId);
+        }
+        while (!stopping) {
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == NOT_REPLICA_SET) {
+                    lastError = "MongoDB非副本集部署，不支持变更流";
+                    log.warn("缓存失效订阅已停止：{}", lastError);
+                    return;
+                }
+                if (HISTORY_LOST.contains(e.getErrorCode())) {
+                    log.warn("续传令牌已失效（{}），全部缓存失效后从当前位置重新订阅", e.getErrorMessage());
+                    restartFromNow();
+                    continue;
+                }
+                failed(e);
+            } catch (RuntimeException e) {
+                if (stopping) {
+                    return;
+                }
+                failed(e);
+            }
+        }
+    }
+
+    private void watch() {
+        List<Bson> pipeline = List.of(
+                new Document("$match", new Document("ns.coll", new Document("$in", properties.getCollections()))),
+                // 事件只保留分发所需字段；员工回查的完整文档只保留技能列表
+                new Document("$project", new Document("operationType", 1)
+                        .append("ns", 1)
+                        .append("documentKey", 1)
+                        .append("fullDocument.skillList", 1)));
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb().watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            running = true;
+            lastError = null;
+            log.info("缓存失效订阅已启动：节点 {}，集合 {}", nodeId, properties.getCollections());
+            while (!stopping) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    if (!dispatch(event)) {
+                        // invalidate事件后游标关闭，需从当前位置重新订阅
+                        restartFromNow();
+                        return;
+                    }
+                }
+                // 无事件时游标也会推进令牌（postBatchResumeToken），避免重启后重放空闲期
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                }
+                if (System.currentTimeMillis() - tokenSavedAt >= properties.getTokenSaveInterval().toMillis()) {
+                    saveToken();
+                }
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * 分发单个事件
+     * @return 变更流仍然有效返回true，收到invalidate事件返回false
+     */
+    private boolean dispatch(ChangeStreamDocument<Document> event) {
+        lastEventAt = Instant.now();
+        OperationType type = event.getOperationType();
+        String collection = event.getNamespace() == null ? null : event.getNamespace().getCollectionName();
+        switch (type) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                Counter counter = eventCounters.get(collection);
+                if (counter != null) {
+                    counter.increment();
+                }
+                for (CacheInvalidationHandler handler : handlers) {
+                    if (handler.supports(collection)) {
+                        handler.onChange(collection, event);
+                    }
+                }
+                return true;
+            }
+            case INVALIDATE -> {
+                invalidateAll();
+                return false;
+            }
+            default -> {
+                // drop/rename/dropDatabase等：无法得知受影响的文档
+                log.info("集合 {} 发生 {}，全部缓存失效", collection, type.getValue());
+                invalidateAll();
+                return true;
+            }
+        }
+    }
+
+    private void restartFromNow() {
+        invalidateAll();
+        resumeToken = null;
+        mongoTemplate.getCollection(TOKEN_COLLECTION).deleteOne(new Document("_id", nodeId));
+    }
+
+    private void invalidateAll() {
+        for (CacheInvalidationHandler handler : handlers) {
+            handler.invalidateAll();
+        }
+    }
+
+    /**
+     * 连接中断等可恢复错误：保留令牌，等待后从断点重连
+     */
+    private void failed(RuntimeException e) {
+        lastError = e.getMessage();
+        log.warn("缓存失效订阅中断，{}ms后从续传令牌重连", properties.getRetryDelay().toMillis(), e);
+        try {
+            TimeUnit.MILLISECONDS.sleep(properties.getRetryDelay().toMillis());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    private BsonDocument loadToken() {
+        Document saved = mongoTemplate.getCollection(TOKEN_COLLECTION)
+                .find(new Document("_id", nodeId))
+                .first();
+        Document token = saved == null ? null : saved.get("token", Document.class);
+        return token == null ? null
+                : token.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    private void saveToken() {
+        BsonDocument token = resumeToken;
+        tokenSavedAt = System.currentTimeMillis();
+        if (token == null) {
+            return;
+        }
+        MongoCollection<Document> collection = mongoTemplate.getCollection(TOKEN_COLLECTION);
+        collection.replaceOne(new Document("_id", nodeId),
+                new Document("_id", nodeId).append("token", token).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.murasame.smarthrm.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参考数据缓存（技能、部门列表）定期过期
+ * 未开启跨节点缓存失效时，其他节点（或直接改库）的写操作无法通知本节点，
+ * 后台单线程每隔 ttl 清空一次参考数据缓存，过期数据最多保留 ttl
+ */
+public class ReferenceCacheExpiry {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceCacheExpiry.class);
+
+    private final ReferenceCaches referenceCaches;
+    private final Duration ttl;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "reference-cache-expiry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ReferenceCacheExpiry(ReferenceCaches referenceCaches, Duration ttl) {
+        this.referenceCaches = referenceCaches;
+        this.ttl = ttl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long millis = Math.max(1000, ttl.toMillis());
+        scheduler.scheduleWithFixedDelay(this::expire, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void expire() {
+        try {
+            referenceCaches.invalidateAll();
+        } catch (RuntimeException e) {
+            // 异常不能抛出，否则后续调度被取消
+            log.error("参考数据缓存过期清理失败", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.murasame.smarthrm.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * 参考数据缓存（技能、部门列表）的失效入口
+ * 本节点写操作后直接调用，其他节点的写操作经变更流到达后同样按ID失效
+ */
+@Component
+public class ReferenceCaches implements CacheInvalidationHandler {
+
+    private final CacheManager cacheManager;
+
+    public ReferenceCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 失效单个技能及技能全量列表
+     * @param skillId 技能ID
+     */
+    public void evictSkill(Integer skillId) {
+        Cache cache = cacheManager.getCache(CacheNames.SKILLS);
+        if (cache != null) {
+            cache.evict(skillId);
+            cache.evict("all");
+        }
+    }
+
+    /**
+     * 失效部门全量列表
+     */
+    public void evictDepartments() {
+        Cache cache = cacheManager.getCache(CacheNames.DEPARTMENTS);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public boolean supports(String collection) {
+        return "Skill".equals(collection) || "Department".equals(collection);
+    }
+
+    @Override
+    public void onChange(String collection, ChangeStreamDocument<Document> event) {
+        if ("Department".equals(collection)) {
+            evictDepartments();
+            return;
+        }
+        BsonValue id = event.getDocumentKey() == null ? null : event.getDocumentKey().get("_id");
+        if (id != null && id.isNumber()) {
+            evictSkill(id.asNumber().intValue());
+        } else {
+            invalidateSkills();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidateSkills();
+        evictDepartments();
+    }
+
+    private void invalidateSkills() {
+        Cache cache = cacheManager.getCache(CacheNames.SKILLS);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.murasame.smarthrm.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.murasame.smarthrm.config.MongoConversionConfig;
+import com.murasame.smarthrm.dto.SkillMatchDTO;
+import com.murasame.smarthrm.entity.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 技能匹配结果缓存
+ * key为归一化后的技能需求（如 "1:4,2:5"），按结果条数计权重，总权重有界，超出时按LRU淘汰；
+ * 维护 技能ID→key 与 员工ID→key 两个反向索引，员工写操作只精确失效受影响的条目：
+ * - 技能新增/熟练度变化：失效需求中包含这些技能的条目；
+ * - 员工其他字段变化或删除：失效结果中包含该员工的条目
+ * 其他节点的员工写操作经变更流（{@link ChangeStreamInvalidator}）到达后按相同规则失效。
+ * 缓存保存员工的快照，每次命中返回新的快照副本（列表不可变），调用方修改返回值不会污染缓存
+ */
+@Component
+public class SkillMatchCache implements CacheInvalidationHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(SkillMatchCache.class);
+
+    private final long maxWeight;
+
+    // accessOrder=true：迭代顺序即LRU顺序
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Integer, Set<String>> keysBySkill = new HashMap<>();
+    private final Map<Integer, Set<String>> keysByEmployee = new HashMap<>();
+    private long totalWeight;
+    // 每次失效递增，用于丢弃失效发生前开始加载的结果
+    private long epoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public SkillMatchCache(@Value("${smarthrm.skill-match-cache.max-weight:50000}") long maxWeight,
+                           MeterRegistry registry) {
+        this.maxWeight = maxWeight;
+        FunctionCounter.builder("smarthrm.skillmatch.cache.hits", this, c -> c.stat(0)).register(registry);
+        FunctionCounter.builder("smarthrm.skillmatch.cache.misses", this, c -> c.stat(1)).register(registry);
+        FunctionCounter.builder("smarthrm.skillmatch.cache.evictions", this, c -> c.stat(2)).register(registry);
+        FunctionCounter.builder("smarthrm.skillmatch.cache.invalidations", this, c -> c.stat(3)).register(registry);
+        Gauge.builder("smarthrm.skillmatch.cache.hit.ratio", this, SkillMatchCache::hitRatio).register(registry);
+        Gauge.builder("smarthrm.skillmatch.cache.entries", this, c -> c.stat(4)).register(registry);
+        Gauge.builder("smarthrm.skillmatch.cache.weight", this, c -> c.stat(5)).register(registry);
+    }
+
+    /**
+     * 查询缓存
+     * @param key 归一化需求key
+     * @return 命中返回结果的不可变副本，未命中返回null
+     */
+    public List<Employee> get(String key) {
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        // 快照本身不会被修改，复制放在锁外
+        return snapshot(entry.result);
+    }
+
+    /**
+     * 获取当前失效版本号（加载前调用，写入时传回）
+     */
+    public synchronized long currentEpoch() {
+        return epoch;
+    }
+
+    /**
+     * 写入缓存；若加载期间发生过失效，则放弃写入以免缓存脏数据
+     * @param key 归一化需求key
+     * @param reqs 归一化后的技能需求
+     * @param result 查询结果（写入时复制为快照，之后对其修改不影响缓存）
+     * @param loadEpoch 加载开始前获取的版本号
+     */
+    public void put(String key, List<SkillMatchDTO> reqs, List<Employee> result, long loadEpoch) {
+        long weight = 1L + result.size();
+        if (weight > maxWeight) {
+            return;
+        }
+        List<Employee> copy = snapshot(result);
+        synchronized (this) {
+            put(key, reqs, copy, weight, loadEpoch);
+        }
+    }
+
+    private void put(String key, List<SkillMatchDTO> reqs, List<Employee> result, long weight, long loadEpoch) {
+        if (loadEpoch != epoch) {
+            return;
+        }
+        removeEntry(key);
+
+        CacheEntry entry = new CacheEntry(key, result, weight, new HashSet<>(), new HashSet<>());
+        for (SkillMatchDTO req : reqs) {
+            entry.skillIds.add(req.getSkillId());
+            keysBySkill.computeIfAbsent(req.getSkillId(), k -> new HashSet<>()).add(key);
+        }
+        for (Employee emp : result) {
+            entry.empIds.add(emp.get_id());
+            keysByEmployee.computeIfAbsent(emp.get_id(), k -> new HashSet<>()).add(key);
+        }
+        entries.put(key, entry);
+        totalWeight += weight;
+
+        // 超出容量时按LRU淘汰
+        Iterator<CacheEntry> it = entries.values().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            CacheEntry eldest = it.next();
+            if (eldest == entry) {
+                continue;
+            }
+            it.remove();
+            unindex(eldest);
+            evictions++;
+        }
+    }
+
+    /**
+     * 失效需求中包含任一指定技能的条目（员工技能新增/熟练度变化时调用）
+     * @param skillIds 发生变化的技能ID
+     */
+    public synchronized void invalidateSkills(Collection<Integer> skillIds) {
+        if (skillIds == null || skillIds.isEmpty()) {
+            return;
+        }
+        epoch++;
+        int removed = 0;
+        for (Integer skillId : skillIds) {
+            Set<String> keys = keysBySkill.get(skillId);
+            if (keys == null) {
+                continue;
+            }
+            for (String key : List.copyOf(keys)) {
+                removed += removeEntry(key) ? 1 : 0;
+            }
+        }
+        invalidations += removed;
+        log.debug("技能 {} 变化，失效技能匹配缓存 {} 条", skillIds, removed);
+    }
+
+    /**
+     * 失效结果中包含任一指定员工的条目（员工信息变化/删除时调用）
+     * @param empIds 发生变化的员工ID
+     */
+    public synchronized void invalidateEmployees(Collection<Integer> empIds) {
+        if (empIds == null || empIds.isEmpty()) {
+            return;
+        }
+        epoch++;
+        int removed = 0;
+        for (Integer empId : empIds) {
+            Set<String> keys = keysByEmployee.get(empId);
+            if (keys == null) {
+                continue;
+            }
+            for (String key : List.copyOf(keys)) {
+                removed += removeEntry(key) ? 1 : 0;
+            }
+        }
+        invalidations += removed;
+        log.debug("员工 {} 变化，失效技能匹配缓存 {} 条", empIds, removed);
+    }
+
+    /**
+     * 清空缓存（无法确定受影响员工的批量写操作时调用）
+     */
+    @Override
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidations += entries.size();
+        entries.clear();
+        keysBySkill.clear();
+        keysByEmployee.clear();
+        totalWeight = 0;
+    }
+
+    @Override
+    public boolean supports(String collection) {
+        return "Employee".equals(collection);
+    }
+
+    /**
+     * 员工变更事件：失效包含该员工的条目；新增/更新时再失效其当前技能涉及的条目
+     * （无法得知变更前的技能，按当前技能全部失效，覆盖技能新增与熟练度提升）
+     */
+    @Override
+    public void onChange(String collection, ChangeStreamDocument<Document> event) {
+        BsonValue id = event.getDocumentKey() == null ? null : event.getDocumentKey().get("_id");
+        if (id == null || !id.isNumber()) {
+            invalidateAll();
+            return;
+        }
+        invalidateEmployees(List.of(id.asNumber().intValue()));
+
+        Document employee = event.getFullDocument();
+        List<?> skillList = employee == null ? null : employee.getList("skillList", Object.class);
+        if (skillList != null && !skillList.isEmpty()) {
+            MongoConversionConfig.SkillLevelReadConverter converter = new MongoConversionConfig.SkillLevelReadConverter();
+            Set<Integer> skillIds = new HashSet<>();
+            for (Object item : skillList) {
+                if (item instanceof Document skill) {
+                    skillIds.add(converter.convert(skill).getSkillId());
+                }
+            }
+            invalidateSkills(skillIds);
+        }
+    }
+
+    private static List<Employee> snapshot(List<Employee> employees) {
+        return employees.stream().map(SkillMatchCache::snapshot).toList();
+    }
+
+    /**
+     * 员工快照：逐字段复制，嵌套的技能/项目/培训列表复制为不可变列表
+     */
+    private static Employee snapshot(Employee employee) {
+        Employee copy = new Employee();
+        copy.set_id(employee.get_id());
+        copy.setEmpName(employee.getEmpName());
+        copy.setDepId(employee.getDepId());
+        copy.setJoinDate(employee.getJoinDate());
+        copy.setDeletedAt(employee.getDeletedAt());
+        copy.setDeptName(employee.getDeptName());
+        copy.setDeptType(employee.getDeptType());
+        copy.setSkillList(copyList(employee.getSkillList(),
+                s -> new Employee.SkillLevel(s.getSkillId(), s.getProficiency())));
+        copy.setProjects(copyList(employee.getProjects(), p -> new Employee.ProjectRef(p.getProjId())));
+        copy.setTrainingList(copyList(employee.getTrainingList(), t -> new Employee.TrainingRef(t.getTrainId())));
+        return copy;
+    }
+
+    private static <T> List<T> copyList(List<T> list, UnaryOperator<T> copier) {
+        if (list == null) {
+            return null;
+        }
+        return list.stream().map(item -> item == null ? null : copier.apply(item)).toList();
+    }
+
+    private boolean removeEntry(String key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unindex(entry);
+        return true;
+    }
+
+    private void unindex(CacheEntry entry) {
+        totalWeight -= entry.weight;
+        for (Integer skillId : entry.skillIds) {
+            removeIndex(keysBySkill, skillId, entry.key);
+        }
+        for (Integer empId : entry.empIds) {
+            removeIndex(keysByEmployee, empId, entry.key);
+        }
+    }
+
+    private static void removeIndex(Map<Integer, Set<String>> index, Integer id, String key) {
+        Set<String> keys = index.get(id);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                index.remove(id);
+            }
+        }
+    }
+
+    private synchronized double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private synchronized double stat(int index) {
+        return switch (index) {
+            case 0 -> hits;
+            case 1 -> misses;
+            case 2 -> evictions;
+            case 3 -> invalidations;
+            case 4 -> entries.size();
+            default -> totalWeight;
+        };
+    }
+
+    private record CacheEntry(String key, List<Employee> result, long weight,
+                              Set<Integer> skillIds, Set<Integer> empIds) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.murasame.smarthrm.cleanup;
+
+import com.murasame.smarthrm.config.CleanupProperties;
+import com.murasame.smarthrm.dao.DepartmentDao;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.PendingCleanupDao;
+import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.PendingCleanup;
+import com.murasame.smarthrm.service.DepartmentService;
+import com.murasame.smarthrm.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 软删除墓碑压缩器
+ * 员工/部门删除时只写墓碑（deletedAt）并登记 PendingCleanup，请求耗时与引用数量无关；
+ * 后台单线程按墓碑时间先后逐条抢占记录，清理项目、培训、任务、部门中的引用后物理删除，按 maxPerSecond 限流。
+ *
+ * 崩溃安全：每条记录以租约抢占，节点崩溃后租约过期由其他节点接管；各清理步骤可重复执行，物理删除在最后；
+ * 定期扫描墓碑补登缺失的待清理记录（墓碑写入后、登记前崩溃的情况）
+ */
+public class TombstoneCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstoneCompactor.class);
+
+    private final PendingCleanupDao pendingCleanupDao;
+    private final EmployeeDao employeeDao;
+    private final DepartmentDao departmentDao;
+    private final EmployeeService employeeService;
+    private final DepartmentService departmentService;
+    private final CleanupProperties properties;
+    private final String nodeId;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tombstone-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong references = new AtomicLong();
+    private volatile boolean stopping;
+    private volatile long lastSweepMillis;
+    private volatile Instant lastRunAt;
+    private volatile int lastRunCleanups;
+    private volatile String lastError;
+
+    public TombstoneCompactor(PendingCleanupDao pendingCleanupDao, EmployeeDao employeeDao, DepartmentDao departmentDao,
+                              EmployeeService employeeService, DepartmentService departmentService,
+                              CleanupProperties properties) {
+        this.pendingCleanupDao = pendingCleanupDao;
+        this.employeeDao = employeeDao;
+        this.departmentDao = departmentDao;
+        this.employeeService = employeeService;
+        this.departmentService = departmentService;
+        this.properties = properties;
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // 单线程调度器：建索引先于首次清理执行
+        scheduler.execute(this::ensureIndexes);
+        scheduler.scheduleWithFixedDelay(this::runScheduled, properties.getInitialDelay().toMillis(),
+                Math.max(1000, properties.getInterval().toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        stopping = true;
+        scheduler.shutdownNow();
+    }
+
+    private void ensureIndexes() {
+        try {
+            employeeDao.ensureSoftDeleteIndexes();
+            departmentDao.ensureSoftDeleteIndexes();
+        } catch (RuntimeException e) {
+            // 缺少墓碑索引只影响扫描速度，清理照常执行
+            lastError = e.getMessage();
+            log.error("软删除清理：创建墓碑索引失败，下次启动时重试", e);
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            if (System.currentTimeMillis() - lastSweepMillis >= properties.getSweepInterval().toMillis()) {
+                sweep();
+            }
+            compactNow();
+        } catch (RuntimeException e) {
+            // 异常不能抛出，否则后续调度被取消
+            lastError = e.getMessage();
+            log.error("软删除清理执行失败，下次调度重试", e);
+        }
+    }
+
+    /**
+     * 扫描墓碑（稀疏索引，只覆盖已删除文档），为缺少待清理记录的墓碑补登
+     * @return 补登的记录数
+     */
+    public synchronized int sweep() {
+        int enqueued = 0;
+        for (Employee employee : employeeDao.findDeleted()) {
+            if (pendingCleanupDao.enqueue(PendingCleanup.EMPLOYEE, employee.get_id(), employee.getDeletedAt())) {
+                enqueued++;
+            }
+        }
+        for (Department department : departmentDao.findDeleted()) {
+            if (pendingCleanupDao.enqueue(PendingCleanup.DEPARTMENT, department.getId(), department.getDeletedAt())) {
+                enqueued++;
+            }
+        }
+        lastSweepMillis = System.currentTimeMillis();
+        if (enqueued > 0) {
+            log.warn("软删除清理：扫描墓碑补登 {} 条待清理记录", enqueued);
+        }
+        return enqueued;
+    }
+
+    /**
+     * 立即执行一轮清理：逐条抢占直至没有可执行的记录，按 maxPerSecond 限流
+     * @return 本轮完成的记录数
+     */
+    public synchronized int compactNow() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getMaxPerSecond());
+        int done = 0;
+        while (!stopping) {
+            long start = System.nanoTime();
+            PendingCleanup cleanup = pendingCleanupDao.claim(nodeId, properties.getLease());
+            if (cleanup == null) {
+                break;
+            }
+            if (process(cleanup)) {
+                done++;
+            }
+            long wait = intervalNanos - (System.nanoTime() - start);
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        lastRunAt = Instant.now();
+        lastRunCleanups = done;
+        if (done > 0) {
+            log.info("软删除清理完成：{} 条", done);
+        }
+        return done;
+    }
+
+    private boolean process(PendingCleanup cleanup) {
+        try {
+            long cleared = switch (cleanup.getKind()) {
+                case PendingCleanup.EMPLOYEE -> employeeService.cleanupDeletedEmployee(cleanup.getTargetId());
+                case PendingCleanup.DEPARTMENT -> departmentService.cleanupDeletedDepartment(cleanup.getTargetId());
+                default -> throw new IllegalArgumentException("未知的清理类型：" + cleanup.getKind());
+            };
+            pendingCleanupDao.complete(cleanup.get_id(), nodeId);
+            completed.incrementAndGet();
+            references.addAndGet(cleared);
+            return true;
+        } catch (RuntimeException e) {
+            lastError = cleanup.get_id() + ": " + e.getMessage();
+            pendingCleanupDao.fail(cleanup.get_id(), nodeId, e.getMessage(),
+                    Instant.now().plus(properties.getRetryBackoff()));
+            failed.incrementAndGet();
+            log.error("软删除清理 {} 失败（第 {} 次），{} 后重试", cleanup.get_id(), cleanup.getAttempts(),
+                    properties.getRetryBackoff(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 清理运行状态
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node", nodeId);
+        status.put("interval", properties.getInterval().toString());
+        status.put("maxPerSecond", properties.getMaxPerSecond());
+        status.put("lastRunAt", lastRunAt);
+        status.put("lastRunCleanups", lastRunCleanups);
+        status.put("lastSweepAt", lastSweepMillis == 0 ? null : Instant.ofEpochMilli(lastSweepMillis));
+        status.put("lastError", lastError);
+        status.put("completed", completed.get());
+        status.put("failed", failed.get());
+        status.put("references", references.get());
+        return status;
+    }
+}
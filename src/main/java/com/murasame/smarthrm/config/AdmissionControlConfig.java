@@ -0,0 +1,29 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.filter.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 准入控制配置类
+ * 注册AdmissionControlFilter，排在Spring Security过滤链之后：令牌桶按认证用户区分客户端，
+ * 须在安全上下文建立后才能取得用户（同一出口IP后的多个用户各自限流）；被拒绝的请求不再进入后续过滤器
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+}
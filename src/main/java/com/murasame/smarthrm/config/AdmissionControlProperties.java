@@ -0,0 +1,57 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 准入控制配置（前缀：smarthrm.admission）
+ * 为重查询接口配置并发上限、排队超时及按客户端的令牌桶限流，避免少数客户端拖垮MongoDB
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.admission")
+public class AdmissionControlProperties {
+
+    // 总开关
+    private boolean enabled = true;
+
+    // 识别客户端的请求头，仅当请求直接来自受信代理（trustedProxies）时采用；其他情况按认证用户或远端IP识别
+    private String clientIdHeader = "X-Client-Id";
+
+    // 受信代理的IP地址（精确匹配），为空时不信任任何客户端标识请求头
+    private List<String> trustedProxies = new ArrayList<>();
+
+    // 每条规则最多跟踪的客户端令牌桶数量，超出后先清理空闲桶，仍超出则按最近访问时间淘汰最久未访问的桶
+    private int maxTrackedClients = 10000;
+
+    // 规则列表，按顺序匹配，命中第一条即生效
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * 单条准入规则
+     */
+    @Data
+    public static class Rule {
+        // 规则名称（用于指标标签）
+        private String name;
+        // HTTP方法，为空则匹配所有方法
+        private String method;
+        // 路径（Ant风格）
+        private String path;
+        // 必须满足的请求参数，例如 pageSize=-1
+        private Map<String, String> params = new LinkedHashMap<>();
+        // 最大并发数，0表示不限制
+        private int maxConcurrent = 0;
+        // 并发已满时的最长排队时间，0表示不排队直接拒绝
+        private Duration queueTimeout = Duration.ZERO;
+        // 每个客户端每秒补充的令牌数，0表示不限流
+        private double ratePerSecond = 0;
+        // 令牌桶容量（突发量），0时取ratePerSecond向上取整
+        private int burst = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.archive.ProjectArchiver;
+import com.murasame.smarthrm.dao.ProjectDao;
+import com.murasame.smarthrm.dao.TaskDao;
+import com.murasame.smarthrm.graph.OrgGraph;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 项目归档配置类
+ * 已归档项目（projStatus=1）及其任务由 ProjectArchiver 在后台分批移入冷集合，状态见 /admin/archive
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ProjectArchiver projectArchiver(ProjectDao projectDao, TaskDao taskDao, OrgGraph orgGraph,
+                                           ArchiveProperties properties) {
+        return new ProjectArchiver(projectDao, taskDao, orgGraph, properties);
+    }
+}
@@ -0,0 +1,26 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 项目归档配置（前缀：smarthrm.archive）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.archive")
+public class ArchiveProperties {
+
+    // 总开关：后台定期将已归档项目及其任务移入冷集合
+    private boolean enabled = true;
+
+    // 启动完成后首次执行的延迟
+    private Duration initialDelay = Duration.ofMinutes(1);
+
+    // 两次执行之间的间隔（上次结束到下次开始）
+    private Duration interval = Duration.ofMinutes(10);
+
+    // 每批移动的项目数
+    private int batchSize = 200;
+}
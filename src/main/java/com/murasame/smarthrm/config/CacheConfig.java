@@ -0,0 +1,43 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.cache.CacheInvalidationHandler;
+import com.murasame.smarthrm.cache.ChangeStreamInvalidator;
+import com.murasame.smarthrm.cache.ReferenceCacheExpiry;
+import com.murasame.smarthrm.cache.ReferenceCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * 缓存配置类
+ * 启用Spring Cache（默认ConcurrentMap实现，缓存名见CacheNames），
+ * 多节点部署时开启 smarthrm.cache-invalidation，由变更流把其他节点的写操作同步为本节点的缓存失效；
+ * 未开启时技能/部门缓存按 reference-ttl 定期清空
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.cache-invalidation", name = "enabled", havingValue = "true")
+    public ChangeStreamInvalidator changeStreamInvalidator(MongoTemplate mongoTemplate,
+                                                           List<CacheInvalidationHandler> handlers,
+                                                           CacheInvalidationProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new ChangeStreamInvalidator(mongoTemplate, handlers, properties, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.cache-invalidation", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public ReferenceCacheExpiry referenceCacheExpiry(ReferenceCaches referenceCaches,
+                                                     CacheInvalidationProperties properties) {
+        return new ReferenceCacheExpiry(referenceCaches, properties.getReferenceTtl());
+    }
+}
@@ -0,0 +1,33 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 跨节点缓存失效配置（前缀：smarthrm.cache-invalidation）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.cache-invalidation")
+public class CacheInvalidationProperties {
+
+    // 总开关：需MongoDB副本集（单节点副本集即可），单机部署无需开启
+    private boolean enabled = false;
+
+    // 节点标识：每个节点各自保存续传令牌，为空时取主机名
+    private String nodeId;
+
+    // 订阅变更的集合
+    private List<String> collections = List.of("Employee", "Department", "Project", "Skill", "Training", "Task");
+
+    // 续传令牌落库间隔（重启后最多重放该时间窗内的事件，失效操作幂等）
+    private Duration tokenSaveInterval = Duration.ofSeconds(1);
+
+    // 连接中断后的重连间隔
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    // 未开启时技能/部门缓存的存活时间：定期整体清空，其他节点的写操作最多延迟该时间可见
+    private Duration referenceTtl = Duration.ofSeconds(60);
+}
@@ -0,0 +1,30 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.cleanup.TombstoneCompactor;
+import com.murasame.smarthrm.dao.DepartmentDao;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.PendingCleanupDao;
+import com.murasame.smarthrm.service.DepartmentService;
+import com.murasame.smarthrm.service.EmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 软删除清理配置类
+ * 员工/部门删除只写墓碑，引用由 TombstoneCompactor 在后台分批清理，状态见 /admin/cleanups
+ */
+@Configuration
+@EnableConfigurationProperties(CleanupProperties.class)
+public class CleanupConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TombstoneCompactor tombstoneCompactor(PendingCleanupDao pendingCleanupDao, EmployeeDao employeeDao,
+                                                 DepartmentDao departmentDao, EmployeeService employeeService,
+                                                 DepartmentService departmentService, CleanupProperties properties) {
+        return new TombstoneCompactor(pendingCleanupDao, employeeDao, departmentDao, employeeService,
+                departmentService, properties);
+    }
+}
@@ -0,0 +1,38 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 软删除后台清理配置（前缀：smarthrm.cleanup）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.cleanup")
+public class CleanupProperties {
+
+    // 总开关：后台清理已删除员工/部门在项目、培训、任务、部门中的引用；关闭后删除仍只写墓碑
+    private boolean enabled = true;
+
+    // 启动完成后首次执行的延迟
+    private Duration initialDelay = Duration.ofSeconds(30);
+
+    // 两轮清理之间的间隔（上轮结束到下轮开始）
+    private Duration interval = Duration.ofSeconds(5);
+
+    // 扫描墓碑补登待清理记录的间隔（墓碑已写入但登记前节点崩溃的情况）
+    private Duration sweepInterval = Duration.ofMinutes(10);
+
+    // 每秒最多清理的记录数（限流，避免压满数据库）
+    private int maxPerSecond = 20;
+
+    // 抢占租约时长，节点崩溃后超过该时长由其他节点接管
+    private Duration lease = Duration.ofSeconds(60);
+
+    // 清理失败后的重试间隔
+    private Duration retryBackoff = Duration.ofSeconds(30);
+
+    // 状态接口返回的待清理记录条数上限
+    private int statusLimit = 50;
+}
@@ -0,0 +1,25 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * 变更历史配置类
+ * 各DAO写入时把字段级差异交给 ChangeLogWriter 攒批追加到 ChangeLog，按时间点查询见 /history
+ */
+@Configuration
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ChangeLogWriter changeLogWriter(ChangeLogDao changeLogDao, MongoTemplate mongoTemplate,
+                                          HistoryProperties properties) {
+        return new ChangeLogWriter(changeLogDao, mongoTemplate.getConverter(), properties);
+    }
+}
@@ -0,0 +1,32 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 变更历史配置（前缀：smarthrm.history）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.history")
+public class HistoryProperties {
+
+    // 总开关：员工/部门/项目/任务/培训的写入同时记录字段级变更；关闭后不再记录，已有历史仍可查询
+    private boolean enabled = true;
+
+    // 每次批量写入的最大条数
+    private int flushSize = 500;
+
+    // 最早一条变更在内存中等待的最长时间
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // 内存队列容量，写满时由写入线程同步落库
+    private int queueCapacity = 10000;
+
+    // 同一实体每累计多少条变更写一个快照（节点启动后首次变更也写一个）
+    private int snapshotEvery = 50;
+
+    // 按时间段查询变更时单次最多返回条数
+    private int maxQueryLimit = 1000;
+}
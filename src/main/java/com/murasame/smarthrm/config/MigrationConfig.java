@@ -0,0 +1,27 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.migration.Migration;
+import com.murasame.smarthrm.migration.MigrationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * 数据迁移配置类
+ * 收集所有 Migration Bean，应用就绪后由 MigrationRunner 在后台按版本执行，状态见 /admin/migrations
+ */
+@Configuration
+@EnableConfigurationProperties(MigrationProperties.class)
+public class MigrationConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MigrationRunner migrationRunner(MongoTemplate mongoTemplate, List<Migration> migrations,
+                                           MigrationProperties properties) {
+        return new MigrationRunner(mongoTemplate, migrations, properties);
+    }
+}
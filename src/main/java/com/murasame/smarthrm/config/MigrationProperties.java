@@ -0,0 +1,26 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 数据迁移配置（前缀：smarthrm.migration）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.migration")
+public class MigrationProperties {
+
+    // 总开关：启动完成后在后台执行未完成的迁移
+    private boolean enabled = true;
+
+    // 每批读取/写回的文档数
+    private int batchSize = 500;
+
+    // 每秒最多处理的文档数（限速，避免挤占在线流量），≤0 表示不限
+    private double maxDocsPerSecond = 2000;
+
+    // 租约时长：持有者每批续约，崩溃后超过该时长其他实例可接管
+    private Duration lease = Duration.ofSeconds(60);
+}
@@ -0,0 +1,68 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.entity.Employee;
+import org.bson.Document;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mongo类型转换配置
+ * 员工技能项读取转换器：兼容历史数据中技能ID存于 "id" 键或任意首个键的写法，
+ * 统一转换为 Employee.SkillLevel（写入始终为 {skillId, proficiency}）
+ */
+@Configuration
+public class MongoConversionConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new SkillLevelReadConverter()));
+    }
+
+    /**
+     * 技能项读取：skillId → id → 首个非熟练度的数值键，依次回退；缺失时为0
+     * 同时供V1迁移改写历史文档使用
+     */
+    @ReadingConverter
+    public static class SkillLevelReadConverter implements Converter<Document, Employee.SkillLevel> {
+
+        @Override
+        public Employee.SkillLevel convert(Document source) {
+            Integer skillId = intValue(source.get("skillId"));
+            if (skillId == null) {
+                skillId = intValue(source.get("id"));
+            }
+            if (skillId == null) {
+                for (Map.Entry<String, Object> entry : source.entrySet()) {
+                    if (!"proficiency".equals(entry.getKey())) {
+                        skillId = intValue(entry.getValue());
+                        if (skillId != null) {
+                            break;
+                        }
+                    }
+                }
+            }
+            Integer proficiency = intValue(source.get("proficiency"));
+            return new Employee.SkillLevel(skillId == null ? 0 : skillId, proficiency == null ? 0 : proficiency);
+        }
+
+        private static Integer intValue(Object value) {
+            if (value instanceof Number number) {
+                return number.intValue();
+            }
+            if (value instanceof String str) {
+                try {
+                    return Integer.parseInt(str.trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.murasame.smarthrm.config;
+
+import com.mongodb.event.CommandListener;
+import com.murasame.smarthrm.filter.MongoRequestStatsFilter;
+import com.murasame.smarthrm.monitor.CompositeCommandListener;
+import com.murasame.smarthrm.monitor.MongoCommandMetricsListener;
+import com.murasame.smarthrm.monitor.MongoRequestStatsListener;
+import com.murasame.smarthrm.monitor.SlowQueryRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mongo监控配置类
+ * 向MongoClient注册命令监听器：
+ * - 按集合/命令/调用方DAO方法采集耗时、文档数与响应字节数，指标经MeterRegistry由/actuator/prometheus暴露；
+ * - 记录超过阈值的慢查询及其执行计划，由/admin/slow-queries查看；
+ * - 按请求统计Mongo命令数/文档数，写入响应头并对超预算、疑似N+1的请求告警。
+ * 三个监听器经组合监听器统一注册，共用每条命令的集合名与调用方解析结果
+ */
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class MongoMonitorConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "smarthrm.mongo-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MongoCommandMetricsListener mongoCommandMetricsListener(
+            MeterRegistry meterRegistry,
+            @Value("${smarthrm.mongo-metrics.record-bytes:true}") boolean recordBytes) {
+        return new MongoCommandMetricsListener(meterRegistry, recordBytes);
+    }
+
+    /**
+     * 慢查询记录器（MongoTemplate延迟获取：它依赖的MongoClient正由本监听器参与构建）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "smarthrm.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryRecorder slowQueryRecorder(SlowQueryProperties properties,
+                                               ObjectProvider<MongoTemplate> mongoTemplateProvider) {
+        return new SlowQueryRecorder(properties, mongoTemplateProvider);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "smarthrm.request-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MongoRequestStatsListener mongoRequestStatsListener() {
+        return new MongoRequestStatsListener();
+    }
+
+    /**
+     * 将已启用的监听器组合为一个注册到MongoClient，每条命令的集合名与调用方只解析一次
+     * （按类型逐个获取，不收集全部CommandListener，避免重复注册Boot自带的Mongo指标监听器）
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandListenersCustomizer(
+            ObjectProvider<MongoCommandMetricsListener> metricsListener,
+            ObjectProvider<MongoRequestStatsListener> requestStatsListener,
+            ObjectProvider<SlowQueryRecorder> slowQueryRecorder) {
+        List<CommandListener> listeners = new ArrayList<>();
+        metricsListener.ifAvailable(listeners::add);
+        requestStatsListener.ifAvailable(listeners::add);
+        slowQueryRecorder.ifAvailable(listeners::add);
+        if (listeners.isEmpty()) {
+            return builder -> {
+            };
+        }
+        CompositeCommandListener composite = new CompositeCommandListener(listeners);
+        return builder -> builder.addCommandListener(composite);
+    }
+
+    /**
+     * 请求级统计过滤器，排在准入控制之后（被拒绝的请求不统计）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "smarthrm.request-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<MongoRequestStatsFilter> mongoRequestStatsFilter(
+            @Value("${smarthrm.request-stats.warn-commands:20}") int warnCommands,
+            @Value("${smarthrm.request-stats.repeat-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<MongoRequestStatsFilter> registration =
+                new FilterRegistrationBean<>(new MongoRequestStatsFilter(warnCommands, repeatThreshold));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 20);
+        return registration;
+    }
+}
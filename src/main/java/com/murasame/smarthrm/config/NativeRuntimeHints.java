@@ -0,0 +1,92 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.dto.AddEmployeeDTO;
+import com.murasame.smarthrm.dto.DepartmentDTO;
+import com.murasame.smarthrm.dto.EmployeeDTO;
+import com.murasame.smarthrm.dto.ModEmployeeDTO;
+import com.murasame.smarthrm.dto.PerformanceIngestDTO;
+import com.murasame.smarthrm.dto.PerformanceTrendDTO;
+import com.murasame.smarthrm.dto.ProjectMatchDTO;
+import com.murasame.smarthrm.dto.SkillMatchDTO;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.EmployeeView;
+import com.murasame.smarthrm.entity.PendingCleanup;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceIngestBatch;
+import com.murasame.smarthrm.entity.PerformanceRollup;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.entity.Skill;
+import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.entity.Training;
+import com.murasame.smarthrm.graph.EmployeeRelations;
+import com.murasame.smarthrm.monitor.SlowQueryRecord;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GraalVM原生镜像运行时提示
+ * 原生镜像在构建期做封闭世界分析，运行期反射/序列化/资源访问需提前声明：
+ * - 实体与DTO（含嵌套类）：Mongo映射通过反射读写字段与构造器，Jackson与表单绑定通过Lombok生成的getter/setter；
+ * - 实现Serializable的DTO：注册Java序列化；
+ * - Thymeleaf模板与静态资源：按路径从classpath加载
+ * 新增实体/DTO时需加入下方列表
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(
+            Employee.class, Department.class, Project.class, Task.class,
+            Training.class, Skill.class, Performance.class, PerformanceRollup.class, PerformanceIngestBatch.class,
+            EmployeeView.class, PendingCleanup.class, ChangeLogEntry.class, ChangeSnapshot.class);
+
+    private static final List<Class<?>> DTOS = List.of(
+            EmployeeDTO.class, AddEmployeeDTO.class, ModEmployeeDTO.class, DepartmentDTO.class,
+            SkillMatchDTO.class, ProjectMatchDTO.class, PerformanceTrendDTO.class, PerformanceIngestDTO.class, SlowQueryRecord.class,
+            EmployeeRelations.class);
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        List<Class<?>> types = new ArrayList<>();
+        ENTITIES.forEach(type -> collect(type, types));
+        DTOS.forEach(type -> collect(type, types));
+
+        for (Class<?> type : types) {
+            // Mongo映射：字段直接访问 + 构造器实例化
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            if (Serializable.class.isAssignableFrom(type)) {
+                hints.serialization().registerType(TypeReference.of(type));
+            }
+        }
+        // Jackson/数据绑定：按属性递归注册getter/setter及属性类型
+        bindingRegistrar.registerReflectionHints(hints.reflection(), types.toArray(Class<?>[]::new));
+
+        hints.resources()
+                .registerPattern("templates/*.html")
+                .registerPattern("static/**")
+                .registerPattern("banner.txt");
+    }
+
+    /**
+     * 收集类型及其声明的嵌套类（如 Project.Member）
+     */
+    private static void collect(Class<?> type, List<Class<?>> into) {
+        into.add(type);
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            collect(nested, into);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.ProjectDao;
+import com.murasame.smarthrm.dao.TaskDao;
+import com.murasame.smarthrm.dao.TrainingDao;
+import com.murasame.smarthrm.graph.OrgGraph;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * 组织关系图配置类
+ * 写路径始终依赖 OrgGraph 做增量维护，关闭 smarthrm.org-graph 时保留Bean，由其自身跳过构建与维护
+ */
+@Configuration
+@EnableConfigurationProperties(OrgGraphProperties.class)
+public class OrgGraphConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public OrgGraph orgGraph(EmployeeDao employeeDao, ProjectDao projectDao, TrainingDao trainingDao,
+                             TaskDao taskDao, MongoTemplate mongoTemplate, OrgGraphProperties properties) {
+        return new OrgGraph(employeeDao, projectDao, trainingDao, taskDao, mongoTemplate, properties);
+    }
+}
@@ -0,0 +1,15 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 组织关系图配置（前缀：smarthrm.org-graph）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.org-graph")
+public class OrgGraphProperties {
+
+    // 总开关：关闭时不构建也不维护关系图，/graph 查询返回空结果
+    private boolean enabled = true;
+}
@@ -0,0 +1,32 @@
+package com.murasame.smarthrm.config;
+
+import com.murasame.smarthrm.dao.PerformanceDao;
+import com.murasame.smarthrm.dao.PerformanceIngestDao;
+import com.murasame.smarthrm.ingest.PerformanceIngestor;
+import com.murasame.smarthrm.service.PerformanceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 绩效配置类
+ * 测评点存于时间序列集合，统计窗口与写入限制见 PerformanceProperties；
+ * smarthrm.performance.ingest 开启时注册批量导入管道（有界内存队列 + 后台攒批写入）
+ */
+@Configuration
+@EnableConfigurationProperties(PerformanceProperties.class)
+public class PerformanceConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "smarthrm.performance.ingest", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public PerformanceIngestor performanceIngestor(PerformanceService performanceService,
+                                                   PerformanceDao performanceDao,
+                                                   PerformanceIngestDao performanceIngestDao,
+                                                   PerformanceProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new PerformanceIngestor(performanceService, performanceDao, performanceIngestDao,
+                properties, meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 绩效统计配置（前缀：smarthrm.performance）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.performance")
+public class PerformanceProperties {
+
+    // 统计窗口默认天数（截至今天）
+    private int defaultWindowDays = 30;
+
+    // 统计窗口最大天数，超出时截断
+    private int maxWindowDays = 365;
+
+    // 滚动均值默认天数
+    private int defaultRollingDays = 7;
+
+    // 单次批量写入的测评点上限
+    private int maxBatchSize = 1000;
+
+    // 单次查询返回的原始测评点上限
+    private int maxPoints = 1000;
+
+    // 分数取值范围
+    private int minPoint = 0;
+    private int maxPoint = 100;
+
+    // 批量导入管道
+    private Ingest ingest = new Ingest();
+
+    /**
+     * 批量导入配置（前缀：smarthrm.performance.ingest）
+     */
+    @Data
+    public static class Ingest {
+        // 总开关
+        private boolean enabled = true;
+        // 内存队列容量（测评点数），写满后新批次返回429
+        private int queueCapacity = 200000;
+        // 单个客户端批次的测评点上限
+        private int maxBatchSize = 50000;
+        // 每次批量写入的目标点数（单个客户端批次不拆分，可能超出）
+        private int flushSize = 5000;
+        // 队列中最早的批次最多等待多久写入
+        private Duration flushInterval = Duration.ofMillis(200);
+        // 队列已满时请求最多等待多久腾出空间
+        private Duration acceptTimeout = Duration.ofMillis(50);
+        // 429响应的Retry-After
+        private Duration retryAfter = Duration.ofSeconds(1);
+        // 写入失败的重试次数与间隔，超过后批次标记为失败
+        private int maxAttempts = 5;
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        // 状态为排队中但超过该时长仍未写入（节点崩溃）的批次，客户端重试时重新接收
+        private Duration staleAfter = Duration.ofMinutes(5);
+        // 批次记录保留时长（TTL索引）
+        private Duration ledgerRetention = Duration.ofDays(7);
+    }
+}
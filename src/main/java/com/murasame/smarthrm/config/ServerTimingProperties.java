@@ -0,0 +1,19 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Server-Timing配置（前缀：smarthrm.server-timing）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.server-timing")
+public class ServerTimingProperties {
+
+    // 总开关
+    private boolean enabled = true;
+
+    // 响应体缓冲上限：不超过时响应头在渲染/序列化结束后写入（含全部阶段），超过时提前发出
+    private DataSize bufferSize = DataSize.ofMegabytes(1);
+}
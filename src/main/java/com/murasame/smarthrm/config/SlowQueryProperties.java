@@ -0,0 +1,33 @@
+package com.murasame.smarthrm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 慢查询记录配置（前缀：smarthrm.slow-query）
+ */
+@Data
+@ConfigurationProperties(prefix = "smarthrm.slow-query")
+public class SlowQueryProperties {
+
+    // 总开关
+    private boolean enabled = true;
+
+    // 慢查询阈值，超过即记录
+    private Duration threshold = Duration.ofMillis(100);
+
+    // 环形缓冲区容量（保留最近N条慢查询）
+    private int capacity = 200;
+
+    // 执行计划采样：每N条可explain的命令复制1条命令体，慢查询只对这些命令采样执行计划；1表示全部复制
+    // （形态与调用方对所有慢查询都记录）
+    private int sampleEvery = 16;
+
+    // 是否在后台采样执行计划
+    private boolean explainEnabled = true;
+
+    // 同一查询形态两次采样执行计划的最小间隔
+    private Duration explainInterval = Duration.ofMinutes(10);
+}
@@ -1,7 +1,15 @@
 package com.murasame.smarthrm.config;
 //林2025.12.19
+import com.murasame.smarthrm.filter.ServerTimingFilter;
+import com.murasame.smarthrm.monitor.ServerTimingInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.time.LocalDate;
@@ -12,9 +20,11 @@ import java.time.format.DateTimeFormatter;
 /**
  * WebMvc配置类
  * 核心功能：注册自定义类型转换器，处理前端传递的"yyyy-MM-dd"格式日期字符串转换为LocalDateTime类型（东八区当天0点），
- * 解决前端日期输入与后端LocalDateTime类型的适配问题
+ * 解决前端日期输入与后端LocalDateTime类型的适配问题；
+ * 同时注册Server-Timing阶段计时（过滤器开启计时，拦截器标记处理器/视图渲染边界）
  */
 @Configuration
+@EnableConfigurationProperties(ServerTimingProperties.class)
 public class WebMvcConfig implements WebMvcConfigurer {
 
     // 时区常量：东八区（Asia/Shanghai），统一日期转换的时区基准
@@ -41,4 +51,26 @@ public class WebMvcConfig implements WebMvcConfigurer {
             return localDate.atStartOfDay(DEFAULT_ZONE).toLocalDateTime();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * 注册阶段计时拦截器（未开启Server-Timing时为空操作）
+     * @param registry 拦截器注册器
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ServerTimingInterceptor());
+    }
+
+    /**
+     * Server-Timing过滤器，排在请求级Mongo统计之后，共用其统计作用域；响应体按 buffer-size 缓冲
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "smarthrm.server-timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(ServerTimingProperties properties) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+                new ServerTimingFilter((int) properties.getBufferSize().toBytes()));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 25);
+        return registration;
+    }
+}
@@ -0,0 +1,177 @@
+package com.murasame.smarthrm.controller;
+
+import com.murasame.smarthrm.archive.ProjectArchiver;
+import com.murasame.smarthrm.cache.ChangeStreamInvalidator;
+import com.murasame.smarthrm.cleanup.TombstoneCompactor;
+import com.murasame.smarthrm.config.CleanupProperties;
+import com.murasame.smarthrm.dao.PendingCleanupDao;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.migration.MigrationRunner;
+import com.murasame.smarthrm.migration.MigrationState;
+import com.murasame.smarthrm.monitor.SlowQueryRecord;
+import com.murasame.smarthrm.monitor.SlowQueryRecorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运维管理接口
+ */
+@Controller
+@Lazy
+@RequestMapping("/admin")
+public class AdminController {
+
+	private final ObjectProvider<SlowQueryRecorder> slowQueryRecorder;
+	private final ObjectProvider<MigrationRunner> migrationRunner;
+	private final ObjectProvider<ChangeStreamInvalidator> changeStreamInvalidator;
+	private final ObjectProvider<ProjectArchiver> projectArchiver;
+	private final ObjectProvider<TombstoneCompactor> tombstoneCompactor;
+	private final PendingCleanupDao pendingCleanupDao;
+	private final CleanupProperties cleanupProperties;
+
+	public AdminController(ObjectProvider<SlowQueryRecorder> slowQueryRecorder,
+						   ObjectProvider<MigrationRunner> migrationRunner,
+						   ObjectProvider<ChangeStreamInvalidator> changeStreamInvalidator,
+						   ObjectProvider<ProjectArchiver> projectArchiver,
+						   ObjectProvider<TombstoneCompactor> tombstoneCompactor,
+						   PendingCleanupDao pendingCleanupDao,
+						   CleanupProperties cleanupProperties) {
+		this.slowQueryRecorder = slowQueryRecorder;
+		this.migrationRunner = migrationRunner;
+		this.changeStreamInvalidator = changeStreamInvalidator;
+		this.projectArchiver = projectArchiver;
+		this.tombstoneCompactor = tombstoneCompactor;
+		this.pendingCleanupDao = pendingCleanupDao;
+		this.cleanupProperties = cleanupProperties;
+	}
+
+	/*
+	  GET /admin/slow-queries?limit=50
+	  最近的慢查询（按时间倒序），含查询形态、调用方栈帧与采样的执行计划；未启用记录时返回空列表
+	 */
+	@GetMapping("/slow-queries")
+	@ResponseBody
+	public List<SlowQueryRecord> slowQueries(@RequestParam(defaultValue = "50") int limit) {
+		SlowQueryRecorder recorder = slowQueryRecorder.getIfAvailable();
+		if (recorder == null) {
+			return List.of();
+		}
+		List<SlowQueryRecord> recent = recorder.recent();
+		return recent.subList(0, Math.min(Math.max(limit, 0), recent.size()));
+	}
+
+	/* 清空慢查询记录 */
+	@DeleteMapping("/slow-queries")
+	@ResponseBody
+	public boolean clearSlowQueries() {
+		slowQueryRecorder.ifAvailable(SlowQueryRecorder::clear);
+		return true;
+	}
+
+	/*
+	  GET /admin/migrations
+	  各版本数据迁移的状态、检查点与累计计数；未启用迁移时返回空列表
+	 */
+	@GetMapping("/migrations")
+	@ResponseBody
+	public List<MigrationState> migrations() {
+		MigrationRunner runner = migrationRunner.getIfAvailable();
+		return runner == null ? List.of() : runner.states();
+	}
+
+	/*
+	  GET /admin/cache-invalidation
+	  变更流缓存失效状态：节点标识、订阅是否运行、最近事件时间与错误；未开启时enabled=false
+	 */
+	@GetMapping("/cache-invalidation")
+	@ResponseBody
+	public Map<String, Object> cacheInvalidation() {
+		ChangeStreamInvalidator invalidator = changeStreamInvalidator.getIfAvailable();
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", invalidator != null);
+		if (invalidator != null) {
+			status.put("nodeId", invalidator.getNodeId());
+			status.put("running", invalidator.isRunning());
+			status.put("lastEventAt", invalidator.getLastEventAt());
+			status.put("lastError", invalidator.getLastError());
+		}
+		return status;
+	}
+
+	/*
+	  GET /admin/archive
+	  项目归档状态：最近一次执行时间/耗时/移动数量、累计移动数与冷集合规模；未开启时enabled=false
+	 */
+	@GetMapping("/archive")
+	@ResponseBody
+	public Map<String, Object> archive() {
+		ProjectArchiver archiver = projectArchiver.getIfAvailable();
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", archiver != null);
+		if (archiver != null) {
+			status.putAll(archiver.status());
+		}
+		return status;
+	}
+
+	/* 立即执行一轮归档，返回移入冷集合的项目数 */
+	@PostMapping("/archive/run")
+	@ResponseBody
+	public ResponseEntity<Object> runArchive() {
+		ProjectArchiver archiver = projectArchiver.getIfAvailable();
+		if (archiver == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("错误：项目归档未开启");
+		}
+		return ResponseEntity.ok(archiver.archiveNow());
+	}
+
+	/* 将冷集合中的项目及其任务恢复到热集合（项目状态置为未归档） */
+	@PostMapping("/archive/projects/{projId}/restore")
+	@ResponseBody
+	public ResponseEntity<Object> restoreProject(@PathVariable Integer projId) {
+		ProjectArchiver archiver = projectArchiver.getIfAvailable();
+		if (archiver == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("错误：项目归档未开启");
+		}
+		Project project = archiver.restore(projId);
+		return project == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(project);
+	}
+
+	/*
+	  GET /admin/cleanups
+	  软删除待清理记录：总数与最早的若干条（含尝试次数、持有节点、最近错误），以及本节点压缩器状态；未开启时enabled=false
+	 */
+	@GetMapping("/cleanups")
+	@ResponseBody
+	public Map<String, Object> cleanups() {
+		TombstoneCompactor compactor = tombstoneCompactor.getIfAvailable();
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", compactor != null);
+		if (compactor != null) {
+			status.putAll(compactor.status());
+		}
+		status.put("pendingCount", pendingCleanupDao.count());
+		status.put("pending", pendingCleanupDao.findPending(Math.max(1, cleanupProperties.getStatusLimit())));
+		return status;
+	}
+
+	/* 立即扫描墓碑并执行一轮清理，返回完成的记录数 */
+	@PostMapping("/cleanups/run")
+	@ResponseBody
+	public ResponseEntity<Object> runCleanups() {
+		TombstoneCompactor compactor = tombstoneCompactor.getIfAvailable();
+		if (compactor == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("错误：软删除清理未开启");
+		}
+		compactor.sweep();
+		return ResponseEntity.ok(compactor.compactNow());
+	}
+}
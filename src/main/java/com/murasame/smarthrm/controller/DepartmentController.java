@@ -17,7 +17,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 部门管理MVC控制器
@@ -183,18 +182,18 @@ public class DepartmentController {
      * @param empListStr 前端传递的员工ID拼接字符串（格式："1,2,3"）
      * @return 部门实体的empList格式：[{"empId":1}, {"empId":2}, ...]，空值/无效值返回空列表
      */
-    private List<Map<String, Integer>> convertEmpListStr(String empListStr) {
-        List<Map<String, Integer>> empList = new ArrayList<>();
+    private List<Department.Member> convertEmpListStr(String empListStr) {
+        List<Department.Member> empList = new ArrayList<>();
         if (empListStr == null || empListStr.trim().isEmpty()) {
             return empList;
         }
 
-        // 分割字符串并转换为Map格式
+        // 分割字符串并转换为成员格式
         String[] empIdArr = empListStr.split(",");
         for (String empIdStr : empIdArr) {
             try {
-                Integer empId = Integer.parseInt(empIdStr.trim());
-                empList.add(Map.of("empId", empId));
+                int empId = Integer.parseInt(empIdStr.trim());
+                empList.add(new Department.Member(empId));
             } catch (NumberFormatException e) {
                 // 忽略无效的员工ID（如非数字）
                 continue;
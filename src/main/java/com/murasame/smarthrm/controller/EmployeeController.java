@@ -5,6 +5,7 @@ import com.murasame.smarthrm.dao.*;
 import com.murasame.smarthrm.dto.EmployeeDTO;
 import com.murasame.smarthrm.entity.*;
 import com.murasame.smarthrm.service.EmployeeService;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -38,6 +39,9 @@ public class EmployeeController {
     // 注入员工业务层，处理员工CRUD及关联数据同步逻辑
     @Autowired
     private EmployeeService employeeService;
+    // 注入员工读模型服务，列表页直接查询冗余行（部门/技能/项目/培训名称已就绪）
+    @Autowired
+    private EmployeeViewService employeeViewService;
     // 注入部门DAO，查询部门列表（用于员工所属部门下拉选择）
     @Autowired
     private DepartmentDao departmentDao;
@@ -56,7 +60,8 @@ public class EmployeeController {
 
     /**
      * 员工列表页查询（支持姓名模糊搜索、分页）
-     * @param model 页面数据模型，传递员工列表、部门列表、分页信息到前端
+     * 读取EmployeeView读模型：一次计数 + 一次投影分页查询，无需再关联部门/技能/项目
+     * @param model 页面数据模型，传递员工列表、分页信息到前端
      * @param empName 员工姓名模糊搜索关键词（非必传）
      * @param pageNum 当前页码（默认1，前端分页控件传入）
      * @param pageSize 每页展示条数（默认10）
@@ -68,36 +73,11 @@ public class EmployeeController {
             @RequestParam(required = false) String empName,
             @RequestParam(defaultValue = "1") int pageNum,
             @RequestParam(defaultValue = "10") int pageSize) {
-        // 1. 调用业务层查询员工分页数据（支持姓名搜索）
-        Page<Employee> empPage = employeeService.listEmployeesWithPage(empName, pageNum, pageSize);
-        List<Employee> employees = empPage.getContent();
+        // 1. 查询员工读模型分页数据（支持姓名搜索）
+        Page<EmployeeView> empPage = employeeViewService.listEmployeesWithPage(empName, pageNum, pageSize);
 
-        // 2. 预处理员工部门信息（补全部门名称、标记部门状态）
-        List<Department> departments = departmentDao.findAll();
-        for (Employee emp : employees) {
-            if (emp.getDepId() == null) {
-                emp.setDeptName("未分配");
-                emp.setDeptType("unassigned");
-            } else {
-                boolean found = false;
-                for (Department dept : departments) {
-                    if (Objects.equals(dept.getId(), emp.getDepId())) {
-                        emp.setDeptName(dept.getDepName());
-                        emp.setDeptType("normal");
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    emp.setDeptName("部门已删除");
-                    emp.setDeptType("deleted");
-                }
-            }
-        }
-
-        // 3. 封装页面展示数据
-        model.addAttribute("employees", employees); // 当前页员工列表
-        model.addAttribute("departments", departments); // 部门列表（用于筛选）
+        // 2. 封装页面展示数据
+        model.addAttribute("employees", empPage.getContent()); // 当前页员工列表
         model.addAttribute("empName", empName); // 回显搜索关键词
         // 分页参数（Page对象页码从0开始，+1还原为前端习惯的从1开始）
         model.addAttribute("pageNum", empPage.getNumber() + 1);
@@ -218,8 +198,7 @@ public class EmployeeController {
         List<Integer> existingProjectIds = new ArrayList<>();
         if (employee.getProjects() != null && !employee.getProjects().isEmpty()) {
             existingProjectIds = employee.getProjects().stream()
-                    .map(projMap -> projMap.get("projId"))
-                    .filter(Objects::nonNull)
+                    .map(Employee.ProjectRef::getProjId)
                     .collect(Collectors.toList());
         }
         // 负责任务ID列表
@@ -234,8 +213,7 @@ public class EmployeeController {
         String existingSkillsStr = "";
         if (employee.getSkillList() != null && !employee.getSkillList().isEmpty()) {
             existingSkillsStr = employee.getSkillList().stream()
-                    .filter(skillMap -> skillMap.get("skillId") != null && skillMap.get("proficiency") != null)
-                    .map(skillMap -> skillMap.get("skillId") + ":" + skillMap.get("proficiency"))
+                    .map(skill -> skill.getSkillId() + ":" + skill.getProficiency())
                     .collect(Collectors.joining(","));
         }
 
@@ -358,4 +336,4 @@ public class EmployeeController {
         }
         return "redirect:" + redirectUrl.toString();
     }
-}
\ No newline at end of file
+}
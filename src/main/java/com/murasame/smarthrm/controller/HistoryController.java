@@ -0,0 +1,91 @@
+package com.murasame.smarthrm.controller;
+
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import com.murasame.smarthrm.service.HistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Lazy
+@RequestMapping("/history")
+@RequiredArgsConstructor
+public class HistoryController {
+
+    private final HistoryService historyService;
+    private final ChangeLogDao changeLogDao;
+    private final ObjectProvider<ChangeLogWriter> changeLogWriter;
+
+    /*
+      GET /history/{entity}/{id}?at=2025-03-01T00:00:00
+      实体在时间点的状态；entity 为 employee / department / project / task / training，当时尚未创建返回404
+     */
+    @GetMapping("/{entity}/{id}")
+    public ResponseEntity<Object> asOf(@PathVariable String entity, @PathVariable Integer id,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        Map<String, Object> state;
+        try {
+            state = historyService.asOf(entity, id, at);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("错误：" + e.getMessage());
+        }
+        return state == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(state);
+    }
+
+    // 单个实体的变更记录，from（不含）/ to（含）可选
+    @GetMapping("/{entity}/{id}/changes")
+    public ResponseEntity<Object> entityChanges(@PathVariable String entity, @PathVariable Integer id,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(historyService.changes(entity, id, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("错误：" + e.getMessage());
+        }
+    }
+
+    // 时间段 [from, to) 内的变更（按时间索引），entity 可选
+    @GetMapping("/changes")
+    public ResponseEntity<Object> changesBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(required = false) String entity,
+                                                 @RequestParam(defaultValue = "0") int limit) {
+        try {
+            List<ChangeLogEntry> entries = historyService.changesBetween(entity, from, to, limit);
+            return ResponseEntity.ok(entries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("错误：" + e.getMessage());
+        }
+    }
+
+    // 时间点属于该部门的员工
+    @GetMapping("/departments/{depId}/members")
+    public List<Map<String, Object>> departmentMembers(@PathVariable Integer depId,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return historyService.departmentMembersAsOf(depId, at);
+    }
+
+    // 日志规模与写入线程状态；未开启时enabled=false，已有历史仍可查询
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        ChangeLogWriter writer = changeLogWriter.getIfAvailable();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", writer != null);
+        stats.put("entries", changeLogDao.countEntries());
+        stats.put("snapshots", changeLogDao.countSnapshots());
+        if (writer != null) {
+            stats.putAll(writer.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,58 @@
+package com.murasame.smarthrm.controller;
+
+import com.murasame.smarthrm.graph.EmployeeRelations;
+import com.murasame.smarthrm.graph.OrgGraph;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 组织关系查询接口（只读内存中的组织关系图，不访问数据库）
+ */
+@RestController
+@Lazy
+@RequestMapping("/graph")
+@RequiredArgsConstructor
+public class OrgGraphController {
+
+    private final OrgGraph orgGraph;
+
+    // 员工的部门、同部门同事、项目、项目同事、培训、负责的任务
+    @GetMapping("/employees/{empId}")
+    public EmployeeRelations employee(@PathVariable int empId) {
+        return orgGraph.employee(empId);
+    }
+
+    @GetMapping("/departments/{deptId}/members")
+    public int[] departmentMembers(@PathVariable int deptId) {
+        return orgGraph.departmentMembers(deptId);
+    }
+
+    @GetMapping("/projects/{projId}/members")
+    public int[] projectMembers(@PathVariable int projId) {
+        return orgGraph.projectMembers(projId);
+    }
+
+    @GetMapping("/projects/{projId}/tasks")
+    public int[] projectTasks(@PathVariable int projId) {
+        return orgGraph.projectTasks(projId);
+    }
+
+    @GetMapping("/trainings/{trainId}/members")
+    public int[] trainingMembers(@PathVariable int trainId) {
+        return orgGraph.trainingMembers(trainId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return orgGraph.stats();
+    }
+
+    // 数据被直接写入库（导入、脚本修复）后按库中数据全量重建
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuild() {
+        return orgGraph.rebuild();
+    }
+}
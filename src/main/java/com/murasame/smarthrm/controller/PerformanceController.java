@@ -0,0 +1,125 @@
+package com.murasame.smarthrm.controller;
+
+import com.murasame.smarthrm.config.PerformanceProperties;
+import com.murasame.smarthrm.dto.PerformanceIngestDTO;
+import com.murasame.smarthrm.dto.PerformanceTrendDTO;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceIngestBatch;
+import com.murasame.smarthrm.ingest.PerformanceIngestor;
+import com.murasame.smarthrm.service.PerformanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Lazy
+@RequestMapping("/performance")
+@RequiredArgsConstructor
+public class PerformanceController {
+
+    private final PerformanceService performanceService;
+    private final ObjectProvider<PerformanceIngestor> performanceIngestor;
+    private final PerformanceProperties properties;
+
+    // 写入单个测评点：{empId, point, testTime?}
+    @PostMapping("/add")
+    public ResponseEntity<String> addPoint(@RequestBody Performance point) {
+        return addPoints(List.of(point));
+    }
+
+    // 批量写入测评点
+    @PostMapping("/batch")
+    public ResponseEntity<String> addPoints(@RequestBody List<Performance> points) {
+        try {
+            int written = performanceService.record(points);
+            return ResponseEntity.ok("成功：已写入 " + written + " 个测评点");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("错误：" + e.getMessage());
+        }
+    }
+
+    /*
+      POST /performance/ingest  {batchId, points:[...]}
+      大批量导入：进入内存队列后台写入，202返回批次记录；同一batchId重复提交返回200及已有状态；
+      队列已满返回429（Retry-After），客户端以相同batchId重试
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<Object> ingest(@RequestBody PerformanceIngestDTO request) {
+        PerformanceIngestor ingestor = performanceIngestor.getIfAvailable();
+        if (ingestor == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("错误：批量导入未开启");
+        }
+        PerformanceIngestor.Result result;
+        try {
+            result = ingestor.submit(request.getBatchId(), request.getPoints());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("错误：" + e.getMessage());
+        }
+        return switch (result.outcome()) {
+            case ACCEPTED -> ResponseEntity.status(HttpStatus.ACCEPTED).body(result.batch());
+            case DUPLICATE -> ResponseEntity.ok(result.batch());
+            case BUSY -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(
+                            Math.max(1, properties.getIngest().getRetryAfter().toSeconds())))
+                    .body("错误：导入队列已满，请稍后以相同批次ID重试");
+        };
+    }
+
+    // 批次状态：queued / written / failed
+    @GetMapping("/ingest/batches/{batchId}")
+    public ResponseEntity<PerformanceIngestBatch> ingestStatus(@PathVariable String batchId) {
+        PerformanceIngestor ingestor = performanceIngestor.getIfAvailable();
+        PerformanceIngestBatch batch = ingestor == null ? null : ingestor.status(batchId);
+        return batch == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(batch);
+    }
+
+    // 导入管道状态：队列占用、各类计数、最近一次写入
+    @GetMapping("/ingest/stats")
+    public Map<String, Object> ingestStats() {
+        PerformanceIngestor ingestor = performanceIngestor.getIfAvailable();
+        return ingestor == null ? Map.of("enabled", false) : ingestor.stats();
+    }
+
+    @GetMapping("/employees/{empId}/points")
+    public List<Performance> listPoints(@PathVariable Integer empId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return performanceService.listPoints(empId, from, to);
+    }
+
+    // 员工平均分、逐日序列、滚动均值与趋势斜率；window/rolling 为天数，不传取默认配置
+    @GetMapping("/employees/{empId}/trend")
+    public PerformanceTrendDTO employeeTrend(@PathVariable Integer empId,
+                                             @RequestParam(defaultValue = "0") int window,
+                                             @RequestParam(defaultValue = "0") int rolling) {
+        return performanceService.employeeTrend(empId, window, rolling);
+    }
+
+    @GetMapping("/departments/{depId}/trend")
+    public PerformanceTrendDTO departmentTrend(@PathVariable Integer depId,
+                                               @RequestParam(defaultValue = "0") int window,
+                                               @RequestParam(defaultValue = "0") int rolling) {
+        return performanceService.departmentTrend(depId, window, rolling);
+    }
+
+    // 各部门窗口内汇总
+    @GetMapping("/departments")
+    public List<PerformanceTrendDTO> departmentSummary(@RequestParam(defaultValue = "0") int window) {
+        return performanceService.departmentSummary(window);
+    }
+
+    // 由原始测评点全量重算汇总桶
+    @PostMapping("/rollups/rebuild")
+    public long rebuildRollups() {
+        return performanceService.rebuildRollups();
+    }
+}
@@ -1,8 +1,9 @@
 package com.murasame.smarthrm.controller;
 
-import com.murasame.smarthrm.dao.EmployeeRepo;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.ProjectDao;
 import com.murasame.smarthrm.dao.ProjectRepo;
-import com.murasame.smarthrm.dao.SkillRepo;
+import com.murasame.smarthrm.dao.SkillDao;
 import com.murasame.smarthrm.dao.TaskRepo;
 import com.murasame.smarthrm.entity.Employee;
 import com.murasame.smarthrm.entity.Project;
@@ -25,8 +26,9 @@ public class ProjectMatchController {
     private final ProjectMatchService projectMatchService;
     private final TaskService taskService;
     private final ProjectRepo projectRepo;
-    private final EmployeeRepo employeeRepo;
-    private final SkillRepo skillRepo;
+    private final ProjectDao projectDao;
+    private final EmployeeDao employeeDao;
+    private final SkillDao skillDao;
     private final TaskRepo taskRepo;
 
     @GetMapping("/")
@@ -37,21 +39,23 @@ public class ProjectMatchController {
     /*
       Post /projectmatch/?searchType=projectName&searchValue=项目关键词
       Post /projectmatch/?searchType=empId&searchValue=123
+      includeArchived=true 时同时查询已移入冷集合的归档项目（默认只查进行中的热集合）
       如果想把结果渲染在页面，把 @ResponseBody 去掉，用 Model 传值即可
      */
     @PostMapping("/")
     @ResponseBody
     public List<Project> doProjectMatch(
             @RequestParam String searchType,
-            @RequestParam String searchValue
+            @RequestParam String searchValue,
+            @RequestParam(defaultValue = "false") boolean includeArchived
     ){
         switch(searchType.toLowerCase()) {
             case "projectname":
-                return projectMatchService.matchByProjectName(searchValue);
+                return projectMatchService.matchByProjectName(searchValue, includeArchived);
             case "empid":
                 try {
                     Integer empId = Integer.parseInt(searchValue);
-                    return projectMatchService.matchByEmployee(empId);
+                    return projectMatchService.matchByEmployee(empId, includeArchived);
                 } catch (NumberFormatException e) {
                     return List.of();
                 }
@@ -61,25 +65,25 @@ public class ProjectMatchController {
     }
 
     // 辅助接口
-    /* 仅返回 [{_id,projName}, ...] */
+    /* 仅返回 [{_id,projName}, ...]；includeArchived=true 时追加冷集合中的归档项目 */
     @GetMapping("/projects")
     @ResponseBody
-    public List<Project> allProjects(){
-        return projectRepo.findAll();
+    public List<Project> allProjects(@RequestParam(defaultValue = "false") boolean includeArchived){
+        return includeArchived ? projectDao.findAll(true) : projectRepo.findAll();
     }
 
     /* 仅返回 [{id,empName}, ...] */
     @GetMapping("/employees")
     @ResponseBody
     public List<Employee> allEmployees(){
-        return employeeRepo.findAll();
+        return employeeDao.findAll();
     }
 
     /* 仅返回 [{_id,skillName}, ...] */
     @GetMapping("/skills")
     @ResponseBody
     public List<Skill> allSkills(){
-        return skillRepo.findAll();
+        return skillDao.findAll();
     }
 
     /* 仅返回部门数据 [{id,depName}, ...] */
@@ -124,8 +128,9 @@ public class ProjectMatchController {
      */
     @GetMapping("/detail/{projectId}")
     @ResponseBody
-    public Project getProjectDetail(@PathVariable Integer projectId) {
-        return projectMatchService.getProjectById(projectId);
+    public Project getProjectDetail(@PathVariable Integer projectId,
+                                    @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return projectMatchService.getProjectById(projectId, includeArchived);
     }
 
     /**
@@ -134,17 +139,7 @@ public class ProjectMatchController {
     @PostMapping("/delete/batch")
     @ResponseBody
     public boolean deleteProjectsBatch(@RequestBody List<Integer> projectIds) {
-        if (projectIds == null || projectIds.isEmpty()) {
-            return false;
-        }
-
-        boolean allSuccess = true;
-        for (Integer projectId : projectIds) {
-            if (!projectMatchService.deleteProject(projectId)) {
-                allSuccess = false;
-            }
-        }
-        return allSuccess;
+        return projectMatchService.deleteProjectsBatch(projectIds);
     }
 
     // ========== 任务管理接口 ==========
@@ -154,8 +149,9 @@ public class ProjectMatchController {
      */
     @GetMapping("/tasks/{projId}")
     @ResponseBody
-    public List<Task> getProjectTasks(@PathVariable Integer projId) {
-        return taskService.getTasksByProjectId(projId);
+    public List<Task> getProjectTasks(@PathVariable Integer projId,
+                                      @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return taskService.getTasksByProjectId(projId, includeArchived);
     }
 
     /**
@@ -235,8 +231,9 @@ public class ProjectMatchController {
      */
     @GetMapping("/projectWithTasks/{projectId}")
     @ResponseBody
-    public Map<String, Object> getProjectWithTasks(@PathVariable Integer projectId) {
-        return projectMatchService.getProjectWithTasks(projectId);
+    public Map<String, Object> getProjectWithTasks(@PathVariable Integer projectId,
+                                                   @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return projectMatchService.getProjectWithTasks(projectId, includeArchived);
     }
 
     /**
@@ -253,9 +250,10 @@ public class ProjectMatchController {
      */
     @PostMapping("/searchProjectNameWithTasks")
     @ResponseBody
-    public List<Map<String, Object>> searchProjectNameWithTasks(@RequestParam String searchValue) {
-        List<Project> projects = projectMatchService.matchByProjectName(searchValue);
-        return projectMatchService.getProjectsWithTasks(projects);
+    public List<Map<String, Object>> searchProjectNameWithTasks(@RequestParam String searchValue,
+                                                                @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<Project> projects = projectMatchService.matchByProjectName(searchValue, includeArchived);
+        return projectMatchService.getProjectsWithTasks(projects, includeArchived);
     }
 
     /**
@@ -263,11 +261,11 @@ public class ProjectMatchController {
      */
     @PostMapping("/searchEmployeeWithTasks")
     @ResponseBody
-    public List<Map<String, Object>> searchEmployeeWithTasks(@RequestParam String searchValue) {
+    public List<Map<String, Object>> searchEmployeeWithTasks(@RequestParam String searchValue,
+                                                             @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            Integer empId = Integer.parseInt(searchValue);
-            List<Project> projects = projectMatchService.matchByEmployee(empId);
-            return projectMatchService.getProjectsWithTasks(projects);
+            Integer empId = Integer.parseInt(searchValue.trim());
+            return projectMatchService.matchByEmployeeWithTasks(empId, includeArchived);
         } catch (NumberFormatException e) {
             return List.of();
         }
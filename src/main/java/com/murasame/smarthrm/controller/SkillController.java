@@ -1,8 +1,11 @@
 package com.murasame.smarthrm.controller;
 
+import com.murasame.smarthrm.cache.ReferenceCaches;
 import com.murasame.smarthrm.dao.SkillRepo;
 import com.murasame.smarthrm.entity.Skill;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -12,11 +15,14 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@Lazy
 @RequestMapping("/skill")
 @RequiredArgsConstructor
 public class SkillController {
 
     private final SkillRepo skillRepo;
+    private final EmployeeViewService employeeViewService;
+    private final ReferenceCaches referenceCaches;
 
     @PostMapping("/add")
     public ResponseEntity<String> addSkill(@RequestBody Skill skill) {
@@ -40,6 +46,8 @@ public class SkillController {
         }
 
         skillRepo.save(skill);
+        referenceCaches.evictSkill(skill.get_id());
+        employeeViewService.skillSaved(skill);
         return ResponseEntity.ok("成功：技能添加完成！");
     }
 
@@ -57,6 +65,8 @@ public class SkillController {
         }
 
         skillRepo.save(skill);
+        referenceCaches.evictSkill(skill.get_id());
+        employeeViewService.skillSaved(skill);
         return ResponseEntity.ok("成功：技能信息已更新！");
     }
 
@@ -64,6 +74,8 @@ public class SkillController {
     public ResponseEntity<String> deleteSkill(@PathVariable Integer id) {
         if (skillRepo.existsById(id)) {
             skillRepo.deleteById(id);
+            referenceCaches.evictSkill(id);
+            employeeViewService.skillDeleted(id);
             return ResponseEntity.ok("成功：技能已删除");
         }
         return ResponseEntity.badRequest().body("错误：未找到该技能ID");
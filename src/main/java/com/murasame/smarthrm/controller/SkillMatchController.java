@@ -1,8 +1,8 @@
 package com.murasame.smarthrm.controller;
 
-import com.murasame.smarthrm.dao.DepartmentRepo;
+import com.murasame.smarthrm.dao.DepartmentDao;
 import com.murasame.smarthrm.dao.ProjectRepo;
-import com.murasame.smarthrm.dao.SkillRepo;
+import com.murasame.smarthrm.dao.SkillDao;
 import com.murasame.smarthrm.dto.SkillMatchDTO;
 import com.murasame.smarthrm.entity.Department;
 import com.murasame.smarthrm.entity.Employee;
@@ -21,8 +21,9 @@ import java.util.List;
 public class SkillMatchController {
 
 	private final SkillMatchService skillMatchService;
-	private final SkillRepo skillRepo;
-	private final DepartmentRepo depRepo;
+	// 技能/部门下拉数据走DAO缓存（见CacheNames）
+	private final SkillDao skillDao;
+	private final DepartmentDao departmentDao;
 	private final ProjectRepo projRepo;
 
 	@GetMapping("/")
@@ -46,7 +47,7 @@ public class SkillMatchController {
 	/* 仅返回 [{id,skillName}, ...] */
 	@GetMapping("/skills")
 	@ResponseBody
-	public List<Skill> allSkills(){ return skillRepo.findAll(); }
+	public List<Skill> allSkills(){ return skillDao.findAll(); }
 
 	/* 仅返回 [{id,projName}, ...] */
 	@GetMapping("/projects")
@@ -56,5 +57,5 @@ public class SkillMatchController {
 	/* 仅返回 [{id,depName}, ...] */
 	@GetMapping("/departments")
 	@ResponseBody
-	public List<Department> allDeps(){ return depRepo.findAll(); }
+	public List<Department> allDeps(){ return departmentDao.findAll(); }
 }
@@ -4,7 +4,12 @@ import com.murasame.smarthrm.dao.EmployeeDao;
 import com.murasame.smarthrm.dao.SkillRepo;
 import com.murasame.smarthrm.dao.TrainingRepo;
 import com.murasame.smarthrm.entity.Training;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -15,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @Controller
+@Lazy
 @RequestMapping("/training")
 @RequiredArgsConstructor
 public class TrainingController {
@@ -22,6 +28,9 @@ public class TrainingController {
     private final TrainingRepo trainingRepo;
     private final SkillRepo skillRepo;
     private final EmployeeDao employeeDao;
+    private final EmployeeViewService employeeViewService;
+    private final OrgGraph orgGraph;
+    private final ObjectProvider<ChangeLogWriter> changeLog;
 
     @GetMapping("/")
     public String manageSkillTraining(){
@@ -52,6 +61,9 @@ public class TrainingController {
         }
 
         trainingRepo.save(training);
+        changeLog.ifAvailable(writer -> writer.recordSave(null, training));
+        employeeViewService.trainingSaved(null, training);
+        orgGraph.trainingSaved(training);
         return ResponseEntity.ok("成功：培训课程已发布！");
     }
 
@@ -59,7 +71,8 @@ public class TrainingController {
     @ResponseBody
     @PostMapping("/update")
     public ResponseEntity<String> updateTraining(@RequestBody Training training) {
-        if (training.get_id() == null || !trainingRepo.existsById(training.get_id())) {
+        Training before = training.get_id() == null ? null : trainingRepo.findById(training.get_id()).orElse(null);
+        if (before == null) {
             return ResponseEntity.badRequest().body("错误：未找到ID为 " + training.get_id() + " 的课程，无法修改！");
         }
 
@@ -72,6 +85,9 @@ public class TrainingController {
         if (validResult != null) return ResponseEntity.badRequest().body(validResult);
 
         trainingRepo.save(training);
+        changeLog.ifAvailable(writer -> writer.recordSave(before, training));
+        employeeViewService.trainingSaved(before, training);
+        orgGraph.trainingSaved(training);
         return ResponseEntity.ok("成功：培训课程信息已更新！");
     }
 
@@ -93,8 +109,12 @@ public class TrainingController {
     @ResponseBody
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<String> deleteTraining(@PathVariable Integer id) {
-        if (trainingRepo.existsById(id)) {
+        Training before = trainingRepo.findById(id).orElse(null);
+        if (before != null) {
             trainingRepo.deleteById(id);
+            changeLog.ifAvailable(writer -> writer.recordDelete(before));
+            employeeViewService.trainingDeleted(id);
+            orgGraph.trainingDeleted(id);
             return ResponseEntity.ok("成功：课程已删除");
         }
         return ResponseEntity.badRequest().body("错误：未找到该课程ID");
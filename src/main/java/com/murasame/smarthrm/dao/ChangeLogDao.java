@@ -0,0 +1,183 @@
+package com.murasame.smarthrm.dao;
+
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 变更历史数据访问层（ChangeLog / ChangeSnapshot集合）
+ * 两个集合都只追加，不修改已有记录
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogDao {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 创建索引（幂等）
+     * 日志：实体+时间（单实体重放）、时间（按时间段查询）、部门字段（稀疏，按部门查历史成员）；快照：实体+时间
+     */
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(ChangeLogEntry.class).createIndex(new Index()
+                .on("entity", Sort.Direction.ASC).on("entityId", Sort.Direction.ASC).on("at", Sort.Direction.ASC));
+        mongoTemplate.indexOps(ChangeLogEntry.class).createIndex(new Index().on("at", Sort.Direction.ASC));
+        mongoTemplate.indexOps(ChangeLogEntry.class).createIndex(new Index().on("changes.depId", Sort.Direction.ASC).sparse());
+        mongoTemplate.indexOps(ChangeLogEntry.class).createIndex(new Index().on("previous.depId", Sort.Direction.ASC).sparse());
+        mongoTemplate.indexOps(ChangeSnapshot.class).createIndex(new Index()
+                .on("entity", Sort.Direction.ASC).on("entityId", Sort.Direction.ASC).on("at", Sort.Direction.ASC));
+    }
+
+    /**
+     * 批量追加日志与快照（各一次insertMany）
+     */
+    public void append(Collection<ChangeLogEntry> entries, Collection<ChangeSnapshot> snapshots) {
+        if (!entries.isEmpty()) {
+            mongoTemplate.insert(entries, ChangeLogEntry.class);
+        }
+        if (!snapshots.isEmpty()) {
+            mongoTemplate.insert(snapshots, ChangeSnapshot.class);
+        }
+    }
+
+    /**
+     * 不晚于指定时间的最近一个快照
+     */
+    public ChangeSnapshot findSnapshotAtOrBefore(String entity, Integer entityId, LocalDateTime at) {
+        Query query = new Query(entityCriteria(entity, entityId).and("at").lte(at))
+                .with(Sort.by(Sort.Direction.DESC, "at")).limit(1);
+        return mongoTemplate.findOne(query, ChangeSnapshot.class);
+    }
+
+    /**
+     * 晚于指定时间的最早一个快照
+     */
+    public ChangeSnapshot findSnapshotAfter(String entity, Integer entityId, LocalDateTime at) {
+        Query query = new Query(entityCriteria(entity, entityId).and("at").gt(at))
+                .with(Sort.by(Sort.Direction.ASC, "at")).limit(1);
+        return mongoTemplate.findOne(query, ChangeSnapshot.class);
+    }
+
+    /**
+     * 多个实体各自不晚于指定时间的最近一个快照（一次聚合：按实体分组取最新）
+     * @return 实体ID -> 快照，没有符合条件快照的实体不在结果中
+     */
+    public Map<Integer, ChangeSnapshot> findSnapshotsAtOrBefore(String entity, Collection<Integer> entityIds, LocalDateTime at) {
+        return firstSnapshots(Criteria.where("entity").is(entity).and("entityId").in(entityIds).and("at").lte(at),
+                Sort.Direction.DESC);
+    }
+
+    /**
+     * 多个实体各自晚于指定时间的最早一个快照（一次聚合：按实体分组取最早）
+     * @return 实体ID -> 快照，没有符合条件快照的实体不在结果中
+     */
+    public Map<Integer, ChangeSnapshot> findSnapshotsAfter(String entity, Collection<Integer> entityIds, LocalDateTime at) {
+        return firstSnapshots(Criteria.where("entity").is(entity).and("entityId").in(entityIds).and("at").gt(at),
+                Sort.Direction.ASC);
+    }
+
+    private Map<Integer, ChangeSnapshot> firstSnapshots(Criteria criteria, Sort.Direction direction) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "entityId").and(Sort.by(direction, "at"))),
+                Aggregation.group("entityId").first(Aggregation.ROOT).as("snapshot"),
+                Aggregation.replaceRoot("snapshot"));
+        Map<Integer, ChangeSnapshot> snapshots = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, ChangeSnapshot.class, ChangeSnapshot.class)
+                .forEach(snapshot -> snapshots.put(snapshot.getEntityId(), snapshot));
+        return snapshots;
+    }
+
+    /**
+     * 多个实体在 (from, to] 内的变更（一次查询），按实体分组、组内按时间先后
+     * @param from 起始时间（不含），null表示不限
+     * @param to 结束时间（含），null表示不限
+     */
+    public Map<Integer, List<ChangeLogEntry>> findEntries(String entity, Collection<Integer> entityIds,
+                                                          LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("entity").is(entity).and("entityId").in(entityIds);
+        if (from != null || to != null) {
+            Criteria at = criteria.and("at");
+            if (from != null) at.gt(from);
+            if (to != null) at.lte(to);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "at", "_id"));
+        Map<Integer, List<ChangeLogEntry>> entries = new HashMap<>();
+        mongoTemplate.find(query, ChangeLogEntry.class)
+                .forEach(entry -> entries.computeIfAbsent(entry.getEntityId(), id -> new ArrayList<>()).add(entry));
+        return entries;
+    }
+
+    /**
+     * 单个实体在 (from, to] 内的变更，按时间先后
+     * @param from 起始时间（不含），null表示不限
+     * @param to 结束时间（含），null表示不限
+     */
+    public List<ChangeLogEntry> findEntries(String entity, Integer entityId, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = entityCriteria(entity, entityId);
+        if (from != null || to != null) {
+            Criteria at = criteria.and("at");
+            if (from != null) at.gt(from);
+            if (to != null) at.lte(to);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "at", "_id"));
+        return mongoTemplate.find(query, ChangeLogEntry.class);
+    }
+
+    /**
+     * 按时间段查询变更（时间索引），按时间先后
+     * @param entity 集合名，null表示全部
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param limit 最多返回条数
+     */
+    public List<ChangeLogEntry> findBetween(String entity, LocalDateTime from, LocalDateTime to, int limit) {
+        Criteria criteria = Criteria.where("at").gte(from).lt(to);
+        if (entity != null) {
+            criteria.and("entity").is(entity);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "at", "_id")).limit(limit);
+        return mongoTemplate.find(query, ChangeLogEntry.class);
+    }
+
+    /**
+     * 曾经被调入或调出指定部门的员工ID（changes.depId / previous.depId 稀疏索引）
+     */
+    public Set<Integer> findEmployeeIdsEverInDepartment(Integer depId) {
+        Query query = new Query(Criteria.where("entity").is("Employee").orOperator(
+                Criteria.where("changes.depId").is(depId),
+                Criteria.where("previous.depId").is(depId)));
+        query.fields().include("entityId");
+        Set<Integer> ids = new LinkedHashSet<>();
+        mongoTemplate.find(query, ChangeLogEntry.class).forEach(entry -> ids.add(entry.getEntityId()));
+        return ids;
+    }
+
+    public long countEntries() {
+        return mongoTemplate.estimatedCount(ChangeLogEntry.class);
+    }
+
+    public long countSnapshots() {
+        return mongoTemplate.estimatedCount(ChangeSnapshot.class);
+    }
+
+    private static Criteria entityCriteria(String entity, Integer entityId) {
+        return Criteria.where("entity").is(entity).and("entityId").is(entityId);
+    }
+}
@@ -1,28 +1,49 @@
 package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
+import com.mongodb.client.result.UpdateResult;
+import com.murasame.smarthrm.cache.CacheNames;
 import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 部门数据访问层（DAO）
  * 基于MongoTemplate实现部门实体的CRUD操作及高级查询（模糊查询、分页查询）
+ * 全量列表经Spring Cache缓存（只读使用），本类写方法执行后失效；其他节点的写操作经变更流失效
  */
 @Repository
 public class DepartmentDao {
 
+    // 变更历史记录的集合名
+    private static final String HISTORY = "Department";
+
     // 注入MongoTemplate，用于操作MongoDB数据库
     @Autowired
     private MongoTemplate mongoTemplate;
+    // 变更历史写入器（未开启时不可用）
+    @Autowired
+    private ObjectProvider<ChangeLogWriter> changeLog;
 
     /**
      * 根据部门ID查询单个部门信息
@@ -30,16 +51,17 @@ public class DepartmentDao {
      * @return 匹配的Department实体，无匹配则返回null
      */
     public Department findById(Integer id) {
-        Query query = new Query(Criteria.where("_id").is(id));
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").is(id)));
         return mongoTemplate.findOne(query, Department.class);
     }
 
     /**
-     * 查询所有部门信息
+     * 查询所有部门信息（不含已软删除的部门）
      * @return 所有部门的List集合，无数据则返回空列表
      */
+    @Cacheable(cacheNames = CacheNames.DEPARTMENTS, key = "'all'")
     public List<Department> findAll() {
-        return mongoTemplate.findAll(Department.class);
+        return mongoTemplate.find(new Query(SoftDelete.alive()), Department.class);
     }
 
     /**
@@ -48,31 +70,149 @@ public class DepartmentDao {
      * - 若_id已存在 → 覆盖更新（Service层需控制新增时生成唯一_id，避免误更新）
      * @param department 待保存的部门对象（新增时需包含生成的主键ID）
      */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
     public void save(Department department) {
-        // 调用MongoTemplate的save方法，自动处理新增/更新逻辑
-        mongoTemplate.save(department);
+        // 按主键整文档替换（不存在则插入），返回替换前的文档用于记录变更历史
+        Query query = new Query(Criteria.where("_id").is(department.getId()));
+        Department before = mongoTemplate.findAndReplace(query, department, FindAndReplaceOptions.options().upsert());
+        changeLog.ifAvailable(writer -> writer.recordReplace(HISTORY, department.getId(), before, department));
     }
 
     /**
      * 更新部门信息（根据部门ID更新名称、负责人、员工列表）
      * @param department 待更新的部门对象（必须包含主键ID）
      */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
     public void update(Department department) {
         Query query = new Query(Criteria.where("_id").is(department.getId()));
-        org.springframework.data.mongodb.core.query.Update update = new org.springframework.data.mongodb.core.query.Update()
+        Update update = new Update()
                 .set("depName", department.getDepName())
                 .set("managerId", department.getManagerId())
                 .set("empList", department.getEmpList());
-        mongoTemplate.updateFirst(query, update, Department.class);
+        Department before = mongoTemplate.findAndModify(query, update, Department.class);
+        if (before != null) {
+            changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, department.getId(), before, update));
+        }
+    }
+
+    /**
+     * 从所有部门的员工列表中移除指定员工（员工删除时调用）
+     * 单次updateMulti + $pull；开启变更历史时先查出受影响部门的员工列表，逐个记录
+     * @param empId 员工主键ID
+     * @return 被修改的部门数量
+     */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
+    public long pullEmployee(Integer empId) {
+        Query query = new Query(Criteria.where("empList.empId").is(empId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = List.of();
+        if (writer != null) {
+            Query fieldQuery = new Query(Criteria.where("empList.empId").is(empId));
+            fieldQuery.fields().include("empList");
+            affected = mongoTemplate.find(fieldQuery, Document.class, mongoTemplate.getCollectionName(Department.class));
+        }
+        Update update = new Update().pull("empList", new Document("empId", empId));
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Department.class);
+        if (writer != null) {
+            writer.recordPull(HISTORY, affected, "empList",
+                    element -> element instanceof Document member && empId.equals(member.get("empId")));
+        }
+        return result.getModifiedCount();
+    }
+
+    /**
+     * 置空以指定员工为负责人的所有部门的负责人ID（员工删除时调用）
+     * @param empId 员工主键ID
+     * @return 被修改的部门数量
+     */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
+    public long clearManager(Integer empId) {
+        Query query = new Query(Criteria.where("managerId").is(empId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Department> affected = List.of();
+        if (writer != null) {
+            Query idQuery = new Query(Criteria.where("managerId").is(empId));
+            idQuery.fields().include("_id");
+            affected = mongoTemplate.find(idQuery, Department.class);
+        }
+        Update update = new Update().set("managerId", null);
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Department.class);
+        for (Department department : affected) {
+            writer.record(HISTORY, department.getId(), Map.of("managerId", empId), Collections.singletonMap("managerId", null));
+        }
+        return result.getModifiedCount();
     }
 
     /**
      * 根据部门ID删除部门
      * @param deptId 待删除部门的主键ID
      */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
     public void delete(Integer deptId) {
         Query query = new Query(Criteria.where("_id").is(deptId));
-        mongoTemplate.remove(query, Department.class);
+        Document removed = mongoTemplate.findAndRemove(query, Document.class, mongoTemplate.getCollectionName(Department.class));
+        if (removed != null) {
+            changeLog.ifAvailable(writer -> writer.recordDelete(HISTORY, deptId, removed));
+        }
+    }
+
+    // ==================== 软删除 ====================
+
+    /**
+     * 创建墓碑索引（幂等，稀疏索引只包含已删除的部门）
+     */
+    public void ensureSoftDeleteIndexes() {
+        mongoTemplate.indexOps(Department.class).createIndex(new Index().on(SoftDelete.FIELD, Sort.Direction.ASC).sparse());
+    }
+
+    /**
+     * 写入墓碑（单次updateOne），之后所有读取都看不到该部门
+     * @param deptId 部门ID
+     * @param deletedAt 删除时间
+     * @return 部门存在且未删除时返回true
+     */
+    @CacheEvict(cacheNames = CacheNames.DEPARTMENTS, allEntries = true)
+    public boolean markDeleted(Integer deptId, LocalDateTime deletedAt) {
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").is(deptId)));
+        Update update = new Update().set(SoftDelete.FIELD, deletedAt);
+        Department before = mongoTemplate.findAndModify(query, update, Department.class);
+        if (before == null) {
+            return false;
+        }
+        changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, deptId, before, update));
+        return true;
+    }
+
+    /**
+     * 物理删除已完成引用清理的墓碑（读取已不可见，无需失效缓存）
+     * @param deptId 部门ID
+     */
+    public void purge(Integer deptId) {
+        Document removed = mongoTemplate.findAndRemove(new Query(SoftDelete.deleted().and("_id").is(deptId)),
+                Document.class, mongoTemplate.getCollectionName(Department.class));
+        if (removed != null) {
+            changeLog.ifAvailable(writer -> writer.recordDelete(HISTORY, deptId, removed));
+        }
+    }
+
+    /**
+     * 全部墓碑（只返回_id与删除时间）
+     */
+    public List<Department> findDeleted() {
+        Query query = new Query(SoftDelete.deleted());
+        query.fields().include(SoftDelete.FIELD);
+        return mongoTemplate.find(query, Department.class);
+    }
+
+    /**
+     * 含墓碑在内的最大部门ID（新增部门分配ID时使用，避免复用未清理完的已删除部门ID）
+     * @return 最大ID，无部门时返回null
+     */
+    public Integer maxId() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        query.fields().include("_id");
+        Department department = mongoTemplate.findOne(query, Department.class);
+        return department == null ? null : department.getId();
     }
 
     /**
@@ -83,14 +223,14 @@ public class DepartmentDao {
     public List<Department> findByDepNameLikeIgnoreCase(String searchKey) {
         // 空值防护：关键词为空/仅空格时，返回所有部门
         if (searchKey == null || searchKey.trim().isEmpty()) {
-            return mongoTemplate.findAll(Department.class);
+            return mongoTemplate.find(new Query(SoftDelete.alive()), Department.class);
         }
 
         // 构建模糊查询条件：匹配包含关键词的部门名称，忽略大小写
         Criteria criteria = Criteria.where("depName")
                 .regex(".*" + searchKey.trim() + ".*", "i"); // "i" 表示忽略大小写
 
-        Query query = new Query(criteria);
+        Query query = new Query(SoftDelete.alive(criteria));
         return mongoTemplate.find(query, Department.class);
     }
 
@@ -102,8 +242,8 @@ public class DepartmentDao {
      * @return 分页结果对象（包含当前页数据、总条数、分页参数）
      */
     public Page<Department> findByDepNameLikeWithPage(String searchKey, int pageNum, int pageSize) {
-        // 1. 构建基础查询条件
-        Query query = new Query();
+        // 1. 构建基础查询条件（不含已软删除的部门）
+        Query query = new Query(SoftDelete.alive());
         if (searchKey != null && !searchKey.trim().isEmpty()) {
             Criteria criteria = Criteria.where("depName")
                     .regex(".*" + searchKey.trim() + ".*", "i");
@@ -2,12 +2,19 @@ package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
 import com.murasame.smarthrm.dto.SkillMatchDTO;
+import com.mongodb.client.result.UpdateResult;
 import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.history.ChangeLogWriter;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -15,13 +22,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 @Component
 @RequiredArgsConstructor
 public class EmployeeDao {
 
+	// 变更历史记录的集合名
+	private static final String HISTORY = "Employee";
+
 	private final MongoTemplate mongoTemplate;
+	private final ObjectProvider<ChangeLogWriter> changeLog;
 
 	/*
 	  匹配：skillList 里同时存在
@@ -38,12 +52,12 @@ public class EmployeeDao {
 				))
 				.toList();
 
-		Query query = new Query(new Criteria().andOperator(elemMatchCriterias.toArray(new Criteria[0])));
+		Query query = new Query(SoftDelete.alive(new Criteria().andOperator(elemMatchCriterias.toArray(new Criteria[0]))));
 		return mongoTemplate.find(query, Employee.class);
 	}
 	//修复报错
 	public boolean existsById(Integer id) {
-		Query query = new Query(Criteria.where("_id").is(id));
+		Query query = new Query(SoftDelete.alive(Criteria.where("_id").is(id)));
 		return mongoTemplate.exists(query, Employee.class);
 	}
 
@@ -53,16 +67,16 @@ public class EmployeeDao {
      * @return 匹配的Employee实体，无匹配则返回null
      */
     public Employee findById(Integer id) {
-        Query query = new Query(Criteria.where("_id").is(id));
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").is(id)));
         return mongoTemplate.findOne(query, Employee.class);
     }
 
     /**
-     * 查询所有员工信息
+     * 查询所有员工信息（不含已软删除的员工）
      * @return 所有员工的List集合，无数据则返回空列表
      */
     public List<Employee> findAll() {
-        return mongoTemplate.findAll(Employee.class);
+        return mongoTemplate.find(new Query(SoftDelete.alive()), Employee.class);
     }
 
     /**
@@ -72,7 +86,31 @@ public class EmployeeDao {
      */
     public List<Employee> findByIds(List<Integer> empIds) {
         if (empIds.isEmpty()) return List.of();
-        Query query = new Query(Criteria.where("_id").in(empIds));
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").in(empIds)));
+        return mongoTemplate.find(query, Employee.class);
+    }
+
+    /**
+     * 批量查询员工所属部门（只返回_id与depId）
+     * @param empIds 待查询的员工ID集合
+     * @return 存在的员工（仅含ID与部门ID）
+     */
+    public List<Employee> findDepIdsByIds(Collection<Integer> empIds) {
+        if (empIds.isEmpty()) return List.of();
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").in(empIds)));
+        query.fields().include("depId");
+        return mongoTemplate.find(query, Employee.class);
+    }
+
+    /**
+     * 批量查询员工姓名（只返回_id与empName）
+     * @param empIds 待查询的员工ID集合
+     * @return 存在的员工（仅含ID与姓名）
+     */
+    public List<Employee> findNamesByIds(Collection<Integer> empIds) {
+        if (empIds.isEmpty()) return List.of();
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").in(empIds)));
+        query.fields().include("empName");
         return mongoTemplate.find(query, Employee.class);
     }
 
@@ -90,8 +128,10 @@ public class EmployeeDao {
                 .set("projects", employee.getProjects())    // 更新项目列表
                 //.set("trainingList", employee.getTrainingList()) // 同步更新培训列表（数据库中员工没有这个字段，所以不用更新）
                 .set("joinDate", employee.getJoinDate());
-        // 使用upsert：匹配到则更新第一条，未匹配到则插入新文档
-        mongoTemplate.upsert(query, update, Employee.class);
+        // 使用upsert：匹配到则更新第一条，未匹配到则插入新文档；返回更新前的文档用于记录变更历史
+        Employee before = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true),
+                Employee.class);
+        changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, employee.get_id(), before, update));
     }
 
     /**
@@ -102,7 +142,10 @@ public class EmployeeDao {
     public void updateDepId(Integer empId, Integer newDeptId) {
         Query query = new Query(Criteria.where("_id").is(empId));
         Update update = new Update().set("depId", newDeptId);
-        mongoTemplate.updateFirst(query, update, Employee.class);
+        Employee before = mongoTemplate.findAndModify(query, update, Employee.class);
+        if (before != null) {
+            changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, empId, before, update));
+        }
     }
 
     /**
@@ -112,8 +155,43 @@ public class EmployeeDao {
     public void batchUpdateDepIdToNull(List<Integer> empIds) {
         if (empIds.isEmpty()) return;
         Query query = new Query(Criteria.where("_id").in(empIds));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Employee> affected = List.of();
+        if (writer != null) {
+            Query fieldQuery = new Query(Criteria.where("_id").in(empIds).and("depId").ne(null));
+            fieldQuery.fields().include("depId");
+            affected = mongoTemplate.find(fieldQuery, Employee.class);
+        }
         Update update = new Update().set("depId", null);
         mongoTemplate.updateMulti(query, update, Employee.class);
+        for (Employee employee : affected) {
+            writer.record(HISTORY, employee.get_id(), Map.of("depId", employee.getDepId()), Collections.singletonMap("depId", null));
+        }
+    }
+
+    /**
+     * 批量移除员工的项目关联（项目删除时调用）
+     * 单次updateMulti + $pull，从所有员工的projects列表中移除指定项目；开启变更历史时先查出受影响员工的项目列表，逐个记录
+     * @param projIds 已删除的项目ID集合
+     * @return 被修改的员工数量，ID集合为空时返回0
+     */
+    public long pullProjects(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return 0;
+        Query query = new Query(Criteria.where("projects.projId").in(projIds));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = List.of();
+        if (writer != null) {
+            Query fieldQuery = new Query(Criteria.where("projects.projId").in(projIds));
+            fieldQuery.fields().include("projects");
+            affected = mongoTemplate.find(fieldQuery, Document.class, mongoTemplate.getCollectionName(Employee.class));
+        }
+        Update update = new Update().pull("projects", new Document("projId", new Document("$in", projIds)));
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Employee.class);
+        if (writer != null) {
+            writer.recordPull(HISTORY, affected, "projects",
+                    element -> element instanceof Document project && projIds.contains(project.get("projId")));
+        }
+        return result.getModifiedCount();
     }
 
     /**
@@ -122,7 +200,100 @@ public class EmployeeDao {
      */
     public void deleteById(Integer id) {
         Query query = new Query(Criteria.where("_id").is(id));
-        mongoTemplate.remove(query, Employee.class);
+        Document removed = mongoTemplate.findAndRemove(query, Document.class, mongoTemplate.getCollectionName(Employee.class));
+        if (removed != null) {
+            changeLog.ifAvailable(writer -> writer.recordDelete(HISTORY, id, removed));
+        }
+    }
+
+    // ==================== 软删除 ====================
+
+    /**
+     * 创建墓碑索引（幂等，稀疏索引只包含已删除的员工）
+     */
+    public void ensureSoftDeleteIndexes() {
+        mongoTemplate.indexOps(Employee.class).createIndex(new Index().on(SoftDelete.FIELD, Sort.Direction.ASC).sparse());
+    }
+
+    /**
+     * 写入墓碑（单次updateOne），之后所有读取都看不到该员工
+     * @param empId 员工ID
+     * @param deletedAt 删除时间
+     * @return 员工存在且未删除时返回true
+     */
+    public boolean markDeleted(Integer empId, LocalDateTime deletedAt) {
+        Query query = new Query(SoftDelete.alive(Criteria.where("_id").is(empId)));
+        Update update = new Update().set(SoftDelete.FIELD, deletedAt);
+        Employee before = mongoTemplate.findAndModify(query, update, Employee.class);
+        if (before == null) {
+            return false;
+        }
+        changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, empId, before, update));
+        return true;
+    }
+
+    /**
+     * 物理删除已完成引用清理的墓碑
+     * @param empId 员工ID
+     */
+    public void purge(Integer empId) {
+        Document removed = mongoTemplate.findAndRemove(new Query(SoftDelete.deleted().and("_id").is(empId)),
+                Document.class, mongoTemplate.getCollectionName(Employee.class));
+        if (removed != null) {
+            changeLog.ifAvailable(writer -> writer.recordDelete(HISTORY, empId, removed));
+        }
+    }
+
+    /**
+     * 全部墓碑（只返回_id与删除时间）
+     */
+    public List<Employee> findDeleted() {
+        Query query = new Query(SoftDelete.deleted());
+        query.fields().include(SoftDelete.FIELD);
+        return mongoTemplate.find(query, Employee.class);
+    }
+
+    /**
+     * 当前部门ID为指定部门的员工ID（含墓碑，按时间点查询部门成员时作为候选）
+     * @param depId 部门ID
+     */
+    public List<Integer> findIdsByDepIdIncludingDeleted(Integer depId) {
+        Query query = new Query(Criteria.where("depId").is(depId));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Employee.class).stream().map(Employee::get_id).toList();
+    }
+
+    /**
+     * 含墓碑在内的最大员工ID（新增员工分配ID时使用，避免复用未清理完的已删除员工ID）
+     * @return 最大ID，无员工时返回null
+     */
+    public Integer maxId() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        query.fields().include("_id");
+        Employee employee = mongoTemplate.findOne(query, Employee.class);
+        return employee == null ? null : employee.get_id();
+    }
+
+    /**
+     * 清空属于指定部门的所有员工的部门ID（部门软删除后的引用清理，单次updateMulti）
+     * 开启变更历史时先查出受影响的员工ID，逐个记录部门变更
+     * @param deptId 部门ID
+     * @return 被修改的员工数量
+     */
+    public long clearDepartment(Integer deptId) {
+        Query query = new Query(Criteria.where("depId").is(deptId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Employee> affected = List.of();
+        if (writer != null) {
+            Query idQuery = new Query(Criteria.where("depId").is(deptId));
+            idQuery.fields().include("_id");
+            affected = mongoTemplate.find(idQuery, Employee.class);
+        }
+        UpdateResult result = mongoTemplate.updateMulti(query, new Update().set("depId", null), Employee.class);
+        for (Employee employee : affected) {
+            writer.record(HISTORY, employee.get_id(), Map.of("depId", deptId), Collections.singletonMap("depId", null));
+        }
+        return result.getModifiedCount();
     }
 
     /**
@@ -141,7 +312,7 @@ public class EmployeeDao {
         Criteria criteria = Criteria.where("empName")
                 .regex(".*" + empName.trim() + ".*", "i");
 
-        Query query = new Query(criteria);
+        Query query = new Query(SoftDelete.alive(criteria));
         return mongoTemplate.find(query, Employee.class);
     }
 
@@ -154,7 +325,7 @@ public class EmployeeDao {
      */
     public Page<Employee> findByEmpNameLikeWithPage(String empName, int pageNum, int pageSize) {
         // 1. 构建基础查询条件：姓名模糊匹配（忽略大小写）
-        Query query = new Query();
+        Query query = new Query(SoftDelete.alive());
         if (StringUtils.hasText(empName)) {
             Criteria criteria = Criteria.where("empName")
                     .regex(".*" + empName.trim() + ".*", "i");
@@ -0,0 +1,221 @@
+package com.murasame.smarthrm.dao;
+
+import com.mongodb.client.result.UpdateResult;
+import com.murasame.smarthrm.entity.EmployeeView;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 员工读模型数据访问层（EmployeeView集合）
+ * 列表页的投影分页查询，以及各写路径上的增量维护：
+ * 单个员工整行替换、部门/技能/项目/培训名称的集合级updateMulti（嵌套数组通过arrayFilters定位元素）
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeViewDao {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 创建读模型索引（幂等）
+     * empName：列表页排序/搜索；depId 及嵌套ID：名称变更时的updateMulti定位
+     */
+    public void ensureIndexes() {
+        IndexOperations ops = mongoTemplate.indexOps(EmployeeView.class);
+        ops.createIndex(new Index().on("empName", Sort.Direction.ASC));
+        ops.createIndex(new Index().on("depId", Sort.Direction.ASC));
+        ops.createIndex(new Index().on("skillList.skillId", Sort.Direction.ASC));
+        ops.createIndex(new Index().on("projects.projId", Sort.Direction.ASC));
+        ops.createIndex(new Index().on("trainingList.trainId", Sort.Direction.ASC));
+    }
+
+    /**
+     * 员工列表分页查询（姓名模糊匹配，按员工ID升序）
+     * 只返回页面渲染所需字段；无搜索条件时总数取集合元数据估算值，不扫描文档
+     * @param empName 员工姓名关键词（可为空）
+     * @param pageNum 当前页码（从1开始）
+     * @param pageSize 每页展示条数
+     * @return 分页结果对象
+     */
+    public Page<EmployeeView> findPage(String empName, int pageNum, int pageSize) {
+        Query query = new Query();
+        long total;
+        if (StringUtils.hasText(empName)) {
+            query.addCriteria(Criteria.where("empName").regex(".*" + empName.trim() + ".*", "i"));
+            total = mongoTemplate.count(query, EmployeeView.class);
+        } else {
+            total = mongoTemplate.estimatedCount(EmployeeView.class);
+        }
+
+        query.with(Sort.by(Sort.Direction.ASC, "_id"))
+                .skip((long) (pageNum - 1) * pageSize)
+                .limit(pageSize);
+        query.fields().include("empName", "deptName", "deptType", "skillList", "projects", "trainingList", "joinDate");
+        List<EmployeeView> views = mongoTemplate.find(query, EmployeeView.class);
+        return new PageImpl<>(views, PageRequest.of(pageNum - 1, pageSize), total);
+    }
+
+    /**
+     * 读模型文档总数（估算值）
+     */
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(EmployeeView.class);
+    }
+
+    /**
+     * 整行写入（不存在则插入）
+     * @param view 读模型行
+     */
+    public void save(EmployeeView view) {
+        mongoTemplate.save(view);
+    }
+
+    /**
+     * 批量整行写入（无序bulk，不存在则插入）
+     * @param views 读模型行
+     */
+    public void saveAll(Collection<EmployeeView> views) {
+        if (views.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmployeeView.class);
+        for (EmployeeView view : views) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(view.get_id())), view,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    /**
+     * 删除单行
+     * @param empId 员工ID
+     */
+    public void deleteById(Integer empId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(empId)), EmployeeView.class);
+    }
+
+    /**
+     * 删除不在给定ID集合中的行（全量重建后清理已不存在的员工）
+     * @param empIds 现存员工ID集合
+     * @return 删除的行数
+     */
+    public long deleteByIdNotIn(Collection<Integer> empIds) {
+        return mongoTemplate.remove(new Query(Criteria.where("_id").nin(empIds)), EmployeeView.class)
+                .getDeletedCount();
+    }
+
+    /**
+     * 批量设置员工所属部门显示信息
+     * @param criteria 目标行条件
+     * @param depId 部门ID（可为null）
+     * @param deptName 部门显示名称
+     * @param deptType 部门状态：unassigned/normal/deleted
+     * @return 被修改的行数
+     */
+    public long setDepartment(Criteria criteria, Integer depId, String deptName, String deptType) {
+        Update update = new Update()
+                .set("depId", depId)
+                .set("deptName", deptName)
+                .set("deptType", deptType);
+        UpdateResult result = mongoTemplate.updateMulti(new Query(criteria), update, EmployeeView.class);
+        return result.getModifiedCount();
+    }
+
+    /**
+     * 更新所有行中指定技能的名称（arrayFilters定位数组元素，单次updateMulti）
+     * @param skillId 技能ID
+     * @param skillName 新名称（技能删除时为null）
+     * @return 被修改的行数
+     */
+    public long renameSkill(Integer skillId, String skillName) {
+        Query query = new Query(Criteria.where("skillList.skillId").is(skillId));
+        Update update = new Update()
+                .set("skillList.$[s].skillName", skillName)
+                .filterArray(Criteria.where("s.skillId").is(skillId));
+        return mongoTemplate.updateMulti(query, update, EmployeeView.class).getModifiedCount();
+    }
+
+    /**
+     * 更新所有行中指定项目的名称
+     * @param projId 项目ID
+     * @param projName 新名称
+     * @return 被修改的行数
+     */
+    public long renameProject(Integer projId, String projName) {
+        Query query = new Query(Criteria.where("projects.projId").is(projId));
+        Update update = new Update()
+                .set("projects.$[p].projName", projName)
+                .filterArray(Criteria.where("p.projId").is(projId));
+        return mongoTemplate.updateMulti(query, update, EmployeeView.class).getModifiedCount();
+    }
+
+    /**
+     * 从所有行中移除指定项目（项目删除时调用）
+     * @param projIds 已删除的项目ID集合
+     * @return 被修改的行数
+     */
+    public long pullProjects(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return 0;
+        Query query = new Query(Criteria.where("projects.projId").in(projIds));
+        Update update = new Update().pull("projects", new Document("projId", new Document("$in", projIds)));
+        return mongoTemplate.updateMulti(query, update, EmployeeView.class).getModifiedCount();
+    }
+
+    /**
+     * 更新所有行中指定培训的名称
+     * @param trainId 培训ID
+     * @param trainName 新名称
+     * @return 被修改的行数
+     */
+    public long renameTraining(Integer trainId, String trainName) {
+        Query query = new Query(Criteria.where("trainingList.trainId").is(trainId));
+        Update update = new Update()
+                .set("trainingList.$[t].trainName", trainName)
+                .filterArray(Criteria.where("t.trainId").is(trainId));
+        return mongoTemplate.updateMulti(query, update, EmployeeView.class).getModifiedCount();
+    }
+
+    /**
+     * 向指定员工行追加培训（已包含该培训的行不重复追加）
+     * @param empIds 新加入培训的员工ID集合
+     * @param item 培训项
+     * @return 被修改的行数
+     */
+    public long pushTraining(Collection<Integer> empIds, EmployeeView.TrainingItem item) {
+        if (empIds == null || empIds.isEmpty()) return 0;
+        Query query = new Query(Criteria.where("_id").in(empIds).and("trainingList.trainId").ne(item.getTrainId()));
+        Update update = new Update().push("trainingList", item);
+        return mongoTemplate.updateMulti(query, update, EmployeeView.class).getModifiedCount();
+    }
+
+    /**
+     * 从行中移除指定培训
+     * @param trainId 培训ID
+     * @param empIds 退出培训的员工ID集合，为null时从所有行移除（培训删除）
+     * @return 被修改的行数
+     */
+    public long pullTraining(Integer trainId, Collection<Integer> empIds) {
+        Criteria criteria = Criteria.where("trainingList.trainId").is(trainId);
+        if (empIds != null) {
+            if (empIds.isEmpty()) return 0;
+            criteria.and("_id").in(empIds);
+        }
+        Update update = new Update().pull("trainingList", new Document("trainId", trainId));
+        return mongoTemplate.updateMulti(new Query(criteria), update, EmployeeView.class).getModifiedCount();
+    }
+}
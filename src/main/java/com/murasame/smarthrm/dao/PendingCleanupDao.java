@@ -0,0 +1,99 @@
+package com.murasame.smarthrm.dao;
+
+import com.murasame.smarthrm.entity.PendingCleanup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 软删除待清理记录数据访问层（PendingCleanup集合）
+ * 删除请求写入墓碑后登记一条记录，后台压缩器以租约抢占执行，完成后移除
+ */
+@Component
+@RequiredArgsConstructor
+public class PendingCleanupDao {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 登记待清理记录（幂等：已存在时不修改）
+     * @param kind employee / department
+     * @param targetId 员工ID或部门ID
+     * @param deletedAt 墓碑时间
+     * @return 新登记返回true
+     */
+    public boolean enqueue(String kind, Integer targetId, LocalDateTime deletedAt) {
+        Query query = new Query(Criteria.where("_id").is(PendingCleanup.idOf(kind, targetId)));
+        Update update = new Update()
+                .setOnInsert("kind", kind)
+                .setOnInsert("targetId", targetId)
+                .setOnInsert("deletedAt", deletedAt)
+                .setOnInsert("attempts", 0)
+                .setOnInsert("updatedAt", Instant.now());
+        return mongoTemplate.upsert(query, update, PendingCleanup.class).getUpsertedId() != null;
+    }
+
+    /**
+     * 抢占一条可执行的记录（无持有者或租约已过期），按墓碑时间先后
+     * @param owner 本节点标识
+     * @param lease 租约时长
+     * @return 抢占成功返回记录，无可执行记录返回null
+     */
+    public PendingCleanup claim(String owner, Duration lease) {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("leaseUntil").is(null),
+                Criteria.where("leaseUntil").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "deletedAt"));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("leaseUntil", now.plus(lease))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                PendingCleanup.class);
+    }
+
+    /**
+     * 清理完成，移除记录（仅当仍由本节点持有）
+     */
+    public void complete(String id, String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(id).and("owner").is(owner)), PendingCleanup.class);
+    }
+
+    /**
+     * 清理失败：释放持有并记录原因，retryAt 之前不再被抢占
+     */
+    public void fail(String id, String owner, String error, Instant retryAt) {
+        Query query = new Query(Criteria.where("_id").is(id).and("owner").is(owner));
+        Update update = new Update()
+                .unset("owner")
+                .set("leaseUntil", retryAt)
+                .set("lastError", error)
+                .set("updatedAt", Instant.now());
+        mongoTemplate.updateFirst(query, update, PendingCleanup.class);
+    }
+
+    /**
+     * 待清理记录（按墓碑时间先后）
+     * @param limit 最多返回条数
+     */
+    public List<PendingCleanup> findPending(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "deletedAt")).limit(limit);
+        return mongoTemplate.find(query, PendingCleanup.class);
+    }
+
+    public long count() {
+        return mongoTemplate.count(new Query(), PendingCleanup.class);
+    }
+}
@@ -0,0 +1,283 @@
+package com.murasame.smarthrm.dao;
+
+import com.mongodb.client.MongoCursor;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceRollup;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 绩效数据访问层
+ * 原始测评点写入时间序列集合 Performance（按员工分桶），日汇总桶 PerformanceRollup 随写入增量维护，
+ * 统计查询只读汇总桶
+ */
+@Component
+@RequiredArgsConstructor
+public class PerformanceDao {
+
+    private static final Logger log = LoggerFactory.getLogger(PerformanceDao.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 创建时间序列集合与汇总索引（幂等）
+     * 集合已存在但不是时间序列（历史数据）时只告警，需人工迁移
+     */
+    public void ensureCollections() {
+        if (!mongoTemplate.collectionExists(Performance.class)) {
+            // 按实体上的 @TimeSeries 创建（timeField=testTime，metaField=empId）
+            mongoTemplate.createCollection(Performance.class);
+            log.info("已创建绩效时间序列集合 Performance");
+        } else {
+            Document info = mongoTemplate.getDb().listCollections()
+                    .filter(new Document("name", "Performance"))
+                    .first();
+            if (info != null && !"timeseries".equals(info.getString("type"))) {
+                log.warn("集合 Performance 不是时间序列集合，原始测评点将按普通集合存储，建议迁移后重建");
+            }
+        }
+        mongoTemplate.indexOps(PerformanceRollup.class).createIndex(new Index()
+                .on("scope", Sort.Direction.ASC)
+                .on("scopeId", Sort.Direction.ASC)
+                .on("day", Sort.Direction.ASC));
+    }
+
+    /**
+     * 批量写入测评点（无序bulk，单条失败不阻断其余写入）
+     * @param points 测评点（_id由驱动生成）
+     */
+    public void insertAll(Collection<Performance> points) {
+        if (points.isEmpty()) return;
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Performance.class)
+                .insert(List.copyOf(points))
+                .execute();
+    }
+
+    /**
+     * 删除属于指定导入批次的测评点（重写批次前清除上次可能部分写入的点；时间序列集合按非meta字段删除需 MongoDB 7.0+）
+     * @param batchIds 客户端批次ID
+     * @return 删除的测评点数
+     */
+    public long deleteByBatchIds(Collection<String> batchIds) {
+        if (batchIds.isEmpty()) return 0;
+        return mongoTemplate.remove(new Query(Criteria.where("batchId").in(batchIds)), Performance.class)
+                .getDeletedCount();
+    }
+
+    /**
+     * 由原始测评点重算指定测评点涉及的员工/部门日汇总桶，结果覆盖现有桶（没有测评点的桶删除）
+     * 用于增量合并可能只部分生效或重复生效的场景；一次查询读出这些桶内的测评点，一次无序bulk写回
+     * @param points 测评点（需已补全部门与测评时间）
+     * @return 重算的桶数
+     */
+    public int recomputeRollups(Collection<Performance> points) {
+        Map<String, PerformanceRollup> buckets = new LinkedHashMap<>();
+        Set<Integer> empIds = new HashSet<>();
+        Set<Integer> depIds = new HashSet<>();
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Performance point : points) {
+            if (point.getTestTime() == null) continue;
+            LocalDate day = point.getTestTime().toLocalDate();
+            bucket(buckets, PerformanceRollup.EMPLOYEE, point.getEmpId(), day.toString());
+            empIds.add(point.getEmpId());
+            if (point.getDepId() != null) {
+                bucket(buckets, PerformanceRollup.DEPARTMENT, point.getDepId(), day.toString());
+                depIds.add(point.getDepId());
+            }
+            first = first == null || day.isBefore(first) ? day : first;
+            last = last == null || day.isAfter(last) ? day : last;
+        }
+        if (buckets.isEmpty()) return 0;
+
+        Query query = new Query(Criteria.where("testTime").gte(first.atStartOfDay()).lt(last.plusDays(1).atStartOfDay())
+                .orOperator(Criteria.where("empId").in(empIds), Criteria.where("depId").in(depIds)));
+        query.fields().include("empId", "depId", "point", "testTime");
+        for (Performance point : mongoTemplate.find(query, Performance.class)) {
+            if (point.getTestTime() == null || point.getPoint() == null) continue;
+            String day = point.getTestTime().toLocalDate().toString();
+            PerformanceRollup emp = buckets.get(PerformanceRollup.idOf(PerformanceRollup.EMPLOYEE, point.getEmpId(), day));
+            if (emp != null) {
+                emp.add(1, point.getPoint(), point.getPoint(), point.getPoint());
+            }
+            PerformanceRollup dept = point.getDepId() == null ? null
+                    : buckets.get(PerformanceRollup.idOf(PerformanceRollup.DEPARTMENT, point.getDepId(), day));
+            if (dept != null) {
+                dept.add(1, point.getPoint(), point.getPoint(), point.getPoint());
+            }
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PerformanceRollup.class);
+        for (PerformanceRollup rollup : buckets.values()) {
+            Query id = new Query(Criteria.where("_id").is(rollup.get_id()));
+            if (rollup.getCount() == 0) {
+                bulk.remove(id);
+                continue;
+            }
+            bulk.upsert(id, new Update()
+                    .set("scope", rollup.getScope())
+                    .set("scopeId", rollup.getScopeId())
+                    .set("day", rollup.getDay())
+                    .set("count", rollup.getCount())
+                    .set("sum", rollup.getSum())
+                    .set("min", rollup.getMin())
+                    .set("max", rollup.getMax()));
+        }
+        bulk.execute();
+        return buckets.size();
+    }
+
+    /**
+     * 查询员工在时间范围内的原始测评点（按时间升序）
+     * @param empId 员工ID
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param limit 最多返回条数
+     */
+    public List<Performance> findPoints(Integer empId, LocalDateTime from, LocalDateTime to, int limit) {
+        Query query = new Query(Criteria.where("empId").is(empId).and("testTime").gte(from).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "testTime"))
+                .limit(limit);
+        return mongoTemplate.find(query, Performance.class);
+    }
+
+    /**
+     * 按增量合并日汇总桶（无序bulk，桶不存在则创建）
+     * @param deltas 每个桶本次新增的点数、分数和与最值
+     */
+    public void mergeRollups(Collection<PerformanceRollup> deltas) {
+        if (deltas.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PerformanceRollup.class);
+        for (PerformanceRollup delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("scope", delta.getScope())
+                    .setOnInsert("scopeId", delta.getScopeId())
+                    .setOnInsert("day", delta.getDay())
+                    .inc("count", delta.getCount())
+                    .inc("sum", delta.getSum())
+                    .min("min", delta.getMin())
+                    .max("max", delta.getMax());
+            bulk.upsert(new Query(Criteria.where("_id").is(delta.get_id())), update);
+        }
+        bulk.execute();
+    }
+
+    /**
+     * 查询员工/部门在日期范围内的日汇总桶（按日期升序）
+     * @param scope emp / dept
+     * @param scopeId 员工ID或部门ID
+     * @param fromDay 起始日（含，yyyy-MM-dd）
+     * @param toDay 结束日（含，yyyy-MM-dd）
+     */
+    public List<PerformanceRollup> findRollups(String scope, Integer scopeId, String fromDay, String toDay) {
+        Query query = new Query(Criteria.where("scope").is(scope).and("scopeId").is(scopeId)
+                .and("day").gte(fromDay).lte(toDay))
+                .with(Sort.by(Sort.Direction.ASC, "day"));
+        return mongoTemplate.find(query, PerformanceRollup.class);
+    }
+
+    /**
+     * 各部门在日期范围内的汇总（每个部门一行，day为null）
+     * @param fromDay 起始日（含）
+     * @param toDay 结束日（含）
+     */
+    public List<PerformanceRollup> summarizeDepartments(String fromDay, String toDay) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("scope").is(PerformanceRollup.DEPARTMENT)
+                        .and("day").gte(fromDay).lte(toDay)),
+                Aggregation.group("scopeId")
+                        .sum("count").as("count")
+                        .sum("sum").as("sum")
+                        .min("min").as("min")
+                        .max("max").as("max"),
+                Aggregation.project("count", "sum", "min", "max").and("_id").as("scopeId").andExclude("_id"),
+                Aggregation.sort(Sort.Direction.ASC, "scopeId"));
+        return mongoTemplate.aggregate(aggregation, PerformanceRollup.class, PerformanceRollup.class)
+                .getMappedResults();
+    }
+
+    /**
+     * 是否存在原始测评点
+     */
+    public boolean hasPoints() {
+        return mongoTemplate.exists(new Query(), Performance.class);
+    }
+
+    /**
+     * 是否存在汇总桶
+     */
+    public boolean hasRollups() {
+        return mongoTemplate.exists(new Query(), PerformanceRollup.class);
+    }
+
+    /**
+     * 由原始测评点全量重算汇总桶：服务端按员工/部门/日分组，结果替换现有汇总
+     * @param zone 日期归属的时区（与写入时 LocalDateTime 的本地日期一致）
+     * @return 汇总桶数量
+     */
+    public long rebuildRollups(ZoneId zone) {
+        List<Document> pipeline = List.of(
+                new Document("$group", new Document("_id", new Document("empId", "$empId")
+                        .append("depId", "$depId")
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$testTime")
+                                .append("timezone", zone.getId()))))
+                        .append("count", new Document("$sum", 1))
+                        .append("sum", new Document("$sum", "$point"))
+                        .append("min", new Document("$min", "$point"))
+                        .append("max", new Document("$max", "$point"))));
+
+        Map<String, PerformanceRollup> rollups = new LinkedHashMap<>();
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection("Performance")
+                .aggregate(pipeline).allowDiskUse(true).iterator()) {
+            while (cursor.hasNext()) {
+                Document group = cursor.next();
+                Document key = group.get("_id", Document.class);
+                String day = key.getString("day");
+                long count = ((Number) group.get("count")).longValue();
+                long sum = ((Number) group.get("sum")).longValue();
+                Integer min = group.getInteger("min");
+                Integer max = group.getInteger("max");
+                bucket(rollups, PerformanceRollup.EMPLOYEE, key.getInteger("empId"), day)
+                        .add(count, sum, min, max);
+                Integer depId = key.getInteger("depId");
+                if (depId != null) {
+                    bucket(rollups, PerformanceRollup.DEPARTMENT, depId, day).add(count, sum, min, max);
+                }
+            }
+        }
+
+        mongoTemplate.remove(new Query(), PerformanceRollup.class);
+        if (!rollups.isEmpty()) {
+            mongoTemplate.insert(rollups.values(), PerformanceRollup.class);
+        }
+        return rollups.size();
+    }
+
+    private static PerformanceRollup bucket(Map<String, PerformanceRollup> rollups, String scope,
+                                           Integer scopeId, String day) {
+        return rollups.computeIfAbsent(PerformanceRollup.idOf(scope, scopeId, day),
+                id -> PerformanceRollup.of(scope, scopeId, day));
+    }
+}
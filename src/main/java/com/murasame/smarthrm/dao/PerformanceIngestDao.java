@@ -0,0 +1,97 @@
+package com.murasame.smarthrm.dao;
+
+import com.murasame.smarthrm.entity.PerformanceIngestBatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 绩效导入批次记录数据访问层（PerformanceIngestBatch集合）
+ * 以客户端批次ID为_id，依靠主键唯一约束实现“同一批次只接收一次”
+ */
+@Component
+@RequiredArgsConstructor
+public class PerformanceIngestDao {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 创建TTL索引（幂等），批次记录在接收后保留指定时长
+     * @param retention 保留时长
+     */
+    public void ensureIndexes(Duration retention) {
+        mongoTemplate.indexOps(PerformanceIngestBatch.class).createIndex(new Index()
+                .on("acceptedAt", Sort.Direction.ASC)
+                .expire(retention));
+    }
+
+    /**
+     * 登记新批次
+     * @param batch 排队中的批次记录
+     * @return 登记成功返回true，批次ID已存在返回false
+     */
+    public boolean claim(PerformanceIngestBatch batch) {
+        try {
+            mongoTemplate.insert(batch);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 重新接收失败或滞留的批次：仅当记录仍是读取时的状态（状态与接收时间未变）才更新，多个节点并发重试时只有一个成功
+     * @param seen 读取到的批次记录
+     * @param node 本节点
+     * @param points 本次提交的测评点数
+     * @param now 新的接收时间
+     * @return 接管成功返回true
+     */
+    public boolean reclaim(PerformanceIngestBatch seen, String node, int points, LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(seen.get_id())
+                .and("status").is(seen.getStatus())
+                .and("acceptedAt").is(seen.getAcceptedAt()));
+        Update update = new Update()
+                .set("status", PerformanceIngestBatch.QUEUED)
+                .set("node", node)
+                .set("points", points)
+                .set("acceptedAt", now)
+                .unset("completedAt")
+                .unset("error");
+        return mongoTemplate.updateFirst(query, update, PerformanceIngestBatch.class).getModifiedCount() == 1;
+    }
+
+    public PerformanceIngestBatch findById(String batchId) {
+        return mongoTemplate.findById(batchId, PerformanceIngestBatch.class);
+    }
+
+    /**
+     * 批量写回批次结果（无序bulk，每个批次一条upsert；记录已过期被清理时重新写入）
+     * @param batches 已设置状态、写入数与完成时间的批次
+     */
+    public void complete(Collection<PerformanceIngestBatch> batches) {
+        if (batches.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PerformanceIngestBatch.class);
+        for (PerformanceIngestBatch batch : batches) {
+            Update update = new Update()
+                    .set("status", batch.getStatus())
+                    .set("written", batch.getWritten())
+                    .set("rejected", batch.getRejected())
+                    .set("completedAt", batch.getCompletedAt())
+                    .set("error", batch.getError());
+            bulk.upsert(new Query(Criteria.where("_id").is(batch.get_id())), update);
+        }
+        bulk.execute();
+    }
+}
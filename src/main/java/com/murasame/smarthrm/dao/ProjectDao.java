@@ -2,24 +2,52 @@ package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
 import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 项目数据访问层（DAO）
  * 基于MongoTemplate实现项目实体的基础查询、关联查询（按员工ID查参与项目）及更新操作
+ * 已归档项目由 ProjectArchiver 移入冷集合 ProjectArchive：默认查询只读热集合 Project，
+ * includeArchived 为true的重载同时读取冷集合
  */
 @Repository
 public class ProjectDao {
 
+    // 已归档项目的冷集合（文档结构与Project相同）
+    public static final String ARCHIVE = "ProjectArchive";
+
+    // 项目状态：已归档
+    public static final int ARCHIVED = 1;
+
+    // 变更历史记录的集合名
+    private static final String HISTORY = "Project";
+
     // 注入MongoTemplate，用于操作MongoDB数据库
     @Autowired
     private MongoTemplate mongoTemplate;
+    // 变更历史写入器（未开启时不可用）
+    @Autowired
+    private ObjectProvider<ChangeLogWriter> changeLog;
 
     /**
      * 根据项目ID查询单个项目信息
@@ -31,6 +59,20 @@ public class ProjectDao {
         return mongoTemplate.findOne(query, Project.class);
     }
 
+    /**
+     * 根据项目ID查询单个项目信息，热集合中不存在时可回退到冷集合
+     * @param id 项目主键ID
+     * @param includeArchived 是否查找已移入冷集合的项目
+     * @return 匹配的Project实体，无匹配则返回null
+     */
+    public Project findById(Integer id, boolean includeArchived) {
+        Project project = findById(id);
+        if (project == null && includeArchived) {
+            project = mongoTemplate.findById(id, Project.class, ARCHIVE);
+        }
+        return project;
+    }
+
     /**
      * 查询所有项目信息
      * @return 所有项目的List集合，无数据则返回空列表
@@ -39,6 +81,45 @@ public class ProjectDao {
         return mongoTemplate.findAll(Project.class);
     }
 
+    /**
+     * 查询所有项目信息（可合并冷集合中的已归档项目）
+     * @param includeArchived 是否包含已移入冷集合的项目
+     * @return 热集合项目在前，冷集合项目在后
+     */
+    public List<Project> findAll(boolean includeArchived) {
+        if (!includeArchived) return findAll();
+        List<Project> projects = new ArrayList<>(findAll());
+        projects.addAll(mongoTemplate.findAll(Project.class, ARCHIVE));
+        return projects;
+    }
+
+    /**
+     * 批量查询项目信息（根据项目ID集合）
+     * @param projIds 项目ID集合
+     * @return 匹配的项目列表，ID集合为空时返回空列表
+     */
+    public List<Project> findByIds(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return List.of();
+        Query query = new Query(Criteria.where("_id").in(projIds));
+        return mongoTemplate.find(query, Project.class);
+    }
+
+    /**
+     * 批量查询项目信息，热集合中找不到的ID再到冷集合中查找（如员工历史参与的已归档项目）
+     * @param projIds 项目ID集合
+     * @param includeArchived 是否查找已移入冷集合的项目
+     * @return 匹配的项目列表
+     */
+    public List<Project> findByIds(Collection<Integer> projIds, boolean includeArchived) {
+        List<Project> projects = findByIds(projIds);
+        if (!includeArchived || projects.size() == projIds.size()) return projects;
+        Set<Integer> missing = new HashSet<>(projIds);
+        projects.forEach(p -> missing.remove(p.getId()));
+        List<Project> result = new ArrayList<>(projects);
+        result.addAll(mongoTemplate.find(new Query(Criteria.where("_id").in(missing)), Project.class, ARCHIVE));
+        return result;
+    }
+
     /**
      * 根据员工ID查询该员工参与的所有项目
      * 匹配规则：通过elemMatch匹配项目members嵌套列表中包含该员工ID的项目
@@ -57,12 +138,167 @@ public class ProjectDao {
      */
     public void update(Project project) {
         Query query = new Query(Criteria.where("_id").is(project.getId()));
-        org.springframework.data.mongodb.core.query.Update update = new org.springframework.data.mongodb.core.query.Update()
+        Update update = new Update()
                 .set("projName", project.getProjName())
                 .set("members", project.getMembers())
                 .set("reqSkill", project.getReqSkill())
                 .set("projStatus", project.getProjStatus())
                 .set("startDate", project.getStartDate());
-        mongoTemplate.updateFirst(query, update, Project.class);
+        Project before = mongoTemplate.findAndModify(query, update, Project.class);
+        if (before != null) {
+            changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, project.getId(), before, update));
+        }
+    }
+
+    /**
+     * 批量删除项目（热、冷集合各一次deleteMany）；开启变更历史时先查出待删除的完整文档，逐个记录删除
+     * @param projIds 待删除的项目ID集合
+     * @return 实际删除的项目数量，ID集合为空时返回0
+     */
+    public long deleteByIds(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return 0;
+        Query query = new Query(Criteria.where("_id").in(projIds));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = new ArrayList<>();
+        if (writer != null) {
+            affected.addAll(mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Project.class)));
+            affected.addAll(mongoTemplate.find(query, Document.class, ARCHIVE));
+        }
+        DeleteResult result = mongoTemplate.remove(query, Project.class);
+        DeleteResult archived = mongoTemplate.remove(query, ARCHIVE);
+        for (Document project : affected) {
+            writer.recordDelete(HISTORY, project.getInteger("_id"), project);
+        }
+        return result.getDeletedCount() + archived.getDeletedCount();
+    }
+
+    /**
+     * 热、冷集合中的最大项目ID（新建项目分配ID时使用，避免与已归档项目冲突）
+     * @return 最大ID，无项目时返回0
+     */
+    public int maxId() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        query.fields().include("_id");
+        Project hot = mongoTemplate.findOne(query, Project.class);
+        Project cold = mongoTemplate.findOne(query, Project.class, ARCHIVE);
+        return Math.max(hot == null ? 0 : hot.getId(), cold == null ? 0 : cold.getId());
+    }
+
+    // ==================== 归档（热集合 ↔ 冷集合） ====================
+
+    /**
+     * 创建冷集合索引（幂等）：按成员查询历史项目
+     */
+    public void ensureArchiveIndexes() {
+        mongoTemplate.indexOps(ARCHIVE).createIndex(new Index().on("members.empId", Sort.Direction.ASC));
+    }
+
+    /**
+     * 热集合中待归档的项目（projStatus=1，按_id升序）
+     * @param limit 最多返回条数
+     */
+    public List<Project> findArchivable(int limit) {
+        Query query = new Query(Criteria.where("projStatus").is(ARCHIVED))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Project.class);
+    }
+
+    /**
+     * 将项目整文档写入冷集合（无序bulk，按_id覆盖，可重复执行）
+     * @param projects 项目列表
+     */
+    public void saveToArchive(Collection<Project> projects) {
+        if (projects.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class, ARCHIVE);
+        for (Project project : projects) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(project.getId())), project,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    /**
+     * 从热集合删除已复制到冷集合的项目；仅删除仍为已归档状态的项目，复制后被重新打开的项目保留在热集合
+     * @param projIds 项目ID集合
+     * @return 实际删除的项目ID
+     */
+    public Set<Integer> removeArchived(Collection<Integer> projIds) {
+        if (projIds.isEmpty()) return Set.of();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(projIds).and("projStatus").is(ARCHIVED)), Project.class);
+        Query remaining = new Query(Criteria.where("_id").in(projIds));
+        remaining.fields().include("_id");
+        Set<Integer> removed = new HashSet<>(projIds);
+        mongoTemplate.find(remaining, Project.class).forEach(p -> removed.remove(p.getId()));
+        return removed;
+    }
+
+    /**
+     * 从冷集合删除项目（复制后被重新打开、或已恢复到热集合的项目）
+     * @param projIds 项目ID集合
+     */
+    public void deleteFromArchive(Collection<Integer> projIds) {
+        if (projIds.isEmpty()) return;
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(projIds)), ARCHIVE);
+    }
+
+    /**
+     * 将冷集合中的项目恢复到热集合并置为未归档（按_id覆盖写入热集合后从冷集合删除）
+     * @param projId 项目ID
+     * @return 恢复后的项目，冷集合中不存在时返回null
+     */
+    public Project restoreFromArchive(Integer projId) {
+        Project project = mongoTemplate.findById(projId, Project.class, ARCHIVE);
+        if (project == null) return null;
+        project.setProjStatus(0);
+        mongoTemplate.save(project);
+        deleteFromArchive(List.of(projId));
+        return project;
+    }
+
+    /**
+     * 给定ID中位于冷集合的项目ID
+     * @param projIds 项目ID集合
+     */
+    public Set<Integer> findArchivedIds(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return Set.of();
+        Query query = new Query(Criteria.where("_id").in(projIds));
+        query.fields().include("_id");
+        Set<Integer> ids = new HashSet<>();
+        mongoTemplate.find(query, Project.class, ARCHIVE).forEach(p -> ids.add(p.getId()));
+        return ids;
+    }
+
+    /**
+     * 冷集合中的项目数
+     */
+    public long countArchived() {
+        return mongoTemplate.getCollection(ARCHIVE).estimatedDocumentCount();
+    }
+
+    /**
+     * 从所有项目（含冷集合中的已归档项目）的成员列表中移除指定员工（员工删除时调用）
+     * 热/冷集合各一次updateMulti + $pull，耗时与员工参与的项目数量无关；开启变更历史时先查出受影响项目的成员列表，逐个记录
+     * @param empId 员工主键ID
+     * @return 被修改的项目数量
+     */
+    public long pullMember(Integer empId) {
+        Query query = new Query(Criteria.where("members.empId").is(empId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = new ArrayList<>();
+        if (writer != null) {
+            Query fieldQuery = new Query(Criteria.where("members.empId").is(empId));
+            fieldQuery.fields().include("members");
+            affected.addAll(mongoTemplate.find(fieldQuery, Document.class, mongoTemplate.getCollectionName(Project.class)));
+            affected.addAll(mongoTemplate.find(fieldQuery, Document.class, ARCHIVE));
+        }
+        Update update = new Update().pull("members", new Document("empId", empId));
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Project.class);
+        UpdateResult archived = mongoTemplate.updateMulti(query, update, ARCHIVE);
+        if (writer != null) {
+            writer.recordPull(HISTORY, affected, "members",
+                    element -> element instanceof Document member && empId.equals(member.get("empId")));
+        }
+        return result.getModifiedCount() + archived.getModifiedCount();
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,22 @@
 package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
+import com.murasame.smarthrm.cache.CacheNames;
 import com.murasame.smarthrm.entity.Skill;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * 技能数据访问层（DAO）
  * 基于MongoTemplate实现技能实体的基础查询，支撑技能存在性校验、前端下拉选择等业务场景
+ * 单个技能与全量列表经Spring Cache缓存，技能写操作后由ReferenceCaches（本节点）及变更流（其他节点）失效
  */
 @Repository
 public class SkillDao {
@@ -27,6 +31,7 @@ public class SkillDao {
      * @param skillId 技能主键ID（对应MongoDB文档的_id字段）
      * @return 匹配的Skill实体，无匹配则返回null
      */
+    @Cacheable(cacheNames = CacheNames.SKILLS, key = "#skillId", unless = "#result == null")
     public Skill findById(Integer skillId) {
         Query query = new Query(Criteria.where("_id").is(skillId));
         return mongoTemplate.findOne(query, Skill.class);
@@ -37,7 +42,20 @@ public class SkillDao {
      * 核心用途：为前端下拉选择框提供全量技能列表，支持技能关联选择场景
      * @return 所有技能的List集合，无数据则返回空列表
      */
+    @Cacheable(cacheNames = CacheNames.SKILLS, key = "'all'")
     public List<Skill> findAll() {
         return mongoTemplate.findAll(Skill.class);
     }
+
+    /**
+     * 批量查询技能信息（根据技能ID集合）
+     * 核心用途：员工读模型补全技能名称
+     * @param skillIds 技能ID集合
+     * @return 匹配的技能列表，ID集合为空时返回空列表
+     */
+    public List<Skill> findByIds(Collection<Integer> skillIds) {
+        if (skillIds == null || skillIds.isEmpty()) return List.of();
+        Query query = new Query(Criteria.where("_id").in(skillIds));
+        return mongoTemplate.find(query, Skill.class);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.murasame.smarthrm.dao;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * 软删除（墓碑）约定
+ * 员工、部门删除时只写入 deletedAt，所有DAO读取都附加“未删除”条件；
+ * 跨集合的引用清理与最终物理删除由后台 TombstoneCompactor 完成
+ */
+public final class SoftDelete {
+
+    // 墓碑字段：删除时间，未删除的文档无此字段
+    public static final String FIELD = "deletedAt";
+
+    private SoftDelete() {
+    }
+
+    /**
+     * 未删除条件（字段不存在或为null）
+     */
+    public static Criteria alive() {
+        return Criteria.where(FIELD).is(null);
+    }
+
+    /**
+     * 在已有条件上追加未删除条件
+     * @param criteria 业务查询条件
+     */
+    public static Criteria alive(Criteria criteria) {
+        return criteria.and(FIELD).is(null);
+    }
+
+    /**
+     * 已删除（墓碑）条件
+     */
+    public static Criteria deleted() {
+        return Criteria.where(FIELD).ne(null);
+    }
+}
@@ -2,24 +2,48 @@ package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
 import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 任务数据访问层（DAO）
  * 基于MongoTemplate实现任务实体的基础查询、关联查询（按负责人ID）及更新操作，支撑任务管理相关业务
+ * 已归档项目的任务随项目移入冷集合 TaskArchive，默认查询只读热集合 Task
  */
 @Repository
 public class TaskDao {
 
+    // 已归档项目任务的冷集合（文档结构与Task相同）
+    public static final String ARCHIVE = "TaskArchive";
+
+    // 变更历史记录的集合名
+    private static final String HISTORY = "Task";
+
     // 注入MongoTemplate，用于操作MongoDB数据库
     @Autowired
     private MongoTemplate mongoTemplate;
+    // 变更历史写入器（未开启时不可用）
+    @Autowired
+    private ObjectProvider<ChangeLogWriter> changeLog;
 
     /**
      * 根据任务ID查询单个任务信息
@@ -41,6 +65,22 @@ public class TaskDao {
         return mongoTemplate.findAll(Task.class);
     }
 
+    /**
+     * 批量查询多个项目下的任务（一次查询）
+     * @param projIds 项目ID集合
+     * @param includeArchived 是否同时查询冷集合中的任务
+     * @return 任务列表，ID集合为空时返回空列表
+     */
+    public List<Task> findByProjIds(Collection<Integer> projIds, boolean includeArchived) {
+        if (projIds == null || projIds.isEmpty()) return List.of();
+        Query query = new Query(Criteria.where("projId").in(projIds));
+        List<Task> tasks = mongoTemplate.find(query, Task.class);
+        if (!includeArchived) return tasks;
+        List<Task> result = new ArrayList<>(tasks);
+        result.addAll(mongoTemplate.find(query, Task.class, ARCHIVE));
+        return result;
+    }
+
     /**
      * 根据负责人ID查询该员工负责的所有任务
      * @param managerId 负责人（员工）主键ID
@@ -58,11 +98,130 @@ public class TaskDao {
      */
     public void update(Task task) {
         Query query = new Query(Criteria.where("_id").is(task.get_id()));
-        org.springframework.data.mongodb.core.query.Update update = new org.springframework.data.mongodb.core.query.Update()
+        Update update = new Update()
                 .set("projId", task.getProjId())
                 .set("taskName", task.getTaskName())
                 .set("managerId", task.getManagerId())
                 .set("taskStatus", task.getTaskStatus());
-        mongoTemplate.updateFirst(query, update, Task.class);
+        Task before = mongoTemplate.findAndModify(query, update, Task.class);
+        if (before != null) {
+            changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, task.get_id(), before, update));
+        }
+    }
+
+    /**
+     * 批量删除指定项目下的所有任务（项目删除时调用，热、冷集合各一次deleteMany）
+     * 开启变更历史时先查出待删除的完整文档，逐个记录删除
+     * @param projIds 项目ID集合
+     * @return 实际删除的任务数量，ID集合为空时返回0
+     */
+    public long deleteByProjIds(Collection<Integer> projIds) {
+        if (projIds == null || projIds.isEmpty()) return 0;
+        Query query = new Query(Criteria.where("projId").in(projIds));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = new ArrayList<>();
+        if (writer != null) {
+            affected.addAll(mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Task.class)));
+            affected.addAll(mongoTemplate.find(query, Document.class, ARCHIVE));
+        }
+        DeleteResult result = mongoTemplate.remove(query, Task.class);
+        DeleteResult archived = mongoTemplate.remove(query, ARCHIVE);
+        for (Document task : affected) {
+            writer.recordDelete(HISTORY, task.getInteger("_id"), task);
+        }
+        return result.getDeletedCount() + archived.getDeletedCount();
+    }
+
+    /**
+     * 根据任务ID删除任务（单次findAndRemove，开启变更历史时记录删除）
+     * @param taskId 任务ID
+     * @return 任务存在并已删除时返回true
+     */
+    public boolean deleteById(Integer taskId) {
+        Document removed = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(taskId)),
+                Document.class, mongoTemplate.getCollectionName(Task.class));
+        if (removed == null) {
+            return false;
+        }
+        changeLog.ifAvailable(writer -> writer.recordDelete(HISTORY, taskId, removed));
+        return true;
+    }
+
+    /**
+     * 热、冷集合中的最大任务ID（新建任务分配ID时使用，避免与已归档任务冲突）
+     * @return 最大ID，无任务时返回0
+     */
+    public int maxId() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        query.fields().include("_id");
+        Task hot = mongoTemplate.findOne(query, Task.class);
+        Task cold = mongoTemplate.findOne(query, Task.class, ARCHIVE);
+        return Math.max(hot == null ? 0 : hot.get_id(), cold == null ? 0 : cold.get_id());
+    }
+
+    // ==================== 归档（热集合 ↔ 冷集合） ====================
+
+    /**
+     * 创建冷集合索引（幂等）：按项目查询历史任务；按负责人清除（员工删除时，稀疏）
+     */
+    public void ensureArchiveIndexes() {
+        mongoTemplate.indexOps(ARCHIVE).createIndex(new Index().on("projId", Sort.Direction.ASC));
+        mongoTemplate.indexOps(ARCHIVE).createIndex(new Index().on("managerId", Sort.Direction.ASC).sparse());
+    }
+
+    /**
+     * 将指定项目下的任务从一个集合移到另一个集合：读取、按_id覆盖写入目标集合、再按_id从源集合删除，可重复执行
+     * @param projIds 项目ID集合
+     * @param toArchive true：热集合 → 冷集合；false：冷集合 → 热集合
+     * @return 移动的任务数
+     */
+    public int moveByProjIds(Collection<Integer> projIds, boolean toArchive) {
+        if (projIds.isEmpty()) return 0;
+        String from = toArchive ? mongoTemplate.getCollectionName(Task.class) : ARCHIVE;
+        String to = toArchive ? ARCHIVE : mongoTemplate.getCollectionName(Task.class);
+        List<Task> tasks = mongoTemplate.find(new Query(Criteria.where("projId").in(projIds)), Task.class, from);
+        if (tasks.isEmpty()) return 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class, to);
+        List<Integer> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(task.get_id())), task,
+                    FindAndReplaceOptions.options().upsert());
+            taskIds.add(task.get_id());
+        }
+        bulk.execute();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(taskIds)), from);
+        return tasks.size();
+    }
+
+    /**
+     * 冷集合中的任务数
+     */
+    public long countArchived() {
+        return mongoTemplate.getCollection(ARCHIVE).estimatedDocumentCount();
+    }
+
+    /**
+     * 清除指定员工负责的所有任务（含冷集合中的已归档任务）的负责人（员工删除时调用）
+     * 热/冷集合各一次updateMulti + $unset，耗时与员工负责的任务数量无关；开启变更历史时先查出受影响的任务ID，逐个记录
+     * @param managerId 负责人（员工）主键ID
+     * @return 被修改的任务数量
+     */
+    public long unsetManager(Integer managerId) {
+        Query query = new Query(Criteria.where("managerId").is(managerId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Task> affected = new ArrayList<>();
+        if (writer != null) {
+            Query idQuery = new Query(Criteria.where("managerId").is(managerId));
+            idQuery.fields().include("_id");
+            affected.addAll(mongoTemplate.find(idQuery, Task.class));
+            affected.addAll(mongoTemplate.find(idQuery, Task.class, ARCHIVE));
+        }
+        Update update = new Update().unset("managerId");
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Task.class);
+        UpdateResult archived = mongoTemplate.updateMulti(query, update, ARCHIVE);
+        for (Task task : affected) {
+            writer.record(HISTORY, task.get_id(), Map.of("managerId", managerId), Collections.singletonMap("managerId", null));
+        }
+        return result.getModifiedCount() + archived.getModifiedCount();
     }
-}
\ No newline at end of file
+}
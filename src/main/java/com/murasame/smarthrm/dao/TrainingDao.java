@@ -1,11 +1,16 @@
 package com.murasame.smarthrm.dao;
 //林 2025.12.19
 
+import com.mongodb.client.result.UpdateResult;
 import com.murasame.smarthrm.entity.Training;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,9 +22,15 @@ import java.util.List;
 @Repository
 public class TrainingDao {
 
+    // 变更历史记录的集合名
+    private static final String HISTORY = "Training";
+
     // 注入MongoTemplate，用于操作MongoDB数据库
     @Autowired
     private MongoTemplate mongoTemplate;
+    // 变更历史写入器（未开启时不可用）
+    @Autowired
+    private ObjectProvider<ChangeLogWriter> changeLog;
 
     /**
      * 根据培训ID查询单个培训信息
@@ -58,10 +69,36 @@ public class TrainingDao {
      */
     public void update(Training training) {
         Query query = new Query(Criteria.where("_id").is(training.get_id()));
-        org.springframework.data.mongodb.core.query.Update update = new org.springframework.data.mongodb.core.query.Update()
+        Update update = new Update()
                 .set("trainName", training.getTrainName())
                 .set("skillId", training.getSkillId())
                 .set("members", training.getMembers());
-        mongoTemplate.updateFirst(query, update, Training.class);
+        Training before = mongoTemplate.findAndModify(query, update, Training.class);
+        if (before != null) {
+            changeLog.ifAvailable(writer -> writer.recordUpdate(HISTORY, training.get_id(), before, update));
+        }
+    }
+
+    /**
+     * 从所有培训的成员列表中移除指定员工（员工删除时调用）
+     * 单次updateMulti + $pull，耗时与员工参与的培训数量无关；开启变更历史时先查出受影响培训的成员列表，逐个记录
+     * @param empId 员工主键ID
+     * @return 被修改的培训数量
+     */
+    public long pullMember(Integer empId) {
+        Query query = new Query(Criteria.where("members").is(empId));
+        ChangeLogWriter writer = changeLog.getIfAvailable();
+        List<Document> affected = List.of();
+        if (writer != null) {
+            Query fieldQuery = new Query(Criteria.where("members").is(empId));
+            fieldQuery.fields().include("members");
+            affected = mongoTemplate.find(fieldQuery, Document.class, mongoTemplate.getCollectionName(Training.class));
+        }
+        Update update = new Update().pull("members", empId);
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Training.class);
+        if (writer != null) {
+            writer.recordPull(HISTORY, affected, "members", empId::equals);
+        }
+        return result.getModifiedCount();
     }
-}
\ No newline at end of file
+}
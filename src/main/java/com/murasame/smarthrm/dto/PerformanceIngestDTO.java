@@ -0,0 +1,16 @@
+package com.murasame.smarthrm.dto;
+
+import com.murasame.smarthrm.entity.Performance;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 绩效批量导入请求
+ * batchId 由客户端生成并在重试时保持不变，同一批次只会写入一次
+ */
+@Data
+public class PerformanceIngestDTO {
+    private String batchId;
+    private List<Performance> points;
+}
@@ -0,0 +1,36 @@
+package com.murasame.smarthrm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 绩效统计结果（员工或部门在一个时间窗口内）
+ * 由日汇总桶计算：平均分按测评点加权，趋势斜率为逐日均分的最小二乘斜率
+ */
+@Data
+public class PerformanceTrendDTO {
+    private String scope;            // emp / dept
+    private Integer scopeId;
+    private String from;             // 窗口起始日（含）
+    private String to;               // 窗口结束日（含）
+    private int rollingDays;         // 滚动均值的天数
+    private long count;              // 窗口内测评点数
+    private Double average;          // 窗口内平均分，无测评点时为null
+    private Integer min;
+    private Integer max;
+    private Double slopePerDay;      // 每天平均分的变化量，少于2个有数据的日期时为null
+    private List<DailyPoint> series; // 仅包含有测评点的日期
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyPoint {
+        private String day;
+        private long count;
+        private double average;
+        private double rollingAverage; // 截至当天、最近rollingDays天内的加权平均分
+    }
+}
@@ -6,6 +6,10 @@ import lombok.Data;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -23,4 +27,30 @@ public class SkillMatchDTO  implements Serializable {
 				.map(a -> new SkillMatchDTO(Integer.valueOf(a[0]), Integer.valueOf(a[1])))
 				.toList();
 	}
+
+	/**
+	 * 辅助函数 作用：
+	 * 归一化技能需求：按skillId排序，同一技能出现多次时取最高熟练度要求（语义等价）
+	 * 2:5,1:3,1:4 → [1:4, 2:5] */
+	public static List<SkillMatchDTO> normalize(List<SkillMatchDTO> reqs) {
+		if (reqs == null || reqs.isEmpty()) return List.of();
+		Map<Integer, Integer> merged = new TreeMap<>();
+		for (SkillMatchDTO r : reqs) {
+			if (r == null || r.getSkillId() == null) continue;
+			int level = r.getMinLevel() == null ? 0 : r.getMinLevel();
+			merged.merge(r.getSkillId(), level, Math::max);
+		}
+		return merged.entrySet().stream()
+				.map(e -> new SkillMatchDTO(e.getKey(), e.getValue()))
+				.toList();
+	}
+
+	/**
+	 * 辅助函数 作用：
+	 * 已归一化的需求列表 → 查询key "1:4,2:5" */
+	public static String toKey(List<SkillMatchDTO> normalized) {
+		return normalized.stream()
+				.map(r -> r.getSkillId() + ":" + Objects.requireNonNullElse(r.getMinLevel(), 0))
+				.collect(Collectors.joining(","));
+	}
 }
@@ -0,0 +1,30 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// 变更日志（只追加）：每次写入记录一条字段级差异，只含发生变化的字段
+// changes 为变更后的值，previous 为变更前的值（字段原本不存在时为null），可向前重放也可向后回滚
+// 物理删除记为 delete：changes 为空，previous 为删除前的完整文档（不含_id）
+@Data
+@Document(collection = "ChangeLog")
+public class ChangeLogEntry {
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    @Id
+    @Field("_id")
+    private String _id;
+    private String entity;               // 集合名：Employee / Department / Project / Task / Training
+    private Integer entityId;
+    private LocalDateTime at;            // 变更时间
+    private String op;                   // create / update / delete
+    private Map<String, Object> changes;
+    private Map<String, Object> previous;
+}
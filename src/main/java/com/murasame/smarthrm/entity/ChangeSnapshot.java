@@ -0,0 +1,22 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// 实体快照：at 时刻（含该时刻的变更）之后的完整文档，按时间点查询时从最近的快照开始重放变更日志
+@Data
+@Document(collection = "ChangeSnapshot")
+public class ChangeSnapshot {
+    @Id
+    @Field("_id")
+    private String _id;
+    private String entity;
+    private Integer entityId;
+    private LocalDateTime at;
+    private Map<String, Object> state;
+}
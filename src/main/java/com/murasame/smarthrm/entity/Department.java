@@ -1,12 +1,14 @@
 package com.murasame.smarthrm.entity;
 //林 2025.12.19
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @Data
 @Document(collection = "Department")
@@ -23,9 +25,21 @@ public class Department {
     private Integer managerId;   // 部门负责人ID
 
     @Field("empList")
-    private List<Map<String, Integer>> empList;
+    private List<Member> empList;   // 部门员工: [{empId}...]
+
+    @Field("deletedAt")
+    private LocalDateTime deletedAt; // 软删除时间（墓碑），未删除为null
 
     @Transient
     private List<Integer> empIds;//接收前端传递的员工ID数组（格式：[10,11,12]）
 
+    /* ===== 嵌套对象 ===== */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+        @Field("empId")
+        private int empId;
+    }
+
 }
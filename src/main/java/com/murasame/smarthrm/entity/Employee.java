@@ -1,13 +1,14 @@
 package com.murasame.smarthrm.entity;
 //林 2025.12.19
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 // 数据库实体
 @Data
@@ -18,11 +19,39 @@ public class Employee {
     private Integer _id;//id修改为_id
     private String empName;
     private Integer depId;
-    private List<Map<String, Integer>> skillList;  // 员工拥有技能: [{技能id, 熟练度}...]
-    private List<Map<String, Integer>> projects;                 // 员工参与项目: [projId:项目id...]
+    private List<SkillLevel> skillList;  // 员工拥有技能: [{skillId, proficiency}...]
+    private List<ProjectRef> projects;                 // 员工参与项目: [{projId}...]
     private LocalDateTime joinDate;                 // 加入时间
-    private List<Map<String, Integer>> trainingList;
+    private List<TrainingRef> trainingList;         // 员工参与培训: [{trainId}...]
+    private LocalDateTime deletedAt;                // 软删除时间（墓碑），未删除为null
 
     private String deptName; // 临时部门名称（前端显示用）
     private String deptType; // 临时部门类型（用于前端样式）
+
+    /* ===== 嵌套对象（基本类型字段，避免每项一个HashMap） ===== */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkillLevel {
+        @Field("skillId")
+        private int skillId;
+        @Field("proficiency")
+        private int proficiency;     // 熟练度1-5
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProjectRef {
+        @Field("projId")
+        private int projId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TrainingRef {
+        @Field("trainId")
+        private int trainId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 员工列表读模型：冗余部门/技能/项目/培训名称，列表页单次查询直接渲染
+// 由 EmployeeViewService 在各写路径上增量维护，_id 与 Employee 一致
+@Data
+@Document(collection = "EmployeeView")
+public class EmployeeView {
+    @Id
+    @Field("_id")
+    private Integer _id;
+    private String empName;
+    private Integer depId;
+    private String deptName;                     // 部门名称（未分配/已删除时为提示文字）
+    private String deptType;                     // unassigned / normal / deleted
+    private List<SkillItem> skillList;           // [{skillId, skillName, proficiency}...]
+    private List<ProjectItem> projects;          // [{projId, projName}...]
+    private List<TrainingItem> trainingList;     // [{trainId, trainName}...]
+    private LocalDateTime joinDate;
+
+    /* ===== 嵌套对象 ===== */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkillItem {
+        private int skillId;
+        private String skillName;    // 技能已删除时为null
+        private int proficiency;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProjectItem {
+        private int projId;
+        private String projName;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TrainingItem {
+        private int trainId;
+        private String trainName;
+    }
+}
@@ -0,0 +1,34 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// 待清理的软删除记录：_id = 类型:目标ID，引用清理与物理删除完成后移除
+// 执行时以租约抢占（owner + leaseUntil），节点崩溃后租约过期由其他节点接管
+@Data
+@Document(collection = "PendingCleanup")
+public class PendingCleanup {
+    public static final String EMPLOYEE = "employee";
+    public static final String DEPARTMENT = "department";
+
+    @Id
+    @Field("_id")
+    private String _id;
+    private String kind;                 // employee / department
+    private Integer targetId;            // 员工ID或部门ID
+    private LocalDateTime deletedAt;     // 墓碑时间
+    private int attempts;                // 已尝试次数
+    private String owner;                // 当前执行节点
+    private Instant leaseUntil;          // 租约到期时间（失败后为下次重试时间）
+    private String lastError;
+    private Instant updatedAt;
+
+    public static String idOf(String kind, Integer targetId) {
+        return kind + ":" + targetId;
+    }
+}
@@ -4,15 +4,23 @@ import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
 
 import java.time.LocalDateTime;
 
+// 绩效测评点：MongoDB时间序列集合，按员工（元数据字段）分桶存储
+// 日汇总见 PerformanceRollup，看板查询只读汇总不扫描原始点
 @Data
 @Document(collection = "Performance")
+@TimeSeries(timeField = "testTime", metaField = "empId", granularity = Granularity.HOURS)
 public class Performance {
 	@Id               // ← 告诉 Spring Data 这是主键
 	@Field("_id")     // ← 强制映射文档字段 "_id"
-	private Integer _id;
+	private String _id;               // 时间序列集合由驱动生成ObjectId
+	private Integer empId;            // 元数据字段：同一员工的测评点落入同一组桶
+	private Integer depId;            // 测评时员工所属部门（部门汇总按此归属，员工后续调岗不影响历史）
 	private Integer point;
 	private LocalDateTime testTime;
+	private String batchId;           // 导入批次ID（/performance/ingest写入时记录，用于重试去重）
 }
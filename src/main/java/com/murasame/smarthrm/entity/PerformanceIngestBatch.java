@@ -0,0 +1,30 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+// 绩效导入批次记录：_id 为客户端批次ID，同一批次重复提交时据此去重
+// 按 acceptedAt 的TTL索引过期清理
+@Data
+@Document(collection = "PerformanceIngestBatch")
+public class PerformanceIngestBatch {
+    public static final String QUEUED = "queued";
+    public static final String WRITTEN = "written";
+    public static final String FAILED = "failed";
+
+    @Id
+    @Field("_id")
+    private String _id;
+    private String status;               // queued / written / failed
+    private String node;                 // 接收该批次的节点
+    private int points;                  // 提交的测评点数
+    private int written;                 // 实际写入数
+    private int rejected;                // 员工不存在而丢弃的点数
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    private String error;
+}
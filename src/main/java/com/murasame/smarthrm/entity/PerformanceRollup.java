@@ -0,0 +1,47 @@
+package com.murasame.smarthrm.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+// 绩效日汇总桶：每个员工/部门每天一行，写入测评点时以 $inc/$min/$max 增量维护
+// _id = "{scope}:{scopeId}:{day}"，滚动均值、趋势与部门汇总均在桶上计算
+@Data
+@Document(collection = "PerformanceRollup")
+public class PerformanceRollup {
+    public static final String EMPLOYEE = "emp";
+    public static final String DEPARTMENT = "dept";
+
+    @Id
+    @Field("_id")
+    private String _id;
+    private String scope;        // emp / dept
+    private Integer scopeId;     // 员工ID或部门ID
+    private String day;          // yyyy-MM-dd（服务器时区）
+    private long count;
+    private long sum;
+    private Integer min;
+    private Integer max;
+
+    public static String idOf(String scope, Integer scopeId, String day) {
+        return scope + ":" + scopeId + ":" + day;
+    }
+
+    public static PerformanceRollup of(String scope, Integer scopeId, String day) {
+        PerformanceRollup rollup = new PerformanceRollup();
+        rollup.set_id(idOf(scope, scopeId, day));
+        rollup.setScope(scope);
+        rollup.setScopeId(scopeId);
+        rollup.setDay(day);
+        return rollup;
+    }
+
+    // 合并一组测评点的统计
+    public void add(long count, long sum, Integer min, Integer max) {
+        this.count += count;
+        this.sum += sum;
+        if (min != null) this.min = this.min == null ? min : Math.min(this.min, min);
+        if (max != null) this.max = this.max == null ? max : Math.max(this.max, max);
+    }
+}
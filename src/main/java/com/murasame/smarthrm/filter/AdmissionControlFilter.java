@@ -0,0 +1,261 @@
+package com.murasame.smarthrm.filter;
+
+import com.murasame.smarthrm.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 准入控制过滤器
+ * 对配置的重查询接口依次执行：
+ * 1. 按客户端的令牌桶限流（超限直接429）：客户端按认证用户、其次远端IP识别，
+ *    客户端标识请求头只在请求直接来自受信代理时采用，避免调用方每次换一个值绕过限流；
+ * 2. 接口级并发上限，并发已满时排队等待，超过排队超时则429；
+ * 拒绝时返回Retry-After，并通过MeterRegistry暴露拒绝/排队指标，未命中规则的CRUD请求不受影响
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    // 空闲令牌桶回收阈值：10分钟未访问且已满
+    private static final long BUCKET_IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final AdmissionControlProperties properties;
+    private final List<RuleState> rules;
+    private final Set<String> trustedProxies;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        this.rules = properties.getRules().stream()
+                .map(rule -> new RuleState(rule, meterRegistry))
+                .toList();
+        log.info("准入控制已加载 {} 条规则", rules.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RuleState state = findRule(request);
+        if (state == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // 1. 客户端令牌桶限流
+        long waitNanos = state.tryConsume(resolveClientId(request));
+        if (waitNanos > 0) {
+            state.rateRejected.increment();
+            reject(response, waitNanos, "请求过于频繁，请稍后重试");
+            return;
+        }
+
+        // 2. 接口并发控制（排队 + 超时）
+        if (state.semaphore == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!acquire(state)) {
+            state.concurrencyRejected.increment();
+            reject(response, Math.max(state.rule.getQueueTimeout().toNanos(), TimeUnit.SECONDS.toNanos(1)),
+                    "服务繁忙，请稍后重试");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            state.semaphore.release();
+        }
+    }
+
+    /**
+     * 获取并发许可：先无等待尝试，失败则进入排队直到超时
+     */
+    private boolean acquire(RuleState state) {
+        if (state.semaphore.tryAcquire()) {
+            return true;
+        }
+        long timeoutNanos = state.rule.getQueueTimeout().toNanos();
+        if (timeoutNanos <= 0) {
+            return false;
+        }
+
+        state.queuedTotal.increment();
+        state.queueDepth.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return state.semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            state.queueDepth.decrementAndGet();
+            state.queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private RuleState findRule(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RuleState state : rules) {
+            AdmissionControlProperties.Rule rule = state.rule;
+            if (StringUtils.hasText(rule.getMethod()) && !rule.getMethod().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (!pathMatcher.match(rule.getPath(), path)) {
+                continue;
+            }
+            if (paramsMatch(rule.getParams(), request)) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private boolean paramsMatch(Map<String, String> params, HttpServletRequest request) {
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            if (!Objects.equals(entry.getValue(), request.getParameter(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 客户端标识：受信代理转发的标识请求头 > 认证用户 > 远端IP
+     */
+    private String resolveClientId(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddr)) {
+            String clientId = request.getHeader(properties.getClientIdHeader());
+            if (StringUtils.hasText(clientId)) {
+                return "client:" + clientId;
+            }
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && StringUtils.hasText(principal.getName())) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + remoteAddr;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 单条规则的运行时状态：并发信号量、客户端令牌桶及指标
+     */
+    private class RuleState {
+        private final AdmissionControlProperties.Rule rule;
+        private final Semaphore semaphore;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final Counter rateRejected;
+        private final Counter concurrencyRejected;
+        private final Counter queuedTotal;
+        private final Timer queueWait;
+
+        RuleState(AdmissionControlProperties.Rule rule, MeterRegistry registry) {
+            this.rule = rule;
+            this.semaphore = rule.getMaxConcurrent() > 0 ? new Semaphore(rule.getMaxConcurrent(), true) : null;
+            String name = rule.getName() != null ? rule.getName() : rule.getPath();
+            this.rateRejected = Counter.builder("smarthrm.admission.rejected")
+                    .tag("rule", name).tag("reason", "rate")
+                    .register(registry);
+            this.concurrencyRejected = Counter.builder("smarthrm.admission.rejected")
+                    .tag("rule", name).tag("reason", "concurrency")
+                    .register(registry);
+            this.queuedTotal = Counter.builder("smarthrm.admission.queued")
+                    .tag("rule", name)
+                    .register(registry);
+            this.queueWait = Timer.builder("smarthrm.admission.queue.wait")
+                    .tag("rule", name)
+                    .register(registry);
+            Gauge.builder("smarthrm.admission.queue.depth", queueDepth, AtomicInteger::get)
+                    .tag("rule", name)
+                    .register(registry);
+            if (semaphore != null) {
+                Gauge.builder("smarthrm.admission.in.flight", semaphore,
+                                s -> rule.getMaxConcurrent() - s.availablePermits())
+                        .tag("rule", name)
+                        .register(registry);
+            }
+        }
+
+        /**
+         * 消耗客户端令牌
+         * @return 0表示放行，否则为建议等待的纳秒数
+         */
+        long tryConsume(String clientId) {
+            if (rule.getRatePerSecond() <= 0) {
+                return 0;
+            }
+            TokenBucket bucket = buckets.get(clientId);
+            if (bucket == null) {
+                evictIdleBuckets();
+                double capacity = rule.getBurst() > 0 ? rule.getBurst() : Math.ceil(rule.getRatePerSecond());
+                bucket = buckets.computeIfAbsent(clientId, k -> new TokenBucket(rule.getRatePerSecond(), capacity));
+            }
+            return bucket.tryConsume();
+        }
+
+        /**
+         * 达到上限时先回收空闲且已满的桶；仍超出时按最近访问时间淘汰最久未访问的桶，
+         * 一次淘汰到上限的90%，避免每个新客户端都触发一次排序；活跃客户端的限流状态不受影响
+         */
+        private void evictIdleBuckets() {
+            int max = properties.getMaxTrackedClients();
+            if (buckets.size() < max) {
+                return;
+            }
+            long now = System.nanoTime();
+            buckets.values().removeIf(b -> b.isIdle(now, BUCKET_IDLE_NANOS));
+            int excess = buckets.size() - max * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<String> eldest = buckets.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccessNanos()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            eldest.forEach(buckets::remove);
+            log.warn("准入规则 {} 跟踪的客户端数超过上限 {}，淘汰最久未访问的 {} 个令牌桶", rule.getName(), max, eldest.size());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.murasame.smarthrm.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * 提交前回调的响应包装
+ * 响应体先写入有界内存缓冲（flush不提交），由过滤器在请求处理结束后调用 {@link #commit()}：
+ * 先执行回调补充统计类响应头，再写出缓冲的响应体，因此回调可以看到序列化/渲染等全部阶段；
+ * 响应体超过缓冲上限、sendError/sendRedirect 时提前执行回调并改为直接写出
+ */
+public class HeaderOnCommitResponseWrapper extends HttpServletResponseWrapper {
+
+    private final Runnable beforeCommit;
+    private final int bufferLimit;
+    private final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(1024);
+    // 回调已执行，之后的响应体直接写出
+    private boolean passThrough;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param response    原始响应
+     * @param bufferLimit 响应体缓冲上限（字节），超出后提前执行回调并直接写出
+     * @param beforeCommit 响应头发出前执行的回调
+     */
+    public HeaderOnCommitResponseWrapper(HttpServletResponse response, int bufferLimit, Runnable beforeCommit) {
+        super(response);
+        this.bufferLimit = bufferLimit;
+        this.beforeCommit = beforeCommit;
+    }
+
+    /**
+     * 执行回调并写出已缓冲的响应体（只执行一次，响应已提交时跳过回调）
+     */
+    public void commit() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        release();
+    }
+
+    private void release() throws IOException {
+        if (passThrough) {
+            return;
+        }
+        passThrough = true;
+        if (!getResponse().isCommitted()) {
+            beforeCommit.run();
+        }
+        if (buffer.size() > 0) {
+            buffer.writeTo(getResponse().getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null && writer == null) {
+            throw new IllegalStateException("getOutputStream() has already been called for this response");
+        }
+        if (writer == null) {
+            // 字符按当前响应编码写入同一缓冲，编码须在首次getWriter前确定（与Servlet规范一致）
+            writer = new PrintWriter(new OutputStreamWriter(new BufferingOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (passThrough) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        buffer.reset();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        buffer.reset();
+        release();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        buffer.reset();
+        release();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        buffer.reset();
+        release();
+        super.sendRedirect(location);
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!passThrough && buffer.size() + 1 > bufferLimit) {
+                release();
+            }
+            if (passThrough) {
+                getResponse().getOutputStream().write(b);
+            } else {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!passThrough && buffer.size() + len > bufferLimit) {
+                release();
+            }
+            if (passThrough) {
+                getResponse().getOutputStream().write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // 缓冲期间flush不提交响应（否则响应头在渲染/序列化结束前发出）
+            if (passThrough) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Server-Timing buffering does not support non-blocking writes");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.murasame.smarthrm.filter;
+
+import com.murasame.smarthrm.monitor.MongoRequestStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 请求级Mongo往返统计过滤器
+ * 为每个请求打开统计作用域，在响应头中返回：
+ * - X-Mongo-Commands：本次请求发出的Mongo命令数；
+ * - X-Mongo-Documents：返回/影响的文档数；
+ * - X-Mongo-Time：Mongo命令累计耗时（毫秒）；
+ * 命令数超出预算或出现同一调用方重复查询（疑似N+1）时输出WARN日志及明细
+ */
+public class MongoRequestStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoRequestStatsFilter.class);
+
+    public static final String COMMANDS_HEADER = "X-Mongo-Commands";
+    public static final String DOCUMENTS_HEADER = "X-Mongo-Documents";
+    public static final String TIME_HEADER = "X-Mongo-Time";
+
+    private final int warnCommands;
+    private final int repeatThreshold;
+
+    /**
+     * @param warnCommands 单请求命令数预算，超出时告警
+     * @param repeatThreshold 同一调用方重复发出同一命令达到该次数时视为疑似N+1
+     */
+    public MongoRequestStatsFilter(int warnCommands, int repeatThreshold) {
+        this.warnCommands = warnCommands;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (MongoRequestStats.Scope scope = MongoRequestStats.open()) {
+            // 不缓冲响应体：首次写出前写入统计头（开启Server-Timing时响应体已由其缓冲到请求处理结束）
+            HeaderOnCommitResponseWrapper wrapped =
+                    new HeaderOnCommitResponseWrapper(response, 0, () -> writeHeaders(response, scope));
+            try {
+                chain.doFilter(request, wrapped);
+            } finally {
+                wrapped.commit();
+                report(request, scope);
+            }
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response, MongoRequestStats.Scope scope) {
+        response.setHeader(COMMANDS_HEADER, String.valueOf(scope.getCommands()));
+        response.setHeader(DOCUMENTS_HEADER, String.valueOf(scope.getDocuments()));
+        response.setHeader(TIME_HEADER, String.valueOf(scope.getTimeMillis()));
+    }
+
+    private void report(HttpServletRequest request, MongoRequestStats.Scope scope) {
+        if (scope.getCommands() == 0) {
+            return;
+        }
+        List<String> repeated = scope.repeatedCommands(repeatThreshold);
+        if (scope.getCommands() > warnCommands || !repeated.isEmpty()) {
+            log.warn("{} {} 发出Mongo命令 {} 次（预算 {}），返回文档 {}，耗时 {}ms，疑似N+1：{}，明细：{}",
+                    request.getMethod(), request.getRequestURI(), scope.getCommands(), warnCommands,
+                    scope.getDocuments(), scope.getTimeMillis(), repeated, scope.getCommandsByCaller());
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {} 发出Mongo命令 {} 次，返回文档 {}，耗时 {}ms",
+                    request.getMethod(), request.getRequestURI(), scope.getCommands(),
+                    scope.getDocuments(), scope.getTimeMillis());
+        }
+    }
+}
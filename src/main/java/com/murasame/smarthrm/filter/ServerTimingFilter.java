@@ -0,0 +1,73 @@
+package com.murasame.smarthrm.filter;
+
+import com.murasame.smarthrm.monitor.MongoRequestStats;
+import com.murasame.smarthrm.monitor.RequestTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Server-Timing过滤器
+ * 将请求拆分为 db/service/serialize/render/total 阶段，写入Server-Timing响应头（浏览器开发者工具可直接查看），
+ * 并以 key=value 字段输出到日志 smarthrm.timing
+ * 响应体在过滤器内有界缓冲，请求处理结束后先写响应头再写出响应体，响应头因此包含序列化/渲染与总耗时；
+ * 响应体超过缓冲上限时响应头提前发出，只含此前已结束的阶段（完整阶段见日志）。
+ * db耗时沿用请求级统计过滤器打开的作用域，未开启请求级统计时自行打开
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger timingLog = LoggerFactory.getLogger("smarthrm.timing");
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final int bufferLimit;
+
+    /**
+     * @param bufferLimit 响应体缓冲上限（字节）
+     */
+    public ServerTimingFilter(int bufferLimit) {
+        this.bufferLimit = bufferLimit;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        MongoRequestStats.Scope dbScope = MongoRequestStats.current().orElse(null);
+        if (dbScope != null) {
+            doFilter(request, response, chain, dbScope);
+            return;
+        }
+        try (MongoRequestStats.Scope scope = MongoRequestStats.open()) {
+            doFilter(request, response, chain, scope);
+        }
+    }
+
+    private void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                          MongoRequestStats.Scope dbScope) throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin(dbScope);
+        HeaderOnCommitResponseWrapper wrapped = new HeaderOnCommitResponseWrapper(response, bufferLimit,
+                () -> response.setHeader(SERVER_TIMING_HEADER, timing.toServerTiming()));
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrapped);
+            completed = true;
+        } finally {
+            timing.end();
+            // 阶段齐全后写响应头并写出缓冲的响应体；处理异常时丢弃缓冲，由容器输出错误页
+            if (completed) {
+                wrapped.commit();
+            }
+            if (timingLog.isInfoEnabled()) {
+                timingLog.info("method={} path={} status={} mongo_commands={} {}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        dbScope.getCommands(), timing.toLogFields());
+            }
+        }
+    }
+}
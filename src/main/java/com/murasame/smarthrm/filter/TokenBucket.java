@@ -0,0 +1,60 @@
+package com.murasame.smarthrm.filter;
+
+/**
+ * 令牌桶（线程安全）
+ * 按固定速率补充令牌，容量即允许的突发请求数
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastAccessNanos;
+
+    TokenBucket(double ratePerSecond, double capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastAccessNanos = lastRefillNanos;
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @return 获取成功返回0，否则返回距下一个令牌可用的纳秒数
+     */
+    synchronized long tryConsume() {
+        long now = System.nanoTime();
+        refill(now);
+        lastAccessNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * 桶是否已满且在指定时间内未被访问（可安全回收）
+     */
+    synchronized boolean isIdle(long now, long idleNanos) {
+        refill(now);
+        return tokens >= capacity && now - lastAccessNanos >= idleNanos;
+    }
+
+    /**
+     * 最近一次访问时间（System.nanoTime），用于按最久未访问淘汰
+     */
+    synchronized long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
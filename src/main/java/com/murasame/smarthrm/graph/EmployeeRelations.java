@@ -0,0 +1,39 @@
+package com.murasame.smarthrm.graph;
+
+import lombok.Getter;
+
+/**
+ * 单个员工的关系视图（全部为ID，取自同一个图快照）
+ * 各数组升序、去重，不含员工本人
+ */
+@Getter
+public class EmployeeRelations {
+
+    private final int empId;
+    // 所属部门ID，未分配时为null
+    private final Integer depId;
+    // 同部门其他员工
+    private final int[] departmentPeers;
+    // 参与的项目
+    private final int[] projects;
+    // 参与项目的其他成员（多个项目共同成员只出现一次）
+    private final int[] projectColleagues;
+    // 参与的培训
+    private final int[] trainings;
+    // 负责的任务
+    private final int[] managedTasks;
+    // 快照版本号，每次图变更递增
+    private final long version;
+
+    EmployeeRelations(int empId, Integer depId, int[] departmentPeers, int[] projects, int[] projectColleagues,
+                      int[] trainings, int[] managedTasks, long version) {
+        this.empId = empId;
+        this.depId = depId;
+        this.departmentPeers = departmentPeers;
+        this.projects = projects;
+        this.projectColleagues = projectColleagues;
+        this.trainings = trainings;
+        this.managedTasks = managedTasks;
+        this.version = version;
+    }
+}
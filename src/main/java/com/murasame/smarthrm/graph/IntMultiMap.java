@@ -0,0 +1,197 @@
+package com.murasame.smarthrm.graph;
+
+import java.util.Arrays;
+
+/**
+ * int → 有序int数组 的开放寻址哈希表（线性探测，删除时后移补位，不留墓碑）
+ * 键和值都是基本类型，不装箱；值数组发布后不再修改，增删边时整体替换为新数组，
+ * 因此 {@link #copy()} 只需复制两层槽位数组，值数组在新旧副本之间共享
+ * 非线程安全：由 {@link OrgGraph} 在写锁内修改私有副本，发布后只读
+ */
+final class IntMultiMap {
+
+    static final int[] EMPTY = new int[0];
+
+    // ID均为正整数，用最小值标记空槽
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[][] values;
+    private int size;
+    private long edges;
+
+    IntMultiMap(int expectedKeys) {
+        int capacity = tableSize(expectedKeys);
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity][];
+    }
+
+    private IntMultiMap(IntMultiMap source) {
+        keys = source.keys.clone();
+        values = source.values.clone();
+        size = source.size;
+        edges = source.edges;
+    }
+
+    IntMultiMap copy() {
+        return new IntMultiMap(this);
+    }
+
+    /**
+     * @return 键对应的有序值数组（不存在时为空数组），调用方不得修改
+     */
+    int[] get(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? EMPTY : values[slot];
+    }
+
+    /**
+     * 追加一条边
+     * @return 边原先不存在返回true
+     */
+    boolean add(int key, int value) {
+        int slot = insertSlot(key);
+        int[] current = values[slot];
+        int pos = Arrays.binarySearch(current, value);
+        if (pos >= 0) {
+            return false;
+        }
+        int at = -pos - 1;
+        int[] next = new int[current.length + 1];
+        System.arraycopy(current, 0, next, 0, at);
+        next[at] = value;
+        System.arraycopy(current, at, next, at + 1, current.length - at);
+        values[slot] = next;
+        edges++;
+        return true;
+    }
+
+    /**
+     * 移除一条边，键的最后一条边移除后键一并删除
+     * @return 边原先存在返回true
+     */
+    boolean remove(int key, int value) {
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return false;
+        }
+        int[] current = values[slot];
+        int pos = Arrays.binarySearch(current, value);
+        if (pos < 0) {
+            return false;
+        }
+        edges--;
+        if (current.length == 1) {
+            delete(slot);
+            return true;
+        }
+        int[] next = new int[current.length - 1];
+        System.arraycopy(current, 0, next, 0, pos);
+        System.arraycopy(current, pos + 1, next, pos, current.length - pos - 1);
+        values[slot] = next;
+        return true;
+    }
+
+    int keyCount() {
+        return size;
+    }
+
+    long edgeCount() {
+        return edges;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertSlot(int key) {
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        // 装载因子不超过1/2
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != FREE) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = EMPTY;
+        size++;
+        return i;
+    }
+
+    /**
+     * 删除槽位并把后续探测链上的元素前移，保证查找不会在空槽处提前终止
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int j = slot;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == FREE) {
+                break;
+            }
+            int home = mix(keys[j]) & mask;
+            // home 不在 (hole, j] 区间内（考虑回绕）时，该元素可以移到空位
+            boolean movable = hole <= j
+                    ? home <= hole || home > j
+                    : home <= hole && home > j;
+            if (movable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = FREE;
+        values[hole] = null;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[][] oldValues = values;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity][];
+        int mask = capacity - 1;
+        for (int s = 0; s < oldKeys.length; s++) {
+            if (oldKeys[s] == FREE) {
+                continue;
+            }
+            int i = mix(oldKeys[s]) & mask;
+            while (keys[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[s];
+            values[i] = oldValues[s];
+        }
+    }
+
+    private static int tableSize(int expectedKeys) {
+        int capacity = 16;
+        while (capacity < expectedKeys * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // 连续ID直接取低位会聚成长探测链，先做一次乘法散列
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
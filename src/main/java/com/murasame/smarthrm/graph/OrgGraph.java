@@ -0,0 +1,584 @@
+package com.murasame.smarthrm.graph;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.murasame.smarthrm.cache.CacheInvalidationHandler;
+import com.murasame.smarthrm.config.OrgGraphProperties;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.ProjectDao;
+import com.murasame.smarthrm.dao.SoftDelete;
+import com.murasame.smarthrm.dao.TaskDao;
+import com.murasame.smarthrm.dao.TrainingDao;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.entity.Training;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 进程内组织关系图
+ * 部门-员工、项目-员工、培训-员工、任务-负责人、任务-项目五种关系以基本类型int邻接数组保存（双向），
+ * 员工的项目/培训/同部门同事等关系查询只读内存，不访问数据库。
+ *
+ * 一致性：启动完成后在后台线程全量构建（构建完成前查询返回空结果，失败只记录日志，可经 /graph/rebuild 重试）；员工、部门、项目、培训、任务的写路径写库后调用对应方法增量更新，
+ * 其他节点的写操作经变更流（{@link CacheInvalidationHandler}）到达后按文档ID重新加载。
+ * 快照隔离：写操作在锁内复制被修改的关系（值数组共享，只复制槽位表）后整体发布新快照，
+ * 读操作无锁，一次查询内看到的所有关系来自同一个快照。
+ * smarthrm.org-graph.enabled=false 时不构建、不维护，始终为空快照
+ */
+public class OrgGraph implements CacheInvalidationHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrgGraph.class);
+
+    private static final Set<String> COLLECTIONS = Set.of("Employee", "Project", "Training", "Task");
+
+    // 关系下标
+    private static final int DEPARTMENT = 0;    // 员工 → 部门（单值）
+    private static final int PROJECT = 1;       // 员工 → 项目
+    private static final int TRAINING = 2;      // 员工 → 培训
+    private static final int TASK_MANAGER = 3;  // 任务 → 负责人（单值）
+    private static final int TASK_PROJECT = 4;  // 任务 → 项目（单值）
+    private static final int RELATIONS = 5;
+
+    private final EmployeeDao employeeDao;
+    private final ProjectDao projectDao;
+    private final TrainingDao trainingDao;
+    private final TaskDao taskDao;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "org-graph-builder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.empty();
+    // 全量构建期间的增量变更，构建完成后在新快照上重放，避免构建读库之后的写操作丢失
+    private List<Consumer<Writer>> pendingDuringRebuild;
+
+    public OrgGraph(EmployeeDao employeeDao, ProjectDao projectDao, TrainingDao trainingDao,
+                    TaskDao taskDao, MongoTemplate mongoTemplate, OrgGraphProperties properties) {
+        this.employeeDao = employeeDao;
+        this.projectDao = projectDao;
+        this.trainingDao = trainingDao;
+        this.taskDao = taskDao;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = properties.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            builder.submit(this::invalidateAll);
+        }
+    }
+
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    // ===================== 查询（无锁，单快照） =====================
+
+    /**
+     * 员工的全部直接关系
+     * @param empId 员工ID
+     */
+    public EmployeeRelations employee(int empId) {
+        Snapshot s = snapshot;
+        Integer depId = s.relation(DEPARTMENT).target(empId);
+        int[] peers = depId == null ? IntMultiMap.EMPTY : without(s.relation(DEPARTMENT).sources(depId), empId);
+        int[] projects = s.relation(PROJECT).targets(empId);
+
+        int[][] memberLists = new int[projects.length][];
+        for (int i = 0; i < projects.length; i++) {
+            memberLists[i] = s.relation(PROJECT).sources(projects[i]);
+        }
+        int[] colleagues = without(union(memberLists), empId);
+
+        return new EmployeeRelations(empId, depId, peers, projects.clone(), colleagues,
+                s.relation(TRAINING).targets(empId).clone(),
+                s.relation(TASK_MANAGER).sources(empId).clone(),
+                s.version);
+    }
+
+    /**
+     * 部门成员（按员工的depId归属）
+     */
+    public int[] departmentMembers(int deptId) {
+        return snapshot.relation(DEPARTMENT).sources(deptId).clone();
+    }
+
+    /**
+     * 项目成员
+     */
+    public int[] projectMembers(int projId) {
+        return snapshot.relation(PROJECT).sources(projId).clone();
+    }
+
+    /**
+     * 培训成员
+     */
+    public int[] trainingMembers(int trainId) {
+        return snapshot.relation(TRAINING).sources(trainId).clone();
+    }
+
+    /**
+     * 项目下的任务
+     */
+    public int[] projectTasks(int projId) {
+        return snapshot.relation(TASK_PROJECT).sources(projId).clone();
+    }
+
+    /**
+     * 图的规模与版本信息
+     */
+    public Map<String, Object> stats() {
+        Snapshot s = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", s.builtAt != null);
+        stats.put("version", s.version);
+        stats.put("builtAt", s.builtAt);
+        stats.put("updatedAt", s.updatedAt);
+        stats.put("departments", s.relation(DEPARTMENT).targetCount());
+        stats.put("departmentEdges", s.relation(DEPARTMENT).edgeCount());
+        stats.put("projects", s.relation(PROJECT).targetCount());
+        stats.put("projectEdges", s.relation(PROJECT).edgeCount());
+        stats.put("trainings", s.relation(TRAINING).targetCount());
+        stats.put("trainingEdges", s.relation(TRAINING).edgeCount());
+        stats.put("managedTasks", s.relation(TASK_MANAGER).edgeCount());
+        stats.put("tasks", s.relation(TASK_PROJECT).edgeCount());
+        return stats;
+    }
+
+    // ===================== 增量维护（写路径写库后调用） =====================
+
+    /**
+     * 按库中数据重载单个员工的部门、项目、培训关系（员工新增/编辑后调用，员工已不存在时等同删除）
+     * 项目/培训成员关系以项目、培训文档的members为准
+     * @param empId 员工ID
+     */
+    public void refreshEmployee(Integer empId) {
+        if (!enabled || empId == null) return;
+        Employee employee = employeeDao.findById(empId);
+        if (employee == null) {
+            removeEmployee(empId);
+            return;
+        }
+        int[] projects = ids(projectDao.findByMemberEmpId(empId).stream().map(Project::getId));
+        int[] trainings = ids(trainingDao.findByMemberEmpId(empId).stream().map(Training::get_id));
+        Integer depId = employee.getDepId();
+        mutate(w -> {
+            w.relation(DEPARTMENT).setTargets(empId, depId == null ? IntMultiMap.EMPTY : new int[]{depId});
+            w.relation(PROJECT).setTargets(empId, projects);
+            w.relation(TRAINING).setTargets(empId, trainings);
+        });
+    }
+
+    /**
+     * 移除员工的全部关系（员工删除后调用，负责的任务变为无负责人）
+     * @param empId 员工ID
+     */
+    public void removeEmployee(Integer empId) {
+        if (empId == null) return;
+        mutate(w -> {
+            w.relation(DEPARTMENT).removeSource(empId);
+            w.relation(PROJECT).removeSource(empId);
+            w.relation(TRAINING).removeSource(empId);
+            w.relation(TASK_MANAGER).removeTarget(empId);
+        });
+    }
+
+    /**
+     * 部门新增/编辑后同步员工归属
+     * @param deptId 部门ID
+     * @param addedEmpIds 移入该部门的员工ID
+     * @param removedEmpIds 移出该部门的员工ID
+     */
+    public void departmentChanged(Integer deptId, Collection<Integer> addedEmpIds, Collection<Integer> removedEmpIds) {
+        int[] added = ids(addedEmpIds == null ? Stream.empty() : addedEmpIds.stream());
+        int[] removed = ids(removedEmpIds == null ? Stream.empty() : removedEmpIds.stream());
+        if (deptId == null || (added.length == 0 && removed.length == 0)) return;
+        mutate(w -> {
+            Relation department = w.relation(DEPARTMENT);
+            for (int empId : removed) {
+                department.unlink(empId, deptId);
+            }
+            for (int empId : added) {
+                department.link(empId, deptId);
+            }
+        });
+    }
+
+    /**
+     * 部门删除后解除全部员工归属
+     * @param deptId 部门ID
+     */
+    public void departmentDeleted(Integer deptId) {
+        if (deptId == null) return;
+        mutate(w -> w.relation(DEPARTMENT).removeTarget(deptId));
+    }
+
+    /**
+     * 项目新增/编辑后按members重设成员
+     * @param project 保存后的项目
+     */
+    public void projectSaved(Project project) {
+        if (project == null || project.getId() == null) return;
+        int projId = project.getId();
+        int[] members = ids(project.getMembers() == null ? Stream.empty()
+                : project.getMembers().stream().map(Project.Member::getEmpId));
+        mutate(w -> w.relation(PROJECT).setSources(projId, members));
+    }
+
+    /**
+     * 项目删除后移除成员关系及项目下的任务
+     * @param projIds 已删除的项目ID
+     */
+    public void projectsDeleted(Collection<Integer> projIds) {
+        int[] ids = ids(projIds == null ? Stream.empty() : projIds.stream());
+        if (ids.length == 0) return;
+        mutate(w -> {
+            for (int projId : ids) {
+                w.relation(PROJECT).removeTarget(projId);
+                for (int taskId : w.relation(TASK_PROJECT).sources(projId)) {
+                    w.relation(TASK_MANAGER).removeSource(taskId);
+                    w.relation(TASK_PROJECT).removeSource(taskId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 培训新增/编辑后按members重设成员
+     * @param training 保存后的培训
+     */
+    public void trainingSaved(Training training) {
+        if (training == null || training.get_id() == null) return;
+        int trainId = training.get_id();
+        int[] members = ids(training.getMembers() == null ? Stream.empty() : training.getMembers().stream());
+        mutate(w -> w.relation(TRAINING).setSources(trainId, members));
+    }
+
+    /**
+     * 培训删除后移除成员关系
+     * @param trainId 培训ID
+     */
+    public void trainingDeleted(Integer trainId) {
+        if (trainId == null) return;
+        mutate(w -> w.relation(TRAINING).removeTarget(trainId));
+    }
+
+    /**
+     * 任务新增/编辑后重设负责人与所属项目
+     * @param task 保存后的任务
+     */
+    public void taskSaved(Task task) {
+        if (task == null || task.get_id() == null) return;
+        int taskId = task.get_id();
+        Integer managerId = task.getManagerId();
+        Integer projId = task.getProjId();
+        mutate(w -> {
+            w.relation(TASK_MANAGER).setTargets(taskId, managerId == null ? IntMultiMap.EMPTY : new int[]{managerId});
+            w.relation(TASK_PROJECT).setTargets(taskId, projId == null ? IntMultiMap.EMPTY : new int[]{projId});
+        });
+    }
+
+    /**
+     * 任务删除后移除关系
+     * @param taskId 任务ID
+     */
+    public void taskDeleted(Integer taskId) {
+        if (taskId == null) return;
+        mutate(w -> {
+            w.relation(TASK_MANAGER).removeSource(taskId);
+            w.relation(TASK_PROJECT).removeSource(taskId);
+        });
+    }
+
+    /**
+     * 按库中数据全量构建并替换当前快照
+     * 读库期间不阻塞增量写，期间发生的增量变更记录下来，构建完成后在新快照上按顺序重放
+     * @return 新快照的统计信息（未开启时不构建）
+     */
+    public Map<String, Object> rebuild() {
+        if (!enabled) {
+            return stats();
+        }
+        synchronized (writeLock) {
+            if (pendingDuringRebuild != null) {
+                throw new RuntimeException("组织关系图正在重建中");
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        Relation[] relations;
+        try {
+            relations = load();
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            Writer writer = new Writer(relations);
+            for (Consumer<Writer> change : pendingDuringRebuild) {
+                change.accept(writer);
+            }
+            Instant now = Instant.now();
+            snapshot = new Snapshot(writer.relations, snapshot.version + 1, now, now);
+            log.info("组织关系图全量构建完成：员工-部门 {} 条，员工-项目 {} 条，员工-培训 {} 条，任务 {} 个，重放增量 {} 次，耗时 {}ms",
+                    relations[DEPARTMENT].edgeCount(), relations[PROJECT].edgeCount(),
+                    relations[TRAINING].edgeCount(), relations[TASK_PROJECT].edgeCount(),
+                    pendingDuringRebuild.size(), System.currentTimeMillis() - start);
+            pendingDuringRebuild = null;
+        }
+        return stats();
+    }
+
+    // ===================== 变更流（其他节点的写操作） =====================
+
+    @Override
+    public boolean supports(String collection) {
+        return enabled && COLLECTIONS.contains(collection);
+    }
+
+    @Override
+    public void onChange(String collection, ChangeStreamDocument<Document> event) {
+        BsonValue key = event.getDocumentKey() == null ? null : event.getDocumentKey().get("_id");
+        if (key == null || !key.isNumber()) {
+            invalidateAll();
+            return;
+        }
+        int id = key.asNumber().intValue();
+        boolean deleted = event.getOperationType() == OperationType.DELETE;
+        switch (collection) {
+            case "Employee" -> refreshEmployee(id);
+            case "Project" -> {
+                Project project = deleted ? null : projectDao.findById(id);
+                if (project == null) projectsDeleted(List.of(id));
+                else projectSaved(project);
+            }
+            case "Training" -> {
+                Training training = deleted ? null : trainingDao.findById(id);
+                if (training == null) trainingDeleted(id);
+                else trainingSaved(training);
+            }
+            case "Task" -> {
+                Task task = deleted ? null : taskDao.findById(id);
+                if (task == null) taskDeleted(id);
+                else taskSaved(task);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("组织关系图重建失败，保留当前快照", e);
+        }
+    }
+
+    // ===================== 内部实现 =====================
+
+    private void mutate(Consumer<Writer> change) {
+        if (!enabled) return;
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            Writer writer = new Writer(current);
+            change.accept(writer);
+            snapshot = new Snapshot(writer.relations, current.version + 1, current.builtAt, Instant.now());
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        }
+    }
+
+    /**
+     * 全量读取：员工只投影depId，项目/培训只投影成员，任务只投影项目与负责人
+     */
+    private Relation[] load() {
+        Relation[] relations = new Relation[RELATIONS];
+        int employees = (int) mongoTemplate.estimatedCount(Employee.class);
+        relations[DEPARTMENT] = new Relation(true, employees, 64);
+        relations[PROJECT] = new Relation(false, employees, 256);
+        relations[TRAINING] = new Relation(false, employees, 256);
+        relations[TASK_MANAGER] = new Relation(true, 1024, employees);
+        relations[TASK_PROJECT] = new Relation(true, 1024, 256);
+
+        Query employeeQuery = new Query(SoftDelete.alive());
+        employeeQuery.fields().include("depId");
+        try (Stream<Employee> stream = mongoTemplate.stream(employeeQuery, Employee.class)) {
+            Iterator<Employee> it = stream.iterator();
+            while (it.hasNext()) {
+                Employee employee = it.next();
+                if (employee.get_id() != null && employee.getDepId() != null) {
+                    relations[DEPARTMENT].link(employee.get_id(), employee.getDepId());
+                }
+            }
+        }
+
+        Query projectQuery = new Query();
+        projectQuery.fields().include("members");
+        for (Project project : mongoTemplate.find(projectQuery, Project.class)) {
+            if (project.getId() == null || project.getMembers() == null) continue;
+            for (Project.Member member : project.getMembers()) {
+                if (member != null && member.getEmpId() != null) {
+                    relations[PROJECT].link(member.getEmpId(), project.getId());
+                }
+            }
+        }
+
+        Query trainingQuery = new Query();
+        trainingQuery.fields().include("members");
+        for (Training training : mongoTemplate.find(trainingQuery, Training.class)) {
+            if (training.get_id() == null || training.getMembers() == null) continue;
+            for (Integer empId : training.getMembers()) {
+                if (empId != null) {
+                    relations[TRAINING].link(empId, training.get_id());
+                }
+            }
+        }
+
+        Query taskQuery = new Query();
+        taskQuery.fields().include("projId", "managerId");
+        for (Task task : mongoTemplate.find(taskQuery, Task.class)) {
+            if (task.get_id() == null) continue;
+            if (task.getManagerId() != null) {
+                relations[TASK_MANAGER].link(task.get_id(), task.getManagerId());
+            }
+            if (task.getProjId() != null) {
+                relations[TASK_PROJECT].link(task.get_id(), task.getProjId());
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * 升序去重的ID数组
+     */
+    private static int[] ids(Stream<Integer> ids) {
+        return ids.filter(Objects::nonNull).mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * 多个升序数组的并集（升序去重）
+     */
+    private static int[] union(int[][] arrays) {
+        if (arrays.length == 0) return IntMultiMap.EMPTY;
+        if (arrays.length == 1) return arrays[0].clone();
+        int total = 0;
+        for (int[] array : arrays) total += array.length;
+        int[] all = new int[total];
+        int pos = 0;
+        for (int[] array : arrays) {
+            System.arraycopy(array, 0, all, pos, array.length);
+            pos += array.length;
+        }
+        Arrays.sort(all);
+        int n = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[n++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, n);
+    }
+
+    /**
+     * 升序数组去掉指定元素后的副本
+     */
+    private static int[] without(int[] sorted, int value) {
+        int pos = Arrays.binarySearch(sorted, value);
+        if (pos < 0) return sorted.clone();
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, pos);
+        System.arraycopy(sorted, pos + 1, result, pos, sorted.length - pos - 1);
+        return result;
+    }
+
+    /**
+     * 不可变快照：发布后关系数组不再修改
+     */
+    private static final class Snapshot {
+        private final Relation[] relations;
+        private final long version;
+        private final Instant builtAt;
+        private final Instant updatedAt;
+
+        private Snapshot(Relation[] relations, long version, Instant builtAt, Instant updatedAt) {
+            this.relations = relations;
+            this.version = version;
+            this.builtAt = builtAt;
+            this.updatedAt = updatedAt;
+        }
+
+        static Snapshot empty() {
+            Relation[] relations = new Relation[RELATIONS];
+            relations[DEPARTMENT] = new Relation(true, 0, 0);
+            relations[PROJECT] = new Relation(false, 0, 0);
+            relations[TRAINING] = new Relation(false, 0, 0);
+            relations[TASK_MANAGER] = new Relation(true, 0, 0);
+            relations[TASK_PROJECT] = new Relation(true, 0, 0);
+            return new Snapshot(relations, 0, null, null);
+        }
+
+        Relation relation(int index) {
+            return relations[index];
+        }
+    }
+
+    /**
+     * 一次写操作的工作副本：关系首次被修改时才复制，未修改的关系与旧快照共享
+     */
+    private static final class Writer {
+        private final Relation[] relations;
+        private final boolean[] copied = new boolean[RELATIONS];
+
+        Writer(Snapshot base) {
+            this.relations = base.relations.clone();
+        }
+
+        // 全量构建出的新关系归本次构建独占，无需复制
+        Writer(Relation[] fresh) {
+            this.relations = fresh;
+            Arrays.fill(copied, true);
+        }
+
+        Relation relation(int index) {
+            if (!copied[index]) {
+                relations[index] = relations[index].copy();
+                copied[index] = true;
+            }
+            return relations[index];
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.murasame.smarthrm.graph;
+
+import java.util.Arrays;
+
+/**
+ * 一种关系的双向邻接表：source → targets 与 target → sources 同步维护
+ * single 关系（员工→部门、任务→负责人、任务→项目）每个 source 至多一个 target，建立新边时自动断开旧边
+ */
+final class Relation {
+
+    private final boolean single;
+    private final IntMultiMap forward;
+    private final IntMultiMap reverse;
+
+    Relation(boolean single, int expectedSources, int expectedTargets) {
+        this(single, new IntMultiMap(expectedSources), new IntMultiMap(expectedTargets));
+    }
+
+    private Relation(boolean single, IntMultiMap forward, IntMultiMap reverse) {
+        this.single = single;
+        this.forward = forward;
+        this.reverse = reverse;
+    }
+
+    Relation copy() {
+        return new Relation(single, forward.copy(), reverse.copy());
+    }
+
+    int[] targets(int source) {
+        return forward.get(source);
+    }
+
+    int[] sources(int target) {
+        return reverse.get(target);
+    }
+
+    /**
+     * single 关系下 source 的唯一 target，不存在时返回null
+     */
+    Integer target(int source) {
+        int[] targets = forward.get(source);
+        return targets.length == 0 ? null : targets[0];
+    }
+
+    void link(int source, int target) {
+        if (single) {
+            for (int old : forward.get(source)) {
+                if (old != target) {
+                    unlink(source, old);
+                }
+            }
+        }
+        forward.add(source, target);
+        reverse.add(target, source);
+    }
+
+    void unlink(int source, int target) {
+        forward.remove(source, target);
+        reverse.remove(target, source);
+    }
+
+    /**
+     * 以给定集合整体替换 source 的出边
+     * @param targets 有序去重的 target 数组
+     */
+    void setTargets(int source, int[] targets) {
+        for (int old : forward.get(source)) {
+            if (Arrays.binarySearch(targets, old) < 0) {
+                unlink(source, old);
+            }
+        }
+        for (int target : targets) {
+            link(source, target);
+        }
+    }
+
+    /**
+     * 以给定集合整体替换 target 的入边
+     * @param sources 有序去重的 source 数组
+     */
+    void setSources(int target, int[] sources) {
+        for (int old : reverse.get(target)) {
+            if (Arrays.binarySearch(sources, old) < 0) {
+                unlink(old, target);
+            }
+        }
+        for (int source : sources) {
+            link(source, target);
+        }
+    }
+
+    void removeSource(int source) {
+        setTargets(source, IntMultiMap.EMPTY);
+    }
+
+    void removeTarget(int target) {
+        setSources(target, IntMultiMap.EMPTY);
+    }
+
+    int sourceCount() {
+        return forward.keyCount();
+    }
+
+    int targetCount() {
+        return reverse.keyCount();
+    }
+
+    long edgeCount() {
+        return forward.edgeCount();
+    }
+}
@@ -0,0 +1,362 @@
+package com.murasame.smarthrm.history;
+
+import com.murasame.smarthrm.config.HistoryProperties;
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 变更日志写入器
+ * DAO写入时取得变更前文档（findAndModify 返回旧值，与原来的update同为一次往返），此处计算字段级差异，
+ * 只保留发生变化的字段放入内存队列；单个后台线程按条数或等待时间攒批，一次insertMany追加到 ChangeLog。
+ *
+ * 同一实体每累计 snapshotEvery 条变更（以及本节点启动后的首次变更）附带一个完整快照，
+ * 按时间点查询只需从最近的快照重放少量变更，查询耗时不随日志增长。
+ * 变更时间在本节点内严格递增（同一毫秒内顺延1ms），保证同一实体的变更与快照顺序确定
+ */
+public class ChangeLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogWriter.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private record Pending(ChangeLogEntry entry, ChangeSnapshot snapshot, long enqueuedAt) {
+    }
+
+    private final ChangeLogDao changeLogDao;
+    private final MongoConverter converter;
+    private final HistoryProperties properties;
+    private final BlockingQueue<Pending> queue;
+    // 实体 -> 距上次快照的变更数（本节点）
+    private final Map<String, Integer> sinceSnapshot = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "change-log-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong writtenEntries = new AtomicLong();
+    private final AtomicLong writtenSnapshots = new AtomicLong();
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private LocalDateTime lastAt = LocalDateTime.MIN;
+    private volatile boolean stopping;
+    private volatile Instant lastFlushAt;
+    private volatile int lastFlushEntries;
+    private volatile String lastError;
+
+    public ChangeLogWriter(ChangeLogDao changeLogDao, MongoConverter converter, HistoryProperties properties) {
+        this.changeLogDao = changeLogDao;
+        this.converter = converter;
+        this.properties = properties;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.submit(() -> {
+            try {
+                changeLogDao.ensureIndexes();
+            } catch (RuntimeException e) {
+                // 缺少索引只影响历史查询速度，日志照常写入
+                log.error("变更日志：创建索引失败，下次启动时重试", e);
+            }
+            run();
+        });
+    }
+
+    /**
+     * 记录一次按字段更新
+     * @param entity 集合名
+     * @param entityId 实体ID
+     * @param before 更新前的实体（findAndModify返回值）；为null表示upsert新建，未匹配到文档时调用方不应记录
+     * @param update 执行的更新（取其 $set 部分）
+     */
+    public void recordUpdate(String entity, Integer entityId, Object before, Update update) {
+        Document set = update.getUpdateObject().get("$set", Document.class);
+        if (set == null) {
+            return;
+        }
+        Document state = before == null ? null : toDocument(before);
+        Document after = state == null ? new Document("_id", entityId) : new Document(state);
+        for (Map.Entry<String, Object> e : set.entrySet()) {
+            after.put(e.getKey(), converter.convertToMongoType(e.getValue()));
+        }
+        append(entity, entityId, state, after);
+    }
+
+    /**
+     * 记录一次整文档替换（repository.save 等）
+     * @param before 替换前的实体，新建时为null
+     * @param after 替换后的实体
+     */
+    public void recordReplace(String entity, Integer entityId, Object before, Object after) {
+        append(entity, entityId, before == null ? null : toDocument(before), toDocument(after));
+    }
+
+    /**
+     * 记录一次 repository.save（集合名与ID取自实体映射）
+     * @param before 保存前的实体，新建时为null
+     * @param after 保存后的实体
+     */
+    public void recordSave(Object before, Object after) {
+        MongoPersistentEntity<?> persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(after.getClass());
+        Object id = persistentEntity.getIdentifierAccessor(after).getIdentifier();
+        recordReplace(persistentEntity.getCollection(), (Integer) id, before, after);
+    }
+
+    /**
+     * 记录已知差异的变更（updateMulti 等无法取得整文档的批量更新），不参与快照计数
+     * @param previous 变更前的字段值
+     * @param changes 变更后的字段值
+     */
+    public void record(String entity, Integer entityId, Map<String, Object> previous, Map<String, Object> changes) {
+        enqueue(new Pending(entry(entity, entityId, ChangeLogEntry.UPDATE, nextAt(), changes, previous), null,
+                System.nanoTime()));
+    }
+
+    /**
+     * 记录一次物理删除：previous 为删除前的完整文档，按时间点回滚越过删除时据此恢复
+     * @param before 删除前的实体或文档（findAndRemove / 删除前查询的返回值）
+     */
+    public void recordDelete(String entity, Integer entityId, Object before) {
+        Map<String, Object> previous = new LinkedHashMap<>(before instanceof Document document ? document : toDocument(before));
+        previous.remove("_id");
+        previous.remove("_class");
+        // 同ID重新创建时重新从快照开始计数
+        sinceSnapshot.remove(entity + ":" + entityId);
+        enqueue(new Pending(entry(entity, entityId, ChangeLogEntry.DELETE, nextAt(), new LinkedHashMap<>(), previous),
+                null, System.nanoTime()));
+    }
+
+    /**
+     * 记录一次 repository.delete（集合名与ID取自实体映射）
+     * @param before 删除前的实体
+     */
+    public void recordDelete(Object before) {
+        MongoPersistentEntity<?> persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(before.getClass());
+        Object id = persistentEntity.getIdentifierAccessor(before).getIdentifier();
+        recordDelete(persistentEntity.getCollection(), (Integer) id, before);
+    }
+
+    private void append(String entity, Integer entityId, Document before, Document after) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Map<String, Object> previous = new LinkedHashMap<>();
+        if (before == null) {
+            changes.putAll(after);
+            changes.remove("_id");
+        } else {
+            Set<String> fields = new LinkedHashSet<>(before.keySet());
+            fields.addAll(after.keySet());
+            fields.remove("_id");
+            for (String field : fields) {
+                Object oldValue = before.get(field);
+                Object newValue = after.get(field);
+                if (!Objects.equals(oldValue, newValue)) {
+                    changes.put(field, newValue);
+                    previous.put(field, oldValue);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+        }
+        LocalDateTime at = nextAt();
+        ChangeLogEntry entry = entry(entity, entityId, before == null ? ChangeLogEntry.CREATE : ChangeLogEntry.UPDATE,
+                at, changes, previous);
+        ChangeSnapshot snapshot = null;
+        if (snapshotDue(entity + ":" + entityId)) {
+            snapshot = new ChangeSnapshot();
+            snapshot.setEntity(entity);
+            snapshot.setEntityId(entityId);
+            snapshot.setAt(at);
+            snapshot.setState(after);
+        }
+        enqueue(new Pending(entry, snapshot, System.nanoTime()));
+    }
+
+    private static ChangeLogEntry entry(String entity, Integer entityId, String op, LocalDateTime at,
+                                        Map<String, Object> changes, Map<String, Object> previous) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setEntity(entity);
+        entry.setEntityId(entityId);
+        entry.setAt(at);
+        entry.setOp(op);
+        entry.setChanges(changes);
+        entry.setPrevious(previous);
+        return entry;
+    }
+
+    /**
+     * 记录 $pull 之后的数组字段：按与 $pull 相同的匹配条件计算移除后的数组
+     * @param before 更新前的文档（含_id与该字段）
+     * @param removed 与 $pull 条件一致的元素匹配
+     */
+    public void recordPull(String entity, List<Document> before, String field, Predicate<Object> removed) {
+        for (Document document : before) {
+            List<?> previous = document.getList(field, Object.class, List.of());
+            List<Object> after = new ArrayList<>(previous.size());
+            for (Object element : previous) {
+                if (!removed.test(element)) {
+                    after.add(element);
+                }
+            }
+            if (after.size() != previous.size()) {
+                record(entity, document.getInteger("_id"), Map.of(field, previous), Map.of(field, after));
+            }
+        }
+    }
+
+    private Document toDocument(Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        document.remove("_class");
+        return document;
+    }
+
+    // 首次变更或距上次快照已满 snapshotEvery 条时写快照
+    private boolean snapshotDue(String key) {
+        int every = Math.max(1, properties.getSnapshotEvery());
+        return sinceSnapshot.compute(key, (k, n) -> n == null || n + 1 >= every ? 0 : n + 1) == 0;
+    }
+
+    // 精确到毫秒（与库中存储一致）且本节点内严格递增
+    private synchronized LocalDateTime nextAt() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        lastAt = now.isAfter(lastAt) ? now : lastAt.plus(1, ChronoUnit.MILLIS);
+        return lastAt;
+    }
+
+    // 队列已满（或已停止）时由写入线程同步落库，变更不丢弃
+    private void enqueue(Pending pending) {
+        if (!stopping && queue.offer(pending)) {
+            return;
+        }
+        write(List.of(pending));
+    }
+
+    /**
+     * 写入线程状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("writtenEntries", writtenEntries.get());
+        stats.put("writtenSnapshots", writtenSnapshots.get());
+        stats.put("droppedEntries", droppedEntries.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        stats.put("lastFlushEntries", lastFlushEntries);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    /**
+     * 停止攒批，在限定时间内写完队列中的变更
+     */
+    public void shutdown() {
+        stopping = true;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+                log.warn("变更日志：停止时仍有 {} 条变更未写入", queue.size());
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long interval = properties.getFlushInterval().toNanos();
+        int flushSize = Math.max(1, properties.getFlushSize());
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> flush = new ArrayList<>();
+                flush.add(first);
+                // 攒批：达到 flushSize，或最早的变更已等待 flushInterval；停止时不再等待
+                while (flush.size() < flushSize) {
+                    long wait = stopping ? 0 : first.enqueuedAt() + interval - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    flush.add(next);
+                }
+                write(flush);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Pending> flush) {
+        List<ChangeLogEntry> entries = new ArrayList<>(flush.size());
+        List<ChangeSnapshot> snapshots = new ArrayList<>();
+        for (Pending pending : flush) {
+            entries.add(pending.entry());
+            if (pending.snapshot() != null) {
+                snapshots.add(pending.snapshot());
+            }
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                changeLogDao.append(entries, snapshots);
+                writtenEntries.addAndGet(entries.size());
+                writtenSnapshots.addAndGet(snapshots.size());
+                lastFlushAt = Instant.now();
+                lastFlushEntries = entries.size();
+                lastError = null;
+                return;
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                // 插入失败可能已部分写入，重试前清空_id，重复的变更只影响日志体积，不影响重放结果
+                entries.forEach(entry -> entry.set_id(null));
+                snapshots.forEach(snapshot -> snapshot.set_id(null));
+                if (attempt >= MAX_ATTEMPTS) {
+                    droppedEntries.addAndGet(entries.size());
+                    log.error("变更日志：{} 条变更写入失败，已重试 {} 次，丢弃", entries.size(), attempt, e);
+                    return;
+                }
+                log.warn("变更日志：写入失败，第 {} 次重试", attempt + 1, e);
+                try {
+                    TimeUnit.SECONDS.sleep(attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    droppedEntries.addAndGet(entries.size());
+                    return;
+                }
+            }
+        }
+    }
+}
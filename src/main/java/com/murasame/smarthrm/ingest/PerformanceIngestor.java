@@ -0,0 +1,426 @@
+package com.murasame.smarthrm.ingest;
+
+import com.murasame.smarthrm.config.PerformanceProperties;
+import com.murasame.smarthrm.dao.PerformanceDao;
+import com.murasame.smarthrm.dao.PerformanceIngestDao;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceIngestBatch;
+import com.murasame.smarthrm.service.PerformanceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 绩效测评点批量导入管道
+ * 请求线程只做字段校验、登记批次并放入内存队列（按测评点数计容量），立即返回；
+ * 单个后台线程按点数或等待时间攒批，一次无序bulk写入并累加汇总桶，写库速度跟不上时队列写满，新批次返回429。
+ *
+ * 幂等：客户端批次ID登记在 PerformanceIngestBatch（主键唯一），重复提交直接返回已有状态；
+ * 写入失败的批次、或节点崩溃导致停留在排队状态超过 staleAfter 的批次，客户端重试时重新接收并整批重写。
+ * 写入失败按间隔重试；重写批次时先按测评点上的batchId删除上次可能部分写入的点再整批写入，
+ * 写入后按库中测评点重算这些点涉及的汇总桶（上次的增量可能部分生效），登记的写入数即实际写入数
+ */
+public class PerformanceIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(PerformanceIngestor.class);
+
+    private static final int MAX_BATCH_ID_LENGTH = 128;
+
+    public enum Outcome { ACCEPTED, DUPLICATE, BUSY }
+
+    /**
+     * 提交结果
+     * @param outcome 接收 / 重复批次 / 队列已满
+     * @param batch 批次记录（队列已满时为null）
+     */
+    public record Result(Outcome outcome, PerformanceIngestBatch batch) {
+    }
+
+    /**
+     * @param rewrite 测评点可能已部分写入（重新接收的批次、写入失败后的重试），写入前先清除
+     */
+    private record Pending(PerformanceIngestBatch batch, List<Performance> points, long enqueuedAt, boolean rewrite) {
+
+        Pending forRewrite() {
+            return rewrite ? this : new Pending(batch, points, enqueuedAt, true);
+        }
+    }
+
+    private final PerformanceService performanceService;
+    private final PerformanceDao performanceDao;
+    private final PerformanceIngestDao ingestDao;
+    private final PerformanceProperties.Ingest properties;
+    @Getter
+    private final String node;
+
+    private final Semaphore capacity;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // 本节点已接收、尚未写完的批次
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "performance-ingest");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Counter acceptedBatches;
+    private final Counter duplicateBatches;
+    private final Counter busyBatches;
+    private final Counter writtenPoints;
+    private final Counter rejectedPoints;
+    private final Counter failedPoints;
+    private final Timer flushTimer;
+
+    private volatile boolean accepting = true;
+    private volatile boolean stopping;
+    private volatile Instant lastFlushAt;
+    private volatile int lastFlushPoints;
+    private volatile String lastError;
+
+    public PerformanceIngestor(PerformanceService performanceService, PerformanceDao performanceDao,
+                               PerformanceIngestDao ingestDao, PerformanceProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.performanceService = performanceService;
+        this.performanceDao = performanceDao;
+        this.ingestDao = ingestDao;
+        this.properties = properties.getIngest();
+        this.node = hostName();
+        this.capacity = new Semaphore(this.properties.getQueueCapacity());
+
+        acceptedBatches = batchCounter(meterRegistry, "accepted");
+        duplicateBatches = batchCounter(meterRegistry, "duplicate");
+        busyBatches = batchCounter(meterRegistry, "busy");
+        writtenPoints = pointCounter(meterRegistry, "written");
+        rejectedPoints = pointCounter(meterRegistry, "rejected");
+        failedPoints = pointCounter(meterRegistry, "failed");
+        flushTimer = Timer.builder("smarthrm.performance.ingest.flush").register(meterRegistry);
+        Gauge.builder("smarthrm.performance.ingest.queued", this, PerformanceIngestor::queuedPoints)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.submit(() -> {
+            try {
+                ingestDao.ensureIndexes(properties.getLedgerRetention());
+            } catch (RuntimeException e) {
+                // 只影响批次记录的过期清理，不影响导入
+                log.error("绩效导入：创建批次记录索引失败，下次启动时重试", e);
+            }
+            run();
+        });
+    }
+
+    /**
+     * 提交一个客户端批次
+     * @param batchId 客户端批次ID（重试时保持不变）
+     * @param points 测评点
+     * @throws IllegalArgumentException 批次ID或测评点不合法
+     */
+    public Result submit(String batchId, List<Performance> points) {
+        if (batchId == null || batchId.isBlank()) {
+            throw new IllegalArgumentException("批次ID不能为空");
+        }
+        if (batchId.length() > MAX_BATCH_ID_LENGTH) {
+            throw new IllegalArgumentException("批次ID长度不能超过 " + MAX_BATCH_ID_LENGTH);
+        }
+        performanceService.validate(points);
+        int size = points.size();
+        if (size > properties.getMaxBatchSize() || size > properties.getQueueCapacity()) {
+            throw new IllegalArgumentException("单个批次最多 "
+                    + Math.min(properties.getMaxBatchSize(), properties.getQueueCapacity()) + " 个测评点");
+        }
+        if (!accepting) {
+            busyBatches.increment();
+            return new Result(Outcome.BUSY, null);
+        }
+        if (inFlight.contains(batchId)) {
+            duplicateBatches.increment();
+            return new Result(Outcome.DUPLICATE, ingestDao.findById(batchId));
+        }
+
+        try {
+            if (!capacity.tryAcquire(size, properties.getAcceptTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                busyBatches.increment();
+                return new Result(Outcome.BUSY, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            busyBatches.increment();
+            return new Result(Outcome.BUSY, null);
+        }
+
+        boolean enqueued = false;
+        boolean rewrite = false;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            PerformanceIngestBatch batch = new PerformanceIngestBatch();
+            batch.set_id(batchId);
+            batch.setStatus(PerformanceIngestBatch.QUEUED);
+            batch.setNode(node);
+            batch.setPoints(size);
+            batch.setAcceptedAt(now);
+            if (!ingestDao.claim(batch)) {
+                PerformanceIngestBatch existing = recoverOrGet(batchId, size, now);
+                if (existing != null) {
+                    duplicateBatches.increment();
+                    return new Result(Outcome.DUPLICATE, existing);
+                }
+                rewrite = true;
+            }
+
+            for (Performance point : points) {
+                point.setBatchId(batchId);
+            }
+            inFlight.add(batchId);
+            queue.add(new Pending(batch, points, System.nanoTime(), rewrite));
+            enqueued = true;
+            acceptedBatches.increment();
+            return new Result(Outcome.ACCEPTED, batch);
+        } finally {
+            if (!enqueued) {
+                capacity.release(size);
+            }
+        }
+    }
+
+    /**
+     * 批次ID已登记：写入失败的批次、或滞留的排队批次由本节点重新接收（返回null，测评点整批重写），否则返回已有记录
+     */
+    private PerformanceIngestBatch recoverOrGet(String batchId, int size, LocalDateTime now) {
+        PerformanceIngestBatch existing = ingestDao.findById(batchId);
+        if (existing == null) {
+            return null;
+        }
+        boolean failed = PerformanceIngestBatch.FAILED.equals(existing.getStatus());
+        boolean stale = PerformanceIngestBatch.QUEUED.equals(existing.getStatus())
+                && existing.getAcceptedAt().isBefore(now.minus(properties.getStaleAfter()));
+        if (!failed && !stale) {
+            return existing;
+        }
+        if (!ingestDao.reclaim(existing, node, size, now)) {
+            return ingestDao.findById(batchId);
+        }
+        log.info("绩效导入批次 {}（{}，原节点 {}）重新接收", batchId, existing.getStatus(), existing.getNode());
+        return null;
+    }
+
+    /**
+     * 查询批次状态
+     */
+    public PerformanceIngestBatch status(String batchId) {
+        return ingestDao.findById(batchId);
+    }
+
+    /**
+     * 管道运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("node", node);
+        stats.put("accepting", accepting);
+        stats.put("queuedBatches", queue.size());
+        stats.put("queuedPoints", queuedPoints());
+        stats.put("queueCapacity", properties.getQueueCapacity());
+        stats.put("acceptedBatches", (long) acceptedBatches.count());
+        stats.put("duplicateBatches", (long) duplicateBatches.count());
+        stats.put("busyBatches", (long) busyBatches.count());
+        stats.put("writtenPoints", (long) writtenPoints.count());
+        stats.put("rejectedPoints", (long) rejectedPoints.count());
+        stats.put("failedPoints", (long) failedPoints.count());
+        stats.put("lastFlushAt", lastFlushAt);
+        stats.put("lastFlushPoints", lastFlushPoints);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    /**
+     * 停止接收新批次，在限定时间内写完队列中的批次
+     * 未写完的批次保持排队状态，超过 staleAfter 后客户端重试即可重新接收
+     */
+    public void shutdown() {
+        accepting = false;
+        stopping = true;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+                log.warn("绩效导入：停止时仍有 {} 个批次未写入", queue.size());
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long interval = properties.getFlushInterval().toNanos();
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> flush = new ArrayList<>();
+                flush.add(first);
+                int points = first.points().size();
+                // 攒批：达到目标点数，或最早的批次已等待 flushInterval；停止时不再等待
+                while (points < properties.getFlushSize()) {
+                    long wait = stopping ? 0 : first.enqueuedAt() + interval - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    flush.add(next);
+                    points += next.points().size();
+                }
+                flush(flush, points);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Pending> flush, int points) throws InterruptedException {
+        List<Pending> pending = flush;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                long start = System.nanoTime();
+                List<Performance> all = new ArrayList<>(points);
+                List<Performance> rewritten = new ArrayList<>();
+                List<String> rewriteIds = new ArrayList<>();
+                for (Pending p : pending) {
+                    all.addAll(p.points());
+                    if (p.rewrite()) {
+                        rewritten.addAll(p.points());
+                        rewriteIds.add(p.batch().get_id());
+                    }
+                }
+                performanceDao.deleteByBatchIds(rewriteIds);
+                Set<Integer> unknown = performanceService.ingest(all);
+                if (!rewritten.isEmpty()) {
+                    performanceDao.recomputeRollups(rewritten);
+                }
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                finish(pending, unknown, null);
+                lastFlushAt = Instant.now();
+                lastFlushPoints = all.size();
+                lastError = null;
+                return;
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                if (attempt >= properties.getMaxAttempts()) {
+                    log.error("绩效导入：{} 个批次写入失败，已重试 {} 次", pending.size(), attempt, e);
+                    discardPartial(pending);
+                    finish(pending, Set.of(), e.getMessage());
+                    return;
+                }
+                log.warn("绩效导入：写入失败，{}ms后第 {} 次重试", properties.getRetryBackoff().toMillis() * attempt,
+                        attempt + 1, e);
+                TimeUnit.MILLISECONDS.sleep(properties.getRetryBackoff().toMillis() * attempt);
+                // 上次写入可能部分成功：整批重写
+                pending = pending.stream().map(Pending::forRewrite).toList();
+            }
+        }
+    }
+
+    /**
+     * 放弃写入的批次登记为写入0个：尽量清除已部分写入的测评点并重算涉及的汇总桶；
+     * 清除失败时残留的点在客户端重试该批次时随重写清除
+     */
+    private void discardPartial(List<Pending> pending) {
+        try {
+            List<Performance> points = new ArrayList<>();
+            pending.forEach(p -> points.addAll(p.points()));
+            performanceDao.deleteByBatchIds(pending.stream().map(p -> p.batch().get_id()).toList());
+            // 之前的尝试可能已合并部分增量，即使没有残留的点也重算
+            performanceDao.recomputeRollups(points);
+        } catch (RuntimeException e) {
+            log.warn("绩效导入：清除失败批次已写入的测评点失败，客户端重试该批次时清除", e);
+        }
+    }
+
+    /**
+     * 登记批次结果并释放队列容量
+     * @param error 失败原因，成功时为null
+     */
+    private void finish(List<Pending> pending, Set<Integer> unknownEmpIds, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PerformanceIngestBatch> batches = new ArrayList<>(pending.size());
+        for (Pending p : pending) {
+            PerformanceIngestBatch batch = p.batch();
+            int rejected = 0;
+            if (!unknownEmpIds.isEmpty()) {
+                for (Performance point : p.points()) {
+                    if (unknownEmpIds.contains(point.getEmpId())) rejected++;
+                }
+            }
+            batch.setStatus(error == null ? PerformanceIngestBatch.WRITTEN : PerformanceIngestBatch.FAILED);
+            batch.setWritten(error == null ? p.points().size() - rejected : 0);
+            batch.setRejected(rejected);
+            batch.setCompletedAt(now);
+            batch.setError(error);
+            batches.add(batch);
+            if (error == null) {
+                writtenPoints.increment(batch.getWritten());
+                rejectedPoints.increment(rejected);
+            } else {
+                failedPoints.increment(p.points().size());
+            }
+        }
+        try {
+            ingestDao.complete(batches);
+        } catch (RuntimeException e) {
+            // 结果未登记的批次保持排队状态，超过 staleAfter 后客户端重试时整批重写
+            log.warn("绩效导入：登记 {} 个批次结果失败", batches.size(), e);
+        } finally {
+            for (Pending p : pending) {
+                inFlight.remove(p.batch().get_id());
+                capacity.release(p.points().size());
+            }
+        }
+    }
+
+    private int queuedPoints() {
+        return properties.getQueueCapacity() - capacity.availablePermits();
+    }
+
+    private static Counter batchCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("smarthrm.performance.ingest.batches").tag("outcome", outcome).register(registry);
+    }
+
+    private static Counter pointCounter(MeterRegistry registry, String result) {
+        return Counter.builder("smarthrm.performance.ingest.points").tag("result", result).register(registry);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.murasame.smarthrm.migration;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * 版本化数据迁移
+ * 由 {@link MigrationRunner} 按版本号顺序执行，按 _id 升序分批读取 {@link #filter()} 命中的原始文档，
+ * 对每个文档调用 {@link #migrate} 生成更新后批量写回；迁移必须幂等——已迁移的文档不应再命中filter，
+ * 重复执行同一文档也不能产生副作用（崩溃恢复时最后一个批次可能被重放）
+ */
+public interface Migration {
+
+    /**
+     * 版本号（全局唯一，决定执行顺序，一经发布不可修改）
+     */
+    int version();
+
+    /**
+     * 迁移说明（写入 schema_migrations 便于排查）
+     */
+    String description();
+
+    /**
+     * 目标集合名
+     */
+    String collection();
+
+    /**
+     * 需要迁移的文档条件（原始Mongo查询，默认全部文档）
+     */
+    default Document filter() {
+        return new Document();
+    }
+
+    /**
+     * 乐观并发条件：写回时追加到 {_id} 过滤条件中，读取后被业务写入修改过的文档将不匹配、跳过本次更新
+     * （计为冲突，由业务写入按新格式落库或下次运行再处理），默认不校验
+     * @param document 读取到的原始文档
+     */
+    default Document guard(Document document) {
+        return new Document();
+    }
+
+    /**
+     * 生成单个文档的更新
+     * @param document 原始文档
+     * @return 更新内容，无需修改时返回null
+     */
+    Update migrate(Document document);
+}
@@ -0,0 +1,291 @@
+package com.murasame.smarthrm.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.result.UpdateResult;
+import com.murasame.smarthrm.config.MigrationProperties;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在线可续跑的数据迁移执行器
+ * 应用就绪后在后台单线程按版本号顺序执行未完成的 {@link Migration}，不阻塞启动与在线请求：
+ * 1. 租约：schema_migrations 中每个版本一条状态，通过 findAndModify 抢占租约，多实例同时启动也只有一个实例执行；
+ *    持有者每批续约，崩溃后租约过期由其他实例（或重启后的自身）接管；
+ * 2. 分批：以 _id 升序的键集分页（_id > 检查点）读取，每批游标读取 batchSize 条，无序批量写回，避免长游标超时；
+ * 3. 检查点：每批写回后记录最后的 _id 与累计计数，续跑从检查点之后开始；
+ * 4. 限速：按 maxDocsPerSecond 在批次间休眠；
+ * 写回时携带 {@link Migration#guard} 条件，读取后被业务并发修改的文档不会被覆盖
+ */
+public class MigrationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationRunner.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final List<Migration> migrations;
+    private final MigrationProperties properties;
+    private final String nodeId;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "schema-migration");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean stopping;
+
+    public MigrationRunner(MongoTemplate mongoTemplate, List<Migration> migrations, MigrationProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrations = migrations.stream()
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+        this.properties = properties;
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!migrations.isEmpty()) {
+            executor.submit(this::runAll);
+        }
+    }
+
+    /**
+     * 停止执行（当前批次写完后退出，租约到期前可由本实例重启续跑）
+     */
+    public void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * 查询全部迁移状态（按版本号）
+     */
+    public List<MigrationState> states() {
+        return mongoTemplate.find(new Query().with(Sort.by("_id")), MigrationState.class);
+    }
+
+    private void runAll() {
+        for (Migration migration : migrations) {
+            try {
+                if (!runToCompletion(migration)) {
+                    // 失败或被中断：后续版本可能依赖本版本结果，不再继续
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (stopping) {
+                    // 关闭时被中断的驱动调用，保留RUNNING状态由租约过期后续跑
+                    return;
+                }
+                log.error("迁移 V{} 执行失败", migration.version(), e);
+                markFailed(migration, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 执行单个迁移直至完成；租约被其他实例持有时等待其完成或租约过期后接管
+     * @return 已完成返回true
+     */
+    private boolean runToCompletion(Migration migration) throws InterruptedException {
+        ensureState(migration);
+        while (!stopping) {
+            MigrationState state = acquireLease(migration);
+            if (state != null) {
+                return process(migration, state);
+            }
+            MigrationState current = mongoTemplate.findById(migration.version(), MigrationState.class);
+            if (current != null && current.getStatus() == MigrationState.Status.COMPLETED) {
+                return true;
+            }
+            log.info("迁移 V{} 正由 {} 执行，等待租约释放", migration.version(),
+                    current == null ? "?" : current.getOwner());
+            TimeUnit.MILLISECONDS.sleep(Math.max(1000, properties.getLease().toMillis() / 2));
+        }
+        return false;
+    }
+
+    private void ensureState(Migration migration) {
+        Update init = new Update()
+                .setOnInsert("description", migration.description())
+                .setOnInsert("collection", migration.collection())
+                .setOnInsert("status", MigrationState.Status.PENDING)
+                .setOnInsert("scanned", 0L)
+                .setOnInsert("modified", 0L)
+                .setOnInsert("conflicts", 0L);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(migration.version())), init, MigrationState.class);
+    }
+
+    /**
+     * 抢占租约：未完成，且（无持有者 / 本实例持有 / 租约已过期）
+     * @return 抢占成功返回最新状态，否则返回null
+     */
+    private MigrationState acquireLease(Migration migration) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(migration.version())
+                .and("status").ne(MigrationState.Status.COMPLETED)
+                .orOperator(
+                        Criteria.where("owner").is(null),
+                        Criteria.where("owner").is(nodeId),
+                        Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("leaseUntil", now.plus(properties.getLease()))
+                .set("status", MigrationState.Status.RUNNING)
+                .set("updatedAt", now)
+                .unset("error");
+        MigrationState state = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), MigrationState.class);
+        if (state != null && state.getStartedAt() == null) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(migration.version())),
+                    new Update().set("startedAt", now), MigrationState.class);
+        }
+        return state;
+    }
+
+    /**
+     * 从检查点开始分批处理
+     * @return 全部处理完成返回true，失去租约或停止返回false
+     */
+    private boolean process(Migration migration, MigrationState state) throws InterruptedException {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(migration.collection());
+        Object lastId = state.getLastId();
+        log.info("开始执行迁移 V{}（{}），检查点 _id > {}，已处理 {} 条",
+                migration.version(), migration.description(), lastId, state.getScanned());
+        int batchSize = Math.max(1, properties.getBatchSize());
+
+        while (!stopping) {
+            long batchStart = System.nanoTime();
+            Document filter = lastId == null
+                    ? migration.filter()
+                    : new Document("$and", List.of(migration.filter(),
+                            new Document("_id", new Document("$gt", lastId))));
+
+            List<UpdateOneModel<Document>> writes = new ArrayList<>();
+            int scanned = 0;
+            try (MongoCursor<Document> cursor = collection.find(filter)
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)
+                    .batchSize(batchSize)
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    Document document = cursor.next();
+                    scanned++;
+                    lastId = document.get("_id");
+                    Update update = migration.migrate(document);
+                    if (update != null) {
+                        Document target = new Document("_id", lastId);
+                        target.putAll(migration.guard(document));
+                        writes.add(new UpdateOneModel<>(target, update.getUpdateObject()));
+                    }
+                }
+            }
+
+            if (scanned == 0) {
+                complete(migration);
+                return true;
+            }
+
+            long modified = 0;
+            long conflicts = 0;
+            if (!writes.isEmpty()) {
+                var result = collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                modified = result.getModifiedCount();
+                conflicts = writes.size() - result.getMatchedCount();
+            }
+            if (!checkpoint(migration, lastId, scanned, modified, conflicts)) {
+                log.warn("迁移 V{} 租约已被其他实例接管，停止本实例执行", migration.version());
+                return false;
+            }
+            throttle(scanned, System.nanoTime() - batchStart);
+        }
+        return false;
+    }
+
+    /**
+     * 记录检查点并续约（仅租约持有者可写）
+     */
+    private boolean checkpoint(Migration migration, Object lastId, long scanned, long modified, long conflicts) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(migration.version()).and("owner").is(nodeId));
+        Update update = new Update()
+                .set("lastId", lastId)
+                .inc("scanned", scanned)
+                .inc("modified", modified)
+                .inc("conflicts", conflicts)
+                .set("leaseUntil", now.plus(properties.getLease()))
+                .set("updatedAt", now);
+        UpdateResult result = mongoTemplate.updateFirst(query, update, MigrationState.class);
+        return result.getMatchedCount() > 0;
+    }
+
+    private void complete(Migration migration) {
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(migration.version()).and("owner").is(nodeId)),
+                new Update()
+                        .set("status", MigrationState.Status.COMPLETED)
+                        .set("completedAt", now)
+                        .set("updatedAt", now)
+                        .unset("owner")
+                        .unset("leaseUntil"),
+                MigrationState.class);
+        MigrationState state = mongoTemplate.findById(migration.version(), MigrationState.class);
+        log.info("迁移 V{} 完成：读取 {} 条，修改 {} 条，冲突跳过 {} 条", migration.version(),
+                state == null ? 0 : state.getScanned(), state == null ? 0 : state.getModified(),
+                state == null ? 0 : state.getConflicts());
+    }
+
+    private void markFailed(Migration migration, RuntimeException e) {
+        try {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(migration.version()).and("owner").is(nodeId)),
+                    new Update()
+                            .set("status", MigrationState.Status.FAILED)
+                            .set("error", String.valueOf(e.getMessage()))
+                            .set("updatedAt", Instant.now())
+                            .unset("owner")
+                            .unset("leaseUntil"),
+                    MigrationState.class);
+        } catch (RuntimeException ignored) {
+            // 状态写入失败时依赖租约过期
+        }
+    }
+
+    /**
+     * 按速率上限在批次间休眠
+     */
+    private void throttle(int scanned, long elapsedNanos) throws InterruptedException {
+        double rate = properties.getMaxDocsPerSecond();
+        if (rate <= 0) {
+            return;
+        }
+        long minNanos = (long) (scanned * 1_000_000_000d / rate);
+        if (minNanos > elapsedNanos) {
+            TimeUnit.NANOSECONDS.sleep(minNanos - elapsedNanos);
+        }
+    }
+}
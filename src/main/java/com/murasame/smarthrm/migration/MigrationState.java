@@ -0,0 +1,39 @@
+package com.murasame.smarthrm.migration;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * 迁移执行状态（schema_migrations 集合，每个版本一条）
+ * 记录检查点（最后处理的 _id）、累计计数及租约，供崩溃后续跑与多实例互斥
+ */
+@Data
+@Document(collection = MigrationState.COLLECTION)
+public class MigrationState {
+
+    public static final String COLLECTION = "schema_migrations";
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private Integer version;
+    private String description;
+    private String collection;
+    private Status status;
+
+    private Object lastId;        // 检查点：已处理批次的最大 _id
+    private long scanned;         // 已读取文档数
+    private long modified;        // 已修改文档数
+    private long conflicts;       // 读取后被并发修改而跳过的文档数
+
+    private String owner;         // 租约持有者（实例标识）
+    private Instant leaseUntil;   // 租约到期时间，过期后其他实例可接管
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+    private String error;
+}
@@ -0,0 +1,83 @@
+package com.murasame.smarthrm.migration;
+
+import com.murasame.smarthrm.config.MongoConversionConfig;
+import com.murasame.smarthrm.entity.Employee;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * V1：员工技能项键名统一为 {skillId, proficiency}
+ * 历史数据中技能ID存于 "id" 或任意首个键，读取时依赖转换器兜底；改写后转换器只走 skillId 分支。
+ * 同一技能重复时保留第一项；无法解析出技能ID的项原样保留并输出WARN日志，由人工核对修正，不丢弃数据
+ */
+@Component
+public class V1NormalizeEmployeeSkillKeys implements Migration {
+
+    private static final Logger log = LoggerFactory.getLogger(V1NormalizeEmployeeSkillKeys.class);
+
+    private final MongoConversionConfig.SkillLevelReadConverter converter =
+            new MongoConversionConfig.SkillLevelReadConverter();
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "员工技能项键名统一为 {skillId, proficiency}";
+    }
+
+    @Override
+    public String collection() {
+        return "Employee";
+    }
+
+    @Override
+    public Document filter() {
+        // 存在缺少 skillId 键的技能项
+        return new Document("skillList",
+                new Document("$elemMatch", new Document("skillId", new Document("$exists", false))));
+    }
+
+    @Override
+    public Document guard(Document document) {
+        return new Document("skillList", document.get("skillList"));
+    }
+
+    @Override
+    public Update migrate(Document document) {
+        List<?> skillList = document.getList("skillList", Object.class);
+        if (skillList == null) {
+            return null;
+        }
+        Set<Integer> seen = new LinkedHashSet<>();
+        List<Object> normalized = new ArrayList<>(skillList.size());
+        List<Object> unresolved = new ArrayList<>();
+        for (Object item : skillList) {
+            Employee.SkillLevel level = item instanceof Document skill ? converter.convert(skill) : null;
+            if (level == null || level.getSkillId() <= 0) {
+                // 原样保留，重放时结果不变
+                unresolved.add(item);
+                normalized.add(item);
+                continue;
+            }
+            if (seen.add(level.getSkillId())) {
+                normalized.add(new Document("skillId", level.getSkillId()).append("proficiency", level.getProficiency()));
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            log.warn("迁移 V1：员工 {} 有 {} 个技能项无法解析技能ID，已原样保留：{}",
+                    document.get("_id"), unresolved.size(), unresolved);
+        }
+        return new Update().set("skillList", normalized);
+    }
+}
@@ -0,0 +1,68 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 组合命令监听器
+ * 向MongoClient只注册这一个监听器，按顺序分发给指标、请求统计、慢查询等监听器；
+ * 每条命令只建一个 {@link MongoCommandContext}（按requestId保留到完成事件），
+ * 集合名解析一次、调用栈至多遍历一次，不随监听器数量增加
+ */
+public class CompositeCommandListener implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CompositeCommandListener.class);
+
+    private final List<CommandListener> listeners;
+    // requestId → 命令上下文
+    private final Map<Integer, MongoCommandContext> inFlight = new ConcurrentHashMap<>();
+
+    public CompositeCommandListener(List<CommandListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoCommandContext context =
+                new MongoCommandContext(MongoCommands.collection(event.getCommandName(), event.getCommand()));
+        inFlight.put(event.getRequestId(), context);
+        dispatch(context, listener -> listener.commandStarted(event));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        MongoCommandContext context = inFlight.remove(event.getRequestId());
+        dispatch(context, listener -> listener.commandSucceeded(event));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        MongoCommandContext context = inFlight.remove(event.getRequestId());
+        dispatch(context, listener -> listener.commandFailed(event));
+    }
+
+    // 单个监听器出错不影响其他监听器（与驱动对多个监听器的处理一致）
+    private void dispatch(MongoCommandContext context, Consumer<CommandListener> action) {
+        MongoCommandContext previous = MongoCommandContext.enter(context);
+        try {
+            for (CommandListener listener : listeners) {
+                try {
+                    action.accept(listener);
+                } catch (RuntimeException e) {
+                    log.warn("Mongo命令监听器 {} 执行失败", listener.getClass().getSimpleName(), e);
+                }
+            }
+        } finally {
+            MongoCommandContext.exit(previous);
+        }
+    }
+}
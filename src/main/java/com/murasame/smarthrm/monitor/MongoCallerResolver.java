@@ -0,0 +1,56 @@
+package com.murasame.smarthrm.monitor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Mongo命令调用方解析工具
+ * 同步驱动在调用线程上回调CommandListener，因此可通过调用栈定位发起查询的业务方法：
+ * 优先返回DAO层方法，其次返回最近的业务代码方法（Repository代理调用时落到Service/Controller）
+ */
+public final class MongoCallerResolver {
+
+    private static final String BASE_PACKAGE = "com.murasame.smarthrm.";
+    private static final String DAO_PACKAGE = BASE_PACKAGE + "dao.";
+    private static final String MONITOR_PACKAGE = BASE_PACKAGE + "monitor.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private MongoCallerResolver() {
+    }
+
+    /**
+     * 解析当前线程上发起Mongo命令的业务方法
+     * @return 形如 "EmployeeDao.findById" 的调用方标识，无法解析时返回 "unknown"
+     */
+    public static String resolve() {
+        return resolveFrame().map(MongoCallerResolver::format).orElse("unknown");
+    }
+
+    /**
+     * 解析当前线程上发起Mongo命令的业务栈帧（含行号，用于慢查询定位）
+     */
+    public static Optional<StackWalker.StackFrame> resolveFrame() {
+        List<StackWalker.StackFrame> appFrames = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(BASE_PACKAGE)
+                        && !f.getClassName().startsWith(MONITOR_PACKAGE))
+                .limit(8)
+                .collect(Collectors.toList()));
+        return appFrames.stream()
+                .filter(f -> f.getClassName().startsWith(DAO_PACKAGE))
+                .findFirst()
+                .or(() -> appFrames.stream().findFirst());
+    }
+
+    /**
+     * 栈帧格式化为 "简单类名.方法名"（去除CGLIB代理后缀）
+     */
+    public static String format(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        int proxyIndex = className.indexOf("$$");
+        if (proxyIndex > 0) {
+            className = className.substring(0, proxyIndex);
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+}
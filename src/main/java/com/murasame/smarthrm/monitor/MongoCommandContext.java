@@ -0,0 +1,80 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.event.CommandStartedEvent;
+
+import java.util.Optional;
+
+/**
+ * 单条Mongo命令的共享上下文：集合名与调用方栈帧
+ * 由 {@link CompositeCommandListener} 在分发事件前放入当前线程，各监听器共用同一份解析结果；
+ * 调用方首次使用时才遍历调用栈，之后同一命令的开始/完成事件都直接返回缓存值。
+ * 监听器单独注册（未经组合监听器分发）时按事件即时解析
+ */
+public final class MongoCommandContext {
+
+    private static final ThreadLocal<MongoCommandContext> CURRENT = new ThreadLocal<>();
+
+    private final String collection;
+    // null 表示尚未解析；同步驱动在调用线程上回调，同一命令的事件都在同一线程，无需同步
+    private Optional<StackWalker.StackFrame> frame;
+
+    MongoCommandContext(String collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * 命令开始事件的上下文（组合监听器分发中取共享上下文，否则按事件新建）
+     */
+    public static MongoCommandContext of(CommandStartedEvent event) {
+        MongoCommandContext context = CURRENT.get();
+        return context != null ? context
+                : new MongoCommandContext(MongoCommands.collection(event.getCommandName(), event.getCommand()));
+    }
+
+    /**
+     * 命令完成事件的上下文（完成事件不含命令体，未经组合监听器分发时集合名为null）
+     */
+    public static MongoCommandContext completed() {
+        MongoCommandContext context = CURRENT.get();
+        return context != null ? context : new MongoCommandContext(null);
+    }
+
+    static MongoCommandContext enter(MongoCommandContext context) {
+        MongoCommandContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static void exit(MongoCommandContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public String collection() {
+        return collection;
+    }
+
+    /**
+     * 调用方，形如 "EmployeeDao.findById"，无法解析时返回 "unknown"
+     */
+    public String caller() {
+        return frame().map(MongoCallerResolver::format).orElse("unknown");
+    }
+
+    /**
+     * 带行号的调用方，形如 "EmployeeDao.findById:42"（慢查询定位）
+     */
+    public String callerWithLine() {
+        return frame().map(f -> MongoCallerResolver.format(f) + ":" + f.getLineNumber()).orElse("unknown");
+    }
+
+    private Optional<StackWalker.StackFrame> frame() {
+        if (frame == null) {
+            frame = MongoCallerResolver.resolveFrame();
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,105 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo命令指标监听器
+ * 按 集合/命令/调用方DAO方法 维度记录：
+ * - smarthrm.mongo.command：命令耗时（含百分位直方图）；
+ * - smarthrm.mongo.command.documents：返回/影响的文档数；
+ * - smarthrm.mongo.command.bytes：响应字节数
+ */
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private final MeterRegistry registry;
+    private final boolean recordBytes;
+
+    // requestId → 命令开始时解析的标签（调用方只能在调用线程上解析，经组合监听器时与其他监听器共用）
+    private final Map<Integer, CommandTags> inFlight = new ConcurrentHashMap<>();
+    // 标签组合 → 已注册的指标，避免每次命令重复构建
+    private final Map<MeterKey, CommandMeters> meters = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry registry, boolean recordBytes) {
+        this.registry = registry;
+        this.recordBytes = recordBytes;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoCommandContext context = MongoCommandContext.of(event);
+        inFlight.put(event.getRequestId(), new CommandTags(context.collection(), context.caller()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        CommandTags tags = inFlight.remove(event.getRequestId());
+        if (tags == null) {
+            return;
+        }
+        CommandMeters m = meters(tags, event.getCommandName(), "success");
+        m.timer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        m.documents.record(MongoCommands.documentCount(event.getResponse()));
+        if (recordBytes) {
+            m.bytes.record(MongoCommands.byteSize(event.getResponse()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        CommandTags tags = inFlight.remove(event.getRequestId());
+        if (tags == null) {
+            return;
+        }
+        meters(tags, event.getCommandName(), "failed")
+                .timer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private CommandMeters meters(CommandTags tags, String command, String status) {
+        MeterKey key = new MeterKey(tags.collection, command, tags.caller, status);
+        return meters.computeIfAbsent(key, this::register);
+    }
+
+    private CommandMeters register(MeterKey key) {
+        Timer timer = Timer.builder("smarthrm.mongo.command")
+                .description("Mongo命令耗时")
+                .tag("collection", key.collection)
+                .tag("command", key.command)
+                .tag("caller", key.caller)
+                .tag("status", key.status)
+                .publishPercentileHistogram()
+                .register(registry);
+        DistributionSummary documents = DistributionSummary.builder("smarthrm.mongo.command.documents")
+                .description("Mongo命令返回/影响的文档数")
+                .tag("collection", key.collection)
+                .tag("command", key.command)
+                .tag("caller", key.caller)
+                .register(registry);
+        DistributionSummary bytes = DistributionSummary.builder("smarthrm.mongo.command.bytes")
+                .description("Mongo命令响应字节数")
+                .baseUnit("bytes")
+                .tag("collection", key.collection)
+                .tag("command", key.command)
+                .tag("caller", key.caller)
+                .register(registry);
+        return new CommandMeters(timer, documents, bytes);
+    }
+
+    private record CommandTags(String collection, String caller) {
+    }
+
+    private record MeterKey(String collection, String command, String caller, String status) {
+    }
+
+    private record CommandMeters(Timer timer, DistributionSummary documents, DistributionSummary bytes) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.murasame.smarthrm.monitor;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+
+/**
+ * Mongo命令/响应文档解析工具（集合名、返回文档数、响应字节数）
+ */
+public final class MongoCommands {
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private MongoCommands() {
+    }
+
+    /**
+     * 解析命令作用的集合名
+     * find/insert/update/delete/aggregate/count等命令的首个字段值即集合名，getMore在collection字段中
+     */
+    public static String collection(String commandName, BsonDocument command) {
+        if ("getMore".equals(commandName)) {
+            BsonValue collection = command.get("collection");
+            return collection != null && collection.isString() ? collection.asString().getValue() : "unknown";
+        }
+        BsonValue value = command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : "none";
+    }
+
+    /**
+     * 统计响应中返回/影响的文档数
+     * 游标类命令取firstBatch/nextBatch长度，写命令及count取n，findAndModify取value是否存在
+     */
+    public static int documentCount(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument cursorDoc = cursor.asDocument();
+            BsonValue batch = cursorDoc.containsKey("firstBatch") ? cursorDoc.get("firstBatch") : cursorDoc.get("nextBatch");
+            return batch instanceof BsonArray array ? array.size() : 0;
+        }
+        BsonValue n = response.get("n");
+        if (n != null && n.isNumber()) {
+            return n.asNumber().intValue();
+        }
+        BsonValue value = response.get("value");
+        return value != null && value.isDocument() ? 1 : 0;
+    }
+
+    /**
+     * 响应文档的BSON字节数（驱动回调的响应通常已是RawBsonDocument，无需重新编码）
+     */
+    public static int byteSize(BsonDocument response) {
+        if (response instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        return new RawBsonDocument(response, CODEC).getByteBuffer().remaining();
+    }
+}
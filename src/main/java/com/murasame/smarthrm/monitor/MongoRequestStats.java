@@ -0,0 +1,117 @@
+package com.murasame.smarthrm.monitor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级Mongo往返统计
+ * 以线程绑定的作用域累计当前请求发出的命令数、返回文档数与耗时，并按 集合/命令/调用方 分组计数，
+ * 用于发现循环内逐条查询（N+1）；作用域可嵌套，子作用域的计数同时累加到所有外层作用域
+ * （测试中的预算断言包住整个MockMvc请求，内层为过滤器打开的请求作用域）
+ */
+public final class MongoRequestStats {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private MongoRequestStats() {
+    }
+
+    /**
+     * 打开一个统计作用域，须在同一线程上关闭（建议try-with-resources）
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 当前线程上的最内层作用域
+     */
+    public static Optional<Scope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * 单个统计作用域
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private int commands;
+        private long documents;
+        private long nanos;
+        // "集合.命令 @调用方" → 次数
+        private final Map<String, Integer> commandsByCaller = new LinkedHashMap<>();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        synchronized void commandStarted(String key) {
+            commands++;
+            commandsByCaller.merge(key, 1, Integer::sum);
+            if (parent != null) {
+                parent.commandStarted(key);
+            }
+        }
+
+        synchronized void commandCompleted(int docs, long elapsedNanos) {
+            documents += docs;
+            nanos += elapsedNanos;
+            if (parent != null) {
+                parent.commandCompleted(docs, elapsedNanos);
+            }
+        }
+
+        public synchronized int getCommands() {
+            return commands;
+        }
+
+        public synchronized long getDocuments() {
+            return documents;
+        }
+
+        public synchronized long getTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public synchronized long getTimeNanos() {
+            return nanos;
+        }
+
+        /**
+         * 按 集合/命令/调用方 分组的命令次数
+         */
+        public synchronized Map<String, Integer> getCommandsByCaller() {
+            return new LinkedHashMap<>(commandsByCaller);
+        }
+
+        /**
+         * 疑似N+1：同一调用方对同一集合重复发出同一命令达到阈值次数
+         */
+        public synchronized List<String> repeatedCommands(int threshold) {
+            List<String> repeated = new ArrayList<>();
+            commandsByCaller.forEach((key, count) -> {
+                if (count >= threshold) {
+                    repeated.add(key + " ×" + count);
+                }
+            });
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将Mongo命令计入发起线程上的请求统计作用域（无作用域时不做任何处理）
+ */
+public class MongoRequestStatsListener implements CommandListener {
+
+    // requestId → 命令开始时所在的作用域
+    private final Map<Integer, MongoRequestStats.Scope> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoRequestStats.current().ifPresent(scope -> {
+            MongoCommandContext context = MongoCommandContext.of(event);
+            scope.commandStarted(context.collection() + "." + event.getCommandName() + " @" + context.caller());
+            inFlight.put(event.getRequestId(), scope);
+        });
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        MongoRequestStats.Scope scope = inFlight.remove(event.getRequestId());
+        if (scope != null) {
+            scope.commandCompleted(MongoCommands.documentCount(event.getResponse()),
+                    event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        MongoRequestStats.Scope scope = inFlight.remove(event.getRequestId());
+        if (scope != null) {
+            scope.commandCompleted(0, event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.murasame.smarthrm.monitor;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.Set;
+
+/**
+ * 查询形态提取工具
+ * 去除命令中的字面量（替换为 "?"），保留字段名、操作符与集合名，使同一形态的查询可归并；
+ * 同时剔除会话/集群时间等驱动附加字段
+ */
+public final class QueryShapes {
+
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    // 驱动附加的元数据字段，与查询形态无关
+    private static final Set<String> META_FIELDS = Set.of(
+            "lsid", "$db", "$clusterTime", "txnNumber", "$readPreference", "autocommit",
+            "startTransaction", "readConcern", "writeConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    // 值本身即形态一部分的字段（排序方向、投影开关、索引提示）
+    private static final Set<String> LITERAL_FIELDS = Set.of("sort", "projection", "hint");
+
+    // 内容过大且与形态无关的字段，仅保留占位
+    private static final Set<String> OPAQUE_FIELDS = Set.of("documents");
+
+    private QueryShapes() {
+    }
+
+    /**
+     * 提取命令形态
+     * @param commandName 命令名（其值为集合名，予以保留）
+     * @param command 原始命令
+     * @return 去字面量后的形态文档
+     */
+    public static BsonDocument shape(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        for (String key : command.keySet()) {
+            if (META_FIELDS.contains(key)) {
+                continue;
+            }
+            // 先判断占位字段，不解码其内容（如insert的文档体）
+            if (OPAQUE_FIELDS.contains(key)) {
+                shape.append(key, PLACEHOLDER);
+                continue;
+            }
+            BsonValue value = command.get(key);
+            if (key.equals(commandName) || LITERAL_FIELDS.contains(key)) {
+                // 复制：命令可能引用驱动缓冲区，形态需在回调返回后继续使用
+                shape.append(key, value.isDocument() ? value.asDocument().clone() : value);
+            } else {
+                shape.append(key, strip(value));
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * 去除命令中的驱动元数据字段（用于构造explain命令）
+     */
+    public static BsonDocument withoutMeta(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!META_FIELDS.contains(key)) {
+                copy.append(key, value);
+            }
+        });
+        return copy;
+    }
+
+    private static BsonValue strip(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument stripped = new BsonDocument();
+            value.asDocument().forEach((k, v) -> stripped.append(k, strip(v)));
+            return stripped;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            // 字面量数组（如$in列表）只保留一个占位，避免长度不同的同形态查询被拆开
+            if (array.stream().noneMatch(v -> v.isDocument() || v.isArray())) {
+                return new BsonArray(java.util.List.of(PLACEHOLDER));
+            }
+            BsonArray stripped = new BsonArray();
+            array.forEach(v -> stripped.add(strip(v)));
+            return stripped;
+        }
+        return PLACEHOLDER;
+    }
+}
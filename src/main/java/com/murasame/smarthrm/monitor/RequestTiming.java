@@ -0,0 +1,159 @@
+package com.murasame.smarthrm.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 请求阶段耗时
+ * 线程绑定，由ServerTimingFilter开启，各阶段边界由拦截器与ResponseBodyAdvice标记：
+ * - db：处理器执行期间Mongo命令累计耗时；
+ * - service：处理器执行耗时扣除db（业务逻辑、DTO转换等）；
+ * - serialize：@ResponseBody返回值的JSON序列化与写出；
+ * - render：视图（Thymeleaf模板）渲染；
+ * - total：过滤器内的请求总耗时
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final MongoRequestStats.Scope dbScope;
+    private long handlerStart;
+    private long dbAtHandlerStart;
+    private long serializeStart;
+    private long renderStart;
+
+    private long dbNanos = -1;
+    private long serviceNanos = -1;
+    private long serializeNanos = -1;
+    private long renderNanos = -1;
+    private long totalNanos = -1;
+
+    private RequestTiming(MongoRequestStats.Scope dbScope) {
+        this.dbScope = dbScope;
+    }
+
+    /**
+     * 开启当前线程的阶段计时
+     * @param dbScope 本请求的Mongo统计作用域，用于读取db耗时
+     */
+    public static RequestTiming begin(MongoRequestStats.Scope dbScope) {
+        RequestTiming timing = new RequestTiming(dbScope);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static Optional<RequestTiming> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * 处理器开始执行（拦截器preHandle）
+     */
+    public void handlerStarted() {
+        handlerStart = System.nanoTime();
+        dbAtHandlerStart = dbScope.getTimeNanos();
+    }
+
+    /**
+     * 开始写出@ResponseBody返回值（处理器业务逻辑已结束）
+     */
+    public void bodyWriteStarted() {
+        if (handlerStart != 0 && serializeStart == 0) {
+            serializeStart = System.nanoTime();
+            closeHandlerPhase(serializeStart);
+        }
+    }
+
+    /**
+     * 处理器返回（拦截器postHandle）
+     * @param hasView 是否还需要渲染视图
+     */
+    public void handlerCompleted(boolean hasView) {
+        if (handlerStart == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (serializeStart != 0) {
+            serializeNanos = now - serializeStart;
+        } else {
+            closeHandlerPhase(now);
+        }
+        if (hasView) {
+            renderStart = now;
+        }
+    }
+
+    /**
+     * 请求处理完成（拦截器afterCompletion），视图渲染在此之前结束
+     */
+    public void requestCompleted() {
+        if (renderStart != 0 && renderNanos < 0) {
+            renderNanos = System.nanoTime() - renderStart;
+        }
+        if (handlerStart != 0 && serviceNanos < 0) {
+            // 处理器抛出异常时不会调用postHandle
+            closeHandlerPhase(System.nanoTime());
+        }
+    }
+
+    /**
+     * 结束计时并解除线程绑定
+     */
+    public void end() {
+        totalNanos = System.nanoTime() - start;
+        if (dbNanos < 0) {
+            dbNanos = dbScope.getTimeNanos();
+        }
+        CURRENT.remove();
+    }
+
+    private void closeHandlerPhase(long now) {
+        dbNanos = dbScope.getTimeNanos() - dbAtHandlerStart;
+        serviceNanos = Math.max(0, now - handlerStart - dbNanos);
+    }
+
+    /**
+     * 已完成的阶段耗时（纳秒），未经历的阶段不输出
+     */
+    public Map<String, Long> phases() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        put(phases, "db", dbNanos >= 0 ? dbNanos : dbScope.getTimeNanos());
+        put(phases, "service", serviceNanos);
+        put(phases, "serialize", serializeNanos);
+        put(phases, "render", renderNanos);
+        put(phases, "total", totalNanos >= 0 ? totalNanos : System.nanoTime() - start);
+        return phases;
+    }
+
+    /**
+     * Server-Timing 响应头取值，如 "db;dur=12.3, service;dur=4.1, render;dur=20.5, total;dur=40.2"
+     */
+    public String toServerTiming() {
+        return phases().entrySet().stream()
+                .map(e -> e.getKey() + ";dur=" + millis(e.getValue()))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 结构化日志字段，如 "db_ms=12.3 service_ms=4.1 render_ms=20.5 total_ms=40.2"
+     */
+    public String toLogFields() {
+        return phases().entrySet().stream()
+                .map(e -> e.getKey() + "_ms=" + millis(e.getValue()))
+                .collect(Collectors.joining(" "));
+    }
+
+    private static void put(Map<String, Long> phases, String name, long nanos) {
+        if (nanos >= 0) {
+            phases.put(name, nanos);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,30 @@
+package com.murasame.smarthrm.monitor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * 标记处理器执行与视图渲染的阶段边界（未开启RequestTiming时不做任何处理）
+ */
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTiming.current().ifPresent(RequestTiming::handlerStarted);
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        RequestTiming.current().ifPresent(t -> t.handlerCompleted(modelAndView != null && modelAndView.hasView()));
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTiming.current().ifPresent(RequestTiming::requestCompleted);
+    }
+}
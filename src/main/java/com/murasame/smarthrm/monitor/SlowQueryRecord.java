@@ -0,0 +1,45 @@
+package com.murasame.smarthrm.monitor;
+
+import lombok.Getter;
+import org.bson.Document;
+
+import java.time.Instant;
+
+/**
+ * 单条慢查询记录
+ * 执行计划由后台线程异步补充，未采样到时为null
+ */
+@Getter
+public class SlowQueryRecord {
+
+    private final Instant timestamp;
+    private final String database;
+    private final String collection;
+    private final String command;
+    private final long durationMs;
+    private final boolean failed;
+    // 去字面量后的查询形态（JSON）
+    private final String shape;
+    // 发起查询的业务栈帧，如 "EmployeeDao.findByEmpName:57"
+    private final String caller;
+    private volatile Document explain;
+    // 执行计划中胜出的计划阶段（如 COLLSCAN / IXSCAN），便于快速识别未走索引的查询
+    private volatile String planSummary;
+
+    SlowQueryRecord(Instant timestamp, String database, String collection, String command,
+                    long durationMs, boolean failed, String shape, String caller) {
+        this.timestamp = timestamp;
+        this.database = database;
+        this.collection = collection;
+        this.command = command;
+        this.durationMs = durationMs;
+        this.failed = failed;
+        this.shape = shape;
+        this.caller = caller;
+    }
+
+    void attachExplain(Document explain, String planSummary) {
+        this.explain = explain;
+        this.planSummary = planSummary;
+    }
+}
@@ -0,0 +1,218 @@
+package com.murasame.smarthrm.monitor;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.murasame.smarthrm.config.SlowQueryProperties;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢查询记录器
+ * 监听所有Mongo命令，耗时超过阈值时记录：查询形态（字面量已去除）、发起查询的DAO/Service栈帧及耗时；
+ * 同一形态的执行计划按间隔在后台线程采样（explain queryPlanner），结果保存在有界环形缓冲区中，
+ * 由 /admin/slow-queries 查看。
+ *
+ * 命令开始回调位于每次往返的热路径上：只提取查询形态（不含字面量，回调返回后驱动会释放命令缓冲区，
+ * 形态须在此时取得；转为JSON留到确认为慢查询之后）；调用方在完成回调中解析（同步驱动仍在调用线程上），
+ * 且只对超过阈值的命令解析。完整命令体仅为执行计划采样而复制，且只对每 sampleEvery 条命令中的一条进行
+ */
+public class SlowQueryRecorder implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryRecorder.class);
+
+    // 可执行explain的命令
+    private static final Set<String> EXPLAINABLE = Set.of(
+            "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+
+    // explain线程发起的命令不再记录，避免自我触发
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+
+    private final SlowQueryProperties properties;
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+    private final long thresholdNanos;
+    private final int sampleEvery;
+
+    // requestId → 命令开始时的上下文（形态与采样的命令体须在回调内取得，回调返回后驱动会释放缓冲区）
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+    private final Deque<SlowQueryRecord> buffer = new ArrayDeque<>();
+    // 查询形态 → 上次采样执行计划的时间
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryRecorder(SlowQueryProperties properties, ObjectProvider<MongoTemplate> mongoTemplateProvider) {
+        this.properties = properties;
+        this.mongoTemplateProvider = mongoTemplateProvider;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        this.sampleEvery = Math.max(1, properties.getSampleEvery());
+        // 单线程 + 小队列，队列满时直接丢弃采样任务，不影响业务线程
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), r -> {
+                    Thread t = new Thread(r, "slow-query-explain");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (EXPLAINING.get() || "explain".equals(event.getCommandName())) {
+            return;
+        }
+        String commandName = event.getCommandName();
+        BsonDocument command = event.getCommand();
+        // requestId由驱动顺序分配，取模即可均匀采样，无需额外计数器；只有可explain的命令才复制命令体
+        BsonDocument explainable = properties.isExplainEnabled() && EXPLAINABLE.contains(commandName)
+                && event.getRequestId() % sampleEvery == 0
+                ? new RawBsonDocument(command, new BsonDocumentCodec()) : null;
+        inFlight.put(event.getRequestId(), new StartedCommand(System.currentTimeMillis(), event.getDatabaseName(),
+                MongoCommandContext.of(event).collection(), QueryShapes.shape(commandName, command), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            onCompleted(started, event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            onCompleted(started, event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        }
+    }
+
+    /**
+     * 获取最近的慢查询（按时间倒序）
+     */
+    public synchronized List<SlowQueryRecord> recent() {
+        List<SlowQueryRecord> list = new ArrayList<>(buffer.size());
+        buffer.descendingIterator().forEachRemaining(list::add);
+        return list;
+    }
+
+    /**
+     * 清空已记录的慢查询
+     */
+    public synchronized void clear() {
+        buffer.clear();
+        lastExplained.clear();
+    }
+
+    private void onCompleted(StartedCommand started, String commandName, long elapsedNanos, boolean failed) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        String shape = started.shape.toJson();
+        // 同步驱动在调用线程上回调完成事件，调用栈仍是发起查询的业务方法；经组合监听器时复用已解析的栈帧
+        String caller = MongoCommandContext.completed().callerWithLine();
+        SlowQueryRecord record = new SlowQueryRecord(Instant.ofEpochMilli(started.startedAt), started.database, started.collection,
+                commandName, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed, shape, caller);
+        append(record);
+        log.warn("慢查询 {}ms [{}] {}.{} 调用方 {} 形态 {}", record.getDurationMs(), commandName,
+                started.database, started.collection, caller, shape);
+
+        // 执行计划只对采样的命令（已复制命令体）进行
+        if (!failed && started.command != null && shouldExplain(shape)) {
+            explainExecutor.execute(() -> explain(started, record));
+        }
+    }
+
+    private synchronized void append(SlowQueryRecord record) {
+        if (properties.getCapacity() <= 0) {
+            return;
+        }
+        while (buffer.size() >= properties.getCapacity()) {
+            buffer.pollFirst();
+        }
+        buffer.addLast(record);
+    }
+
+    /**
+     * 同一形态在采样间隔内只explain一次
+     */
+    private boolean shouldExplain(String shape) {
+        long now = System.nanoTime();
+        long interval = properties.getExplainInterval().toNanos();
+        boolean[] sampled = {false};
+        lastExplained.compute(shape, (k, last) -> {
+            if (last == null || now - last >= interval) {
+                sampled[0] = true;
+                return now;
+            }
+            return last;
+        });
+        return sampled[0];
+    }
+
+    private void explain(StartedCommand started, SlowQueryRecord record) {
+        MongoTemplate mongoTemplate = mongoTemplateProvider.getIfAvailable();
+        if (mongoTemplate == null) {
+            return;
+        }
+        EXPLAINING.set(true);
+        try {
+            Document explainCommand = new Document("explain", QueryShapes.withoutMeta(started.command))
+                    .append("verbosity", "queryPlanner");
+            Document result = mongoTemplate.getMongoDatabaseFactory()
+                    .getMongoDatabase(started.database)
+                    .runCommand(explainCommand);
+            Document queryPlanner = result.get("queryPlanner", Document.class);
+            record.attachExplain(queryPlanner != null ? queryPlanner : result, planSummary(queryPlanner));
+        } catch (RuntimeException e) {
+            log.debug("慢查询执行计划采样失败：{}", e.getMessage());
+        } finally {
+            EXPLAINING.remove();
+        }
+    }
+
+    /**
+     * 提取胜出计划的阶段链，如 "FETCH > IXSCAN" 或 "COLLSCAN"
+     */
+    private static String planSummary(Document queryPlanner) {
+        if (queryPlanner == null) {
+            return null;
+        }
+        Document stage = queryPlanner.get("winningPlan", Document.class);
+        // 较新版本服务端将计划包裹在queryPlan中
+        if (stage != null && stage.get("queryPlan") instanceof Document inner) {
+            stage = inner;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (stage != null) {
+            if (!sb.isEmpty()) {
+                sb.append(" > ");
+            }
+            sb.append(stage.get("stage", "?"));
+            stage = stage.get("inputStage", Document.class);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    // command 仅执行计划采样的命令才有
+    private record StartedCommand(long startedAt, String database, String collection, BsonDocument shape,
+                                  BsonDocument command) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.murasame.smarthrm.monitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：部门更新（含员工迁入/移出的同步处理）
+ */
+@Name("smarthrm.DepartmentUpdate")
+@Label("Department Update")
+@Category({"smartHRM", "Service"})
+@Description("部门更新服务调用")
+@StackTrace(false)
+public class DepartmentUpdateEvent extends Event {
+
+    @Label("Department Id")
+    private int deptId = -1;
+
+    @Label("Manager Id")
+    @Description("负责人ID，-1表示未设置")
+    private int managerId = -1;
+
+    @Label("Employee Count")
+    private int employeeCount;
+
+    @Label("Added Employees")
+    private int addedCount;
+
+    @Label("Removed Employees")
+    private int removedCount;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    public static DepartmentUpdateEvent begin(Integer deptId, Integer managerId) {
+        DepartmentUpdateEvent event = new DepartmentUpdateEvent();
+        event.deptId = deptId == null ? -1 : deptId;
+        event.managerId = managerId == null ? -1 : managerId;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 记录员工变更数量
+     */
+    public void employees(int employeeCount, int addedCount, int removedCount) {
+        this.employeeCount = employeeCount;
+        this.addedCount = addedCount;
+        this.removedCount = removedCount;
+    }
+
+    public void succeeded() {
+        succeeded = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
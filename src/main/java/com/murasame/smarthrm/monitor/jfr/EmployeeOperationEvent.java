@@ -0,0 +1,110 @@
+package com.murasame.smarthrm.monitor.jfr;
+
+import com.murasame.smarthrm.entity.Employee;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * JFR事件：员工新增/更新/删除操作
+ * 覆盖整个服务方法，携带员工ID、部门ID及各类关联数量；失败的操作同样提交（succeeded=false）
+ * 各阶段耗时见 {@link EmployeePhaseEvent}
+ */
+@Name("smarthrm.EmployeeOperation")
+@Label("Employee Operation")
+@Category({"smartHRM", "Service"})
+@Description("员工新增/更新/删除服务调用及删除后的后台关联清理")
+@StackTrace(false)
+public class EmployeeOperationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Employee Id")
+    private int empId = -1;
+
+    @Label("Department Id")
+    @Description("所属部门ID，-1表示未分配或未知")
+    private int departmentId = -1;
+
+    @Label("Skill Count")
+    private int skillCount;
+
+    @Label("Project Count")
+    private int projectCount;
+
+    @Label("Training Count")
+    private int trainingCount;
+
+    @Label("Task Count")
+    @Description("删除后清理时清除负责人的任务数")
+    private int taskCount;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    /**
+     * 开始计时
+     * @param operation save/update/delete/cleanup
+     * @param empId 员工ID（新增时尚未生成可传null，稍后用 {@link #setEmpId} 补充）
+     */
+    public static EmployeeOperationEvent begin(String operation, Integer empId) {
+        EmployeeOperationEvent event = new EmployeeOperationEvent();
+        event.operation = operation;
+        event.setEmpId(empId);
+        event.begin();
+        return event;
+    }
+
+    public void setEmpId(Integer empId) {
+        this.empId = empId == null ? -1 : empId;
+    }
+
+    /**
+     * 按员工实体的关联列表填充数量
+     */
+    public void relations(Employee employee) {
+        if (employee == null) {
+            return;
+        }
+        departmentId = employee.getDepId() == null ? -1 : employee.getDepId();
+        skillCount = size(employee.getSkillList());
+        projectCount = size(employee.getProjects());
+        trainingCount = size(employee.getTrainingList());
+    }
+
+    /**
+     * 直接设置关联数量（删除操作使用清理时实际修改的文档数）
+     */
+    public void relations(long projects, long trainings, long tasks) {
+        projectCount = (int) projects;
+        trainingCount = (int) trainings;
+        taskCount = (int) tasks;
+    }
+
+    public void succeeded() {
+        succeeded = true;
+    }
+
+    /**
+     * 结束并提交（满足录制配置的阈值时才写入）
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+
+    /**
+     * 空安全的集合大小
+     */
+    public static int size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
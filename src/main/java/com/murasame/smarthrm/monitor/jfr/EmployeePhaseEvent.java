@@ -0,0 +1,60 @@
+package com.murasame.smarthrm.monitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：员工操作的单个阶段（skills/department/projects/trainings/tasks）
+ * 与 {@link EmployeeOperationEvent} 在同一线程上嵌套，可在JMC中按线程与时间对齐
+ */
+@Name("smarthrm.EmployeePhase")
+@Label("Employee Operation Phase")
+@Category({"smartHRM", "Service"})
+@Description("员工操作中各关联关系的处理阶段")
+@StackTrace(false)
+public class EmployeePhaseEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Employee Id")
+    private int empId = -1;
+
+    @Label("Relation Count")
+    @Description("本阶段处理后的关联数量（清理时为修改的文档数）")
+    private int relationCount;
+
+    /**
+     * 开始一个阶段
+     * @param operation save/update/cleanup
+     * @param phase skills/department/projects/trainings/tasks
+     * @param empId 员工ID
+     */
+    public static EmployeePhaseEvent begin(String operation, String phase, Integer empId) {
+        EmployeePhaseEvent event = new EmployeePhaseEvent();
+        event.operation = operation;
+        event.phase = phase;
+        event.empId = empId == null ? -1 : empId;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并提交阶段
+     * @param relationCount 关联数量
+     */
+    public void finish(long relationCount) {
+        end();
+        if (shouldCommit()) {
+            this.relationCount = (int) relationCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.murasame.smarthrm.monitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR事件：技能匹配/项目匹配查询
+ * 默认阈值1ms，缓存命中等极快的调用不写入录制
+ */
+@Name("smarthrm.Match")
+@Label("Match Query")
+@Category({"smartHRM", "Service"})
+@Description("技能匹配与项目匹配服务调用")
+@StackTrace(false)
+@Threshold("1 ms")
+public class MatchEvent extends Event {
+
+    @Label("Match Type")
+    @Description("skill / project-name / project-employee / project-available / project-employee-tasks")
+    private String matchType;
+
+    @Label("Criteria")
+    @Description("匹配条件：归一化技能需求或项目名称关键词")
+    private String criteria;
+
+    @Label("Employee Id")
+    @Description("按员工匹配时的员工ID，否则为-1")
+    private int empId = -1;
+
+    @Label("Result Count")
+    private int resultCount;
+
+    @Label("Cache Hit")
+    private boolean cacheHit;
+
+    public static MatchEvent begin(String matchType, String criteria, Integer empId) {
+        MatchEvent event = new MatchEvent();
+        event.matchType = matchType;
+        event.criteria = criteria;
+        event.empId = empId == null ? -1 : empId;
+        event.begin();
+        return event;
+    }
+
+    public void cacheHit() {
+        cacheHit = true;
+    }
+
+    /**
+     * 结束并提交
+     * @param resultCount 结果条数
+     */
+    public void finish(int resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
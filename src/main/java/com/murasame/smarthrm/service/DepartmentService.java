@@ -45,11 +45,18 @@ public interface DepartmentService {
 
     /**
      * 删除部门
-     * 核心逻辑：删除部门的同时，同步将该部门下所有员工的depId字段置空
+     * 核心逻辑：写入墓碑后部门立即对所有读取不可见，该部门下员工的depId由后台压缩器置空
      * @param deptId 待删除部门的主键ID
      */
     void deleteDepartment(Integer deptId);
 
+    /**
+     * 清理已软删除部门的员工关联（置空depId），完成后物理删除（由后台压缩器调用，可重复执行）
+     * @param deptId 已软删除部门的主键ID
+     * @return 被修改的员工数
+     */
+    long cleanupDeletedDepartment(Integer deptId);
+
     /**
      * 部门分页查询（支持名称模糊匹配）
      * @param searchKey 部门名称关键词（可为空，为空则查询所有部门）
@@ -47,11 +47,18 @@ public interface EmployeeService {
     void updateEmployee(Employee employee, EmployeeDTO dto);
 
     /**
-     * 删除员工（包含项目/任务/培训关联关系清理）
+     * 删除员工（软删除：写入墓碑后立即对所有读取不可见，部门/项目/任务/培训的关联清理由后台压缩器完成）
      * @param empId 待删除员工的主键ID
      */
     void deleteEmployee(Integer empId);
 
+    /**
+     * 清理已软删除员工的部门/项目/任务/培训关联，完成后物理删除（由后台压缩器调用，可重复执行）
+     * @param empId 已软删除员工的主键ID
+     * @return 被修改的关联文档数
+     */
+    long cleanupDeletedEmployee(Integer empId);
+
     /**
      * 根据员工姓名模糊查询员工列表（忽略大小写）
      * @param empName 员工姓名关键词（可为空，为空返回空列表）
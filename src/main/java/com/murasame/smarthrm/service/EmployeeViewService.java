@@ -0,0 +1,97 @@
+package com.murasame.smarthrm.service;
+
+import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.entity.EmployeeView;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.entity.Skill;
+import com.murasame.smarthrm.entity.Training;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+
+/**
+ * 员工读模型业务层接口
+ * EmployeeView 为员工列表页预先拼好的冗余行（部门/技能/项目/培训名称），
+ * 由员工、部门、项目、技能、培训的写路径在各自写入后调用对应方法增量维护，列表页只做一次投影分页查询
+ */
+public interface EmployeeViewService {
+
+    /**
+     * 员工列表分页查询（支持姓名模糊匹配）
+     * @param empName 员工姓名关键词（可为空）
+     * @param pageNum 当前页码（从1开始）
+     * @param pageSize 每页展示条数
+     * @return 分页结果对象
+     */
+    Page<EmployeeView> listEmployeesWithPage(String empName, int pageNum, int pageSize);
+
+    /**
+     * 按源数据重建单个员工的行（员工新增/编辑后调用）
+     * @param empId 员工ID
+     */
+    void refreshEmployee(Integer empId);
+
+    /**
+     * 删除单个员工的行
+     * @param empId 员工ID
+     */
+    void removeEmployee(Integer empId);
+
+    /**
+     * 部门新增/编辑后同步：移出的员工置为未分配，移入及原有员工刷新部门名称
+     * @param dept 保存后的部门
+     * @param addedEmpIds 移入该部门的员工ID
+     * @param removedEmpIds 移出该部门的员工ID
+     */
+    void departmentChanged(Department dept, Collection<Integer> addedEmpIds, Collection<Integer> removedEmpIds);
+
+    /**
+     * 部门删除后同步：关联员工置为未分配，其余仍指向该部门的行标记为部门已删除
+     * @param deptId 部门ID
+     * @param empIds 部门下的员工ID
+     */
+    void departmentDeleted(Integer deptId, Collection<Integer> empIds);
+
+    /**
+     * 项目新增/编辑后同步项目名称
+     * @param project 保存后的项目
+     */
+    void projectSaved(Project project);
+
+    /**
+     * 项目删除后从所有行移除
+     * @param projIds 已删除的项目ID
+     */
+    void projectsDeleted(Collection<Integer> projIds);
+
+    /**
+     * 技能新增/编辑后同步技能名称
+     * @param skill 保存后的技能
+     */
+    void skillSaved(Skill skill);
+
+    /**
+     * 技能删除后清空名称（员工仍保留该技能ID，页面按ID显示）
+     * @param skillId 技能ID
+     */
+    void skillDeleted(Integer skillId);
+
+    /**
+     * 培训新增/编辑后同步成员变化与名称
+     * @param before 保存前的培训（新增时为null）
+     * @param after 保存后的培训
+     */
+    void trainingSaved(Training before, Training after);
+
+    /**
+     * 培训删除后从所有行移除
+     * @param trainId 培训ID
+     */
+    void trainingDeleted(Integer trainId);
+
+    /**
+     * 按源数据全量重建（启动时读模型与员工数不一致、或数据被直接写入库后调用）
+     * @return 重建的行数
+     */
+    long rebuildAll();
+}
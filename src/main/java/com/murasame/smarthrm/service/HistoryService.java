@@ -0,0 +1,47 @@
+package com.murasame.smarthrm.service;
+
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 变更历史业务层接口
+ * 按时间点还原实体：从不晚于该时间的最近快照向前重放变更；之前没有快照时从之后最近的快照（或当前文档）向后回滚
+ */
+public interface HistoryService {
+
+    /**
+     * 实体在指定时间点的状态
+     * @param entity 集合名（Employee / Department / Project / Task / Training，忽略大小写）
+     * @param entityId 实体ID
+     * @param at 时间点
+     * @return 当时的文档（含软删除字段deletedAt），当时尚未创建时返回null
+     * @throws IllegalArgumentException 集合名不支持或参数为空
+     */
+    Map<String, Object> asOf(String entity, Integer entityId, LocalDateTime at);
+
+    /**
+     * 单个实体在 (from, to] 内的变更，按时间先后
+     * @param from 起始时间（不含），为空表示不限
+     * @param to 结束时间（含），为空表示不限
+     */
+    List<ChangeLogEntry> changes(String entity, Integer entityId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * [from, to) 内所有实体的变更，按时间先后
+     * @param entity 集合名，为空表示全部
+     * @param limit 最多返回条数（不超过配置上限）
+     */
+    List<ChangeLogEntry> changesBetween(String entity, LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * 指定时间点属于某部门（且未删除）的员工
+     * 候选为当前部门ID为该部门的员工与变更日志中曾调入/调出该部门的员工，逐个按时间点还原后筛选
+     * @param depId 部门ID
+     * @param at 时间点
+     * @return 员工当时的文档，按员工ID排序
+     */
+    List<Map<String, Object>> departmentMembersAsOf(Integer depId, LocalDateTime at);
+}
@@ -0,0 +1,72 @@
+package com.murasame.smarthrm.service;
+
+import com.murasame.smarthrm.dto.PerformanceTrendDTO;
+import com.murasame.smarthrm.entity.Performance;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 绩效业务层接口
+ * 测评点写入时间序列集合并同步累加员工/部门日汇总桶；滚动均值、趋势、部门汇总均由汇总桶计算
+ */
+public interface PerformanceService {
+
+    /**
+     * 写入测评点（员工须存在，测评时间为空时取当前时间，所属部门取员工当前部门）
+     * @param points 测评点
+     * @return 写入条数
+     */
+    int record(List<Performance> points);
+
+    /**
+     * 校验测评点的员工ID与分数范围（不访问数据库）
+     * @param points 测评点
+     * @throws IllegalArgumentException 测评点为空或取值不合法
+     */
+    void validate(List<Performance> points);
+
+    /**
+     * 批量导入已校验的测评点：员工不存在的测评点丢弃，其余无序批量写入并累加汇总桶
+     * @param points 测评点
+     * @return 不存在而被丢弃的员工ID
+     */
+    Set<Integer> ingest(List<Performance> points);
+
+    /**
+     * 员工在日期范围内的原始测评点
+     * @param empId 员工ID
+     * @param from 起始日（含，为空时取默认窗口）
+     * @param to 结束日（含，为空时取今天）
+     */
+    List<Performance> listPoints(Integer empId, LocalDate from, LocalDate to);
+
+    /**
+     * 员工最近windowDays天的平均分、逐日序列、滚动均值与趋势
+     * @param empId 员工ID
+     * @param windowDays 窗口天数（≤0时取默认值）
+     * @param rollingDays 滚动均值天数（≤0时取默认值）
+     */
+    PerformanceTrendDTO employeeTrend(Integer empId, int windowDays, int rollingDays);
+
+    /**
+     * 部门最近windowDays天的平均分、逐日序列、滚动均值与趋势
+     * @param depId 部门ID
+     * @param windowDays 窗口天数（≤0时取默认值）
+     * @param rollingDays 滚动均值天数（≤0时取默认值）
+     */
+    PerformanceTrendDTO departmentTrend(Integer depId, int windowDays, int rollingDays);
+
+    /**
+     * 各部门最近windowDays天的汇总（不含逐日序列）
+     * @param windowDays 窗口天数（≤0时取默认值）
+     */
+    List<PerformanceTrendDTO> departmentSummary(int windowDays);
+
+    /**
+     * 由原始测评点全量重算汇总桶（汇总与原始数据不一致时调用）
+     * @return 汇总桶数量
+     */
+    long rebuildRollups();
+}
@@ -19,6 +19,14 @@ public interface ProjectMatchService {
      */
     List<Project> matchByProjectName(String projectName);
 
+    /**
+     * 根据项目名称匹配项目
+     * @param projectName 项目名称关键词
+     * @param includeArchived 是否包含已移入冷集合的归档项目
+     * @return 匹配的项目列表
+     */
+    List<Project> matchByProjectName(String projectName, boolean includeArchived);
+
     /**
      * 根据员工ID查找其参与的项目
      * @param empId 员工ID
@@ -26,6 +34,14 @@ public interface ProjectMatchService {
      */
     List<Project> matchByEmployee(Integer empId);
 
+    /**
+     * 根据员工ID查找其参与的项目
+     * @param empId 员工ID
+     * @param includeArchived 是否包含已移入冷集合的归档项目
+     * @return 该员工参与的项目列表
+     */
+    List<Project> matchByEmployee(Integer empId, boolean includeArchived);
+
     /**
      * 根据员工技能查找其可以参与的项目
      * @param empId 员工ID
@@ -54,6 +70,13 @@ public interface ProjectMatchService {
      */
     boolean deleteProject(Integer projectId);
 
+    /**
+     * 批量删除项目（同步清理项目任务及员工的项目关联）
+     * @param projectIds 项目ID列表
+     * @return 是否全部删除成功（所有ID均存在且被删除）
+     */
+    boolean deleteProjectsBatch(List<Integer> projectIds);
+
     /**
      * 根据ID获取项目详情
      * @param projectId 项目ID
@@ -61,6 +84,14 @@ public interface ProjectMatchService {
      */
     Project getProjectById(Integer projectId);
 
+    /**
+     * 根据ID获取项目详情
+     * @param projectId 项目ID
+     * @param includeArchived 热集合中不存在时是否到冷集合查找
+     * @return 项目详情
+     */
+    Project getProjectById(Integer projectId, boolean includeArchived);
+
     /**
      * 获取项目及其任务信息
      * @param projectId 项目ID
@@ -68,10 +99,42 @@ public interface ProjectMatchService {
      */
     Map<String, Object> getProjectWithTasks(Integer projectId);
 
+    /**
+     * 获取项目及其任务信息
+     * @param projectId 项目ID
+     * @param includeArchived 是否查找已移入冷集合的项目及任务
+     * @return 项目及其任务的映射
+     */
+    Map<String, Object> getProjectWithTasks(Integer projectId, boolean includeArchived);
+
     /**
      * 获取项目列表及其任务信息
      * @param projects 项目列表
      * @return 包含项目及其任务信息的列表
      */
     List<Map<String, Object>> getProjectsWithTasks(List<Project> projects);
+
+    /**
+     * 获取项目列表及其任务信息（任务一次批量查询）
+     * @param projects 项目列表
+     * @param includeArchived 是否同时查询冷集合中的任务
+     * @return 包含项目及其任务信息的列表
+     */
+    List<Map<String, Object>> getProjectsWithTasks(List<Project> projects, boolean includeArchived);
+
+    /**
+     * 根据员工ID查找其参与的项目（包含任务信息）
+     * 相同员工ID的并发请求共享同一次查询
+     * @param empId 员工ID
+     * @return 包含项目及其任务信息的列表
+     */
+    List<Map<String, Object>> matchByEmployeeWithTasks(Integer empId);
+
+    /**
+     * 根据员工ID查找其参与的项目（包含任务信息）
+     * @param empId 员工ID
+     * @param includeArchived 是否包含已移入冷集合的归档项目及任务
+     * @return 包含项目及其任务信息的列表
+     */
+    List<Map<String, Object>> matchByEmployeeWithTasks(Integer empId, boolean includeArchived);
 }
\ No newline at end of file
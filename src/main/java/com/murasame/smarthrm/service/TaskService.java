@@ -16,6 +16,14 @@ public interface TaskService {
      */
     List<Task> getTasksByProjectId(Integer projId);
 
+    /**
+     * 根据项目ID获取所有任务
+     * @param projId 项目ID
+     * @param includeArchived 是否同时查询已移入冷集合的任务
+     * @return 项目任务列表
+     */
+    List<Task> getTasksByProjectId(Integer projId, boolean includeArchived);
+
     /**
      * 根据项目ID和任务状态获取任务
      * @param projId 项目ID
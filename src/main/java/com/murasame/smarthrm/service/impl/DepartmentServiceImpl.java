@@ -1,11 +1,16 @@
 package com.murasame.smarthrm.service.impl;
 //林2025.12.19
 
+import com.murasame.smarthrm.cache.SkillMatchCache;
 import com.murasame.smarthrm.dao.*;
 import com.murasame.smarthrm.dto.DepartmentDTO;
 import com.murasame.smarthrm.entity.Department;
 import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.PendingCleanup;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.monitor.jfr.DepartmentUpdateEvent;
 import com.murasame.smarthrm.service.DepartmentService;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +21,7 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,9 +41,21 @@ public class DepartmentServiceImpl implements DepartmentService {
     // 注入员工数据访问层，处理员工关联查询、部门ID批量更新等操作
     @Autowired
     private EmployeeDao employeeDao;
+    // 注入待清理记录数据访问层，软删除后登记后台引用清理
+    @Autowired
+    private PendingCleanupDao pendingCleanupDao;
     // 注入MongoTemplate，辅助ID生成和数据库原生查询（备用）
     @Autowired
     private MongoTemplate mongoTemplate;
+    // 注入技能匹配缓存，员工所属部门变化后失效包含这些员工的匹配结果
+    @Autowired
+    private SkillMatchCache skillMatchCache;
+    // 注入员工读模型服务，部门名称及员工归属变化后同步列表页冗余行
+    @Autowired
+    private EmployeeViewService employeeViewService;
+    // 注入组织关系图，员工归属变化后同步内存中的部门关系
+    @Autowired
+    private OrgGraph orgGraph;
 
     /**
      * 根据部门ID查询单个部门信息
@@ -73,10 +91,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         }
 
         // 2. 提取部门关联的员工ID列表（过滤无效ID）
-        List<Integer> empIds = department.getEmpList().stream()
-                .map(empMap -> empMap.get("empId"))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Integer> empIds = getEmpIdsFromList(department.getEmpList());
 
         // 3. 批量查询员工信息并返回
         return employeeDao.findByIds(empIds);
@@ -96,12 +111,8 @@ public class DepartmentServiceImpl implements DepartmentService {
     public void saveDepartment(Department dept) {
         // 1. 转换empIds为empList格式（适配数据库存储结构）
         if (dept.getEmpIds() != null && !dept.getEmpIds().isEmpty()) {
-            List<Map<String, Integer>> empList = dept.getEmpIds().stream()
-                    .map(empId -> {
-                        Map<String, Integer> map = new HashMap<>();
-                        map.put("empId", empId);
-                        return map;
-                    })
+            List<Department.Member> empList = dept.getEmpIds().stream()
+                    .map(Department.Member::new)
                     .collect(Collectors.toList());
             dept.setEmpList(empList);
         } else {
@@ -143,9 +154,9 @@ public class DepartmentServiceImpl implements DepartmentService {
                     Department oldDept = departmentDao.findById(oldDeptId);
                     if (oldDept != null) {
                         // 从原部门empList移除该员工
-                        List<Map<String, Integer>> oldEmpList = oldDept.getEmpList();
+                        List<Department.Member> oldEmpList = oldDept.getEmpList();
                         if (oldEmpList != null) {
-                            oldEmpList.removeIf(empMap -> emp.get_id().equals(empMap.get("empId")));
+                            oldEmpList.removeIf(member -> member.getEmpId() == emp.get_id());
                             oldDept.setEmpList(oldEmpList);
 
                             // 若该员工是原部门负责人，置空原部门负责人ID
@@ -167,6 +178,9 @@ public class DepartmentServiceImpl implements DepartmentService {
         // 4. 校验负责人合法性，保存部门
         validateManagerInEmpList(dept.getManagerId(), newEmpIds, dept.getId());
         departmentDao.save(dept);
+        employeeViewService.departmentChanged(dept, newEmpIds, List.of());
+        orgGraph.departmentChanged(dept.getId(), newEmpIds, List.of());
+        skillMatchCache.invalidateEmployees(newEmpIds);
         log.info("新增部门ID: {} 成功（部门名称：{}）", dept.getId(), dept.getDepName());
     }
 
@@ -183,104 +197,112 @@ public class DepartmentServiceImpl implements DepartmentService {
     @Transactional
     public void updateDepartment(Department newDept) {
         Integer deptId = newDept.getId();
-        log.info("开始更新部门ID: {}", deptId);
-
-        // 1. 转换empIds为empList格式（适配数据库存储结构）
-        if (newDept.getEmpIds() != null && !newDept.getEmpIds().isEmpty()) {
-            List<Map<String, Integer>> empList = newDept.getEmpIds().stream()
-                    .map(empId -> {
-                        Map<String, Integer> map = new HashMap<>();
-                        map.put("empId", empId);
-                        return map;
-                    })
-                    .collect(Collectors.toList());
-            newDept.setEmpList(empList);
-        } else {
-            newDept.setEmpList(new ArrayList<>());
-        }
-
-        // 2. 校验部门是否存在
-        Department oldDept = departmentDao.findById(deptId);
-        if (oldDept == null) {
-            log.error("部门ID: {} 不存在，更新失败", deptId);
-            throw new RuntimeException("部门ID:" + deptId + " 不存在");
-        }
-
-        // 3. 提取新旧员工ID列表，对比变更
-        List<Integer> oldEmpIds = getEmpIdsFromList(oldDept.getEmpList());
-        List<Integer> newEmpIds = getEmpIdsFromList(newDept.getEmpList());
-        log.info("部门ID: {} - 旧员工ID列表: {}，新员工ID列表: {}", deptId, oldEmpIds, newEmpIds);
-
-        // 4. 处理被移除的员工（置空其部门ID）
-        List<Integer> removedEmpIds = oldEmpIds.stream()
-                .filter(empId -> !newEmpIds.contains(empId))
-                .collect(Collectors.toList());
-        if (!removedEmpIds.isEmpty()) {
-            removedEmpIds.forEach(empId -> employeeDao.updateDepId(empId, null));
-            log.info("部门ID: {} 已移除员工: {}，其部门ID已置空", deptId, removedEmpIds);
-        }
-
-        // 5. 处理新增的员工（同步迁移+清理原部门关联）
-        List<Integer> addedEmpIds = newEmpIds.stream()
-                .filter(empId -> !oldEmpIds.contains(empId))
-                .collect(Collectors.toList());
-        if (!addedEmpIds.isEmpty()) {
-            // 校验新增员工是否存在
-            List<Employee> addedEmps = employeeDao.findByIds(addedEmpIds);
-            if (addedEmps.size() != addedEmpIds.size()) {
-                List<Integer> notExistEmps = addedEmpIds.stream()
-                        .filter(empId -> addedEmps.stream().noneMatch(e -> e.get_id().equals(empId)))
+        DepartmentUpdateEvent event = DepartmentUpdateEvent.begin(deptId, newDept.getManagerId());
+        try {
+            log.info("开始更新部门ID: {}", deptId);
+
+            // 1. 转换empIds为empList格式（适配数据库存储结构）
+            if (newDept.getEmpIds() != null && !newDept.getEmpIds().isEmpty()) {
+                List<Department.Member> empList = newDept.getEmpIds().stream()
+                        .map(Department.Member::new)
                         .collect(Collectors.toList());
-                throw new RuntimeException("新增员工ID: " + notExistEmps + " 不存在");
+                newDept.setEmpList(empList);
+            } else {
+                newDept.setEmpList(new ArrayList<>());
             }
 
-            // 同步迁移员工至当前部门（清理原部门关联）
-            addedEmps.forEach(emp -> {
-                Integer oldEmpDeptId = emp.getDepId(); // 员工原所属部门ID
-                Integer currentDeptId = deptId;        // 当前编辑的部门ID
+            // 2. 校验部门是否存在
+            Department oldDept = departmentDao.findById(deptId);
+            if (oldDept == null) {
+                log.error("部门ID: {} 不存在，更新失败", deptId);
+                throw new RuntimeException("部门ID:" + deptId + " 不存在");
+            }
 
-                // 5.1 更新员工的部门ID为当前部门
-                employeeDao.updateDepId(emp.get_id(), currentDeptId);
-                log.info("员工ID: {} - 从原部门ID: {} 迁移到新部门ID: {}", emp.get_id(), oldEmpDeptId, currentDeptId);
+            // 3. 提取新旧员工ID列表，对比变更
+            List<Integer> oldEmpIds = getEmpIdsFromList(oldDept.getEmpList());
+            List<Integer> newEmpIds = getEmpIdsFromList(newDept.getEmpList());
+            log.info("部门ID: {} - 旧员工ID列表: {}，新员工ID列表: {}", deptId, oldEmpIds, newEmpIds);
 
-                // 5.2 清理原部门关联（非当前部门时）
-                if (oldEmpDeptId != null && !oldEmpDeptId.equals(currentDeptId)) {
-                    Department oldEmpDept = departmentDao.findById(oldEmpDeptId);
-                    if (oldEmpDept != null) {
-                        // 从原部门empList移除该员工
-                        List<Map<String, Integer>> oldEmpDeptEmpList = oldEmpDept.getEmpList();
-                        if (oldEmpDeptEmpList != null) {
-                            oldEmpDeptEmpList.removeIf(empMap -> emp.get_id().equals(empMap.get("empId")));
-                            oldEmpDept.setEmpList(oldEmpDeptEmpList);
+            // 4. 处理被移除的员工（置空其部门ID）
+            List<Integer> removedEmpIds = oldEmpIds.stream()
+                    .filter(empId -> !newEmpIds.contains(empId))
+                    .collect(Collectors.toList());
+            if (!removedEmpIds.isEmpty()) {
+                removedEmpIds.forEach(empId -> employeeDao.updateDepId(empId, null));
+                log.info("部门ID: {} 已移除员工: {}，其部门ID已置空", deptId, removedEmpIds);
+            }
 
-                            // 若该员工是原部门负责人，置空原部门负责人ID
-                            if (emp.get_id().equals(oldEmpDept.getManagerId())) {
-                                oldEmpDept.setManagerId(null);
-                                log.info("原部门ID: {} - 负责人（员工ID: {}）已迁移，负责人置空", oldEmpDeptId, emp.get_id());
-                            }
+            // 5. 处理新增的员工（同步迁移+清理原部门关联）
+            List<Integer> addedEmpIds = newEmpIds.stream()
+                    .filter(empId -> !oldEmpIds.contains(empId))
+                    .collect(Collectors.toList());
+            if (!addedEmpIds.isEmpty()) {
+                // 校验新增员工是否存在
+                List<Employee> addedEmps = employeeDao.findByIds(addedEmpIds);
+                if (addedEmps.size() != addedEmpIds.size()) {
+                    List<Integer> notExistEmps = addedEmpIds.stream()
+                            .filter(empId -> addedEmps.stream().noneMatch(e -> e.get_id().equals(empId)))
+                            .collect(Collectors.toList());
+                    throw new RuntimeException("新增员工ID: " + notExistEmps + " 不存在");
+                }
 
-                            departmentDao.update(oldEmpDept);
-                            log.info("原部门ID: {} - 已从员工列表中移除员工ID: {}", oldEmpDeptId, emp.get_id());
+                // 同步迁移员工至当前部门（清理原部门关联）
+                addedEmps.forEach(emp -> {
+                    Integer oldEmpDeptId = emp.getDepId(); // 员工原所属部门ID
+                    Integer currentDeptId = deptId;        // 当前编辑的部门ID
+
+                    // 5.1 更新员工的部门ID为当前部门
+                    employeeDao.updateDepId(emp.get_id(), currentDeptId);
+                    log.info("员工ID: {} - 从原部门ID: {} 迁移到新部门ID: {}", emp.get_id(), oldEmpDeptId, currentDeptId);
+
+                    // 5.2 清理原部门关联（非当前部门时）
+                    if (oldEmpDeptId != null && !oldEmpDeptId.equals(currentDeptId)) {
+                        Department oldEmpDept = departmentDao.findById(oldEmpDeptId);
+                        if (oldEmpDept != null) {
+                            // 从原部门empList移除该员工
+                            List<Department.Member> oldEmpDeptEmpList = oldEmpDept.getEmpList();
+                            if (oldEmpDeptEmpList != null) {
+                                oldEmpDeptEmpList.removeIf(member -> member.getEmpId() == emp.get_id());
+                                oldEmpDept.setEmpList(oldEmpDeptEmpList);
+
+                                // 若该员工是原部门负责人，置空原部门负责人ID
+                                if (emp.get_id().equals(oldEmpDept.getManagerId())) {
+                                    oldEmpDept.setManagerId(null);
+                                    log.info("原部门ID: {} - 负责人（员工ID: {}）已迁移，负责人置空", oldEmpDeptId, emp.get_id());
+                                }
+
+                                departmentDao.update(oldEmpDept);
+                                log.info("原部门ID: {} - 已从员工列表中移除员工ID: {}", oldEmpDeptId, emp.get_id());
+                            }
+                        } else {
+                            log.warn("员工ID: {} 的原部门ID: {} 不存在，无需清理", emp.get_id(), oldEmpDeptId);
                         }
-                    } else {
-                        log.warn("员工ID: {} 的原部门ID: {} 不存在，无需清理", emp.get_id(), oldEmpDeptId);
                     }
-                }
-            });
-        }
+                });
+            }
 
-        // 6. 校验负责人合法性，更新部门
-        validateManagerInEmpList(newDept.getManagerId(), newEmpIds, deptId);
-        departmentDao.update(newDept);
-        log.info("部门ID: {} 更新完成", deptId);
+            event.employees(newEmpIds.size(), addedEmpIds.size(), removedEmpIds.size());
+
+            // 6. 校验负责人合法性，更新部门
+            validateManagerInEmpList(newDept.getManagerId(), newEmpIds, deptId);
+            departmentDao.update(newDept);
+            employeeViewService.departmentChanged(newDept, addedEmpIds, removedEmpIds);
+            orgGraph.departmentChanged(deptId, addedEmpIds, removedEmpIds);
+            skillMatchCache.invalidateEmployees(removedEmpIds);
+            skillMatchCache.invalidateEmployees(addedEmpIds);
+            log.info("部门ID: {} 更新完成", deptId);
+            event.succeeded();
+        } finally {
+            event.finish();
+        }
     }
 
     /**
-     * 删除部门（同步置空关联员工的部门ID）
+     * 删除部门（软删除）
      * 核心逻辑：
      * 1. 校验部门存在性；
-     * 2. 批量置空该部门下所有员工的depId；
-     * 3. 最终删除部门实体
+     * 2. 写入墓碑，部门立即对所有读取不可见，登记待清理记录；
+     * 3. 同步更新读模型、关系图与匹配缓存，员工depId由后台压缩器置空（见 cleanupDeletedDepartment）
      * @param deptId 待删除部门的主键ID
      */
     @Override
@@ -295,18 +317,32 @@ public class DepartmentServiceImpl implements DepartmentService {
             throw new RuntimeException("部门ID:" + deptId + " 不存在");
         }
 
-        // 2. 提取部门关联的员工ID，批量置空其部门ID
-        List<Integer> empIds = getEmpIdsFromList(department.getEmpList());
-        if (!empIds.isEmpty()) {
-            employeeDao.batchUpdateDepIdToNull(empIds);
-            log.info("部门ID: {} 关联的 {} 名员工已置空部门ID", deptId, empIds.size());
-        } else {
-            log.info("部门ID: {} 无关联员工，无需更新员工", deptId);
+        // 2. 写入墓碑并登记后台清理
+        LocalDateTime now = LocalDateTime.now();
+        if (!departmentDao.markDeleted(deptId, now)) {
+            throw new RuntimeException("部门ID:" + deptId + " 不存在");
         }
+        pendingCleanupDao.enqueue(PendingCleanup.DEPARTMENT, deptId, now);
 
-        // 3. 最终删除部门
-        departmentDao.delete(deptId);
-        log.info("部门ID: {} 删除完成", deptId);
+        // 3. 同步派生数据
+        List<Integer> empIds = getEmpIdsFromList(department.getEmpList());
+        employeeViewService.departmentDeleted(deptId, empIds);
+        orgGraph.departmentDeleted(deptId);
+        skillMatchCache.invalidateEmployees(empIds);
+        log.info("部门ID: {} 已标记删除，{} 名员工的部门关联待后台清理", deptId, empIds.size());
+    }
+
+    /**
+     * 清理已软删除部门：单次updateMulti置空仍指向该部门的员工depId，最后物理删除部门
+     * 按depId而非部门empList匹配，墓碑期间迁入的员工也会被清理
+     * @param deptId 已软删除部门的主键ID
+     */
+    @Override
+    public long cleanupDeletedDepartment(Integer deptId) {
+        long cleared = employeeDao.clearDepartment(deptId);
+        departmentDao.purge(deptId);
+        log.info("部门ID: {} 清理完成，{} 名员工已置空部门ID", deptId, cleared);
+        return cleared;
     }
 
     /**
@@ -332,10 +368,8 @@ public class DepartmentServiceImpl implements DepartmentService {
             deptPage = departmentDao.findByDepNameLikeWithPage(searchKey, pageNum, pageSize);
         }
 
-        // 2. 统一转换为DepartmentDTO（包含负责人、员工简要信息）
-        List<DepartmentDTO> dtoList = deptPage.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // 2. 统一转换为DepartmentDTO（包含负责人、员工简要信息），员工姓名整页一次批量查询
+        List<DepartmentDTO> dtoList = convertToDTOs(deptPage.getContent());
 
         // 3. 封装分页结果返回
         return new PageImpl<>(dtoList, deptPage.getPageable(), deptPage.getTotalElements());
@@ -351,18 +385,10 @@ public class DepartmentServiceImpl implements DepartmentService {
     private Integer generateDeptId() {
         log.info("开始生成部门自增ID");
 
-        // 1. 查询所有部门数据
-        List<Department> allDepts = departmentDao.findAll();
-        log.info("查询到所有部门数量：{}", allDepts.size());
+        // 1. 查询最大部门ID（含尚未清理完的已删除部门，避免ID复用）
+        Integer maxId = departmentDao.maxId();
 
-        // 2. 提取有效部门ID，计算最大值
-        Integer maxId = allDepts.stream()
-                .map(Department::getId)
-                .filter(Objects::nonNull)
-                .max(Integer::compareTo)
-                .orElse(null);
-
-        // 3. 生成新ID（无数据返回1，有数据返回maxId+1）
+        // 2. 生成新ID（无数据返回1，有数据返回maxId+1）
         Integer newDeptId = (maxId == null) ? 1 : maxId + 1;
         log.info("现有最大部门ID：{}，生成新ID：{}", maxId, newDeptId);
 
@@ -371,16 +397,15 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     /**
      * 从部门empList中提取员工ID列表
-     * @param empList 部门关联的员工Map列表（格式：[{"empId": 1}, ...]）
-     * @return 员工ID列表，空/无效时返回空列表
+     * @param empList 部门关联的员工列表（格式：[{"empId": 1}, ...]）
+     * @return 员工ID列表，空时返回空列表
      */
-    private List<Integer> getEmpIdsFromList(List<Map<String, Integer>> empList) {
+    private List<Integer> getEmpIdsFromList(List<Department.Member> empList) {
         if (empList == null || empList.isEmpty()) {
             return new ArrayList<>();
         }
         return empList.stream()
-                .map(empMap -> empMap.get("empId"))
-                .filter(empId -> empId != null)
+                .map(Department.Member::getEmpId)
                 .collect(Collectors.toList());
     }
 
@@ -441,12 +466,53 @@ public class DepartmentServiceImpl implements DepartmentService {
         return dto;
     }
 
+    /**
+     * 列表页批量DTO转换
+     * 负责人与成员ID取自已查出的部门文档，姓名一次批量查询（仅投影empName），往返次数与部门数无关；
+     * 负责人/成员不存在（如已删除）时的处理与 convertToDTO 一致
+     * @param departments 部门实体列表
+     * @return 转换后的DepartmentDTO列表（顺序不变）
+     */
+    private List<DepartmentDTO> convertToDTOs(List<Department> departments) {
+        Set<Integer> empIds = new HashSet<>();
+        for (Department dept : departments) {
+            if (dept.getManagerId() != null) {
+                empIds.add(dept.getManagerId());
+            }
+            empIds.addAll(getEmpIdsFromList(dept.getEmpList()));
+        }
+        Map<Integer, String> empNames = new HashMap<>();
+        employeeDao.findNamesByIds(empIds).forEach(emp -> empNames.put(emp.get_id(), emp.getEmpName()));
+
+        List<DepartmentDTO> dtoList = new ArrayList<>(departments.size());
+        for (Department dept : departments) {
+            DepartmentDTO dto = new DepartmentDTO();
+            dto.setId(dept.getId());
+            dto.setDepName(dept.getDepName());
+            dto.setManagerName(dept.getManagerId() != null && empNames.containsKey(dept.getManagerId())
+                    ? empNames.get(dept.getManagerId()) : "未设置");
+
+            List<DepartmentDTO.EmpSimpleDTO> empSimpleList = new ArrayList<>();
+            for (Integer empId : new LinkedHashSet<>(getEmpIdsFromList(dept.getEmpList()))) {
+                if (empNames.containsKey(empId)) {
+                    DepartmentDTO.EmpSimpleDTO empSimple = new DepartmentDTO.EmpSimpleDTO();
+                    empSimple.setId(empId);
+                    empSimple.setEmpName(empNames.get(empId));
+                    empSimpleList.add(empSimple);
+                }
+            }
+            dto.setEmpList(empSimpleList);
+            dtoList.add(dto);
+        }
+        return dtoList;
+    }
+
     /**
      * 通用DTO转换方法（整合最优逻辑）
      * @param dept 部门实体
      * @return 转换后的DepartmentDTO（含负责人姓名、员工简要信息）
      */
-    private DepartmentDTO convertToDTO(Department dept) {
+    DepartmentDTO convertToDTO(Department dept) {
         DepartmentDTO dto = new DepartmentDTO();
         dto.setId(dept.getId());
         dto.setDepName(dept.getDepName());
@@ -1,10 +1,15 @@
 package com.murasame.smarthrm.service.impl;
 //林 202512.19
 
+import com.murasame.smarthrm.cache.SkillMatchCache;
 import com.murasame.smarthrm.dao.*;
 import com.murasame.smarthrm.dto.EmployeeDTO;
 import com.murasame.smarthrm.entity.*;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.monitor.jfr.EmployeeOperationEvent;
+import com.murasame.smarthrm.monitor.jfr.EmployeePhaseEvent;
 import com.murasame.smarthrm.service.EmployeeService;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -43,9 +49,21 @@ public class EmployeeServiceImpl implements EmployeeService {
     // 注入培训数据访问层，处理培训关联操作
     @Autowired
     private TrainingDao trainingDao;
+    // 注入待清理记录数据访问层，软删除后登记后台引用清理
+    @Autowired
+    private PendingCleanupDao pendingCleanupDao;
     // 注入技能数据访问层，处理技能校验操作
     @Autowired
     private SkillDao skillDao;
+    // 注入技能匹配缓存，员工写操作后精确失效受影响的匹配结果
+    @Autowired
+    private SkillMatchCache skillMatchCache;
+    // 注入员工读模型服务，员工写操作后同步列表页冗余行
+    @Autowired
+    private EmployeeViewService employeeViewService;
+    // 注入组织关系图，员工写操作后同步内存中的部门/项目/培训关系
+    @Autowired
+    private OrgGraph orgGraph;
 
     /**
      * 查询所有员工信息（全量列表）
@@ -82,26 +100,47 @@ public class EmployeeServiceImpl implements EmployeeService {
      */
     @Override
     public void saveEmployee(Employee employee, EmployeeDTO dto) {
-        // 1. 生成员工自增ID（基于现有最大ID+1，无员工时从1开始）
-        Integer newEmpId = generateEmpId();
-        employee.set_id(newEmpId);
-        log.info("开始新增员工：生成自增ID = {}，员工姓名 = {}", newEmpId, employee.getEmpName());
-
-        // 2. 解析并绑定技能（校验技能格式、存在性、熟练度范围）
-        updateEmployeeSkills(employee, dto);
-
-        // 3. 绑定部门关联（将员工添加到目标部门的员工列表）
-        bindDepartment(employee);
-
-        // 4. 绑定项目关联（将员工添加到选中项目的成员列表）
-        bindProjects(employee.get_id(), dto, employee);
-
-        // 5. 绑定培训关联（将员工添加到选中培训的成员列表）
-        bindTrainings(employee.get_id(), dto, employee);
-
-        // 6. 最终保存员工（MongoDB upsert：ID不存在则新增）
-        employeeDao.update(employee);
-        log.info("员工ID: {} 新增成功（含所有关联关系）", newEmpId);
+        EmployeeOperationEvent event = EmployeeOperationEvent.begin("save", null);
+        try {
+            // 1. 生成员工自增ID（基于现有最大ID+1，无员工时从1开始）
+            Integer newEmpId = generateEmpId();
+            employee.set_id(newEmpId);
+            event.setEmpId(newEmpId);
+            log.info("开始新增员工：生成自增ID = {}，员工姓名 = {}", newEmpId, employee.getEmpName());
+
+            // 2. 解析并绑定技能（校验技能格式、存在性、熟练度范围）
+            EmployeePhaseEvent phase = EmployeePhaseEvent.begin("save", "skills", newEmpId);
+            updateEmployeeSkills(employee, dto);
+            phase.finish(EmployeeOperationEvent.size(employee.getSkillList()));
+
+            // 3. 绑定部门关联（将员工添加到目标部门的员工列表）
+            phase = EmployeePhaseEvent.begin("save", "department", newEmpId);
+            bindDepartment(employee);
+            phase.finish(employee.getDepId() == null ? 0 : 1);
+
+            // 4. 绑定项目关联（将员工添加到选中项目的成员列表）
+            phase = EmployeePhaseEvent.begin("save", "projects", newEmpId);
+            bindProjects(employee.get_id(), dto, employee);
+            phase.finish(EmployeeOperationEvent.size(employee.getProjects()));
+
+            // 5. 绑定培训关联（将员工添加到选中培训的成员列表）
+            phase = EmployeePhaseEvent.begin("save", "trainings", newEmpId);
+            bindTrainings(employee.get_id(), dto, employee);
+            phase.finish(EmployeeOperationEvent.size(employee.getTrainingList()));
+
+            // 6. 最终保存员工（MongoDB upsert：ID不存在则新增）
+            employeeDao.update(employee);
+            employeeViewService.refreshEmployee(newEmpId);
+            orgGraph.refreshEmployee(newEmpId);
+            log.info("员工ID: {} 新增成功（含所有关联关系）", newEmpId);
+
+            // 7. 新员工只会出现在包含其技能的匹配结果中
+            skillMatchCache.invalidateSkills(skillLevels(employee.getSkillList()).keySet());
+            event.succeeded();
+        } finally {
+            event.relations(employee);
+            event.finish();
+        }
     }
 
     /**
@@ -112,54 +151,113 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Override
     public void updateEmployee(Employee newEmployee, EmployeeDTO dto) {
         Integer empId = newEmployee.get_id();
-        Employee oldEmployee = employeeDao.findById(empId);
-        if (oldEmployee == null) {
-            throw new RuntimeException("员工ID:" + empId + " 不存在");
-        }
-
-        // 1. 更新员工技能列表（校验并解析技能信息）
-        updateEmployeeSkills(newEmployee, dto);
-
-        // 2. 处理部门关联变更（从旧部门移除、添加到新部门）
-        handleDepartmentChange(oldEmployee, newEmployee);
-
-        // 3. 处理项目关联变更（退出旧项目、加入新项目）
-        handleProjectChange(empId, dto, newEmployee);
-        Employee empAfterProject = employeeDao.findById(empId);
-
-        // 4. 处理培训关联变更（退出旧培训、加入新培训）
-        handleTrainingChange(empId, dto, newEmployee);
+        EmployeeOperationEvent event = EmployeeOperationEvent.begin("update", empId);
+        try {
+            Employee oldEmployee = employeeDao.findById(empId);
+            if (oldEmployee == null) {
+                throw new RuntimeException("员工ID:" + empId + " 不存在");
+            }
 
-        // 5. 最终更新员工自身基础信息
-        employeeDao.update(newEmployee);
+            // 1. 更新员工技能列表（校验并解析技能信息）
+            EmployeePhaseEvent phase = EmployeePhaseEvent.begin("update", "skills", empId);
+            updateEmployeeSkills(newEmployee, dto);
+            phase.finish(EmployeeOperationEvent.size(newEmployee.getSkillList()));
+
+            // 2. 处理部门关联变更（从旧部门移除、添加到新部门）
+            phase = EmployeePhaseEvent.begin("update", "department", empId);
+            handleDepartmentChange(oldEmployee, newEmployee);
+            phase.finish(newEmployee.getDepId() == null ? 0 : 1);
+
+            // 3. 处理项目关联变更（退出旧项目、加入新项目）
+            phase = EmployeePhaseEvent.begin("update", "projects", empId);
+            handleProjectChange(oldEmployee, dto, newEmployee);
+            phase.finish(EmployeeOperationEvent.size(newEmployee.getProjects()));
+            Employee empAfterProject = employeeDao.findById(empId);
+
+            // 4. 处理培训关联变更（退出旧培训、加入新培训）
+            phase = EmployeePhaseEvent.begin("update", "trainings", empId);
+            handleTrainingChange(empId, dto, newEmployee);
+            phase.finish(EmployeeOperationEvent.size(newEmployee.getTrainingList()));
+
+            // 5. 最终更新员工自身基础信息
+            employeeDao.update(newEmployee);
+            employeeViewService.refreshEmployee(empId);
+            orgGraph.refreshEmployee(empId);
+
+            // 6. 失效技能匹配缓存：包含该员工的结果 + 技能新增/熟练度变化涉及的需求
+            skillMatchCache.invalidateEmployees(List.of(empId));
+            skillMatchCache.invalidateSkills(changedSkillIds(oldEmployee.getSkillList(), newEmployee.getSkillList()));
+            event.succeeded();
+        } finally {
+            event.relations(newEmployee);
+            event.finish();
+        }
     }
 
     /**
-     * 删除员工（同步清理所有关联关系：部门/项目/任务/培训）
+     * 删除员工（软删除）
+     * 1. 单次updateOne写入墓碑，员工立即对所有DAO读取不可见；
+     * 2. 登记待清理记录，部门/项目/任务/培训的关联由后台压缩器清理（见 cleanupDeletedEmployee）；
+     * 3. 同步移除本节点的读模型行、关系图与匹配缓存
+     * 墓碑写入后、登记前崩溃时，压缩器定期扫描墓碑补登记
      * @param empId 待删除员工的主键ID
      */
     @Override
     public void deleteEmployee(Integer empId) {
-        // 1. 校验员工是否存在
-        Employee employee = employeeDao.findById(empId);
-        if (employee == null) {
-            throw new RuntimeException("员工ID:" + empId + " 不存在");
+        EmployeeOperationEvent event = EmployeeOperationEvent.begin("delete", empId);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (!employeeDao.markDeleted(empId, now)) {
+                throw new RuntimeException("员工ID:" + empId + " 不存在");
+            }
+            pendingCleanupDao.enqueue(PendingCleanup.EMPLOYEE, empId, now);
+
+            employeeViewService.removeEmployee(empId);
+            orgGraph.removeEmployee(empId);
+            skillMatchCache.invalidateEmployees(List.of(empId));
+            event.succeeded();
+        } finally {
+            event.finish();
         }
+    }
 
-        // 2. 清理部门关联：从部门移除员工，若为部门经理则置空经理ID
-        handleDeptDelete(empId, employee.getDepId());
-
-        // 3. 清理项目关联：从所有参与项目的成员列表移除员工
-        handleProjectDelete(empId);
-
-        // 4. 清理任务关联：置空所有该员工负责的任务的负责人ID
-        // handleTaskChange(empId, dto);
-
-        // 5. 清理培训关联：从所有参与培训的成员列表移除员工
-        handleTrainingDelete(empId);
-
-        // 6. 最终删除员工实体
-        employeeDao.deleteById(empId);
+    /**
+     * 清理已软删除员工的关联关系（部门/项目/任务/培训），最后物理删除员工
+     * 所有关联清理均为集合级updateMulti，数据库往返次数固定，与员工关联数量无关；
+     * 每一步都可重复执行，中途失败由压缩器重试
+     * @param empId 已软删除员工的主键ID
+     */
+    @Override
+    public long cleanupDeletedEmployee(Integer empId) {
+        EmployeeOperationEvent event = EmployeeOperationEvent.begin("cleanup", empId);
+        try {
+            // 1. 清理部门关联：从部门移除员工，若为部门经理则置空经理ID
+            EmployeePhaseEvent phase = EmployeePhaseEvent.begin("cleanup", "department", empId);
+            phase.finish(handleDeptDelete(empId));
+
+            // 2. 清理项目关联：从所有参与项目的成员列表移除员工
+            phase = EmployeePhaseEvent.begin("cleanup", "projects", empId);
+            long projects = handleProjectDelete(empId);
+            phase.finish(projects);
+
+            // 3. 清理任务关联：清除所有该员工负责的任务的负责人ID
+            phase = EmployeePhaseEvent.begin("cleanup", "tasks", empId);
+            long tasks = handleTaskDelete(empId);
+            phase.finish(tasks);
+
+            // 4. 清理培训关联：从所有参与培训的成员列表移除员工
+            phase = EmployeePhaseEvent.begin("cleanup", "trainings", empId);
+            long trainings = handleTrainingDelete(empId);
+            phase.finish(trainings);
+
+            // 5. 最终物理删除员工墓碑
+            employeeDao.purge(empId);
+            event.relations(projects, trainings, tasks);
+            event.succeeded();
+            return projects + tasks + trainings;
+        } finally {
+            event.finish();
+        }
     }
 
     /**
@@ -202,8 +300,8 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @param newEmployee 待更新的员工实体
      * @param dto 封装技能字符串的DTO
      */
-    private void updateEmployeeSkills(Employee newEmployee, EmployeeDTO dto) {
-        List<Map<String, Integer>> updatedSkillList = new ArrayList<>();
+    void updateEmployeeSkills(Employee newEmployee, EmployeeDTO dto) {
+        List<Employee.SkillLevel> updatedSkillList = new ArrayList<>();
         String skillsStr = dto.getSkills();
 
         // 技能字符串非空时解析处理
@@ -219,8 +317,8 @@ public class EmployeeServiceImpl implements EmployeeService {
                     throw new RuntimeException("技能格式错误：" + skillItem + "，请按「技能ID:熟练度」格式输入（例：1:4），无需技能可留空");
                 }
 
-                Integer skillId = Integer.parseInt(skillParts[0]);
-                Integer proficiency = Integer.parseInt(skillParts[1]);
+                int skillId = Integer.parseInt(skillParts[0]);
+                int proficiency = Integer.parseInt(skillParts[1]);
 
                 // 校验技能ID是否存在
                 Skill existSkill = skillDao.findById(skillId);
@@ -234,16 +332,13 @@ public class EmployeeServiceImpl implements EmployeeService {
                 }
 
                 // 封装技能数据
-                Map<String, Integer> skillMap = new HashMap<>();
-                skillMap.put("skillId", skillId);
-                skillMap.put("proficiency", proficiency);
-                updatedSkillList.add(skillMap);
+                updatedSkillList.add(new Employee.SkillLevel(skillId, proficiency));
             }
 
             // 技能去重（按skillId去重，保留第一条）
-            List<Map<String, Integer>> distinctSkillList = updatedSkillList.stream()
+            List<Employee.SkillLevel> distinctSkillList = updatedSkillList.stream()
                     .collect(Collectors.toMap(
-                            skill -> skill.get("skillId"),
+                            Employee.SkillLevel::getSkillId,
                             skill -> skill,
                             (oldVal, newVal) -> oldVal
                     ))
@@ -275,7 +370,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             if (oldDepId != null) {
                 Department oldDept = departmentDao.findById(oldDepId);
                 if (oldDept != null && oldDept.getEmpList() != null) {
-                    oldDept.getEmpList().removeIf(empMap -> oldEmp.get_id().equals(empMap.get("empId")));
+                    oldDept.getEmpList().removeIf(member -> member.getEmpId() == oldEmp.get_id());
                     // 若为旧部门经理，置空经理ID
                     if (oldEmp.get_id().equals(oldDept.getManagerId())) {
                         oldDept.setManagerId(null);
@@ -295,9 +390,9 @@ public class EmployeeServiceImpl implements EmployeeService {
                 }
                 // 避免重复添加
                 boolean exists = newDept.getEmpList().stream()
-                        .anyMatch(empMap -> newEmp.get_id().equals(empMap.get("empId")));
+                        .anyMatch(member -> member.getEmpId() == newEmp.get_id());
                 if (!exists) {
-                    newDept.getEmpList().add(Map.of("empId", newEmp.get_id()));
+                    newDept.getEmpList().add(new Department.Member(newEmp.get_id()));
                     departmentDao.update(newDept);
                 }
             }
@@ -309,12 +404,13 @@ public class EmployeeServiceImpl implements EmployeeService {
      * 逻辑：
      * 1. 退出旧项目：从项目成员列表移除员工；
      * 2. 加入新项目：向项目成员列表添加员工；
-     * 3. 同步更新员工实体的项目关联列表
-     * @param empId 员工ID
+     * 3. 同步更新员工实体的项目关联列表（已移入冷集合的归档项目不在编辑表单中，保留其历史关联）
+     * @param oldEmployee 变更前的员工实体
      * @param dto 封装新项目ID列表的DTO
      * @param newEmployee 变更后的员工实体
      */
-    private void handleProjectChange(Integer empId, EmployeeDTO dto, Employee newEmployee) {
+    private void handleProjectChange(Employee oldEmployee, EmployeeDTO dto, Employee newEmployee) {
+        Integer empId = oldEmployee.get_id();
         // 1. 获取旧项目ID列表（员工原本关联的项目）
         List<Integer> oldProjectIds = getOldProjectIds(empId);
         // 2. 获取新项目ID列表（员工现在选择的项目）
@@ -353,9 +449,16 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
 
         // 5. 同步更新员工的项目关联列表
-        List<Map<String, Integer>> employeeProjects = newProjectIds.stream()
-                .map(projId -> Map.of("projId", projId))
-                .collect(Collectors.toList());
+        List<Employee.ProjectRef> employeeProjects = newProjectIds.stream()
+                .map(Employee.ProjectRef::new)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (oldEmployee.getProjects() != null) {
+            Set<Integer> candidates = oldEmployee.getProjects().stream()
+                    .map(Employee.ProjectRef::getProjId)
+                    .filter(projId -> projId != null && !oldProjectIds.contains(projId) && !newProjectIds.contains(projId))
+                    .collect(Collectors.toSet());
+            projectDao.findArchivedIds(candidates).forEach(projId -> employeeProjects.add(new Employee.ProjectRef(projId)));
+        }
         newEmployee.setProjects(employeeProjects);
     }
 
@@ -420,8 +523,8 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
 
         // 同步更新员工的培训关联列表
-        List<Map<String, Integer>> employeeTrainings = newTrainingIds.stream()
-                .map(trainId -> Map.of("trainId", trainId))
+        List<Employee.TrainingRef> employeeTrainings = newTrainingIds.stream()
+                .map(Employee.TrainingRef::new)
                 .collect(Collectors.toList());
         newEmployee.setTrainingList(employeeTrainings);
         log.info("员工ID: {} - 最终关联的培训列表: {}", empId, employeeTrainings);
@@ -431,112 +534,51 @@ public class EmployeeServiceImpl implements EmployeeService {
 
     /**
      * 清理员工的部门关联（删除员工时调用）
-     * 逻辑：从部门员工列表移除员工，若为部门经理则置空经理ID
+     * 逻辑：从所有部门员工列表$pull该员工，并置空以其为经理的部门的经理ID
      * @param empId 员工ID
-     * @param depId 员工所属部门ID
+     * @return 被修改的部门数量（员工列表）
      */
-    private void handleDeptDelete(Integer empId, Integer depId) {
-        if (depId != null) {
-            Department department = departmentDao.findById(depId);
-            if (department != null) {
-                // 从部门员工列表移除
-                if (department.getEmpList() != null) {
-                    department.getEmpList().removeIf(empMap -> empId.equals(empMap.get("empId")));
-                }
-                // 若为部门经理，置空经理ID
-                if (empId.equals(department.getManagerId())) {
-                    department.setManagerId(null);
-                }
-                departmentDao.update(department);
-            }
-        }
+    private long handleDeptDelete(Integer empId) {
+        long pulled = departmentDao.pullEmployee(empId);
+        long managerCleared = departmentDao.clearManager(empId);
+        log.info("员工ID: {} - 已从{}个部门员工列表移除，{}个部门经理已置空", empId, pulled, managerCleared);
+        return pulled;
     }
 
     /**
      * 清理员工的项目关联（删除员工时调用）
-     * 逻辑：从所有该员工参与的项目成员列表中移除员工
+     * 逻辑：单次updateMulti从所有项目成员列表$pull该员工
      * @param empId 员工ID
+     * @return 被修改的项目数量
      */
-    private void handleProjectDelete(Integer empId) {
-        log.info("开始处理员工ID: {} 的项目关联删除", empId);
-
-        // 查询所有包含该员工的项目
-        List<Project> projects = projectDao.findByMemberEmpId(empId);
-        if (projects.isEmpty()) {
-            log.info("员工ID: {} 未关联任何项目，无需删除项目成员", empId);
-            return;
-        }
-
-        // 遍历项目，移除员工ID
-        for (Project project : projects) {
-            Integer projId = project.getId();
-            if (project.getMembers() == null) {
-                project.setMembers(new ArrayList<>());
-                log.info("项目ID: {} - members为null，初始化空列表", projId);
-                continue;
-            }
-
-            boolean removed = project.getMembers().removeIf(member -> empId.equals(member.getEmpId()));
-            if (removed) {
-                projectDao.update(project);
-                log.info("项目ID: {} - 成功从members中移除员工ID: {}", projId, empId);
-            } else {
-                log.info("项目ID: {} - members中无员工ID: {}，无需删除", projId, empId);
-            }
-        }
-
-        log.info("员工ID: {} 的项目关联删除处理完成", empId);
+    private long handleProjectDelete(Integer empId) {
+        long modified = projectDao.pullMember(empId);
+        log.info("员工ID: {} - 已从{}个项目的members中移除", empId, modified);
+        return modified;
     }
 
     /**
      * 清理员工的任务关联（删除员工时调用）
-     * 逻辑：将该员工负责的所有任务的负责人ID置空
+     * 逻辑：单次updateMulti清除该员工负责的所有任务的负责人ID
      * @param empId 员工ID
+     * @return 被修改的任务数量
      */
-    private void handleTaskDelete(Integer empId) {
-        List<Task> tasks = taskDao.findByManagerId(empId);
-        for (Task task : tasks) {
-            task.setManagerId(null);
-            taskDao.update(task);
-        }
+    private long handleTaskDelete(Integer empId) {
+        long modified = taskDao.unsetManager(empId);
+        log.info("员工ID: {} - 已清除{}个任务的负责人", empId, modified);
+        return modified;
     }
 
     /**
      * 清理员工的培训关联（删除员工时调用）
-     * 逻辑：从所有该员工参与的培训成员列表中移除员工
+     * 逻辑：单次updateMulti从所有培训成员列表$pull该员工
      * @param empId 员工ID
+     * @return 被修改的培训数量
      */
-    private void handleTrainingDelete(Integer empId) {
-        log.info("开始处理员工ID: {} 的培训关联删除", empId);
-
-        // 查询该员工参与的所有培训
-        List<Training> trainings = trainingDao.findByMemberEmpId(empId);
-        if (trainings.isEmpty()) {
-            log.info("员工ID: {} 未关联任何培训，无需删除培训成员", empId);
-            return;
-        }
-
-        // 遍历培训，移除员工ID
-        for (Training training : trainings) {
-            Integer trainId = training.get_id();
-            String trainName = training.getTrainName();
-
-            if (training.getMembers() == null) {
-                training.setMembers(new ArrayList<>());
-                log.info("培训ID: {}（{}）- memberList为null，初始化空列表", trainId, trainName);
-                continue;
-            }
-
-            boolean removed = training.getMembers().removeIf(memberId -> empId.equals(memberId));
-            if (removed) {
-                trainingDao.update(training);
-                log.info("培训ID: {}（{}）- 成功从memberList移除员工ID: {}", trainId, trainName, empId);
-            } else {
-                log.info("培训ID: {}（{}）- memberList中无员工ID: {}，无需删除", trainId, trainName, empId);
-            }
-        }
-
-        log.info("员工ID: {} 的培训关联删除处理完成", empId);
+    private long handleTrainingDelete(Integer empId) {
+        long modified = trainingDao.pullMember(empId);
+        log.info("员工ID: {} - 已从{}个培训的memberList中移除", empId, modified);
+        return modified;
     }
 
     // ==================== 新增专用私有方法 ====================
@@ -548,13 +590,8 @@ public class EmployeeServiceImpl implements EmployeeService {
      */
     private Integer generateEmpId() {
         log.info("开始生成员工自增ID");
-        // 查询所有员工，提取最大ID
-        List<Employee> allEmps = employeeDao.findAll();
-        Integer maxId = allEmps.stream()
-                .map(Employee::get_id)
-                .filter(Objects::nonNull)
-                .max(Integer::compareTo)
-                .orElse(null);
+        // 查询最大ID（含尚未清理完的已删除员工，避免ID复用）
+        Integer maxId = employeeDao.maxId();
         // 生成新ID
         Integer newEmpId = (maxId == null) ? 1 : maxId + 1;
         log.info("现有最大员工ID：{}，生成新ID：{}", maxId, newEmpId);
@@ -583,9 +620,9 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
         // 避免重复添加
         boolean exists = dept.getEmpList().stream()
-                .anyMatch(empMap -> employee.get_id().equals(empMap.get("empId")));
+                .anyMatch(member -> member.getEmpId() == employee.get_id());
         if (!exists) {
-            dept.getEmpList().add(Map.of("empId", employee.get_id()));
+            dept.getEmpList().add(new Department.Member(employee.get_id()));
             departmentDao.update(dept);
             log.info("员工ID: {} 已关联到部门ID: {}", employee.get_id(), depId);
         }
@@ -606,7 +643,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             return;
         }
 
-        List<Map<String, Integer>> employeeProjects = new ArrayList<>();
+        List<Employee.ProjectRef> employeeProjects = new ArrayList<>();
         for (Integer projId : newProjectIds) {
             // 校验项目是否存在
             Project project = getValidProject(projId);
@@ -625,7 +662,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                 log.info("员工ID: {} 已加入项目ID: {}", empId, projId);
             }
             // 封装员工的项目列表
-            employeeProjects.add(Map.of("projId", projId));
+            employeeProjects.add(new Employee.ProjectRef(projId));
         }
         // 绑定到员工对象
         employee.setProjects(employeeProjects);
@@ -646,7 +683,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             return;
         }
 
-        List<Map<String, Integer>> employeeTrainings = new ArrayList<>();
+        List<Employee.TrainingRef> employeeTrainings = new ArrayList<>();
         for (Integer trainId : newTrainingIds) {
             // 校验培训是否存在
             Training training = getValidTraining(trainId);
@@ -663,7 +700,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                 log.info("员工ID: {} 已加入培训ID: {}", empId, trainId);
             }
             // 封装员工的培训列表
-            employeeTrainings.add(Map.of("trainId", trainId));
+            employeeTrainings.add(new Employee.TrainingRef(trainId));
         }
         // 绑定到员工对象
         employee.setTrainingList(employeeTrainings);
@@ -704,6 +741,41 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 员工技能列表转换为 技能ID→熟练度 映射
+     * @param skillList 员工技能列表
+     * @return 技能ID→熟练度映射，空列表返回空映射
+     */
+    private Map<Integer, Integer> skillLevels(List<Employee.SkillLevel> skillList) {
+        Map<Integer, Integer> levels = new HashMap<>();
+        if (skillList == null) {
+            return levels;
+        }
+        for (Employee.SkillLevel skill : skillList) {
+            levels.put(skill.getSkillId(), skill.getProficiency());
+        }
+        return levels;
+    }
+
+    /**
+     * 计算前后技能列表中发生变化的技能ID（新增、移除或熟练度变化）
+     * @param oldSkills 变更前技能列表
+     * @param newSkills 变更后技能列表
+     * @return 发生变化的技能ID集合
+     */
+    private Set<Integer> changedSkillIds(List<Employee.SkillLevel> oldSkills, List<Employee.SkillLevel> newSkills) {
+        Map<Integer, Integer> oldLevels = skillLevels(oldSkills);
+        Map<Integer, Integer> newLevels = skillLevels(newSkills);
+        Set<Integer> changed = new HashSet<>();
+        oldLevels.forEach((skillId, level) -> {
+            if (!Objects.equals(level, newLevels.get(skillId))) changed.add(skillId);
+        });
+        newLevels.forEach((skillId, level) -> {
+            if (!Objects.equals(level, oldLevels.get(skillId))) changed.add(skillId);
+        });
+        return changed;
+    }
+
     /**
      * 比较两个Integer是否相等（处理null值）
      * @param a 第一个整数
@@ -0,0 +1,280 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.dao.*;
+import com.murasame.smarthrm.entity.*;
+import com.murasame.smarthrm.service.EmployeeViewService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 员工读模型业务层实现类
+ * 单个员工变化时整行重建（只查该员工涉及的部门/技能/项目/培训）；
+ * 部门/技能/项目/培训变化时按ID对读模型做集合级updateMulti，往返次数与受影响员工数无关
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeViewServiceImpl implements EmployeeViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeViewServiceImpl.class);
+
+    // 全量重建时每批写回的行数
+    private static final int REBUILD_BATCH = 500;
+
+    private final EmployeeViewDao employeeViewDao;
+    private final EmployeeDao employeeDao;
+    private final DepartmentDao departmentDao;
+    private final SkillDao skillDao;
+    private final ProjectDao projectDao;
+    private final TrainingDao trainingDao;
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService startup = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "employee-view-startup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 启动完成后在后台线程建索引；读模型行数与未删除的员工数不一致（首次上线、数据直接导入库）时全量重建。
+     * 不阻塞启动，失败只记录日志，列表页在重建完成前读取现有读模型
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startup.submit(this::initialize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        startup.shutdownNow();
+    }
+
+    private void initialize() {
+        try {
+            employeeViewDao.ensureIndexes();
+            // 读模型不含软删除的员工，估算值会把墓碑算进去，这里按未删除条件精确计数
+            long employees = mongoTemplate.count(new Query(SoftDelete.alive()), Employee.class);
+            long views = employeeViewDao.estimatedCount();
+            if (employees != views) {
+                log.info("员工读模型行数 {} 与员工数 {} 不一致，开始全量重建", views, employees);
+                rebuildAll();
+            }
+        } catch (RuntimeException e) {
+            log.error("员工读模型初始化失败，下次启动时重试", e);
+        }
+    }
+
+    @Override
+    public Page<EmployeeView> listEmployeesWithPage(String empName, int pageNum, int pageSize) {
+        return employeeViewDao.findPage(empName, pageNum, pageSize);
+    }
+
+    @Override
+    public void refreshEmployee(Integer empId) {
+        Employee employee = employeeDao.findById(empId);
+        if (employee == null) {
+            employeeViewDao.deleteById(empId);
+            return;
+        }
+        Department dept = employee.getDepId() == null ? null : departmentDao.findById(employee.getDepId());
+
+        Set<Integer> skillIds = employee.getSkillList() == null ? Set.of() : employee.getSkillList().stream()
+                .map(Employee.SkillLevel::getSkillId)
+                .collect(Collectors.toSet());
+        Set<Integer> projIds = employee.getProjects() == null ? Set.of() : employee.getProjects().stream()
+                .map(Employee.ProjectRef::getProjId)
+                .collect(Collectors.toSet());
+        Map<Integer, String> skillNames = skillDao.findByIds(skillIds).stream()
+                .collect(Collectors.toMap(Skill::get_id, s -> nameOf(s.getSkillName())));
+        // 员工的历史项目可能已移入冷集合，名称一并查出
+        Map<Integer, String> projNames = projectDao.findByIds(projIds, true).stream()
+                .collect(Collectors.toMap(Project::getId, p -> nameOf(p.getProjName())));
+        List<EmployeeView.TrainingItem> trainings = trainingDao.findByMemberEmpId(empId).stream()
+                .map(t -> new EmployeeView.TrainingItem(t.get_id(), t.getTrainName()))
+                .collect(Collectors.toList());
+
+        employeeViewDao.save(toView(employee, dept, skillNames, projNames, trainings));
+    }
+
+    @Override
+    public void removeEmployee(Integer empId) {
+        employeeViewDao.deleteById(empId);
+    }
+
+    @Override
+    public void departmentChanged(Department dept, Collection<Integer> addedEmpIds, Collection<Integer> removedEmpIds) {
+        if (removedEmpIds != null && !removedEmpIds.isEmpty()) {
+            employeeViewDao.setDepartment(Criteria.where("_id").in(removedEmpIds), null, "未分配", "unassigned");
+        }
+        Criteria target = addedEmpIds == null || addedEmpIds.isEmpty()
+                ? Criteria.where("depId").is(dept.getId())
+                : new Criteria().orOperator(Criteria.where("depId").is(dept.getId()), Criteria.where("_id").in(addedEmpIds));
+        long modified = employeeViewDao.setDepartment(target, dept.getId(), dept.getDepName(), "normal");
+        log.debug("员工读模型：部门ID {} 同步 {} 行", dept.getId(), modified);
+    }
+
+    @Override
+    public void departmentDeleted(Integer deptId, Collection<Integer> empIds) {
+        if (empIds != null && !empIds.isEmpty()) {
+            employeeViewDao.setDepartment(Criteria.where("_id").in(empIds), null, "未分配", "unassigned");
+        }
+        // 部门员工列表之外仍指向该部门的员工（数据不一致时），与员工表保持一致显示为已删除
+        employeeViewDao.setDepartment(Criteria.where("depId").is(deptId), deptId, "部门已删除", "deleted");
+    }
+
+    @Override
+    public void projectSaved(Project project) {
+        employeeViewDao.renameProject(project.getId(), project.getProjName());
+    }
+
+    @Override
+    public void projectsDeleted(Collection<Integer> projIds) {
+        employeeViewDao.pullProjects(projIds);
+    }
+
+    @Override
+    public void skillSaved(Skill skill) {
+        employeeViewDao.renameSkill(skill.get_id(), skill.getSkillName());
+    }
+
+    @Override
+    public void skillDeleted(Integer skillId) {
+        employeeViewDao.renameSkill(skillId, null);
+    }
+
+    @Override
+    public void trainingSaved(Training before, Training after) {
+        Integer trainId = after.get_id();
+        Set<Integer> oldMembers = before == null || before.getMembers() == null
+                ? Set.of() : new HashSet<>(before.getMembers());
+        Set<Integer> newMembers = after.getMembers() == null ? Set.of() : new HashSet<>(after.getMembers());
+
+        Set<Integer> removed = new HashSet<>(oldMembers);
+        removed.removeAll(newMembers);
+        Set<Integer> added = new HashSet<>(newMembers);
+        added.removeAll(oldMembers);
+
+        employeeViewDao.pullTraining(trainId, removed);
+        if (before == null || !Objects.equals(before.getTrainName(), after.getTrainName())) {
+            employeeViewDao.renameTraining(trainId, after.getTrainName());
+        }
+        employeeViewDao.pushTraining(added, new EmployeeView.TrainingItem(trainId, after.getTrainName()));
+    }
+
+    @Override
+    public void trainingDeleted(Integer trainId) {
+        employeeViewDao.pullTraining(trainId, null);
+    }
+
+    /**
+     * 全量重建：部门/技能/项目/培训各一次全量查询建立名称表，员工按游标流式读取，分批无序写回
+     */
+    @Override
+    public long rebuildAll() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Department> departments = departmentDao.findAll().stream()
+                .collect(Collectors.toMap(Department::getId, Function.identity(), (a, b) -> a));
+        Map<Integer, String> skillNames = skillDao.findAll().stream()
+                .collect(Collectors.toMap(Skill::get_id, s -> nameOf(s.getSkillName()), (a, b) -> a));
+        Map<Integer, String> projNames = projectDao.findAll(true).stream()
+                .collect(Collectors.toMap(Project::getId, p -> nameOf(p.getProjName()), (a, b) -> a));
+        Map<Integer, List<EmployeeView.TrainingItem>> trainingsByEmp = new HashMap<>();
+        for (Training training : trainingDao.findAll()) {
+            if (training.getMembers() == null) continue;
+            for (Integer empId : training.getMembers()) {
+                trainingsByEmp.computeIfAbsent(empId, k -> new ArrayList<>())
+                        .add(new EmployeeView.TrainingItem(training.get_id(), training.getTrainName()));
+            }
+        }
+
+        Set<Integer> empIds = new HashSet<>();
+        List<EmployeeView> batch = new ArrayList<>(REBUILD_BATCH);
+        try (Stream<Employee> employees = mongoTemplate.stream(new Query(SoftDelete.alive()), Employee.class)) {
+            Iterator<Employee> it = employees.iterator();
+            while (it.hasNext()) {
+                Employee employee = it.next();
+                empIds.add(employee.get_id());
+                Department dept = employee.getDepId() == null ? null : departments.get(employee.getDepId());
+                batch.add(toView(employee, dept, skillNames, projNames,
+                        trainingsByEmp.getOrDefault(employee.get_id(), List.of())));
+                if (batch.size() == REBUILD_BATCH) {
+                    employeeViewDao.saveAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        employeeViewDao.saveAll(batch);
+        long removed = employeeViewDao.deleteByIdNotIn(empIds);
+        log.info("员工读模型全量重建完成：{} 行，清理 {} 行，耗时 {}ms",
+                empIds.size(), removed, System.currentTimeMillis() - start);
+        return empIds.size();
+    }
+
+    /**
+     * 组装读模型行（名称缺失的技能保留ID、名称为null；已不存在的项目不展示）
+     * @param employee 员工
+     * @param dept 员工所属部门（未分配或部门已删除时为null）
+     * @param skillNames 技能ID→名称
+     * @param projNames 项目ID→名称
+     * @param trainings 员工参与的培训
+     */
+    static EmployeeView toView(Employee employee, Department dept, Map<Integer, String> skillNames,
+                               Map<Integer, String> projNames, List<EmployeeView.TrainingItem> trainings) {
+        EmployeeView view = new EmployeeView();
+        view.set_id(employee.get_id());
+        view.setEmpName(employee.getEmpName());
+        view.setDepId(employee.getDepId());
+        if (employee.getDepId() == null) {
+            view.setDeptName("未分配");
+            view.setDeptType("unassigned");
+        } else if (dept == null) {
+            view.setDeptName("部门已删除");
+            view.setDeptType("deleted");
+        } else {
+            view.setDeptName(dept.getDepName());
+            view.setDeptType("normal");
+        }
+
+        List<EmployeeView.SkillItem> skills = new ArrayList<>();
+        if (employee.getSkillList() != null) {
+            for (Employee.SkillLevel level : employee.getSkillList()) {
+                skills.add(new EmployeeView.SkillItem(level.getSkillId(),
+                        skillNames.get(level.getSkillId()), level.getProficiency()));
+            }
+        }
+        view.setSkillList(skills);
+
+        List<EmployeeView.ProjectItem> projects = new ArrayList<>();
+        if (employee.getProjects() != null) {
+            for (Employee.ProjectRef ref : employee.getProjects()) {
+                if (projNames.containsKey(ref.getProjId())) {
+                    projects.add(new EmployeeView.ProjectItem(ref.getProjId(), projNames.get(ref.getProjId())));
+                }
+            }
+        }
+        view.setProjects(projects);
+
+        view.setTrainingList(new ArrayList<>(trainings));
+        view.setJoinDate(employee.getJoinDate());
+        return view;
+    }
+
+    // toMap不接受null值，名称缺失按空串存储
+    private static String nameOf(String name) {
+        return name == null ? "" : name;
+    }
+}
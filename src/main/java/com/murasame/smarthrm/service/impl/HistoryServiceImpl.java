@@ -0,0 +1,253 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.config.HistoryProperties;
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.ProjectDao;
+import com.murasame.smarthrm.dao.SoftDelete;
+import com.murasame.smarthrm.dao.TaskDao;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import com.murasame.smarthrm.service.HistoryService;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 变更历史服务实现类
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoryServiceImpl implements HistoryService {
+
+    private static final String EMPLOYEE = "Employee";
+    private static final List<String> ENTITIES = List.of(EMPLOYEE, "Department", "Project", "Task", "Training");
+    // 已归档项目/任务在冷集合中
+    private static final Map<String, String> ARCHIVES = Map.of("Project", ProjectDao.ARCHIVE, "Task", TaskDao.ARCHIVE);
+
+    private final ChangeLogDao changeLogDao;
+    private final EmployeeDao employeeDao;
+    private final MongoTemplate mongoTemplate;
+    private final HistoryProperties properties;
+
+    @Override
+    public Map<String, Object> asOf(String entity, Integer entityId, LocalDateTime at) {
+        String collection = resolve(entity);
+        if (entityId == null || at == null) {
+            throw new IllegalArgumentException("实体ID和时间点不能为空");
+        }
+
+        // 1. 不晚于时间点的最近快照 + 之后到时间点的变更，向前重放
+        ChangeSnapshot base = changeLogDao.findSnapshotAtOrBefore(collection, entityId, at);
+        if (base != null) {
+            Map<String, Object> state = new LinkedHashMap<>(base.getState());
+            for (ChangeLogEntry entry : changeLogDao.findEntries(collection, entityId, base.getAt(), at)) {
+                state = replay(state, entityId, entry);
+            }
+            return state;
+        }
+
+        // 2. 时间点之前没有快照：从之后最近的快照（没有则为当前文档，已删除时为null）开始，逆序回滚时间点之后的变更
+        ChangeSnapshot next = changeLogDao.findSnapshotAfter(collection, entityId, at);
+        Map<String, Object> state = next != null ? new LinkedHashMap<>(next.getState()) : current(collection, entityId);
+        List<ChangeLogEntry> entries = changeLogDao.findEntries(collection, entityId, at,
+                next == null ? null : next.getAt());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            state = rollback(state, entityId, entries.get(i));
+        }
+        return state;
+    }
+
+    @Override
+    public List<ChangeLogEntry> changes(String entity, Integer entityId, LocalDateTime from, LocalDateTime to) {
+        String collection = resolve(entity);
+        if (entityId == null) {
+            throw new IllegalArgumentException("实体ID不能为空");
+        }
+        return changeLogDao.findEntries(collection, entityId, from, to);
+    }
+
+    @Override
+    public List<ChangeLogEntry> changesBetween(String entity, LocalDateTime from, LocalDateTime to, int limit) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("时间范围不合法");
+        }
+        String collection = entity == null || entity.isBlank() ? null : resolve(entity);
+        int max = Math.max(1, properties.getMaxQueryLimit());
+        return changeLogDao.findBetween(collection, from, to, limit <= 0 ? max : Math.min(limit, max));
+    }
+
+    @Override
+    public List<Map<String, Object>> departmentMembersAsOf(Integer depId, LocalDateTime at) {
+        if (depId == null || at == null) {
+            throw new IllegalArgumentException("部门ID和时间点不能为空");
+        }
+        Set<Integer> candidates = new LinkedHashSet<>(employeeDao.findIdsByDepIdIncludingDeleted(depId));
+        candidates.addAll(changeLogDao.findEmployeeIdsEverInDepartment(depId));
+
+        List<Map<String, Object>> members = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            return members;
+        }
+        for (Map<String, Object> state : asOfAll(EMPLOYEE, candidates, at).values()) {
+            if (state != null && depId.equals(state.get("depId")) && state.get(SoftDelete.FIELD) == null) {
+                members.add(state);
+            }
+        }
+        members.sort(Comparator.comparing(state -> (Integer) state.get("_id")));
+        return members;
+    }
+
+    /**
+     * 批量按时间点还原多个实体，规则与 asOf 相同；快照、变更、当前文档各按实体集合一次查询，往返次数与实体数量无关
+     * @return 实体ID -> 时间点状态（当时不存在为null）
+     */
+    private Map<Integer, Map<String, Object>> asOfAll(String collection, Set<Integer> entityIds, LocalDateTime at) {
+        Map<Integer, Map<String, Object>> states = new HashMap<>();
+
+        // 1. 有不晚于时间点快照的实体：取各自快照之后到时间点的变更，向前重放
+        Map<Integer, ChangeSnapshot> bases = changeLogDao.findSnapshotsAtOrBefore(collection, entityIds, at);
+        if (!bases.isEmpty()) {
+            LocalDateTime from = bases.values().stream().map(ChangeSnapshot::getAt).min(Comparator.naturalOrder()).orElseThrow();
+            Map<Integer, List<ChangeLogEntry>> entries = changeLogDao.findEntries(collection, bases.keySet(), from, at);
+            bases.forEach((entityId, base) -> {
+                Map<String, Object> state = new LinkedHashMap<>(base.getState());
+                for (ChangeLogEntry entry : entries.getOrDefault(entityId, List.of())) {
+                    if (entry.getAt().isAfter(base.getAt())) {
+                        state = replay(state, entityId, entry);
+                    }
+                }
+                states.put(entityId, state);
+            });
+        }
+
+        // 2. 其余实体：从之后最近的快照（没有则为当前文档）开始，逆序回滚时间点之后的变更
+        Set<Integer> rest = new LinkedHashSet<>(entityIds);
+        rest.removeAll(bases.keySet());
+        if (rest.isEmpty()) {
+            return states;
+        }
+        Map<Integer, ChangeSnapshot> nexts = changeLogDao.findSnapshotsAfter(collection, rest, at);
+        // 有实体没有后续快照时变更查到最新，否则查到最晚的后续快照
+        LocalDateTime to = nexts.size() < rest.size() ? null
+                : nexts.values().stream().map(ChangeSnapshot::getAt).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Integer, List<ChangeLogEntry>> entries = changeLogDao.findEntries(collection, rest, at, to);
+        Set<Integer> withoutNext = new LinkedHashSet<>(rest);
+        withoutNext.removeAll(nexts.keySet());
+        Map<Integer, Map<String, Object>> currents = withoutNext.isEmpty() ? Map.of() : current(collection, withoutNext);
+        for (Integer entityId : rest) {
+            ChangeSnapshot next = nexts.get(entityId);
+            Map<String, Object> state = next != null ? new LinkedHashMap<>(next.getState()) : currents.get(entityId);
+            List<ChangeLogEntry> list = entries.getOrDefault(entityId, List.of());
+            for (int i = list.size() - 1; i >= 0; i--) {
+                ChangeLogEntry entry = list.get(i);
+                if (next == null || !entry.getAt().isAfter(next.getAt())) {
+                    state = rollback(state, entityId, entry);
+                }
+            }
+            states.put(entityId, state);
+        }
+        return states;
+    }
+
+    // 正向重放一条变更：删除后状态为null，同ID重新创建时从创建记录开始
+    private static Map<String, Object> replay(Map<String, Object> state, Integer entityId, ChangeLogEntry entry) {
+        if (ChangeLogEntry.DELETE.equals(entry.getOp())) {
+            return null;
+        }
+        if (state == null || ChangeLogEntry.CREATE.equals(entry.getOp())) {
+            state = newState(entityId);
+        }
+        apply(state, entry.getChanges());
+        return state;
+    }
+
+    // 逆序回滚一条变更：越过创建记录时状态为null，越过删除记录时恢复删除前的完整文档
+    private static Map<String, Object> rollback(Map<String, Object> state, Integer entityId, ChangeLogEntry entry) {
+        if (ChangeLogEntry.CREATE.equals(entry.getOp())) {
+            return null;
+        }
+        if (ChangeLogEntry.DELETE.equals(entry.getOp())) {
+            state = newState(entityId);
+        } else if (state == null) {
+            return null;
+        }
+        apply(state, entry.getPrevious());
+        return state;
+    }
+
+    private static Map<String, Object> newState(Integer entityId) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("_id", entityId);
+        return state;
+    }
+
+    // 字段值为null表示该字段不存在（与实体写入时省略null字段一致）
+    private static void apply(Map<String, Object> state, Map<String, Object> fields) {
+        if (fields == null) return;
+        fields.forEach((field, value) -> {
+            if (value == null) {
+                state.remove(field);
+            } else {
+                state.put(field, value);
+            }
+        });
+    }
+
+    // 当前文档（含软删除与冷集合中的文档）
+    private Map<String, Object> current(String collection, Integer entityId) {
+        Document document = mongoTemplate.findById(entityId, Document.class, collection);
+        if (document == null && ARCHIVES.containsKey(collection)) {
+            document = mongoTemplate.findById(entityId, Document.class, ARCHIVES.get(collection));
+        }
+        if (document == null) {
+            return null;
+        }
+        document.remove("_class");
+        return new LinkedHashMap<>(document);
+    }
+
+    // 多个实体的当前文档（一次查询，冷集合中的文档再查一次）
+    private Map<Integer, Map<String, Object>> current(String collection, Set<Integer> entityIds) {
+        Map<Integer, Map<String, Object>> documents = new HashMap<>();
+        Query query = new Query(Criteria.where("_id").in(entityIds));
+        mongoTemplate.find(query, Document.class, collection).forEach(document -> {
+            document.remove("_class");
+            documents.put(document.getInteger("_id"), new LinkedHashMap<>(document));
+        });
+        if (documents.size() < entityIds.size() && ARCHIVES.containsKey(collection)) {
+            Set<Integer> missing = new LinkedHashSet<>(entityIds);
+            missing.removeAll(documents.keySet());
+            mongoTemplate.find(new Query(Criteria.where("_id").in(missing)), Document.class, ARCHIVES.get(collection))
+                    .forEach(document -> {
+                        document.remove("_class");
+                        documents.put(document.getInteger("_id"), new LinkedHashMap<>(document));
+                    });
+        }
+        return documents;
+    }
+
+    private static String resolve(String entity) {
+        if (entity != null) {
+            for (String name : ENTITIES) {
+                if (name.equalsIgnoreCase(entity)) {
+                    return name;
+                }
+            }
+        }
+        throw new IllegalArgumentException("不支持的实体类型：" + entity + "，可选 " + ENTITIES);
+    }
+}
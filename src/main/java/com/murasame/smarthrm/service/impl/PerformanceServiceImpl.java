@@ -0,0 +1,293 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.config.PerformanceProperties;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.PerformanceDao;
+import com.murasame.smarthrm.dto.PerformanceTrendDTO;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceRollup;
+import com.murasame.smarthrm.service.PerformanceService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 绩效业务层实现类
+ * 写入：一次查询校验员工并取部门，一次无序bulk写原始点，一次无序bulk累加日汇总桶；
+ * 统计：只读窗口内的日汇总桶（每个员工/部门每天一行），行数与测评点数量无关
+ */
+@Service
+@RequiredArgsConstructor
+public class PerformanceServiceImpl implements PerformanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PerformanceServiceImpl.class);
+
+    private final PerformanceDao performanceDao;
+    private final EmployeeDao employeeDao;
+    private final PerformanceProperties properties;
+    private final ExecutorService startup = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "performance-startup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 启动完成后在后台线程创建时间序列集合；有原始测评点但没有汇总桶（首次上线、数据直接导入库）时全量重算。
+     * 不阻塞启动，失败只记录日志，可经 /performance/rollups/rebuild 手动重算
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startup.submit(this::initialize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        startup.shutdownNow();
+    }
+
+    private void initialize() {
+        try {
+            performanceDao.ensureCollections();
+            if (!performanceDao.hasRollups() && performanceDao.hasPoints()) {
+                log.info("绩效汇总桶为空，开始由原始测评点重算");
+                rebuildRollups();
+            }
+        } catch (RuntimeException e) {
+            log.error("绩效集合初始化失败，下次启动时重试", e);
+        }
+    }
+
+    @Override
+    public int record(List<Performance> points) {
+        validate(points);
+        if (points.size() > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("单次最多写入 " + properties.getMaxBatchSize() + " 个测评点");
+        }
+        Map<Integer, Employee> employees = findEmployees(points);
+        for (Performance point : points) {
+            if (!employees.containsKey(point.getEmpId())) {
+                throw new IllegalArgumentException("员工ID (" + point.getEmpId() + ") 不存在");
+            }
+        }
+        write(points, employees);
+        return points.size();
+    }
+
+    @Override
+    public void validate(List<Performance> points) {
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("测评点不能为空");
+        }
+        for (Performance point : points) {
+            if (point == null || point.getEmpId() == null) {
+                throw new IllegalArgumentException("员工ID不能为空");
+            }
+            if (point.getPoint() == null
+                    || point.getPoint() < properties.getMinPoint() || point.getPoint() > properties.getMaxPoint()) {
+                throw new IllegalArgumentException("员工ID (" + point.getEmpId() + ") 的分数须在 "
+                        + properties.getMinPoint() + "~" + properties.getMaxPoint() + " 之间");
+            }
+        }
+    }
+
+    @Override
+    public Set<Integer> ingest(List<Performance> points) {
+        if (points.isEmpty()) return Set.of();
+        Map<Integer, Employee> employees = findEmployees(points);
+        Set<Integer> unknown = new HashSet<>();
+        List<Performance> known = new ArrayList<>(points.size());
+        for (Performance point : points) {
+            if (employees.containsKey(point.getEmpId())) {
+                known.add(point);
+            } else {
+                unknown.add(point.getEmpId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            log.warn("绩效导入：丢弃 {} 个员工不存在的测评点，员工ID {}", points.size() - known.size(), unknown);
+        }
+        write(known, employees);
+        return unknown;
+    }
+
+    // 一次查询取出涉及的员工（校验存在性并取当前部门）
+    private Map<Integer, Employee> findEmployees(List<Performance> points) {
+        List<Integer> empIds = points.stream().map(Performance::getEmpId).distinct().collect(Collectors.toList());
+        return employeeDao.findDepIdsByIds(empIds).stream()
+                .collect(Collectors.toMap(Employee::get_id, e -> e));
+    }
+
+    /**
+     * 补全部门与测评时间后写入原始点，再按员工/部门/日合并汇总桶增量
+     */
+    private void write(List<Performance> points, Map<Integer, Employee> employees) {
+        if (points.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PerformanceRollup> deltas = new LinkedHashMap<>();
+        for (Performance point : points) {
+            point.set_id(null);
+            point.setDepId(employees.get(point.getEmpId()).getDepId());
+            if (point.getTestTime() == null) {
+                point.setTestTime(now);
+            }
+            String day = point.getTestTime().toLocalDate().toString();
+            delta(deltas, PerformanceRollup.EMPLOYEE, point.getEmpId(), day).add(1, point.getPoint(),
+                    point.getPoint(), point.getPoint());
+            if (point.getDepId() != null) {
+                delta(deltas, PerformanceRollup.DEPARTMENT, point.getDepId(), day).add(1, point.getPoint(),
+                        point.getPoint(), point.getPoint());
+            }
+        }
+
+        performanceDao.insertAll(points);
+        performanceDao.mergeRollups(deltas.values());
+    }
+
+    @Override
+    public List<Performance> listPoints(Integer empId, LocalDate from, LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(properties.getDefaultWindowDays() - 1L) : from;
+        if (start.isBefore(end.minusDays(properties.getMaxWindowDays() - 1L))) {
+            start = end.minusDays(properties.getMaxWindowDays() - 1L);
+        }
+        return performanceDao.findPoints(empId, start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                properties.getMaxPoints());
+    }
+
+    @Override
+    public PerformanceTrendDTO employeeTrend(Integer empId, int windowDays, int rollingDays) {
+        return trend(PerformanceRollup.EMPLOYEE, empId, windowDays, rollingDays);
+    }
+
+    @Override
+    public PerformanceTrendDTO departmentTrend(Integer depId, int windowDays, int rollingDays) {
+        return trend(PerformanceRollup.DEPARTMENT, depId, windowDays, rollingDays);
+    }
+
+    @Override
+    public List<PerformanceTrendDTO> departmentSummary(int windowDays) {
+        int window = clampDays(windowDays, properties.getDefaultWindowDays());
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(window - 1L);
+
+        List<PerformanceTrendDTO> result = new ArrayList<>();
+        for (PerformanceRollup rollup : performanceDao.summarizeDepartments(from.toString(), to.toString())) {
+            PerformanceTrendDTO dto = new PerformanceTrendDTO();
+            dto.setScope(PerformanceRollup.DEPARTMENT);
+            dto.setScopeId(rollup.getScopeId());
+            dto.setFrom(from.toString());
+            dto.setTo(to.toString());
+            dto.setCount(rollup.getCount());
+            dto.setAverage(rollup.getCount() == 0 ? null : (double) rollup.getSum() / rollup.getCount());
+            dto.setMin(rollup.getMin());
+            dto.setMax(rollup.getMax());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Override
+    public long rebuildRollups() {
+        long start = System.currentTimeMillis();
+        long buckets = performanceDao.rebuildRollups(ZoneId.systemDefault());
+        log.info("绩效汇总桶重算完成：{} 个桶，耗时 {}ms", buckets, System.currentTimeMillis() - start);
+        return buckets;
+    }
+
+    /**
+     * 由日汇总桶计算窗口统计
+     * 多读取窗口前 rollingDays-1 天的桶，使窗口第一天的滚动均值也覆盖完整的滚动天数
+     */
+    private PerformanceTrendDTO trend(String scope, Integer scopeId, int windowDays, int rollingDays) {
+        int window = clampDays(windowDays, properties.getDefaultWindowDays());
+        int rolling = clampDays(rollingDays, properties.getDefaultRollingDays());
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(window - 1L);
+        List<PerformanceRollup> rollups = performanceDao.findRollups(scope, scopeId,
+                from.minusDays(rolling - 1L).toString(), to.toString());
+
+        PerformanceTrendDTO dto = new PerformanceTrendDTO();
+        dto.setScope(scope);
+        dto.setScopeId(scopeId);
+        dto.setFrom(from.toString());
+        dto.setTo(to.toString());
+        dto.setRollingDays(rolling);
+
+        List<PerformanceTrendDTO.DailyPoint> series = new ArrayList<>();
+        long count = 0;
+        long sum = 0;
+        Integer min = null;
+        Integer max = null;
+        // 滚动窗口：[left, i] 内的桶日期都在 (day - rolling, day] 之内
+        int left = 0;
+        long rollingCount = 0;
+        long rollingSum = 0;
+        // 逐日均分的最小二乘：x 为距窗口起始日的天数
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int n = 0;
+
+        for (int i = 0; i < rollups.size(); i++) {
+            PerformanceRollup rollup = rollups.get(i);
+            LocalDate day = LocalDate.parse(rollup.getDay());
+            rollingCount += rollup.getCount();
+            rollingSum += rollup.getSum();
+            LocalDate rollingStart = day.minusDays(rolling - 1L);
+            while (LocalDate.parse(rollups.get(left).getDay()).isBefore(rollingStart)) {
+                rollingCount -= rollups.get(left).getCount();
+                rollingSum -= rollups.get(left).getSum();
+                left++;
+            }
+            if (day.isBefore(from) || rollup.getCount() == 0) {
+                continue;
+            }
+
+            double average = (double) rollup.getSum() / rollup.getCount();
+            series.add(new PerformanceTrendDTO.DailyPoint(rollup.getDay(), rollup.getCount(), average,
+                    (double) rollingSum / rollingCount));
+            count += rollup.getCount();
+            sum += rollup.getSum();
+            min = min == null ? rollup.getMin() : rollup.getMin() == null ? min : Math.min(min, rollup.getMin());
+            max = max == null ? rollup.getMax() : rollup.getMax() == null ? max : Math.max(max, rollup.getMax());
+
+            double x = day.toEpochDay() - from.toEpochDay();
+            sx += x;
+            sy += average;
+            sxx += x * x;
+            sxy += x * average;
+            n++;
+        }
+
+        dto.setCount(count);
+        dto.setAverage(count == 0 ? null : (double) sum / count);
+        dto.setMin(min);
+        dto.setMax(max);
+        double denominator = n * sxx - sx * sx;
+        dto.setSlopePerDay(n < 2 || denominator == 0 ? null : (n * sxy - sx * sy) / denominator);
+        dto.setSeries(series);
+        return dto;
+    }
+
+    private int clampDays(int days, int defaultDays) {
+        int value = days <= 0 ? defaultDays : days;
+        return Math.min(Math.max(value, 1), properties.getMaxWindowDays());
+    }
+
+    private static PerformanceRollup delta(Map<String, PerformanceRollup> deltas, String scope,
+                                           Integer scopeId, String day) {
+        return deltas.computeIfAbsent(PerformanceRollup.idOf(scope, scopeId, day),
+                id -> PerformanceRollup.of(scope, scopeId, day));
+    }
+}
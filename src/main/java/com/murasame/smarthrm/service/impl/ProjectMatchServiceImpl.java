@@ -1,13 +1,24 @@
 package com.murasame.smarthrm.service.impl;
 
-import com.murasame.smarthrm.dao.EmployeeRepo;
+import com.murasame.smarthrm.cache.SkillMatchCache;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.dao.ProjectDao;
 import com.murasame.smarthrm.dao.ProjectRepo;
+import com.murasame.smarthrm.dao.TaskDao;
 import com.murasame.smarthrm.dao.TaskRepo;
 import com.murasame.smarthrm.entity.Employee;
 import com.murasame.smarthrm.entity.Project;
 import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.history.ChangeLogWriter;
+import com.murasame.smarthrm.monitor.jfr.MatchEvent;
+import com.murasame.smarthrm.service.EmployeeViewService;
 import com.murasame.smarthrm.service.ProjectMatchService;
+import com.murasame.smarthrm.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -20,48 +31,75 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProjectMatchServiceImpl implements ProjectMatchService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProjectMatchServiceImpl.class);
+
     private final ProjectRepo projectRepo;
-    private final EmployeeRepo employeeRepo;
     private final TaskRepo taskRepo;
+    private final ProjectDao projectDao;
+    private final TaskDao taskDao;
+    private final EmployeeDao employeeDao;
+    private final SkillMatchCache skillMatchCache;
+    private final EmployeeViewService employeeViewService;
+    private final OrgGraph orgGraph;
+    private final ObjectProvider<ChangeLogWriter> changeLog;
+    // 相同员工ID的并发“员工项目+任务”查询合并为一次执行
+    private final SingleFlight<Integer, List<Map<String, Object>>> employeeTasksInFlight = new SingleFlight<>();
 
     @Override
     public List<Project> matchByProjectName(String projectName) {
+        return matchByProjectName(projectName, false);
+    }
+
+    @Override
+    public List<Project> matchByProjectName(String projectName, boolean includeArchived) {
         if (projectName == null || projectName.trim().isEmpty()) {
             return new ArrayList<>();
         }
+        MatchEvent event = MatchEvent.begin("project-name", projectName.trim(), null);
 
-        // 获取所有项目
-        List<Project> allProjects = projectRepo.findAll();
+        // 获取所有项目（默认只读热集合）
+        List<Project> allProjects = includeArchived ? projectDao.findAll(true) : projectRepo.findAll();
 
         // 通过项目名称进行模糊匹配
         String searchTerm = projectName.trim().toLowerCase();
-        return allProjects.stream()
+        List<Project> matched = allProjects.stream()
                 .filter(project -> {
                     String projName = project.getProjName();
                     return projName != null && projName.toLowerCase().contains(searchTerm);
                 })
                 .collect(Collectors.toList());
+        event.finish(matched.size());
+        return matched;
     }
 
     @Override
     public List<Project> matchByEmployee(Integer empId) {
+        return matchByEmployee(empId, false);
+    }
+
+    @Override
+    public List<Project> matchByEmployee(Integer empId, boolean includeArchived) {
         if (empId == null) {
             return new ArrayList<>();
         }
+        MatchEvent event = MatchEvent.begin("project-employee", null, empId);
 
         // 获取指定员工
-        Employee employee = employeeRepo.findById(empId).orElse(null);
+        Employee employee = employeeDao.findById(empId);
         if (employee == null) {
+            event.finish(0);
             return new ArrayList<>();
         }
 
-        // 获取所有项目
-        List<Project> allProjects = projectRepo.findAll();
+        // 获取所有项目（默认只读热集合）
+        List<Project> allProjects = includeArchived ? projectDao.findAll(true) : projectRepo.findAll();
 
         // 筛选员工参与的项目
-        return allProjects.stream()
+        List<Project> matched = allProjects.stream()
                 .filter(project -> isEmployeeInProject(project, empId))
                 .collect(Collectors.toList());
+        event.finish(matched.size());
+        return matched;
     }
 
     @Override
@@ -69,10 +107,12 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
         if (empId == null) {
             return new ArrayList<>();
         }
+        MatchEvent event = MatchEvent.begin("project-available", null, empId);
 
         // 获取指定员工
-        Employee employee = employeeRepo.findById(empId).orElse(null);
+        Employee employee = employeeDao.findById(empId);
         if (employee == null) {
+            event.finish(0);
             return new ArrayList<>();
         }
 
@@ -80,6 +120,7 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
         List<Integer> employeeSkills = getEmployeeSkills(employee);
 
         if (employeeSkills.isEmpty()) {
+            event.finish(0);
             return new ArrayList<>();
         }
 
@@ -87,16 +128,18 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
         List<Project> allProjects = projectRepo.findAll();
 
         // 筛选员工可以参与的项目（不在当前项目中且技能匹配）
-        return allProjects.stream()
+        List<Project> matched = allProjects.stream()
                 .filter(project -> !isEmployeeInProject(project, empId))
                 .filter(project -> isEmployeeSkillsMatchProject(project, employeeSkills))
                 .collect(Collectors.toList());
+        event.finish(matched.size());
+        return matched;
     }
 
     /**
      * 解析技能需求字符串 "1:3,2:5" -> {1:3, 2:5}
      */
-    private Map<Integer, Integer> parseSkillRequirements(String skillStr) {
+    Map<Integer, Integer> parseSkillRequirements(String skillStr) {
         Map<Integer, Integer> skillMap = new HashMap<>();
 
         if (skillStr == null || skillStr.trim().isEmpty()) {
@@ -171,32 +214,14 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
     /**
      * 获取员工技能列表
      */
-    private List<Integer> getEmployeeSkills(Employee employee) {
+    List<Integer> getEmployeeSkills(Employee employee) {
         if (employee.getSkillList() == null || employee.getSkillList().isEmpty()) {
             return new ArrayList<>();
         }
 
+        // 旧数据的 "id"/首个值 键名兼容由读取转换器处理（见 MongoConversionConfig）
         return employee.getSkillList().stream()
-                .map(skillMap -> {
-                    // 处理 Map<String, Integer> 结构的技能列表
-                    if (skillMap.containsKey("skillId")) {
-                        return skillMap.get("skillId");
-                    } else if (skillMap.containsKey("id")) {
-                        return skillMap.get("id");
-                    } else {
-                        // 如果没有标准键名，取第一个值
-                        return skillMap.values().iterator().next();
-                    }
-                })
-                .filter(Objects::nonNull)
-                .map(obj -> {
-                    try {
-                        return Integer.parseInt(obj.toString());
-                    } catch (NumberFormatException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
+                .map(Employee.SkillLevel::getSkillId)
                 .collect(Collectors.toList());
     }
 
@@ -213,17 +238,15 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
 
         // 生成新的ID（如果需要）
         if (project.getId() == null) {
-            // 获取当前最大ID + 1
-            List<Project> allProjects = projectRepo.findAll();
-            Integer maxId = allProjects.stream()
-                    .map(Project::getId)
-                    .filter(Objects::nonNull)
-                    .max(Integer::compareTo)
-                    .orElse(0);
-            project.setId(maxId + 1);
+            // 获取当前最大ID + 1（含冷集合中的已归档项目）
+            project.setId(projectDao.maxId() + 1);
         }
 
-        return projectRepo.save(project);
+        Project saved = projectRepo.save(project);
+        changeLog.ifAvailable(writer -> writer.recordSave(null, saved));
+        employeeViewService.projectSaved(saved);
+        orgGraph.projectSaved(saved);
+        return saved;
     }
 
     @Override
@@ -245,7 +268,13 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
             }
         }
 
-        return projectRepo.save(project);
+        Project saved = projectRepo.save(project);
+        changeLog.ifAvailable(writer -> writer.recordSave(existingProject, saved));
+        if (!Objects.equals(saved.getProjName(), existingProject.getProjName())) {
+            employeeViewService.projectSaved(saved);
+        }
+        orgGraph.projectSaved(saved);
+        return saved;
     }
 
     @Override
@@ -253,42 +282,82 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
         if (projectId == null) {
             return false;
         }
+        return deleteProjectsBatch(List.of(projectId));
+    }
 
-        // 检查项目是否存在
-        if (!projectRepo.existsById(projectId)) {
+    /**
+     * 批量删除项目（集合操作，往返次数与项目数量无关）
+     * 1. Project：一次deleteMany；
+     * 2. Task：按projId一次deleteMany，避免遗留孤儿任务；
+     * 3. Employee：一次updateMulti + $pull，清理员工projects中的悬挂引用；
+     * 开启变更历史时各DAO记录被删除的项目/任务与员工projects的变化
+     */
+    @Override
+    public boolean deleteProjectsBatch(List<Integer> projectIds) {
+        if (projectIds == null || projectIds.isEmpty()) {
+            return false;
+        }
+
+        Set<Integer> ids = projectIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
             return false;
         }
 
         try {
-            projectRepo.deleteById(projectId);
-            return true;
+            long deletedProjects = projectDao.deleteByIds(ids);
+            long deletedTasks = taskDao.deleteByProjIds(ids);
+            long updatedEmployees = employeeDao.pullProjects(ids);
+            employeeViewService.projectsDeleted(ids);
+            orgGraph.projectsDeleted(ids);
+            if (updatedEmployees > 0) {
+                // updateMulti无法得知具体员工，批量删除项目属低频操作，直接清空匹配缓存
+                skillMatchCache.invalidateAll();
+            }
+            log.info("批量删除项目: 请求{}个, 删除项目{}个, 删除任务{}个, 清理员工关联{}个",
+                    ids.size(), deletedProjects, deletedTasks, updatedEmployees);
+            return deletedProjects == ids.size() && ids.size() == projectIds.size();
         } catch (Exception e) {
+            log.error("批量删除项目失败: {}", ids, e);
             return false;
         }
     }
 
     @Override
     public Project getProjectById(Integer projectId) {
+        return getProjectById(projectId, false);
+    }
+
+    @Override
+    public Project getProjectById(Integer projectId, boolean includeArchived) {
         if (projectId == null) {
             return null;
         }
-        return projectRepo.findById(projectId).orElse(null);
+        return includeArchived ? projectDao.findById(projectId, true) : projectRepo.findById(projectId).orElse(null);
     }
 
     @Override
     public Map<String, Object> getProjectWithTasks(Integer projectId) {
+        return getProjectWithTasks(projectId, false);
+    }
+
+    @Override
+    public Map<String, Object> getProjectWithTasks(Integer projectId, boolean includeArchived) {
         if (projectId == null) {
             return new HashMap<>();
         }
 
         // 获取项目信息
-        Project project = projectRepo.findById(projectId).orElse(null);
+        Project project = getProjectById(projectId, includeArchived);
         if (project == null) {
             return new HashMap<>();
         }
 
         // 获取项目任务
-        List<Task> tasks = taskRepo.findByProjId(projectId);
+        List<Task> tasks = includeArchived
+                ? taskDao.findByProjIds(List.of(projectId), true)
+                : taskRepo.findByProjId(projectId);
 
         Map<String, Object> result = new HashMap<>();
         result.put("project", project);
@@ -302,22 +371,50 @@ public class ProjectMatchServiceImpl implements ProjectMatchService {
 
     @Override
     public List<Map<String, Object>> getProjectsWithTasks(List<Project> projects) {
+        return getProjectsWithTasks(projects, false);
+    }
+
+    /**
+     * 任务按项目ID一次批量查询（含冷集合时热、冷集合各一次），按项目分组，往返次数与项目数无关
+     */
+    @Override
+    public List<Map<String, Object>> getProjectsWithTasks(List<Project> projects, boolean includeArchived) {
         if (projects == null || projects.isEmpty()) {
             return new ArrayList<>();
         }
+        Set<Integer> projIds = projects.stream().map(Project::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Integer, List<Task>> tasksByProject = taskDao.findByProjIds(projIds, includeArchived).stream()
+                .collect(Collectors.groupingBy(Task::getProjId));
 
         return projects.stream().map(project -> {
             Map<String, Object> projectWithTasks = new HashMap<>();
             projectWithTasks.put("project", project);
-
-            // 获取项目任务
-            List<Task> tasks = taskRepo.findByProjId(project.getId());
+            List<Task> tasks = tasksByProject.getOrDefault(project.getId(), List.of());
             projectWithTasks.put("tasks", tasks);
             projectWithTasks.put("taskCount", tasks.size());
             projectWithTasks.put("completedTasks", tasks.stream().filter(task -> task.getTaskStatus() == 1).count());
             projectWithTasks.put("pendingTasks", tasks.stream().filter(task -> task.getTaskStatus() == 0).count());
-
             return projectWithTasks;
         }).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Map<String, Object>> matchByEmployeeWithTasks(Integer empId) {
+        return matchByEmployeeWithTasks(empId, false);
+    }
+
+    @Override
+    public List<Map<String, Object>> matchByEmployeeWithTasks(Integer empId, boolean includeArchived) {
+        if (empId == null) {
+            return new ArrayList<>();
+        }
+        MatchEvent event = MatchEvent.begin("project-employee-tasks", null, empId);
+        // 含冷集合的查询属低频，不参与请求合并
+        List<Map<String, Object>> matched = includeArchived
+                ? getProjectsWithTasks(matchByEmployee(empId, true), true)
+                : employeeTasksInFlight.execute(empId,
+                        () -> List.copyOf(getProjectsWithTasks(matchByEmployee(empId))));
+        event.finish(matched.size());
+        return matched;
+    }
+}
@@ -1,9 +1,12 @@
 package com.murasame.smarthrm.service.impl;
 
+import com.murasame.smarthrm.cache.SkillMatchCache;
 import com.murasame.smarthrm.dao.EmployeeDao;
 import com.murasame.smarthrm.dto.SkillMatchDTO;
 import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.monitor.jfr.MatchEvent;
 import com.murasame.smarthrm.service.SkillMatchService;
+import com.murasame.smarthrm.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -13,9 +16,30 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SkillMatchServiceImpl implements SkillMatchService {
 	private final EmployeeDao employeeDAO;
+	private final SkillMatchCache skillMatchCache;
+	// 相同（归一化后）技能需求的并发查询合并为一次数据库执行
+	private final SingleFlight<String, List<Employee>> inFlight = new SingleFlight<>();
 
 	@Override
 	public List<Employee> matchBySkills(List<SkillMatchDTO> reqs){
-		return employeeDAO.findBySkillsRequired(reqs);
+		List<SkillMatchDTO> normalized = SkillMatchDTO.normalize(reqs);
+		if (normalized.isEmpty()) return List.of();
+		String key = SkillMatchDTO.toKey(normalized);
+		MatchEvent event = MatchEvent.begin("skill", key, null);
+		List<Employee> cached = skillMatchCache.get(key);
+		if (cached != null) {
+			event.cacheHit();
+			event.finish(cached.size());
+			return cached;
+		}
+
+		List<Employee> matched = inFlight.execute(key, () -> {
+			long epoch = skillMatchCache.currentEpoch();
+			List<Employee> result = List.copyOf(employeeDAO.findBySkillsRequired(normalized));
+			skillMatchCache.put(key, normalized, result, epoch);
+			return result;
+		});
+		event.finish(matched.size());
+		return matched;
 	}
 }
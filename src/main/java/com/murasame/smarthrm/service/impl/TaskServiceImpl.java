@@ -1,9 +1,13 @@
 package com.murasame.smarthrm.service.impl;
 
+import com.murasame.smarthrm.dao.TaskDao;
 import com.murasame.smarthrm.dao.TaskRepo;
 import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.history.ChangeLogWriter;
 import com.murasame.smarthrm.service.TaskService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,6 +20,9 @@ import java.util.List;
 public class TaskServiceImpl implements TaskService {
 
     private final TaskRepo taskRepo;
+    private final TaskDao taskDao;
+    private final OrgGraph orgGraph;
+    private final ObjectProvider<ChangeLogWriter> changeLog;
 
     @Override
     public List<Task> getTasksByProjectId(Integer projId) {
@@ -25,6 +32,17 @@ public class TaskServiceImpl implements TaskService {
         return taskRepo.findByProjId(projId);
     }
 
+    @Override
+    public List<Task> getTasksByProjectId(Integer projId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getTasksByProjectId(projId);
+        }
+        if (projId == null) {
+            return List.of();
+        }
+        return taskDao.findByProjIds(List.of(projId), true);
+    }
+
     @Override
     public List<Task> getTasksByProjectIdAndStatus(Integer projId, Integer taskStatus) {
         if (projId == null || taskStatus == null) {
@@ -54,14 +72,8 @@ public class TaskServiceImpl implements TaskService {
 
         // 生成新的任务ID（如果需要）
         if (task.get_id() == null) {
-            // 获取当前最大ID + 1
-            List<Task> allTasks = taskRepo.findAll();
-            Integer maxId = allTasks.stream()
-                    .map(Task::get_id)
-                    .filter(id -> id != null)
-                    .max(Integer::compareTo)
-                    .orElse(0);
-            task.set_id(maxId + 1);
+            // 获取当前最大ID + 1（含冷集合中的已归档任务）
+            task.set_id(taskDao.maxId() + 1);
         }
 
         // 设置默认状态
@@ -69,7 +81,10 @@ public class TaskServiceImpl implements TaskService {
             task.setTaskStatus(0); // 默认未完成
         }
 
-        return taskRepo.save(task);
+        Task saved = taskRepo.save(task);
+        changeLog.ifAvailable(writer -> writer.recordSave(null, saved));
+        orgGraph.taskSaved(saved);
+        return saved;
     }
 
     @Override
@@ -84,7 +99,10 @@ public class TaskServiceImpl implements TaskService {
             throw new IllegalArgumentException("任务不存在");
         }
 
-        return taskRepo.save(task);
+        Task saved = taskRepo.save(task);
+        changeLog.ifAvailable(writer -> writer.recordSave(existingTask, saved));
+        orgGraph.taskSaved(saved);
+        return saved;
     }
 
     @Override
@@ -93,13 +111,12 @@ public class TaskServiceImpl implements TaskService {
             return false;
         }
 
-        // 检查任务是否存在
-        if (!taskRepo.existsById(taskId)) {
-            return false;
-        }
-
         try {
-            taskRepo.deleteById(taskId);
+            // 任务不存在时返回false；删除与读取删除前文档为同一次findAndRemove（记录变更历史）
+            if (!taskDao.deleteById(taskId)) {
+                return false;
+            }
+            orgGraph.taskDeleted(taskId);
             return true;
         } catch (Exception e) {
             return false;
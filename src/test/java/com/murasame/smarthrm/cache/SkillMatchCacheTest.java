@@ -0,0 +1,127 @@
+package com.murasame.smarthrm.cache;
+
+import com.murasame.smarthrm.dto.SkillMatchDTO;
+import com.murasame.smarthrm.entity.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SkillMatchCache 单元测试：技能/员工反向索引失效、失效期间加载结果的丢弃、按权重的LRU淘汰、返回值与缓存隔离
+ * 权重 = 1 + 结果条数
+ */
+class SkillMatchCacheTest {
+
+    private static final String JAVA = "1:3";
+    private static final String SQL = "2:3";
+    private static final String JAVA_SQL = "1:3,2:3";
+
+    private final SkillMatchCache cache = new SkillMatchCache(100, new SimpleMeterRegistry());
+
+    @Test
+    void skillChangeInvalidatesOnlyEntriesRequiringThatSkill() {
+        put(cache, JAVA, employee(10, 1));
+        put(cache, SQL, employee(20, 2));
+        put(cache, JAVA_SQL, employee(30, 1, 2));
+
+        cache.invalidateSkills(List.of(2));
+
+        assertNotNull(cache.get(JAVA));
+        assertNull(cache.get(SQL));
+        assertNull(cache.get(JAVA_SQL));
+    }
+
+    @Test
+    void employeeChangeInvalidatesOnlyEntriesContainingThatEmployee() {
+        put(cache, JAVA, employee(10, 1), employee(11, 1));
+        put(cache, SQL, employee(20, 2));
+        put(cache, JAVA_SQL, employee(11, 1, 2));
+
+        cache.invalidateEmployees(List.of(11));
+
+        assertNull(cache.get(JAVA));
+        assertNotNull(cache.get(SQL));
+        assertNull(cache.get(JAVA_SQL));
+    }
+
+    @Test
+    void resultLoadedAcrossAnInvalidationIsDiscarded() {
+        long loadEpoch = cache.currentEpoch();
+        // 加载期间员工技能发生变化
+        cache.invalidateSkills(List.of(1));
+        cache.put(JAVA, SkillMatchDTO.fromString(JAVA), List.of(employee(10, 1)), loadEpoch);
+
+        assertNull(cache.get(JAVA));
+
+        put(cache, JAVA, employee(10, 1));
+        assertNotNull(cache.get(JAVA));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedByWeight() {
+        SkillMatchCache small = new SkillMatchCache(6, new SimpleMeterRegistry());
+        put(small, JAVA, employee(10, 1), employee(11, 1));
+        put(small, SQL, employee(20, 2), employee(21, 2));
+        // 访问后JAVA成为最近使用，SQL最久未使用
+        small.get(JAVA);
+
+        put(small, JAVA_SQL, employee(30, 1, 2), employee(31, 1, 2));
+
+        assertNotNull(small.get(JAVA));
+        assertNull(small.get(SQL));
+        assertNotNull(small.get(JAVA_SQL));
+    }
+
+    @Test
+    void resultHeavierThanCapacityIsNotCached() {
+        SkillMatchCache small = new SkillMatchCache(2, new SimpleMeterRegistry());
+        put(small, JAVA, employee(10, 1));
+        put(small, SQL, employee(20, 2), employee(21, 2));
+
+        assertNotNull(small.get(JAVA));
+        assertNull(small.get(SQL));
+    }
+
+    @Test
+    void returnedResultIsAnUnmodifiableCopy() {
+        List<Employee> loaded = new ArrayList<>(List.of(employee(10, 1)));
+        put(cache, JAVA, loaded.toArray(Employee[]::new));
+        // 写入后修改原结果不影响缓存
+        loaded.get(0).setEmpName("changed");
+
+        List<Employee> first = cache.get(JAVA);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(employee(11, 1)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.get(0).getSkillList().add(new Employee.SkillLevel(9, 5)));
+        first.get(0).setDepId(99);
+
+        Employee cached = cache.get(JAVA).get(0);
+        assertEquals("emp10", cached.getEmpName());
+        assertEquals(1, cached.getDepId());
+        assertEquals(1, cached.getSkillList().size());
+    }
+
+    private static void put(SkillMatchCache cache, String key, Employee... result) {
+        cache.put(key, SkillMatchDTO.fromString(key), List.of(result), cache.currentEpoch());
+    }
+
+    private static Employee employee(int id, int... skillIds) {
+        Employee employee = new Employee();
+        employee.set_id(id);
+        employee.setEmpName("emp" + id);
+        employee.setDepId(1);
+        List<Employee.SkillLevel> skills = new ArrayList<>();
+        for (int skillId : skillIds) {
+            skills.add(new Employee.SkillLevel(skillId, 3));
+        }
+        employee.setSkillList(skills);
+        return employee;
+    }
+}
@@ -0,0 +1,57 @@
+package com.murasame.smarthrm.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 准入控制测试：过滤器排在Spring Security之后，同一IP后的不同认证用户使用各自的令牌桶
+ */
+@SpringBootTest(properties = {
+        "smarthrm.admission.rules[0].name=test",
+        "smarthrm.admission.rules[0].method=GET",
+        "smarthrm.admission.rules[0].path=/skillmatch/",
+        "smarthrm.admission.rules[0].rate-per-second=0.01",
+        "smarthrm.admission.rules[0].burst=1"
+})
+@AutoConfigureMockMvc
+class AdmissionControlFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void usersBehindOneIpGetSeparateBuckets() throws Exception {
+        MockHttpSession alice = sessionOf("alice");
+        MockHttpSession bob = sessionOf("bob");
+
+        // 三个请求的远端IP相同（MockMvc默认127.0.0.1），桶容量为1
+        mockMvc.perform(get("/skillmatch/").session(alice))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/skillmatch/").session(alice))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(get("/skillmatch/").session(bob))
+                .andExpect(status().isOk());
+    }
+
+    // 认证信息放入会话，由Spring Security过滤链加载并暴露为请求的用户主体
+    private static MockHttpSession sessionOf(String username) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                        username, "n/a", AuthorityUtils.createAuthorityList("ROLE_USER"))));
+        return session;
+    }
+}
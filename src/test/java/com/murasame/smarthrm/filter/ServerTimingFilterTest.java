@@ -0,0 +1,63 @@
+package com.murasame.smarthrm.filter;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Server-Timing响应头测试：视图接口的响应头包含渲染阶段；响应体超过缓冲上限时响应头提前发出、响应体完整
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServerTimingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void viewResponseHeaderIncludesRenderPhase() throws Exception {
+        mockMvc.perform(get("/skillmatch/"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, containsString("service;dur=")))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, containsString("render;dur=")))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, containsString("total;dur=")));
+    }
+
+    @Test
+    void bodyLargerThanBufferIsWrittenThroughWithEarlyHeader() throws Exception {
+        String body = "x".repeat(64);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setCharacterEncoding("UTF-8");
+                resp.getWriter().write(body);
+                resp.getWriter().flush();
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/large");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ServerTimingFilter(16).doFilter(request, response, new MockFilterChain(servlet));
+
+        // 超出缓冲时响应头在写出响应体前发出，响应体原样直接写出
+        assertNotNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+        assertEquals(body, response.getContentAsString());
+    }
+}
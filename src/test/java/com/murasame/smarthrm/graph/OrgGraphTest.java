@@ -0,0 +1,160 @@
+package com.murasame.smarthrm.graph;
+
+import com.murasame.smarthrm.config.OrgGraphProperties;
+import com.murasame.smarthrm.entity.Project;
+import com.murasame.smarthrm.entity.Task;
+import com.murasame.smarthrm.entity.Training;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * OrgGraph 增量维护单元测试（只调用不访问数据库的写路径方法）
+ */
+class OrgGraphTest {
+
+    private static OrgGraph graph(boolean enabled) {
+        OrgGraphProperties properties = new OrgGraphProperties();
+        properties.setEnabled(enabled);
+        return new OrgGraph(null, null, null, null, null, properties);
+    }
+
+    private static Project project(int id, Integer... empIds) {
+        Project project = new Project();
+        project.setId(id);
+        project.setMembers(Arrays.stream(empIds).map(empId -> {
+            Project.Member member = new Project.Member();
+            member.setEmpId(empId);
+            return member;
+        }).toList());
+        return project;
+    }
+
+    private static Task task(int id, Integer projId, Integer managerId) {
+        Task task = new Task();
+        task.set_id(id);
+        task.setProjId(projId);
+        task.setManagerId(managerId);
+        return task;
+    }
+
+    @Test
+    void startsEmptyUntilBuilt() {
+        OrgGraph graph = graph(true);
+        EmployeeRelations relations = graph.employee(1);
+
+        assertNull(relations.getDepId());
+        assertArrayEquals(new int[0], relations.getProjects());
+        assertFalse((Boolean) graph.stats().get("ready"));
+    }
+
+    @Test
+    void departmentChangesMoveEmployees() {
+        OrgGraph graph = graph(true);
+        graph.departmentChanged(10, List.of(1, 2, 3), List.of());
+        graph.departmentChanged(20, List.of(3), List.of());
+
+        assertArrayEquals(new int[]{1, 2}, graph.departmentMembers(10));
+        assertArrayEquals(new int[]{3}, graph.departmentMembers(20));
+        assertEquals(20, graph.employee(3).getDepId());
+        assertArrayEquals(new int[]{2}, graph.employee(1).getDepartmentPeers());
+
+        graph.departmentChanged(10, List.of(), List.of(2));
+        assertArrayEquals(new int[]{1}, graph.departmentMembers(10));
+        assertNull(graph.employee(2).getDepId());
+
+        graph.departmentDeleted(10);
+        assertArrayEquals(new int[0], graph.departmentMembers(10));
+        assertNull(graph.employee(1).getDepId());
+    }
+
+    @Test
+    void projectsTrainingsAndTasksAreMaintained() {
+        OrgGraph graph = graph(true);
+        graph.projectSaved(project(100, 1, 2));
+        graph.projectSaved(project(200, 2, 3));
+        Training training = new Training();
+        training.set_id(300);
+        training.setMembers(List.of(1));
+        graph.trainingSaved(training);
+        graph.taskSaved(task(1000, 100, 1));
+        graph.taskSaved(task(1001, 100, 2));
+
+        EmployeeRelations second = graph.employee(2);
+        assertArrayEquals(new int[]{100, 200}, second.getProjects());
+        assertArrayEquals(new int[]{1, 3}, second.getProjectColleagues());
+        assertArrayEquals(new int[]{1001}, second.getManagedTasks());
+        assertArrayEquals(new int[]{300}, graph.employee(1).getTrainings());
+        assertArrayEquals(new int[]{1000, 1001}, graph.projectTasks(100));
+
+        // 重设成员：2 移出项目100
+        graph.projectSaved(project(100, 1));
+        assertArrayEquals(new int[]{1}, graph.projectMembers(100));
+        assertArrayEquals(new int[]{3}, graph.employee(2).getProjectColleagues());
+
+        // 任务换负责人
+        graph.taskSaved(task(1001, 100, 1));
+        assertArrayEquals(new int[]{1000, 1001}, graph.employee(1).getManagedTasks());
+        assertArrayEquals(new int[0], graph.employee(2).getManagedTasks());
+
+        graph.projectsDeleted(List.of(100));
+        assertArrayEquals(new int[0], graph.projectMembers(100));
+        assertArrayEquals(new int[0], graph.projectTasks(100));
+        assertArrayEquals(new int[0], graph.employee(1).getManagedTasks());
+
+        graph.trainingDeleted(300);
+        assertArrayEquals(new int[0], graph.trainingMembers(300));
+    }
+
+    @Test
+    void removeEmployeeClearsAllRelations() {
+        OrgGraph graph = graph(true);
+        graph.departmentChanged(10, List.of(1, 2), List.of());
+        graph.projectSaved(project(100, 1, 2));
+        graph.taskSaved(task(1000, 100, 1));
+
+        graph.removeEmployee(1);
+
+        assertArrayEquals(new int[]{2}, graph.departmentMembers(10));
+        assertArrayEquals(new int[]{2}, graph.projectMembers(100));
+        assertArrayEquals(new int[0], graph.employee(1).getManagedTasks());
+        // 任务仍属于项目，只是没有负责人
+        assertArrayEquals(new int[]{1000}, graph.projectTasks(100));
+    }
+
+    @Test
+    void earlierResultsAreNotAffectedByLaterWrites() {
+        OrgGraph graph = graph(true);
+        graph.projectSaved(project(100, 1, 2));
+        EmployeeRelations before = graph.employee(1);
+        int[] members = graph.projectMembers(100);
+
+        graph.projectSaved(project(100, 1, 3));
+
+        assertArrayEquals(new int[]{2}, before.getProjectColleagues());
+        assertArrayEquals(new int[]{1, 2}, members);
+        assertArrayEquals(new int[]{3}, graph.employee(1).getProjectColleagues());
+        assertEquals(before.getVersion() + 1, graph.employee(1).getVersion());
+    }
+
+    @Test
+    void disabledGraphIgnoresWrites() {
+        OrgGraph graph = graph(false);
+        graph.departmentChanged(10, List.of(1), List.of());
+        graph.projectSaved(project(100, 1));
+
+        assertArrayEquals(new int[0], graph.departmentMembers(10));
+        assertArrayEquals(new int[0], graph.projectMembers(100));
+        assertFalse(graph.supports("Employee"));
+        Map<String, Object> stats = graph.rebuild();
+        assertFalse((Boolean) stats.get("enabled"));
+        assertEquals(0L, stats.get("version"));
+    }
+}
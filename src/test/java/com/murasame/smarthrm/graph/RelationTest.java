@@ -0,0 +1,146 @@
+package com.murasame.smarthrm.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IntMultiMap / Relation 单元测试：有序去重、双向同步，以及 copy() 之后新旧副本互不影响
+ */
+class RelationTest {
+
+    @Test
+    void multiMapKeepsValuesSortedAndDistinct() {
+        IntMultiMap map = new IntMultiMap(0);
+        assertTrue(map.add(1, 30));
+        assertTrue(map.add(1, 10));
+        assertTrue(map.add(1, 20));
+        assertFalse(map.add(1, 20));
+
+        assertArrayEquals(new int[]{10, 20, 30}, map.get(1));
+        assertEquals(1, map.keyCount());
+        assertEquals(3, map.edgeCount());
+
+        assertTrue(map.remove(1, 20));
+        assertFalse(map.remove(1, 20));
+        assertArrayEquals(new int[]{10, 30}, map.get(1));
+        assertEquals(2, map.edgeCount());
+    }
+
+    @Test
+    void multiMapDropsKeyWithLastValueAndSurvivesRehash() {
+        IntMultiMap map = new IntMultiMap(0);
+        for (int key = 1; key <= 1000; key++) {
+            map.add(key, key * 2);
+        }
+        assertEquals(1000, map.keyCount());
+        for (int key = 1; key <= 1000; key += 2) {
+            assertTrue(map.remove(key, key * 2));
+        }
+        assertEquals(500, map.keyCount());
+        assertEquals(500, map.edgeCount());
+        for (int key = 1; key <= 1000; key++) {
+            assertArrayEquals(key % 2 == 0 ? new int[]{key * 2} : IntMultiMap.EMPTY, map.get(key));
+        }
+    }
+
+    @Test
+    void multiMapCopyIsIsolated() {
+        IntMultiMap original = new IntMultiMap(4);
+        original.add(1, 10);
+        original.add(2, 20);
+
+        IntMultiMap copy = original.copy();
+        copy.add(1, 11);
+        copy.remove(2, 20);
+        copy.add(3, 30);
+
+        assertArrayEquals(new int[]{10}, original.get(1));
+        assertArrayEquals(new int[]{20}, original.get(2));
+        assertArrayEquals(IntMultiMap.EMPTY, original.get(3));
+        assertEquals(2, original.keyCount());
+        assertEquals(2, original.edgeCount());
+
+        assertArrayEquals(new int[]{10, 11}, copy.get(1));
+        assertArrayEquals(IntMultiMap.EMPTY, copy.get(2));
+        assertArrayEquals(new int[]{30}, copy.get(3));
+        assertEquals(2, copy.keyCount());
+        assertEquals(3, copy.edgeCount());
+    }
+
+    @Test
+    void linkAndUnlinkKeepBothDirectionsInSync() {
+        Relation relation = new Relation(false, 4, 4);
+        relation.link(1, 100);
+        relation.link(2, 100);
+        relation.link(1, 200);
+
+        assertArrayEquals(new int[]{100, 200}, relation.targets(1));
+        assertArrayEquals(new int[]{1, 2}, relation.sources(100));
+        assertEquals(3, relation.edgeCount());
+
+        relation.unlink(1, 100);
+        assertArrayEquals(new int[]{200}, relation.targets(1));
+        assertArrayEquals(new int[]{2}, relation.sources(100));
+        assertEquals(2, relation.edgeCount());
+    }
+
+    @Test
+    void singleRelationReplacesPreviousTarget() {
+        Relation relation = new Relation(true, 4, 4);
+        relation.link(1, 100);
+        relation.link(1, 200);
+
+        assertEquals(200, relation.target(1));
+        assertArrayEquals(IntMultiMap.EMPTY, relation.sources(100));
+        assertArrayEquals(new int[]{1}, relation.sources(200));
+        assertNull(relation.target(2));
+    }
+
+    @Test
+    void setTargetsAndSourcesReplaceWholeSet() {
+        Relation relation = new Relation(false, 4, 4);
+        relation.setTargets(1, new int[]{100, 200});
+        relation.setTargets(1, new int[]{200, 300});
+        assertArrayEquals(new int[]{200, 300}, relation.targets(1));
+        assertArrayEquals(IntMultiMap.EMPTY, relation.sources(100));
+
+        relation.setSources(200, new int[]{2, 3});
+        assertArrayEquals(new int[]{300}, relation.targets(1));
+        assertArrayEquals(new int[]{200}, relation.targets(2));
+        assertArrayEquals(new int[]{2, 3}, relation.sources(200));
+
+        relation.removeTarget(200);
+        assertArrayEquals(IntMultiMap.EMPTY, relation.targets(2));
+        relation.removeSource(1);
+        assertEquals(0, relation.edgeCount());
+    }
+
+    @Test
+    void copyIsIsolatedFromLinkUnlinkAndSetTargets() {
+        Relation original = new Relation(false, 4, 4);
+        original.link(1, 100);
+        original.link(2, 100);
+        int[] before = original.sources(100);
+
+        Relation copy = original.copy();
+        copy.unlink(2, 100);
+        copy.link(3, 100);
+        copy.setTargets(1, new int[]{200});
+
+        assertArrayEquals(new int[]{1, 2}, original.sources(100));
+        assertArrayEquals(new int[]{100}, original.targets(1));
+        assertArrayEquals(IntMultiMap.EMPTY, original.sources(200));
+        assertEquals(2, original.edgeCount());
+        // 发布后的值数组不被原地修改
+        assertArrayEquals(new int[]{1, 2}, before);
+
+        assertArrayEquals(new int[]{3}, copy.sources(100));
+        assertArrayEquals(new int[]{200}, copy.targets(1));
+        assertEquals(2, copy.edgeCount());
+    }
+}
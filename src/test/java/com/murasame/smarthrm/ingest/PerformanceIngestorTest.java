@@ -0,0 +1,185 @@
+package com.murasame.smarthrm.ingest;
+
+import com.murasame.smarthrm.config.PerformanceProperties;
+import com.murasame.smarthrm.dao.PerformanceDao;
+import com.murasame.smarthrm.dao.PerformanceIngestDao;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.entity.PerformanceIngestBatch;
+import com.murasame.smarthrm.service.PerformanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PerformanceIngestor 单元测试：重复提交、写入失败批次的重写（先清除再写入、按库重算汇总，写入数不重复计）、队列满时BUSY
+ * 写入线程只在需要写库的用例中启动
+ */
+class PerformanceIngestorTest {
+
+    private PerformanceService performanceService;
+    private PerformanceDao performanceDao;
+    private PerformanceIngestDao ingestDao;
+    private PerformanceProperties properties;
+    private SimpleMeterRegistry registry;
+    private PerformanceIngestor ingestor;
+
+    @BeforeEach
+    void setUp() {
+        performanceService = mock(PerformanceService.class);
+        performanceDao = mock(PerformanceDao.class);
+        ingestDao = mock(PerformanceIngestDao.class);
+        properties = new PerformanceProperties();
+        properties.getIngest().setQueueCapacity(4);
+        properties.getIngest().setAcceptTimeout(Duration.ofMillis(10));
+        properties.getIngest().setFlushInterval(Duration.ofMillis(10));
+        properties.getIngest().setRetryBackoff(Duration.ofMillis(10));
+        properties.getIngest().setMaxAttempts(3);
+        registry = new SimpleMeterRegistry();
+        ingestor = new PerformanceIngestor(performanceService, performanceDao, ingestDao, properties, registry);
+        when(performanceService.ingest(any())).thenReturn(Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestor.shutdown();
+    }
+
+    @Test
+    void duplicateSubmitReturnsExistingBatch() {
+        when(ingestDao.claim(any())).thenReturn(true);
+        PerformanceIngestor.Result first = ingestor.submit("b1", points(2));
+        // 本节点尚未写完：不再登记
+        PerformanceIngestor.Result inFlight = ingestor.submit("b1", points(2));
+
+        assertEquals(PerformanceIngestor.Outcome.ACCEPTED, first.outcome());
+        assertEquals(PerformanceIngestor.Outcome.DUPLICATE, inFlight.outcome());
+        verify(ingestDao, times(1)).claim(any());
+
+        // 其他节点已写完的批次：返回已有记录，不占用队列容量
+        PerformanceIngestBatch written = batch("b2", PerformanceIngestBatch.WRITTEN);
+        when(ingestDao.claim(any())).thenReturn(false);
+        when(ingestDao.findById("b2")).thenReturn(written);
+        PerformanceIngestor.Result done = ingestor.submit("b2", points(2));
+
+        assertEquals(PerformanceIngestor.Outcome.DUPLICATE, done.outcome());
+        assertSame(written, done.batch());
+        verify(ingestDao, never()).reclaim(any(), anyString(), anyInt(), any());
+        assertEquals(2, ingestor.stats().get("queuedPoints"));
+        assertEquals(2L, ingestor.stats().get("duplicateBatches"));
+    }
+
+    @Test
+    void retriedFailedBatchIsRewrittenAndRollupsRecomputed() {
+        PerformanceIngestBatch failed = batch("b1", PerformanceIngestBatch.FAILED);
+        when(ingestDao.claim(any())).thenReturn(false);
+        when(ingestDao.findById("b1")).thenReturn(failed);
+        when(ingestDao.reclaim(eq(failed), anyString(), eq(3), any())).thenReturn(true);
+        List<Performance> points = points(3);
+
+        assertEquals(PerformanceIngestor.Outcome.ACCEPTED, ingestor.submit("b1", points).outcome());
+        ingestor.onApplicationReady();
+
+        PerformanceIngestBatch completed = awaitCompleted();
+        // 先清除上次部分写入的点，写入后按库中测评点重算汇总，不在旧增量上再累加
+        InOrder order = inOrder(performanceDao, performanceService);
+        order.verify(performanceDao).deleteByBatchIds(List.of("b1"));
+        order.verify(performanceService).ingest(points);
+        order.verify(performanceDao).recomputeRollups(points);
+        assertEquals(PerformanceIngestBatch.WRITTEN, completed.getStatus());
+        assertEquals(3, completed.getWritten());
+        assertEquals(3L, ingestor.stats().get("writtenPoints"));
+    }
+
+    @Test
+    void failedWriteIsRetriedAsRewrite() {
+        when(ingestDao.claim(any())).thenReturn(true);
+        List<Performance> points = points(2);
+        when(performanceService.ingest(points))
+                .thenThrow(new IllegalStateException("write timeout"))
+                .thenReturn(Set.of());
+
+        ingestor.submit("b1", points);
+        ingestor.onApplicationReady();
+
+        PerformanceIngestBatch completed = awaitCompleted();
+        // 首次写入的新批次无需清除；失败后整批重写：清除可能部分写入的点并重算汇总
+        InOrder order = inOrder(performanceDao, performanceService);
+        order.verify(performanceDao).deleteByBatchIds(List.of());
+        order.verify(performanceService).ingest(points);
+        order.verify(performanceDao).deleteByBatchIds(List.of("b1"));
+        order.verify(performanceService).ingest(points);
+        order.verify(performanceDao).recomputeRollups(points);
+        assertEquals(PerformanceIngestBatch.WRITTEN, completed.getStatus());
+        assertEquals(2, completed.getWritten());
+        assertEquals(2L, ingestor.stats().get("writtenPoints"));
+        assertEquals(0L, ingestor.stats().get("failedPoints"));
+    }
+
+    @Test
+    void busyWhenQueueIsFull() {
+        when(ingestDao.claim(any())).thenReturn(true);
+        assertEquals(PerformanceIngestor.Outcome.ACCEPTED, ingestor.submit("b1", points(3)).outcome());
+
+        PerformanceIngestor.Result busy = ingestor.submit("b2", points(2));
+
+        assertEquals(PerformanceIngestor.Outcome.BUSY, busy.outcome());
+        assertNull(busy.batch());
+        verify(ingestDao, times(1)).claim(any());
+        assertEquals(3, ingestor.stats().get("queuedPoints"));
+        assertEquals(1L, ingestor.stats().get("busyBatches"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private PerformanceIngestBatch awaitCompleted() {
+        ArgumentCaptor<Collection<PerformanceIngestBatch>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(ingestDao, timeout(5000)).complete(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        return captor.getValue().iterator().next();
+    }
+
+    private static PerformanceIngestBatch batch(String id, String status) {
+        PerformanceIngestBatch batch = new PerformanceIngestBatch();
+        batch.set_id(id);
+        batch.setStatus(status);
+        batch.setNode("other-node");
+        batch.setAcceptedAt(LocalDateTime.now().minusMinutes(1));
+        return batch;
+    }
+
+    private static List<Performance> points(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, count).mapToObj(i -> {
+            Performance point = new Performance();
+            point.setEmpId(i + 1);
+            point.setDepId(1);
+            point.setPoint(80);
+            point.setTestTime(now.minusHours(i));
+            return point;
+        }).toList();
+    }
+}
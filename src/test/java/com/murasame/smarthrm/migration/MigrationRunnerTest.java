@@ -0,0 +1,166 @@
+package com.murasame.smarthrm.migration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.murasame.smarthrm.config.MigrationProperties;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * MigrationRunner 集成测试（Testcontainers MongoDB，无Docker时跳过）：
+ * 崩溃后从检查点续跑；租约被其他实例持有时不抢占，租约过期后接管
+ * 员工技能项为旧格式 {id, proficiency}，由 V1NormalizeEmployeeSkillKeys 改写为 {skillId, proficiency}
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationRunnerTest {
+
+    private static final int VERSION = 1;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+
+    private MongoTemplate mongoTemplate;
+    private final List<MigrationRunner> runners = new ArrayList<>();
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(mongo.getConnectionString());
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(client, "migration_test");
+        mongoTemplate.getDb().drop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runners.forEach(MigrationRunner::shutdown);
+    }
+
+    @Test
+    void resumesAfterCheckpointOfCrashedRun() throws InterruptedException {
+        insertLegacyEmployees(10);
+        // 上次执行在处理完 _id ≤ 5 后崩溃：租约已过期，检查点为5
+        MigrationState crashed = state(MigrationState.Status.RUNNING, "crashed-node", Instant.now().minusSeconds(60));
+        crashed.setLastId(5);
+        crashed.setScanned(5);
+        crashed.setModified(5);
+        mongoTemplate.insert(crashed);
+
+        start(Duration.ofSeconds(60));
+        MigrationState done = awaitCompleted(Duration.ofSeconds(30));
+
+        assertEquals(10, done.getScanned());
+        assertEquals(10, done.getModified());
+        assertNull(done.getOwner());
+        // 检查点之前的文档不再读取（此处特意保留旧格式以验证），之后的全部改写
+        for (int id = 1; id <= 10; id++) {
+            assertEquals(id > 5, migrated(id), "员工 " + id);
+        }
+    }
+
+    @Test
+    void leaseHeldByAnotherInstanceIsNotTaken() throws InterruptedException {
+        insertLegacyEmployees(4);
+        mongoTemplate.insert(state(MigrationState.Status.RUNNING, "other-node", Instant.now().plusSeconds(3600)));
+
+        // 租约2秒：等待租约时每秒重试一次
+        start(Duration.ofSeconds(2));
+        Thread.sleep(2500);
+
+        MigrationState held = mongoTemplate.findById(VERSION, MigrationState.class);
+        assertEquals("other-node", held.getOwner());
+        assertEquals(MigrationState.Status.RUNNING, held.getStatus());
+        assertEquals(0, held.getScanned());
+        for (int id = 1; id <= 4; id++) {
+            assertFalse(migrated(id), "员工 " + id);
+        }
+
+        // 持有者崩溃、租约过期后由本实例接管
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(VERSION)),
+                new Update().set("leaseUntil", Instant.now().minusSeconds(1)), MigrationState.class);
+        MigrationState done = awaitCompleted(Duration.ofSeconds(30));
+        assertEquals(4, done.getScanned());
+        for (int id = 1; id <= 4; id++) {
+            assertTrue(migrated(id), "员工 " + id);
+        }
+    }
+
+    private void start(Duration lease) {
+        MigrationProperties properties = new MigrationProperties();
+        properties.setBatchSize(2);
+        properties.setMaxDocsPerSecond(0);
+        properties.setLease(lease);
+        MigrationRunner runner = new MigrationRunner(mongoTemplate, List.of(new V1NormalizeEmployeeSkillKeys()), properties);
+        runners.add(runner);
+        runner.onApplicationReady();
+    }
+
+    private MigrationState awaitCompleted(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            MigrationState state = mongoTemplate.findById(VERSION, MigrationState.class);
+            if (state != null && state.getStatus() == MigrationState.Status.COMPLETED) {
+                return state;
+            }
+            Thread.sleep(100);
+        }
+        fail("迁移 V" + VERSION + " 未在 " + timeout + " 内完成");
+        return null;
+    }
+
+    private void insertLegacyEmployees(int count) {
+        for (int id = 1; id <= count; id++) {
+            mongoTemplate.getCollection("Employee").insertOne(new Document("_id", id)
+                    .append("empName", "emp" + id)
+                    .append("skillList", List.of(new Document("id", id).append("proficiency", 3))));
+        }
+    }
+
+    private boolean migrated(int id) {
+        Document employee = mongoTemplate.getCollection("Employee").find(new Document("_id", id)).first();
+        Document skill = (Document) employee.getList("skillList", Object.class).get(0);
+        return skill.containsKey("skillId");
+    }
+
+    private static MigrationState state(MigrationState.Status status, String owner, Instant leaseUntil) {
+        MigrationState state = new MigrationState();
+        state.setVersion(VERSION);
+        state.setDescription("test");
+        state.setCollection("Employee");
+        state.setStatus(status);
+        state.setOwner(owner);
+        state.setLeaseUntil(leaseUntil);
+        return state;
+    }
+}
@@ -0,0 +1,71 @@
+package com.murasame.smarthrm.migration;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * V1NormalizeEmployeeSkillKeys.migrate 单元测试：键名统一、重复技能保留第一项、无法解析的项原样保留、重放结果不变
+ */
+class V1NormalizeEmployeeSkillKeysTest {
+
+    private final V1NormalizeEmployeeSkillKeys migration = new V1NormalizeEmployeeSkillKeys();
+
+    @Test
+    void unresolvedEntriesAreLeftUntouched() {
+        Document named = new Document("name", "java").append("proficiency", 2);
+        Document empty = new Document();
+        List<Object> skillList = List.of(
+                new Document("id", 3).append("proficiency", 4),
+                named,
+                "legacy",
+                empty);
+
+        List<Object> migrated = skillList(migration.migrate(employee(skillList)));
+
+        assertEquals(4, migrated.size());
+        assertEquals(new Document("skillId", 3).append("proficiency", 4), migrated.get(0));
+        assertSame(named, migrated.get(1));
+        assertEquals("legacy", migrated.get(2));
+        assertSame(empty, migrated.get(3));
+        assertEquals(new Document("name", "java").append("proficiency", 2), named);
+    }
+
+    @Test
+    void duplicateSkillKeepsFirstEntry() {
+        List<Object> migrated = skillList(migration.migrate(employee(List.of(
+                new Document("id", 3).append("proficiency", 4),
+                new Document("skillId", "3").append("proficiency", 5),
+                new Document("code", 7)))));
+
+        assertEquals(List.of(
+                new Document("skillId", 3).append("proficiency", 4),
+                new Document("skillId", 7).append("proficiency", 0)), migrated);
+    }
+
+    @Test
+    void replayingMigratedDocumentIsIdempotent() {
+        List<Object> once = skillList(migration.migrate(employee(List.of(
+                new Document("id", 3).append("proficiency", 4),
+                new Document("name", "java")))));
+
+        List<Object> twice = skillList(migration.migrate(employee(once)));
+
+        assertEquals(once, twice);
+        assertNull(migration.migrate(new Document("_id", 1)));
+    }
+
+    private static Document employee(List<?> skillList) {
+        return new Document("_id", 1).append("skillList", skillList);
+    }
+
+    private static List<Object> skillList(Update update) {
+        return update.getUpdateObject().get("$set", Document.class).getList("skillList", Object.class);
+    }
+}
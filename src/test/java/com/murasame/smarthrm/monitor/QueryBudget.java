@@ -0,0 +1,59 @@
+package com.murasame.smarthrm.monitor;
+
+import com.murasame.smarthrm.filter.MongoRequestStatsFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * 测试用Mongo往返预算断言
+ * 两种用法：
+ * <pre>
+ * // 1. 包住任意代码（服务层调用或MockMvc请求），统计期间本线程发出的全部命令
+ * QueryBudget.assertAtMost(4, () -> mockMvc.perform(get("/departments/")));
+ *
+ * // 2. 基于响应头断言单个请求（需启用MongoRequestStatsFilter）
+ * mockMvc.perform(get("/employees/")).andExpect(QueryBudget.maxCommands(4));
+ * </pre>
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    /**
+     * 执行代码块并断言期间发出的Mongo命令数不超过预算
+     * @param maxCommands 命令数上限
+     * @param action 被测代码
+     * @return 代码块返回值
+     */
+    public static <T> T assertAtMost(int maxCommands, ThrowingSupplier<T> action) throws Exception {
+        try (MongoRequestStats.Scope scope = MongoRequestStats.open()) {
+            T result = action.get();
+            if (scope.getCommands() > maxCommands) {
+                throw new AssertionError("Mongo命令数超出预算：期望至多 " + maxCommands + " 次，实际 "
+                        + scope.getCommands() + " 次，明细：" + scope.getCommandsByCaller());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 响应头X-Mongo-Commands不超过预算
+     */
+    public static ResultMatcher maxCommands(int maxCommands) {
+        return result -> {
+            String header = result.getResponse().getHeader(MongoRequestStatsFilter.COMMANDS_HEADER);
+            if (header == null) {
+                throw new AssertionError("响应缺少 " + MongoRequestStatsFilter.COMMANDS_HEADER + " 头，请确认已启用请求统计过滤器");
+            }
+            int commands = Integer.parseInt(header);
+            if (commands > maxCommands) {
+                throw new AssertionError("Mongo命令数超出预算：期望至多 " + maxCommands + " 次，实际 " + commands + " 次");
+            }
+        };
+    }
+}
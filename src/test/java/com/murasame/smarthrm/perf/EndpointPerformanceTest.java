@@ -0,0 +1,406 @@
+package com.murasame.smarthrm.perf;
+
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import com.murasame.smarthrm.entity.Department;
+import com.murasame.smarthrm.entity.Employee;
+import com.murasame.smarthrm.entity.Performance;
+import com.murasame.smarthrm.monitor.MongoRequestStats;
+import com.murasame.smarthrm.graph.OrgGraph;
+import com.murasame.smarthrm.service.EmployeeViewService;
+import com.murasame.smarthrm.service.PerformanceService;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 接口性能回归测试
+ * 在Testcontainers启动的MongoDB中灌入固定种子的合成数据，逐个调用接口，
+ * 按 src/test/resources/perf-budgets.properties 中的预算断言：
+ * - p95-ms：请求延迟p95（毫秒）；
+ * - max-commands：单次请求Mongo命令数上限（含getMore）；
+ * - alloc-bytes：单次请求在请求线程上分配的字节数（中位数）
+ * 员工/部门编辑接口按数据集中的当前状态原样提交，数据不变、各轮往返次数一致，排在只读接口之后；
+ * 新增/删除接口会改变数据集规模（其他接口的预算与之绑定），不在此测量；默认构建跳过，mvn -Pperf test 运行，
+ * 没有可用的Docker时容器无法启动，测试失败而不是跳过。
+ * 绩效与变更历史不在合成数据集中：绩效测评点经 PerformanceService 写入（每人每天一个，共 PERFORMANCE_DAYS 天），
+ * 员工/部门在 HISTORY_START 各有一条创建记录与快照（与 ChangeLogWriter 首次写入一致）
+ */
+@Tag("perf")
+@SpringBootTest(properties = {
+        "smarthrm.admission.enabled=false",
+        "smarthrm.slow-query.explain-enabled=false",
+        // 测量期间参考数据缓存不过期，命令数预算保持确定
+        "smarthrm.cache-invalidation.reference-ttl=1h",
+        // 数据集中含已归档项目，测量期间不移入冷集合
+        "smarthrm.archive.enabled=false"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+class EndpointPerformanceTest {
+
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 40;
+    // 记录模式下写出的预算 = 实测值 × 余量
+    private static final double RECORD_HEADROOM = 1.25;
+
+    // 数据集规模固定，预算与之绑定
+    static final OrgDataGenerator.Config DATASET =
+            new OrgDataGenerator.Config(2000, 20, 200, 6, 50, 60, 1.1, 42L);
+    static final int PERFORMANCE_DAYS = 30;
+    // 变更历史起点：按时间点查询取起点与当前之间
+    static final LocalDateTime HISTORY_START = LocalDateTime.now().minusDays(60).truncatedTo(ChronoUnit.MILLIS);
+    static final String HISTORY_AT = HISTORY_START.plusDays(30).toString();
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static boolean seeded;
+    // 已写入的数据集，编辑接口据此构造原样提交的表单
+    private static OrgDataGenerator.OrgDataset dataset;
+    private static final Properties measured = new Properties();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EmployeeViewService employeeViewService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private PerformanceService performanceService;
+
+    @Autowired
+    private ChangeLogDao changeLogDao;
+
+    /**
+     * 被测接口：按迭代序号构造请求（需要时轮换参数以避开结果缓存）
+     */
+    record Endpoint(String name, IntFunction<MockHttpServletRequestBuilder> request) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static List<Endpoint> endpoints() {
+        return List.of(
+                // EmployeeController
+                new Endpoint("employees-list", i -> get("/employees/").param("pageNum", String.valueOf(1 + i % 20))),
+                new Endpoint("employees-search", i -> get("/employees/").param("empName", "员工" + (1 + i % 9))),
+                new Endpoint("employees-add-form", i -> get("/employees/add")),
+                new Endpoint("employees-mod-form", i -> get("/employees/mod").param("id", String.valueOf(1 + i * 37 % 2000))),
+                // DepartmentController
+                new Endpoint("departments-list", i -> get("/departments/")),
+                new Endpoint("departments-all", i -> get("/departments/").param("pageSize", "-1")),
+                new Endpoint("departments-mod-form", i -> get("/departments/mod").param("id", String.valueOf(1 + i % 20))),
+                // SkillMatchController
+                new Endpoint("skillmatch", i -> post("/skillmatch/")
+                        .param("requiredSkills", (1 + i % 20) + ":" + (1 + i / 20 % 5))),
+                new Endpoint("skillmatch-skills", i -> get("/skillmatch/skills")),
+                new Endpoint("skillmatch-projects", i -> get("/skillmatch/projects")),
+                new Endpoint("skillmatch-departments", i -> get("/skillmatch/departments")),
+                // ProjectMatchController
+                new Endpoint("projectmatch-by-emp", i -> post("/projectmatch/")
+                        .param("searchType", "empId").param("searchValue", String.valueOf(1 + i * 53 % 2000))),
+                new Endpoint("projectmatch-by-name", i -> post("/projectmatch/")
+                        .param("searchType", "projectName").param("searchValue", "项目7")),
+                new Endpoint("projectmatch-projects", i -> get("/projectmatch/projects")),
+                new Endpoint("projectmatch-employees", i -> get("/projectmatch/employees")),
+                new Endpoint("projectmatch-skills", i -> get("/projectmatch/skills")),
+                new Endpoint("projectmatch-detail", i -> get("/projectmatch/detail/" + (1 + i % 200))),
+                new Endpoint("projectmatch-project-tasks", i -> get("/projectmatch/projectWithTasks/" + (1 + i % 200))),
+                new Endpoint("projectmatch-emp-tasks", i -> post("/projectmatch/searchEmployeeWithTasks")
+                        .param("searchValue", String.valueOf(1 + i * 53 % 2000))),
+                new Endpoint("projectmatch-name-tasks", i -> post("/projectmatch/searchProjectNameWithTasks")
+                        .param("searchValue", "项目7")),
+                new Endpoint("projectmatch-tasks", i -> get("/projectmatch/tasks/" + (1 + i % 200))),
+                new Endpoint("projectmatch-tasks-pending", i -> get("/projectmatch/tasks/" + (1 + i % 200) + "/pending")),
+                new Endpoint("projectmatch-task-detail", i -> get("/projectmatch/tasks/detail/" + (1 + i % 1200))),
+                new Endpoint("projectmatch-tasks-by-manager", i -> get("/projectmatch/tasks/byManager/" + (1 + i * 53 % 2000))),
+                // TrainingController / SkillController
+                new Endpoint("training-list", i -> get("/training/list").param("page", String.valueOf(i % 5))),
+                new Endpoint("training-search", i -> get("/training/search").param("name", "培训" + (1 + i % 9))),
+                new Endpoint("training-by-skill", i -> get("/training/bySkill/" + (1 + i % 60))),
+                new Endpoint("skill-list", i -> get("/skill/list").param("page", String.valueOf(i % 6))),
+                new Endpoint("skill-search", i -> get("/skill/search").param("name", "技能" + (1 + i % 9))),
+                new Endpoint("skill-detail", i -> get("/skill/" + (1 + i % 60))),
+                // OrgGraphController（内存关系图，不访问数据库）
+                new Endpoint("graph-employee", i -> get("/graph/employees/" + (1 + i * 53 % 2000))),
+                new Endpoint("graph-department-members", i -> get("/graph/departments/" + (1 + i % 20) + "/members")),
+                new Endpoint("graph-project-members", i -> get("/graph/projects/" + (1 + i % 200) + "/members")),
+                new Endpoint("graph-project-tasks", i -> get("/graph/projects/" + (1 + i % 200) + "/tasks")),
+                new Endpoint("graph-training-members", i -> get("/graph/trainings/" + (1 + i % 50) + "/members")),
+                new Endpoint("graph-stats", i -> get("/graph/stats")),
+                // PerformanceController
+                new Endpoint("performance-points", i -> get("/performance/employees/" + (1 + i * 53 % 2000) + "/points")),
+                new Endpoint("performance-employee-trend", i -> get("/performance/employees/" + (1 + i * 53 % 2000) + "/trend")),
+                new Endpoint("performance-department-trend", i -> get("/performance/departments/" + (1 + i % 20) + "/trend")),
+                new Endpoint("performance-departments", i -> get("/performance/departments")),
+                new Endpoint("performance-ingest-stats", i -> get("/performance/ingest/stats")),
+                // HistoryController（部门取11~20，成员数在一批返回之内）
+                new Endpoint("history-as-of", i -> get("/history/employee/" + (1 + i * 53 % 2000)).param("at", HISTORY_AT)),
+                new Endpoint("history-entity-changes", i -> get("/history/employee/" + (1 + i * 53 % 2000) + "/changes")),
+                new Endpoint("history-changes", i -> get("/history/changes")
+                        .param("from", HISTORY_START.minusDays(1).toString())
+                        .param("to", HISTORY_AT).param("limit", "100")),
+                new Endpoint("history-department-members", i -> get("/history/departments/" + (11 + i % 10) + "/members")
+                        .param("at", HISTORY_AT)),
+                new Endpoint("history-stats", i -> get("/history/stats")),
+                // AdminController
+                new Endpoint("admin-slow-queries", i -> get("/admin/slow-queries")),
+                new Endpoint("admin-migrations", i -> get("/admin/migrations")),
+                new Endpoint("admin-cache-invalidation", i -> get("/admin/cache-invalidation")),
+                new Endpoint("admin-archive", i -> get("/admin/archive")),
+                new Endpoint("admin-cleanups", i -> get("/admin/cleanups")),
+                // 编辑接口（原样提交）
+                new Endpoint("employees-update", i -> resubmitEmployee()),
+                new Endpoint("departments-update", i -> resubmitDepartment())
+        );
+    }
+
+    /**
+     * 部门/技能/项目/培训关联齐全的首个员工（覆盖更新时的全部同步步骤），按当前状态提交编辑表单
+     */
+    private static MockHttpServletRequestBuilder resubmitEmployee() {
+        Employee employee = dataset.employees().stream()
+                .filter(e -> e.getDepId() != null && !e.getSkillList().isEmpty()
+                        && !e.getProjects().isEmpty() && !e.getTrainingList().isEmpty())
+                .findFirst()
+                .orElseThrow();
+        MockHttpServletRequestBuilder request = post("/employees/mod")
+                .param("id", String.valueOf(employee.get_id()))
+                .param("name", employee.getEmpName())
+                .param("department", String.valueOf(employee.getDepId()))
+                .param("skills", employee.getSkillList().stream()
+                        .map(skill -> skill.getSkillId() + ":" + skill.getProficiency())
+                        .collect(Collectors.joining(",")));
+        employee.getProjects().forEach(p -> request.param("newProjectIds", String.valueOf(p.getProjId())));
+        employee.getTrainingList().forEach(t -> request.param("newTrainingIds", String.valueOf(t.getTrainId())));
+        return request;
+    }
+
+    /**
+     * 有负责人的首个部门，按当前名称/负责人/成员提交编辑表单
+     */
+    private static MockHttpServletRequestBuilder resubmitDepartment() {
+        Department department = dataset.departments().stream()
+                .filter(d -> d.getManagerId() != null)
+                .findFirst()
+                .orElseThrow();
+        MockHttpServletRequestBuilder request = post("/departments/save")
+                .param("id", String.valueOf(department.getId()))
+                .param("depName", department.getDepName())
+                .param("managerId", String.valueOf(department.getManagerId()));
+        department.getEmpList().forEach(m -> request.param("empIds", String.valueOf(m.getEmpId())));
+        return request;
+    }
+
+    @BeforeEach
+    void seed() {
+        synchronized (EndpointPerformanceTest.class) {
+            if (!seeded) {
+                dataset = new OrgDataGenerator(DATASET).generate();
+                OrgDataGenerator.write(mongoTemplate, dataset, true);
+                // 数据在上下文启动后直接写库，读模型与组织关系图需手动重建、参考数据缓存需清空
+                cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+                employeeViewService.rebuildAll();
+                orgGraph.rebuild();
+                seedPerformance();
+                seedHistory();
+                seeded = true;
+            }
+        }
+    }
+
+    // 每名员工最近 PERFORMANCE_DAYS 天每天一个测评点，按单次写入上限分批
+    private void seedPerformance() {
+        Random random = new Random(DATASET.seed());
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusHours(10);
+        List<Performance> points = new ArrayList<>();
+        for (Employee employee : dataset.employees()) {
+            for (int day = 0; day < PERFORMANCE_DAYS; day++) {
+                Performance point = new Performance();
+                point.setEmpId(employee.get_id());
+                point.setPoint(60 + random.nextInt(41));
+                point.setTestTime(today.minusDays(day));
+                points.add(point);
+                if (points.size() == 1000) {
+                    performanceService.record(points);
+                    points = new ArrayList<>();
+                }
+            }
+        }
+        if (!points.isEmpty()) {
+            performanceService.record(points);
+        }
+    }
+
+    // 员工、部门的创建记录与快照（数据集直接写库，不经 ChangeLogWriter）
+    private void seedHistory() {
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        List<ChangeSnapshot> snapshots = new ArrayList<>();
+        dataset.employees().forEach(e -> created("Employee", e.get_id(), e, entries, snapshots));
+        dataset.departments().forEach(d -> created("Department", d.getId(), d, entries, snapshots));
+        changeLogDao.append(entries, snapshots);
+    }
+
+    private void created(String entity, Integer id, Object source, List<ChangeLogEntry> entries,
+                         List<ChangeSnapshot> snapshots) {
+        Document state = new Document();
+        mongoTemplate.getConverter().write(source, state);
+        state.remove("_class");
+        Document changes = new Document(state);
+        changes.remove("_id");
+
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setEntity(entity);
+        entry.setEntityId(id);
+        entry.setAt(HISTORY_START);
+        entry.setOp(ChangeLogEntry.CREATE);
+        entry.setChanges(changes);
+        entry.setPrevious(new Document());
+        entries.add(entry);
+
+        ChangeSnapshot snapshot = new ChangeSnapshot();
+        snapshot.setEntity(entity);
+        snapshot.setEntityId(id);
+        snapshot.setAt(HISTORY_START);
+        snapshot.setState(state);
+        snapshots.add(snapshot);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void staysWithinBudget(Endpoint endpoint) throws Exception {
+        Properties budgets = loadBudgets();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP; i++) {
+            perform(endpoint, i);
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        long[] allocations = new long[ITERATIONS];
+        int maxCommands = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            try (MongoRequestStats.Scope scope = MongoRequestStats.open()) {
+                perform(endpoint, WARMUP + i);
+                maxCommands = Math.max(maxCommands, scope.getCommands());
+            }
+            latencies[i] = System.nanoTime() - start;
+            allocations[i] = threads.getCurrentThreadAllocatedBytes() - allocBefore;
+        }
+
+        double p95Ms = percentile(latencies, 0.95) / 1_000_000.0;
+        long allocBytes = percentile(allocations, 0.50);
+        System.out.printf("[perf] %-32s p95=%.1fms commands=%d alloc=%dKB%n",
+                endpoint.name(), p95Ms, maxCommands, allocBytes / 1024);
+        record(endpoint.name(), p95Ms, maxCommands, allocBytes);
+
+        String prefix = endpoint.name() + ".";
+        String p95Budget = budgets.getProperty(prefix + "p95-ms");
+        String commandsBudget = budgets.getProperty(prefix + "max-commands");
+        String allocBudget = budgets.getProperty(prefix + "alloc-bytes");
+        assertNotNull(p95Budget, "缺少预算 " + prefix + "p95-ms");
+        assertNotNull(commandsBudget, "缺少预算 " + prefix + "max-commands");
+        assertNotNull(allocBudget, "缺少预算 " + prefix + "alloc-bytes");
+
+        assertTrue(p95Ms <= Double.parseDouble(p95Budget),
+                () -> endpoint.name() + " p95延迟 " + p95Ms + "ms 超出预算 " + p95Budget + "ms");
+        int commands = maxCommands;
+        assertTrue(commands <= Integer.parseInt(commandsBudget),
+                () -> endpoint.name() + " Mongo命令数 " + commands + " 超出预算 " + commandsBudget);
+        assertTrue(allocBytes <= Long.parseLong(allocBudget),
+                () -> endpoint.name() + " 分配字节数 " + allocBytes + " 超出预算 " + allocBudget);
+    }
+
+    private void perform(Endpoint endpoint, int iteration) throws Exception {
+        mockMvc.perform(endpoint.request().apply(iteration))
+                .andExpect(result -> assertTrue(result.getResponse().getStatus() < 400,
+                        () -> endpoint.name() + " 返回 " + result.getResponse().getStatus()));
+    }
+
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = EndpointPerformanceTest.class.getResourceAsStream("/perf-budgets.properties")) {
+            assertNotNull(in, "缺少 perf-budgets.properties");
+            budgets.load(in);
+        }
+        return budgets;
+    }
+
+    private static long percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static synchronized void record(String name, double p95Ms, int commands, long allocBytes) {
+        measured.setProperty(name + ".p95-ms", String.valueOf(Math.ceil(p95Ms * RECORD_HEADROOM)));
+        measured.setProperty(name + ".max-commands", String.valueOf(commands));
+        measured.setProperty(name + ".alloc-bytes", String.valueOf((long) (allocBytes * RECORD_HEADROOM)));
+    }
+
+    @AfterAll
+    static void writeMeasured() throws IOException {
+        if (!Boolean.getBoolean("perf.record") || measured.isEmpty()) {
+            return;
+        }
+        Path file = Path.of("target", "perf-budgets.measured.properties");
+        Files.createDirectories(file.getParent());
+        StringBuilder sb = new StringBuilder("# measured with dataset " + DATASET + System.lineSeparator());
+        new TreeMap<>(measured).forEach((key, value) ->
+                sb.append(key).append('=').append(value).append(System.lineSeparator()));
+        Files.writeString(file, sb.toString());
+    }
+}
@@ -0,0 +1,277 @@
+package com.murasame.smarthrm.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 端到端压测脚本
+ * 以开环方式（按目标速率定时发出请求，不等待前一个请求完成）驱动真实HTTP接口，
+ * 延迟从“计划发出时间”起算，避免服务变慢时压测端同步降速而低估延迟（coordinated omission）；
+ * 结束后按场景输出吞吐与 p50/p90/p99/p99.9/max 延迟，并写入JSON报告
+ *
+ * 用法（先用 OrgDataGenerator 灌入数据，ID范围需与生成配置一致）：
+ * mvn -Ploadtest test-compile exec:java@load-test -Dload.args="--rate=100 --duration=60 --employees=20000"
+ */
+public class LoadHarness {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadHarness.class);
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final int totalWeight;
+    private final Random random;
+    private final int maxOutstanding;
+
+    /**
+     * 压测场景
+     * @param name 场景名
+     * @param weight 流量权重
+     * @param request 按随机源构造请求
+     */
+    record Scenario(String name, int weight, Function<Random, HttpRequest.Builder> request) {
+    }
+
+    LoadHarness(List<Scenario> scenarios, long seed, int maxOutstanding) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.scenarios = scenarios;
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        this.random = new Random(seed);
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * 默认场景组合，覆盖员工/部门列表、技能匹配与项目匹配接口
+     */
+    static List<Scenario> defaultScenarios(String baseUrl, Map<String, String> args) {
+        int employees = Integer.parseInt(args.getOrDefault("employees", "5000"));
+        int skills = Integer.parseInt(args.getOrDefault("skills", "60"));
+        int projects = Integer.parseInt(args.getOrDefault("projects", "500"));
+        OrgDataGenerator.ZipfSampler skillSampler = new OrgDataGenerator.ZipfSampler(skills, 1.1);
+        int employeePages = Math.max(1, employees / 10);
+
+        return List.of(
+                new Scenario("employees-list", 25, r -> get(baseUrl,
+                        "/employees/?pageNum=" + (1 + r.nextInt(employeePages)))),
+                new Scenario("employees-search", 10, r -> get(baseUrl,
+                        "/employees/?empName=" + encode("员工" + (1 + r.nextInt(employees))))),
+                new Scenario("departments-list", 15, r -> get(baseUrl,
+                        "/departments/?pageNum=1")),
+                new Scenario("skillmatch", 20, r -> post(baseUrl, "/skillmatch/",
+                        "requiredSkills=" + encode(skillSampler.sample(r) + ":" + (1 + r.nextInt(5))
+                                + "," + skillSampler.sample(r) + ":" + (1 + r.nextInt(5))))),
+                new Scenario("projectmatch-emp", 10, r -> post(baseUrl, "/projectmatch/",
+                        "searchType=empId&searchValue=" + (1 + r.nextInt(employees)))),
+                new Scenario("projectmatch-emp-tasks", 10, r -> post(baseUrl, "/projectmatch/searchEmployeeWithTasks",
+                        "searchValue=" + (1 + r.nextInt(employees)))),
+                new Scenario("projectmatch-project-tasks", 10, r -> get(baseUrl,
+                        "/projectmatch/projectWithTasks/" + (1 + r.nextInt(projects))))
+        );
+    }
+
+    /**
+     * 执行压测
+     * @param ratePerSecond 目标请求速率
+     * @param warmup 预热时长（期间请求不计入统计）
+     * @param duration 统计时长
+     */
+    Map<String, ScenarioStats> run(double ratePerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+        scenarios.forEach(s -> stats.put(s.name(), new ScenarioStats()));
+        AtomicInteger outstanding = new AtomicInteger();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long sleep = intended - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            Scenario scenario = pick();
+            boolean measured = intended >= measureFrom;
+            ScenarioStats s = stats.get(scenario.name());
+            // 在途请求过多时不再发出（保持开环），计为过载
+            if (outstanding.get() >= maxOutstanding) {
+                if (measured) {
+                    s.overload.incrementAndGet();
+                }
+                continue;
+            }
+
+            long intendedStart = intended;
+            HttpRequest request = scenario.request().apply(random).timeout(Duration.ofSeconds(30)).build();
+            outstanding.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        outstanding.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        s.record(System.nanoTime() - intendedStart, response == null ? -1 : response.statusCode());
+                    });
+        }
+
+        // 等待在途请求完成
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        stats.values().forEach(st -> st.finish(duration));
+        return stats;
+    }
+
+    private Scenario pick() {
+        int r = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            r -= scenario.weight();
+            if (r < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static HttpRequest.Builder get(String baseUrl, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private static HttpRequest.Builder post(String baseUrl, String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 单场景统计：延迟样本、状态码分布、吞吐与百分位
+     */
+    static final class ScenarioStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong overload = new AtomicLong();
+
+        private double throughput;
+        private final Map<String, Double> percentilesMs = new LinkedHashMap<>();
+
+        synchronized void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 200 && status < 400) {
+                ok.incrementAndGet();
+            } else if (status == 429) {
+                rejected.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized void finish(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            throughput = count / (duration.toNanos() / 1e9);
+            percentilesMs.put("p50", percentile(sorted, 0.50));
+            percentilesMs.put("p90", percentile(sorted, 0.90));
+            percentilesMs.put("p99", percentile(sorted, 0.99));
+            percentilesMs.put("p99.9", percentile(sorted, 0.999));
+            percentilesMs.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public long getOk() {
+            return ok.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getOverload() {
+            return overload.get();
+        }
+
+        public synchronized double getThroughput() {
+            return throughput;
+        }
+
+        public synchronized Map<String, Double> getLatencyMs() {
+            return percentilesMs;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Map<String, String> parsed = OrgDataGenerator.parseArgs(args);
+        String baseUrl = parsed.getOrDefault("base-url", "http://localhost:8080");
+        double rate = Double.parseDouble(parsed.getOrDefault("rate", "50"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(parsed.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(parsed.getOrDefault("duration", "60")));
+        int maxOutstanding = Integer.parseInt(parsed.getOrDefault("max-outstanding", "512"));
+        long seed = Long.parseLong(parsed.getOrDefault("seed", "42"));
+        String out = parsed.getOrDefault("out", "target/load-report.json");
+
+        LoadHarness harness = new LoadHarness(defaultScenarios(baseUrl, parsed), seed, maxOutstanding);
+        log.info("开始压测 {}：速率 {}/s，预热 {}s，统计 {}s", baseUrl, rate, warmup.toSeconds(), duration.toSeconds());
+        Map<String, ScenarioStats> stats = harness.run(rate, warmup, duration);
+
+        System.out.printf("%-28s %8s %9s %9s %9s %9s %9s %6s %6s %6s%n",
+                "scenario", "count", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "429", "err", "drop");
+        stats.forEach((name, s) -> System.out.printf("%-28s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %6d %6d %6d%n",
+                name, s.getCount(), s.getThroughput(), s.getLatencyMs().get("p50"), s.getLatencyMs().get("p90"),
+                s.getLatencyMs().get("p99"), s.getLatencyMs().get("max"), s.getRejected(), s.getErrors(), s.getOverload()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("targetRate", rate);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("scenarios", stats);
+        File file = new File(out);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.info("报告已写入 {}", file.getAbsolutePath());
+    }
+}
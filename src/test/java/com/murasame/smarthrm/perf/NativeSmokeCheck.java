@@ -0,0 +1,248 @@
+package com.murasame.smarthrm.perf;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 原生镜像冒烟检查
+ * 向本地MongoDB的独立库写入一份小规模合成数据，启动原生可执行文件，依次请求主要页面与JSON接口：
+ * - 页面：状态200、text/html，且为完整渲染的模板（验证模板资源与Thymeleaf反射）；
+ * - JSON接口：状态200、application/json，读接口返回非空数组/对象（验证实体映射与Jackson绑定）；
+ * - 写接口：@RequestBody 反序列化实体并落库
+ * 同时输出首个请求返回耗时与进程RSS；任一检查失败时以非0退出码结束
+ *
+ * 用法：
+ * mvn -Pnative native:compile
+ * mvn -Pnative test-compile exec:java@native-smoke -Dnative.smoke.args="--uri=mongodb://localhost:27017/smartHRM-native-smoke"
+ */
+public class NativeSmokeCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeSmokeCheck.class);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final String baseUrl;
+    private final List<String> failures = new ArrayList<>();
+
+    NativeSmokeCheck(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * 待检查的请求
+     * @param name 名称
+     * @param request 请求
+     * @param json true期望JSON，false期望HTML页面
+     * @param nonEmpty JSON是否必须非空（读接口）
+     */
+    record Check(String name, HttpRequest request, boolean json, boolean nonEmpty) {
+    }
+
+    List<Check> checks() {
+        return List.of(
+                page("employees-list", "/employees/?pageNum=1"),
+                page("employees-add-form", "/employees/add"),
+                page("employees-mod-form", "/employees/mod?id=1"),
+                page("departments-list", "/departments/"),
+                page("departments-mod-form", "/departments/mod?id=1"),
+                page("skillmatch-page", "/skillmatch/"),
+                page("projectmatch-page", "/projectmatch/"),
+                page("training-page", "/training/"),
+                json("skillmatch-skills", get("/skillmatch/skills"), true),
+                json("skillmatch-departments", get("/skillmatch/departments"), true),
+                json("skillmatch", form("/skillmatch/", "requiredSkills=1:1"), false),
+                json("projectmatch-projects", get("/projectmatch/projects"), true),
+                json("projectmatch-employees", get("/projectmatch/employees"), true),
+                json("projectmatch-detail", get("/projectmatch/detail/1"), true),
+                json("projectmatch-by-name", form("/projectmatch/",
+                        "searchType=projectName&searchValue=" + URLEncoder.encode("项目", StandardCharsets.UTF_8)), true),
+                json("projectmatch-tasks", get("/projectmatch/tasks/1"), false),
+                json("training-list", get("/training/list?page=0"), true),
+                json("skill-list", get("/skill/list?page=0"), true),
+                json("admin-slow-queries", get("/admin/slow-queries"), false),
+                json("projectmatch-create", body("/projectmatch/create",
+                        "{\"projName\":\"native-smoke\",\"projStatus\":0,"
+                                + "\"members\":[{\"empId\":1}],\"reqSkill\":[{\"skillId\":1}]}"), true)
+        );
+    }
+
+    /**
+     * 执行全部检查，返回失败项
+     */
+    List<String> run() throws InterruptedException {
+        for (Check check : checks()) {
+            try {
+                HttpResponse<String> response = client.send(check.request(), HttpResponse.BodyHandlers.ofString());
+                String error = verify(check, response);
+                if (error == null) {
+                    log.info("通过 {}", check.name());
+                } else {
+                    failures.add(check.name() + ": " + error);
+                    log.error("失败 {}：{}", check.name(), error);
+                }
+            } catch (IOException e) {
+                failures.add(check.name() + ": " + e);
+                log.error("失败 {}", check.name(), e);
+            }
+        }
+        return failures;
+    }
+
+    private static String verify(Check check, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return "HTTP " + response.statusCode();
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        String body = response.body().trim();
+        if (check.json()) {
+            if (!contentType.startsWith("application/json")) {
+                return "Content-Type " + contentType;
+            }
+            if (check.nonEmpty() && (body.equals("[]") || body.equals("{}") || body.isEmpty())) {
+                return "空响应";
+            }
+            return null;
+        }
+        if (!contentType.startsWith("text/html")) {
+            return "Content-Type " + contentType;
+        }
+        // 模板未打进镜像时会落到错误页/空白
+        return body.contains("</html>") ? null : "页面未完整渲染";
+    }
+
+    private Check page(String name, String path) {
+        return new Check(name, get(path), false, false);
+    }
+
+    private Check json(String name, HttpRequest request, boolean nonEmpty) {
+        return new Check(name, request, true, nonEmpty);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest form(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private HttpRequest body(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * 轮询直到服务返回任意HTTP响应
+     * @return 进程创建到首个响应的毫秒数
+     */
+    private long awaitFirstResponse(Process process, long startNanos, Duration timeout)
+            throws InterruptedException {
+        HttpRequest request = get("/actuator/health");
+        long deadline = startNanos + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("原生进程已退出，退出码 " + process.exitValue());
+            }
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                return (System.nanoTime() - startNanos) / 1_000_000;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+        throw new IllegalStateException("原生进程在 " + timeout.toSeconds() + "s 内未响应");
+    }
+
+    /**
+     * 读取进程常驻内存（仅Linux，其他平台返回-1）
+     */
+    private static long rssKb(long pid) {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // 非Linux
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> parsed = OrgDataGenerator.parseArgs(args);
+        File binary = new File(parsed.getOrDefault("binary", "target/smartHRM"));
+        String uri = parsed.getOrDefault("uri", "mongodb://localhost:27017/smartHRM-native-smoke");
+        int port = Integer.parseInt(parsed.getOrDefault("port", "18081"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(parsed.getOrDefault("timeout", "30")));
+        if (!binary.canExecute()) {
+            throw new IllegalStateException(binary + " 不存在或不可执行，请先执行 mvn -Pnative native:compile");
+        }
+
+        // 1. 小规模合成数据（每次重建，保证检查的ID存在）
+        OrgDataGenerator.Config config = new OrgDataGenerator.Config(200, 5, 20, 3, 10, 20, 1.1, 42L);
+        try (MongoClient mongo = MongoClients.create(uri)) {
+            OrgDataGenerator.write(new MongoTemplate(mongo, new ConnectionString(uri).getDatabase()),
+                    new OrgDataGenerator(config).generate(), true);
+        }
+
+        // 2. 启动原生可执行文件
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(binary.getPath(),
+                "--server.port=" + port,
+                "--spring.data.mongodb.uri=" + uri)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(binary.getParentFile(), "native-smoke.log"))
+                .start();
+        List<String> failures;
+        try {
+            NativeSmokeCheck check = new NativeSmokeCheck("http://localhost:" + port);
+            long firstResponseMs = check.awaitFirstResponse(process, start, timeout);
+            long startupRssKb = rssKb(process.pid());
+            failures = check.run();
+            long rssKb = rssKb(process.pid());
+            System.out.printf("首个请求返回 %dms，启动后RSS %dKB，检查后RSS %dKB，通过 %d/%d%n",
+                    firstResponseMs, startupRssKb, rssKb,
+                    check.checks().size() - failures.size(), check.checks().size());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+        if (!failures.isEmpty()) {
+            log.error("原生镜像冒烟检查失败（进程输出见 native-smoke.log）：{}", failures);
+            System.exit(1);
+        }
+    }
+}
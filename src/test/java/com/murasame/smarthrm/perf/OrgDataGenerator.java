@@ -0,0 +1,333 @@
+package com.murasame.smarthrm.perf;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.murasame.smarthrm.entity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 合成组织数据生成器
+ * 按配置生成 技能/部门/员工/项目/任务/培训，字段结构与线上文档一致，双向关联保持一致：
+ * - Department.empList / managerId ↔ Employee.depId；
+ * - Project.members ↔ Employee.projects，Task.managerId 取自项目成员；
+ * - Training.members ↔ Employee.trainingList；
+ * 技能按Zipf分布抽样（少数热门技能被大量员工/项目引用），部门规模同样偏斜；固定种子下结果可复现
+ *
+ * 用法：mvn -Ploadtest test-compile exec:java@generate-data -Dgenerator.args="--employees=20000 --drop=true"
+ */
+public class OrgDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrgDataGenerator.class);
+
+    private static final String[] SKILL_KINDS = {"后端", "前端", "数据", "运维", "测试", "设计"};
+    // 固定基准时间，保证同一种子生成的数据完全一致
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int INSERT_BATCH = 1000;
+
+    /**
+     * 生成配置
+     * @param employees 员工数
+     * @param departments 部门数
+     * @param projects 项目数
+     * @param tasksPerProject 每个项目的任务数
+     * @param trainings 培训数
+     * @param skills 技能数
+     * @param skillSkew 技能Zipf分布指数（越大越集中于热门技能）
+     * @param seed 随机种子
+     */
+    public record Config(int employees, int departments, int projects, int tasksPerProject,
+                         int trainings, int skills, double skillSkew, long seed) {
+
+        public static Config defaults() {
+            return new Config(5000, 40, 500, 6, 100, 60, 1.1, 42L);
+        }
+
+        public Config withEmployees(int employees) {
+            return new Config(employees, departments, projects, tasksPerProject, trainings, skills, skillSkew, seed);
+        }
+
+        static Config fromArgs(Map<String, String> args) {
+            Config d = defaults();
+            return new Config(
+                    intArg(args, "employees", d.employees),
+                    intArg(args, "departments", d.departments),
+                    intArg(args, "projects", d.projects),
+                    intArg(args, "tasks-per-project", d.tasksPerProject),
+                    intArg(args, "trainings", d.trainings),
+                    intArg(args, "skills", d.skills),
+                    Double.parseDouble(args.getOrDefault("skill-skew", String.valueOf(d.skillSkew))),
+                    Long.parseLong(args.getOrDefault("seed", String.valueOf(d.seed))));
+        }
+    }
+
+    /**
+     * 生成结果
+     */
+    public record OrgDataset(List<Skill> skills, List<Department> departments, List<Employee> employees,
+                             List<Project> projects, List<Task> tasks, List<Training> trainings) {
+    }
+
+    private final Config config;
+    private final Random random;
+    private final ZipfSampler skillSampler;
+    private final ZipfSampler departmentSampler;
+
+    public OrgDataGenerator(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+        this.skillSampler = new ZipfSampler(config.skills(), config.skillSkew());
+        // 部门规模偏斜较缓
+        this.departmentSampler = new ZipfSampler(config.departments(), 0.7);
+    }
+
+    /**
+     * 在内存中生成完整数据集（不访问数据库）
+     */
+    public OrgDataset generate() {
+        List<Skill> skills = generateSkills();
+        List<Employee> employees = generateEmployees();
+        List<Department> departments = generateDepartments(employees);
+        List<Project> projects = generateProjects(employees);
+        List<Task> tasks = generateTasks(projects);
+        List<Training> trainings = generateTrainings(employees);
+        return new OrgDataset(skills, departments, employees, projects, tasks, trainings);
+    }
+
+    /**
+     * 写入数据库（按批插入）
+     * 直接写库绕过了员工读模型的增量维护：清空时一并删除EmployeeView，由应用启动时全量重建
+     * （应用已在运行时需调用 EmployeeViewService.rebuildAll）
+     * @param drop 写入前是否清空相关集合
+     */
+    public static void write(MongoTemplate mongoTemplate, OrgDataset data, boolean drop) {
+        if (drop) {
+            for (Class<?> type : List.of(Skill.class, Department.class, Employee.class,
+                    Project.class, Task.class, Training.class, EmployeeView.class)) {
+                mongoTemplate.dropCollection(type);
+            }
+        }
+        insert(mongoTemplate, data.skills(), Skill.class);
+        insert(mongoTemplate, data.departments(), Department.class);
+        insert(mongoTemplate, data.employees(), Employee.class);
+        insert(mongoTemplate, data.projects(), Project.class);
+        insert(mongoTemplate, data.tasks(), Task.class);
+        insert(mongoTemplate, data.trainings(), Training.class);
+    }
+
+    private static <T> void insert(MongoTemplate mongoTemplate, List<T> docs, Class<T> type) {
+        for (int from = 0; from < docs.size(); from += INSERT_BATCH) {
+            mongoTemplate.insert(docs.subList(from, Math.min(from + INSERT_BATCH, docs.size())), type);
+        }
+        log.info("{} 写入 {} 条", type.getSimpleName(), docs.size());
+    }
+
+    private List<Skill> generateSkills() {
+        List<Skill> skills = new ArrayList<>(config.skills());
+        for (int id = 1; id <= config.skills(); id++) {
+            Skill skill = new Skill();
+            skill.set_id(id);
+            skill.setSkillKind(SKILL_KINDS[(id - 1) % SKILL_KINDS.length]);
+            skill.setSkillName(skill.getSkillKind() + "技能" + id);
+            skills.add(skill);
+        }
+        return skills;
+    }
+
+    private List<Employee> generateEmployees() {
+        List<Employee> employees = new ArrayList<>(config.employees());
+        for (int id = 1; id <= config.employees(); id++) {
+            Employee emp = new Employee();
+            emp.set_id(id);
+            emp.setEmpName("员工" + id);
+            // 约2%员工未分配部门
+            emp.setDepId(config.departments() == 0 || random.nextInt(50) == 0 ? null : departmentSampler.sample(random));
+            emp.setJoinDate(BASE_TIME.minusDays(random.nextInt(3650)));
+
+            // 技能数 1~8，偏向较少；熟练度集中在2~4
+            int skillCount = Math.min(config.skills(), 1 + (int) Math.floor(-Math.log(1 - random.nextDouble()) * 2.5) % 8);
+            List<Employee.SkillLevel> skillList = new ArrayList<>();
+            for (Integer skillId : sampleDistinct(skillSampler, skillCount)) {
+                int proficiency = Math.min(5, Math.max(1, 3 + (int) Math.round(random.nextGaussian())));
+                skillList.add(new Employee.SkillLevel(skillId, proficiency));
+            }
+            emp.setSkillList(skillList);
+            emp.setProjects(new ArrayList<>());
+            emp.setTrainingList(new ArrayList<>());
+            employees.add(emp);
+        }
+        return employees;
+    }
+
+    private List<Department> generateDepartments(List<Employee> employees) {
+        Map<Integer, List<Department.Member>> members = new HashMap<>();
+        for (Employee emp : employees) {
+            if (emp.getDepId() != null) {
+                members.computeIfAbsent(emp.getDepId(), k -> new ArrayList<>()).add(new Department.Member(emp.get_id()));
+            }
+        }
+        List<Department> departments = new ArrayList<>(config.departments());
+        for (int id = 1; id <= config.departments(); id++) {
+            Department dept = new Department();
+            dept.setId(id);
+            dept.setDepName("部门" + id);
+            List<Department.Member> empList = members.getOrDefault(id, new ArrayList<>());
+            dept.setEmpList(empList);
+            // 负责人取本部门员工
+            dept.setManagerId(empList.isEmpty() ? null : empList.get(random.nextInt(empList.size())).getEmpId());
+            departments.add(dept);
+        }
+        return departments;
+    }
+
+    private List<Project> generateProjects(List<Employee> employees) {
+        List<Project> projects = new ArrayList<>(config.projects());
+        for (int id = 1; id <= config.projects(); id++) {
+            Project project = new Project();
+            project.setId(id);
+            project.setProjName("项目" + id);
+            project.setProjStatus(random.nextInt(5) == 0 ? 1 : 0);
+            project.setStartDate(BASE_TIME.minusDays(random.nextInt(1000)));
+
+            List<Project.ReqSkill> reqSkills = new ArrayList<>();
+            for (Integer skillId : sampleDistinct(skillSampler, Math.min(config.skills(), 1 + random.nextInt(4)))) {
+                Project.ReqSkill req = new Project.ReqSkill();
+                req.setSkillId(skillId);
+                reqSkills.add(req);
+            }
+            project.setReqSkill(reqSkills);
+
+            List<Project.Member> members = new ArrayList<>();
+            for (Employee emp : sampleEmployees(employees, 3 + random.nextInt(10))) {
+                Project.Member member = new Project.Member();
+                member.setEmpId(emp.get_id());
+                members.add(member);
+                emp.getProjects().add(new Employee.ProjectRef(id));
+            }
+            project.setMembers(members);
+            projects.add(project);
+        }
+        return projects;
+    }
+
+    private List<Task> generateTasks(List<Project> projects) {
+        List<Task> tasks = new ArrayList<>(projects.size() * config.tasksPerProject());
+        int taskId = 1;
+        for (Project project : projects) {
+            for (int i = 0; i < config.tasksPerProject(); i++) {
+                Task task = new Task();
+                task.set_id(taskId++);
+                task.setProjId(project.getId());
+                task.setTaskName(project.getProjName() + "-任务" + (i + 1));
+                // 任务负责人取自项目成员
+                List<Project.Member> members = project.getMembers();
+                task.setManagerId(members.isEmpty() ? null : members.get(random.nextInt(members.size())).getEmpId());
+                task.setTaskStatus(random.nextInt(3) == 0 ? 1 : 0);
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private List<Training> generateTrainings(List<Employee> employees) {
+        List<Training> trainings = new ArrayList<>(config.trainings());
+        for (int id = 1; id <= config.trainings(); id++) {
+            Training training = new Training();
+            training.set_id(id);
+            training.setSkillId(config.skills() == 0 ? null : skillSampler.sample(random));
+            training.setTrainName("培训" + id);
+            List<Integer> members = new ArrayList<>();
+            for (Employee emp : sampleEmployees(employees, 5 + random.nextInt(26))) {
+                members.add(emp.get_id());
+                emp.getTrainingList().add(new Employee.TrainingRef(id));
+            }
+            training.setMembers(members);
+            trainings.add(training);
+        }
+        return trainings;
+    }
+
+    private Set<Integer> sampleDistinct(ZipfSampler sampler, int count) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        // 热门值可能被重复抽中，限制尝试次数
+        for (int attempt = 0; ids.size() < count && attempt < count * 20; attempt++) {
+            ids.add(sampler.sample(random));
+        }
+        return ids;
+    }
+
+    private List<Employee> sampleEmployees(List<Employee> employees, int count) {
+        if (employees.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> indexes = new LinkedHashSet<>();
+        int target = Math.min(count, employees.size());
+        while (indexes.size() < target) {
+            indexes.add(random.nextInt(employees.size()));
+        }
+        List<Employee> sampled = new ArrayList<>(target);
+        for (Integer index : indexes) {
+            sampled.add(employees.get(index));
+        }
+        return sampled;
+    }
+
+    /**
+     * Zipf分布抽样：取值 1..n，P(k) ∝ 1/k^s
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double s) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1.0 / Math.pow(k, s);
+                cumulative[k - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+    }
+
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> parsed = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                parsed.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return parsed;
+    }
+
+    private static int intArg(Map<String, String> args, String name, int defaultValue) {
+        return Integer.parseInt(args.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> parsed = parseArgs(args);
+        Config config = Config.fromArgs(parsed);
+        String uri = parsed.getOrDefault("uri", "mongodb://localhost:27017/smartHRM");
+        boolean drop = Boolean.parseBoolean(parsed.getOrDefault("drop", "false"));
+
+        long start = System.nanoTime();
+        OrgDataset data = new OrgDataGenerator(config).generate();
+        log.info("生成完成：{}", config);
+        try (MongoClient client = MongoClients.create(uri)) {
+            write(new MongoTemplate(client, new ConnectionString(uri).getDatabase()), data, drop);
+        }
+        log.info("写入 {} 完成，耗时 {}ms", uri, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,246 @@
+package com.murasame.smarthrm.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 冷启动基准
+ * 以子进程方式反复启动应用，从进程创建起轮询目标接口，记录首个请求返回的时间（time-to-first-request），
+ * 同时解析Spring日志中的 "Started ... in X seconds"；按启动方式对比：
+ * - baseline：普通JVM启动；
+ * - aot：-Dspring.aot.enabled=true，使用构建期生成的Bean定义；
+ * - cds：-XX:SharedArchiveFile，使用训练运行生成的AppCDS归档；
+ * - aot-cds：两者同时启用（生产推荐）
+ *
+ * 用法（先构建解压后的jar与CDS归档，需可访问的MongoDB）：
+ * mvn -Pcds package
+ * mvn -Pcds test-compile exec:java@startup-benchmark -Dstartup.args="--runs=5 --variants=baseline,aot-cds"
+ */
+public class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final File jar;
+    private final File archive;
+    private final int port;
+    private final String path;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+
+    StartupBenchmark(File jar, File archive, int port, String path, Duration timeout) {
+        this.jar = jar;
+        this.archive = archive;
+        this.port = port;
+        this.path = path;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 各启动方式对应的JVM参数
+     */
+    List<String> jvmArgs(String variant) {
+        return switch (variant) {
+            case "baseline" -> List.of();
+            case "aot" -> List.of("-Dspring.aot.enabled=true");
+            case "cds" -> List.of("-XX:SharedArchiveFile=" + archive.getPath());
+            case "aot-cds" -> List.of("-XX:SharedArchiveFile=" + archive.getPath(), "-Dspring.aot.enabled=true");
+            default -> throw new IllegalArgumentException("未知的启动方式: " + variant);
+        };
+    }
+
+    /**
+     * 启动一次应用并测量首个请求的返回时间，测量结束后终止进程
+     */
+    StartupSample measure(String variant) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs(variant));
+        command.add("-jar");
+        command.add(jar.getPath());
+        command.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        StartedLineReader reader = new StartedLineReader(process);
+        reader.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant + " 启动失败，退出码 " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    double firstRequestMs = (System.nanoTime() - start) / 1_000_000.0;
+                    return new StartupSample(firstRequestMs, reader.startedSeconds(), response.statusCode());
+                } catch (IOException e) {
+                    // 端口尚未监听，继续轮询
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            }
+            throw new IllegalStateException(variant + " 在 " + timeout.toSeconds() + "s 内未响应");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * 单次启动的测量结果
+     * @param firstRequestMs 进程创建到首个请求返回的毫秒数
+     * @param startedSeconds Spring日志中报告的启动耗时（未解析到时为-1）
+     * @param status 首个请求的HTTP状态码
+     */
+    record StartupSample(double firstRequestMs, double startedSeconds, int status) {
+    }
+
+    /**
+     * 消费子进程输出（避免管道写满阻塞），并提取 "Started ... in X seconds"
+     */
+    private static final class StartedLineReader extends Thread {
+        private final Process process;
+        private volatile double startedSeconds = -1;
+
+        StartedLineReader(Process process) {
+            this.process = process;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Matcher m = STARTED.matcher(line);
+                    if (m.find()) {
+                        startedSeconds = Double.parseDouble(m.group(1));
+                    }
+                }
+            } catch (IOException ignored) {
+                // 进程被终止
+            }
+        }
+
+        double startedSeconds() throws InterruptedException {
+            // 首个请求可能先于日志行被读取，稍作等待
+            for (int i = 0; i < 50 && startedSeconds < 0; i++) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            return startedSeconds;
+        }
+    }
+
+    static Map<String, Object> summarize(List<StartupSample> samples) {
+        double[] firstRequest = samples.stream().mapToDouble(StartupSample::firstRequestMs).sorted().toArray();
+        double[] started = samples.stream().mapToDouble(StartupSample::startedSeconds).filter(s -> s >= 0)
+                .sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("runs", samples.size());
+        summary.put("firstRequestMedianMs", median(firstRequest));
+        summary.put("firstRequestMinMs", firstRequest.length == 0 ? 0 : firstRequest[0]);
+        summary.put("firstRequestMaxMs", firstRequest.length == 0 ? 0 : firstRequest[firstRequest.length - 1]);
+        summary.put("startedMedianSeconds", median(started));
+        summary.put("samples", samples);
+        return summary;
+    }
+
+    private static double median(double[] sorted) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    /**
+     * 在CDS解压目录中查找应用jar（目录下唯一的jar，依赖位于lib/）
+     */
+    private static File findJar(File dir) {
+        File[] jars = dir.listFiles((d, name) -> name.endsWith(".jar"));
+        if (jars == null || jars.length != 1) {
+            throw new IllegalStateException(dir + " 下未找到唯一的应用jar，请先执行 mvn -Pcds package");
+        }
+        return jars[0];
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> parsed = OrgDataGenerator.parseArgs(args);
+        File dir = new File(parsed.getOrDefault("dir", "target/cds"));
+        File jar = parsed.containsKey("jar") ? new File(parsed.get("jar")) : findJar(dir);
+        File archive = new File(parsed.getOrDefault("archive", new File(dir, "application.jsa").getPath()));
+        int port = Integer.parseInt(parsed.getOrDefault("port", "18080"));
+        String path = parsed.getOrDefault("path", "/employees/?pageNum=1");
+        Duration timeout = Duration.ofSeconds(Long.parseLong(parsed.getOrDefault("timeout", "120")));
+        int runs = Integer.parseInt(parsed.getOrDefault("runs", "5"));
+        List<String> variants = List.of(parsed.getOrDefault("variants", "baseline,aot,cds,aot-cds").split(","));
+        String out = parsed.getOrDefault("out", "target/startup-report.json");
+
+        StartupBenchmark benchmark = new StartupBenchmark(jar, archive, port, path, timeout);
+        // 丢弃一次启动：预热操作系统文件缓存，避免第一种方式吃亏
+        benchmark.measure(variants.get(0));
+
+        Map<String, List<StartupSample>> samples = new LinkedHashMap<>();
+        variants.forEach(v -> samples.put(v, new ArrayList<>()));
+        // 各方式交替运行，减少机器负载漂移对对比的影响
+        for (int i = 0; i < runs; i++) {
+            for (String variant : variants) {
+                StartupSample sample = benchmark.measure(variant);
+                samples.get(variant).add(sample);
+                log.info("{} 第{}次：首个请求 {}ms（HTTP {}），Spring启动 {}s",
+                        variant, i + 1, String.format("%.0f", sample.firstRequestMs()), sample.status(),
+                        sample.startedSeconds());
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jar", jar.getPath());
+        report.put("path", path);
+        System.out.printf("%-12s %6s %14s %10s %10s %12s%n",
+                "variant", "runs", "median(ms)", "min(ms)", "max(ms)", "started(s)");
+        Map<String, Object> variantReports = new LinkedHashMap<>();
+        samples.forEach((variant, list) -> {
+            Map<String, Object> summary = summarize(list);
+            variantReports.put(variant, summary);
+            System.out.printf("%-12s %6d %14.0f %10.0f %10.0f %12.2f%n", variant, list.size(),
+                    (double) summary.get("firstRequestMedianMs"), (double) summary.get("firstRequestMinMs"),
+                    (double) summary.get("firstRequestMaxMs"), (double) summary.get("startedMedianSeconds"));
+        });
+        report.put("variants", variantReports);
+        File file = new File(out);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.info("报告已写入 {}", file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,193 @@
+package com.murasame.smarthrm.service.impl;
+
+import com.murasame.smarthrm.config.HistoryProperties;
+import com.murasame.smarthrm.dao.ChangeLogDao;
+import com.murasame.smarthrm.dao.EmployeeDao;
+import com.murasame.smarthrm.entity.ChangeLogEntry;
+import com.murasame.smarthrm.entity.ChangeSnapshot;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * HistoryServiceImpl.asOf 单元测试：快照之前（逆序回滚）、两个快照之间（正向重放）、跨越创建/删除记录
+ * 员工1的历史：T1 创建（A，部门1）→ T2 改名B → T3 调到部门2（附快照）→ T5 改名C（附快照）；
+ * 删除用例中员工在 T4 被物理删除
+ */
+class HistoryServiceImplTest {
+
+    private static final String EMPLOYEE = "Employee";
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime T1 = T0.plusDays(1);
+    private static final LocalDateTime T2 = T0.plusDays(2);
+    private static final LocalDateTime T3 = T0.plusDays(3);
+    private static final LocalDateTime T4 = T0.plusDays(4);
+    private static final LocalDateTime T5 = T0.plusDays(5);
+
+    private final ChangeLogEntry created = entry(T1, ChangeLogEntry.CREATE, Map.of("empName", "A", "depId", 1), Map.of());
+    private final ChangeLogEntry renamed = entry(T2, ChangeLogEntry.UPDATE, Map.of("empName", "B"), Map.of("empName", "A"));
+    private final ChangeLogEntry moved = entry(T3, ChangeLogEntry.UPDATE, Map.of("depId", 2), Map.of("depId", 1));
+    private final ChangeLogEntry renamedAgain = entry(T5, ChangeLogEntry.UPDATE, Map.of("empName", "C"), Map.of("empName", "B"));
+    private final ChangeSnapshot atT3 = snapshot(T3, state("B", 2));
+    private final ChangeSnapshot atT5 = snapshot(T5, state("C", 2));
+
+    private ChangeLogDao changeLogDao;
+    private EmployeeDao employeeDao;
+    private MongoTemplate mongoTemplate;
+    private HistoryServiceImpl historyService;
+
+    @BeforeEach
+    void setUp() {
+        changeLogDao = mock(ChangeLogDao.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        employeeDao = mock(EmployeeDao.class);
+        historyService = new HistoryServiceImpl(changeLogDao, employeeDao, mongoTemplate, new HistoryProperties());
+    }
+
+    @Test
+    void beforeFirstSnapshotRollsBackFromNextSnapshot() {
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T2)).thenReturn(null);
+        when(changeLogDao.findSnapshotAfter(EMPLOYEE, 1, T2)).thenReturn(atT3);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T2, T3)).thenReturn(List.of(moved));
+
+        Map<String, Object> state = historyService.asOf(EMPLOYEE, 1, T2);
+
+        assertEquals(state("B", 1), state);
+        // 快照本身不被修改
+        assertEquals(state("B", 2), atT3.getState());
+    }
+
+    @Test
+    void betweenSnapshotsReplaysForwardFromEarlierSnapshot() {
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T4)).thenReturn(atT3);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T3, T4)).thenReturn(List.of());
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T5)).thenReturn(atT5);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T5, T5)).thenReturn(List.of());
+
+        assertEquals(state("B", 2), historyService.asOf(EMPLOYEE, 1, T4));
+        assertEquals(state("C", 2), historyService.asOf("employee", 1, T5));
+    }
+
+    @Test
+    void replaysEntriesAfterSnapshotUpToTimePoint() {
+        ChangeSnapshot atT1 = snapshot(T1, state("A", 1));
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T2)).thenReturn(atT1);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T1, T2)).thenReturn(List.of(renamed));
+
+        assertEquals(state("B", 1), historyService.asOf(EMPLOYEE, 1, T2));
+        assertEquals(state("A", 1), atT1.getState());
+    }
+
+    @Test
+    void beforeCreateEntryReturnsNull() {
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T0)).thenReturn(null);
+        when(changeLogDao.findSnapshotAfter(EMPLOYEE, 1, T0)).thenReturn(atT3);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T0, T3)).thenReturn(List.of(created, renamed, moved));
+
+        assertNull(historyService.asOf(EMPLOYEE, 1, T0));
+    }
+
+    @Test
+    void withoutLaterSnapshotRollsBackFromCurrentDocument() {
+        Document current = new Document("_id", 1).append("empName", "C").append("depId", 2).append("_class", "Employee");
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T1)).thenReturn(null);
+        when(changeLogDao.findSnapshotAfter(EMPLOYEE, 1, T1)).thenReturn(null);
+        when(mongoTemplate.findById(eq(1), eq(Document.class), eq(EMPLOYEE))).thenReturn(current);
+        when(changeLogDao.findEntries(eq(EMPLOYEE), eq(1), eq(T1), any()))
+                .thenReturn(List.of(renamed, moved, renamedAgain));
+
+        // T1 当时刚创建：回滚 T2 之后的全部变更，不越过创建记录
+        assertEquals(state("A", 1), historyService.asOf(EMPLOYEE, 1, T1));
+    }
+
+    @Test
+    void afterDeleteEntryReturnsNull() {
+        ChangeLogEntry deleted = entry(T4, ChangeLogEntry.DELETE, Map.of(), Map.of("empName", "B", "depId", 2));
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T5)).thenReturn(atT3);
+        when(changeLogDao.findEntries(EMPLOYEE, 1, T3, T5)).thenReturn(List.of(deleted));
+
+        assertNull(historyService.asOf(EMPLOYEE, 1, T5));
+    }
+
+    @Test
+    void deletedEntityRollsBackAcrossDeleteEntry() {
+        // 已物理删除：没有快照、当前文档不存在，回滚删除记录后恢复删除前的文档
+        ChangeLogEntry deleted = entry(T4, ChangeLogEntry.DELETE, Map.of(), Map.of("empName", "B", "depId", 2));
+        when(changeLogDao.findSnapshotAtOrBefore(EMPLOYEE, 1, T2)).thenReturn(null);
+        when(changeLogDao.findSnapshotAfter(EMPLOYEE, 1, T2)).thenReturn(null);
+        when(mongoTemplate.findById(eq(1), eq(Document.class), eq(EMPLOYEE))).thenReturn(null);
+        when(changeLogDao.findEntries(eq(EMPLOYEE), eq(1), eq(T2), any())).thenReturn(List.of(moved, deleted));
+
+        assertEquals(state("B", 1), historyService.asOf(EMPLOYEE, 1, T2));
+    }
+
+    @Test
+    void departmentMembersAsOfQueriesAllCandidatesTogether() {
+        // 员工1：T3快照之后重放；员工2：当前在部门2、T4才从部门1调入，T4之前没有快照
+        Map<String, Object> second = new LinkedHashMap<>(Map.of("_id", 2, "empName", "D", "depId", 2));
+        ChangeLogEntry secondMoved = entry(T4, ChangeLogEntry.UPDATE, Map.of("depId", 2), Map.of("depId", 1));
+        secondMoved.setEntityId(2);
+        when(employeeDao.findIdsByDepIdIncludingDeleted(2)).thenReturn(List.of(1, 2));
+        when(changeLogDao.findEmployeeIdsEverInDepartment(2)).thenReturn(Set.of(1));
+        when(changeLogDao.findSnapshotsAtOrBefore(EMPLOYEE, Set.of(1, 2), T4)).thenReturn(Map.of(1, atT3));
+        when(changeLogDao.findEntries(EMPLOYEE, Set.of(1), T3, T4)).thenReturn(Map.of());
+        when(changeLogDao.findSnapshotsAfter(EMPLOYEE, Set.of(2), T4)).thenReturn(Map.of());
+        when(changeLogDao.findEntries(EMPLOYEE, Set.of(2), T4, null)).thenReturn(Map.of());
+        when(mongoTemplate.find(any(), eq(Document.class), eq(EMPLOYEE))).thenReturn(List.of(new Document(second)));
+
+        // T4时员工2的调入已生效（时间点之后没有变更，取当前文档），两人都在部门2
+        assertEquals(List.of(state("B", 2), second), historyService.departmentMembersAsOf(2, T4));
+        // T3时员工2仍在部门1
+        when(changeLogDao.findSnapshotsAtOrBefore(EMPLOYEE, Set.of(1, 2), T3)).thenReturn(Map.of(1, atT3));
+        when(changeLogDao.findEntries(EMPLOYEE, Set.of(1), T3, T3)).thenReturn(Map.of());
+        when(changeLogDao.findSnapshotsAfter(EMPLOYEE, Set.of(2), T3)).thenReturn(Map.of());
+        when(changeLogDao.findEntries(EMPLOYEE, Set.of(2), T3, null)).thenReturn(Map.of(2, List.of(secondMoved)));
+        assertEquals(List.of(state("B", 2)), historyService.departmentMembersAsOf(2, T3));
+        verify(changeLogDao, never()).findSnapshotAtOrBefore(any(), any(), any());
+    }
+
+    private static Map<String, Object> state(String empName, int depId) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("_id", 1);
+        state.put("empName", empName);
+        state.put("depId", depId);
+        return state;
+    }
+
+    private static ChangeLogEntry entry(LocalDateTime at, String op, Map<String, Object> changes,
+                                        Map<String, Object> previous) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setEntity(EMPLOYEE);
+        entry.setEntityId(1);
+        entry.setAt(at);
+        entry.setOp(op);
+        entry.setChanges(changes);
+        entry.setPrevious(previous);
+        return entry;
+    }
+
+    private static ChangeSnapshot snapshot(LocalDateTime at, Map<String, Object> state) {
+        ChangeSnapshot snapshot = new ChangeSnapshot();
+        snapshot.setEntity(EMPLOYEE);
+        snapshot.setEntityId(1);
+        snapshot.setAt(at);
+        snapshot.setState(state);
+        return snapshot;
+    }
+}